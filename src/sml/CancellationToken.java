@@ -0,0 +1,48 @@
+package sml;
+
+/**
+ * This class lets one thread ask a machine running on another thread to stop.
+ *
+ * <p>
+ * A token is passed to the machine in its {@link ExecutionLimits}. The
+ * machine checks it at every backward jump, so a cancelled program stops
+ * within one iteration of its current loop.
+ *
+ * @author Arthur Gousset
+ */
+public final class CancellationToken {
+	private volatile boolean cancelled;
+	/**
+	 * The token whose cancellation also cancels this one, or null.
+	 */
+	private final CancellationToken parent;
+
+	public CancellationToken() {
+		this(null);
+	}
+
+	private CancellationToken(CancellationToken parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Creates a token that is cancelled either directly or when this token is,
+	 * e.g. for a child machine that must stop with its parent.
+	 *
+	 * @return the new token
+	 */
+	CancellationToken child() {
+		return new CancellationToken(this);
+	}
+
+	/**
+	 * Asks every machine holding this token to stop.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled || (parent != null && parent.isCancelled());
+	}
+}
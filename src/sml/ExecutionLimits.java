@@ -0,0 +1,74 @@
+package sml;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * This class represents the limits within which a machine executes a program:
+ * a maximum number of instructions, a wall-clock deadline and a cancellation
+ * token. Any of them may be absent.
+ *
+ * <p>
+ * Instances are immutable; every {@code with} method returns a copy with one
+ * more limit set, e.g.
+ * {@code ExecutionLimits.NONE.withMaxSteps(1_000_000).withTimeout(Duration.ofSeconds(1))}.
+ *
+ * @param maxSteps     the maximum number of instructions executed, or
+ *                     {@link Long#MAX_VALUE} for no limit
+ * @param deadline     the time by which execution stops, or null for no
+ *                     deadline
+ * @param cancellation the token cancelling the execution, or null
+ *
+ * @author Arthur Gousset
+ */
+public record ExecutionLimits(long maxSteps, Instant deadline, CancellationToken cancellation) {
+	/**
+	 * No limit at all: the program runs until it halts.
+	 */
+	public static final ExecutionLimits NONE = new ExecutionLimits(Long.MAX_VALUE, null, null);
+
+	public ExecutionLimits {
+		if (maxSteps < 0)
+			throw new IllegalArgumentException("The maximum number of steps cannot be negative.");
+	}
+
+	public ExecutionLimits withMaxSteps(long maxSteps) {
+		return new ExecutionLimits(maxSteps, deadline, cancellation);
+	}
+
+	public ExecutionLimits withDeadline(Instant deadline) {
+		return new ExecutionLimits(maxSteps, deadline, cancellation);
+	}
+
+	/**
+	 * Returns a copy of these limits with a deadline {@code timeout} from now.
+	 *
+	 * @param timeout the time the program is allowed to run for
+	 * @return the new limits
+	 */
+	public ExecutionLimits withTimeout(Duration timeout) {
+		return withDeadline(Instant.now().plus(timeout));
+	}
+
+	public ExecutionLimits withCancellation(CancellationToken cancellation) {
+		return new ExecutionLimits(maxSteps, deadline, cancellation);
+	}
+
+	/**
+	 * Converts the deadline to a value comparable with {@link System#nanoTime()},
+	 * which is cheaper to read than the wall clock.
+	 *
+	 * @return the deadline in the time base of {@code System.nanoTime()}
+	 */
+	long deadlineNanos() {
+		long now = System.nanoTime();
+		long remaining;
+		try {
+			remaining = Duration.between(Instant.now(), deadline).toNanos();
+		} catch (ArithmeticException e) {
+			// Centuries away
+			remaining = Long.MAX_VALUE / 2;
+		}
+		return now + Math.max(remaining, 0);
+	}
+}
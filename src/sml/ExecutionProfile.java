@@ -0,0 +1,214 @@
+package sml;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.zip.CRC32;
+
+/**
+ * This class records how often every instruction of a program is executed
+ * and how often every jump instruction is taken.
+ *
+ * <p>
+ * A profile is attached to a machine with {@link Machine#setProfile} and
+ * accumulates counts over every execution of the machine. It can be saved to
+ * a file and loaded back by a later run of the same program, so that program
+ * transformations can concentrate on the code that is actually hot, e.g.
+ * {@link sml.optimiser.BlockLayout} lays out its hot path first. Every
+ * profile carries a fingerprint of the program it was recorded for, and a
+ * profile recorded for a different program is never loaded.
+ *
+ * <p>
+ * The number of times a basic block is executed is the number of times its
+ * first instruction is executed.
+ *
+ * @author Arthur Gousset
+ */
+public final class ExecutionProfile {
+	/**
+	 * The magic number at the start of every profile file ("SMLP").
+	 */
+	private static final int MAGIC = 0x534D4C50;
+	private static final int VERSION = 1;
+
+	/**
+	 * Fingerprint of the program this profile was recorded for.
+	 */
+	private final long fingerprint;
+	/**
+	 * Number of times the instruction at every address has been executed.
+	 */
+	private final long[] executions;
+	/**
+	 * Number of times the instruction at every address changed the program
+	 * counter, i.e. the number of taken jumps.
+	 */
+	private final long[] taken;
+
+	/**
+	 * Constructor: an empty profile for the program of a machine.
+	 *
+	 * @param machine the machine holding the program
+	 */
+	public ExecutionProfile(Machine machine) {
+		this(fingerprint(machine), machine.getProgram().size());
+	}
+
+	private ExecutionProfile(long fingerprint, int size) {
+		this.fingerprint = fingerprint;
+		this.executions = new long[size];
+		this.taken = new long[size];
+	}
+
+	/**
+	 * Records the execution of an instruction.
+	 *
+	 * @param address the address of the instruction
+	 * @param jumped  whether the instruction changed the program counter
+	 */
+	void record(int address, boolean jumped) {
+		executions[address]++;
+		if (jumped)
+			taken[address]++;
+	}
+
+	public long getExecutions(int address) {
+		return executions[address];
+	}
+
+	public long getTaken(int address) {
+		return taken[address];
+	}
+
+	public long getNotTaken(int address) {
+		return executions[address] - taken[address];
+	}
+
+	/**
+	 * Tells whether this profile was recorded for the program of a machine.
+	 *
+	 * @param machine the machine holding the program
+	 * @return {@code true} if the program is the one this profile describes
+	 */
+	public boolean isFor(Machine machine) {
+		return fingerprint(machine) == fingerprint && machine.getProgram().size() == executions.length;
+	}
+
+	/**
+	 * Returns a predicate telling whether the instruction at an address has been
+	 * executed at least a given number of times, e.g. to only optimise the
+	 * basic blocks starting at a hot address.
+	 *
+	 * @param executions the minimum number of executions
+	 * @return a predicate over addresses
+	 */
+	public IntPredicate hotterThan(long executions) {
+		return address -> address < this.executions.length && this.executions[address] >= executions;
+	}
+
+	/**
+	 * Adds the counts of another profile of the same program to this one.
+	 *
+	 * @param other a profile of the same program
+	 * @throws IllegalArgumentException if the profiles are for different
+	 *                                  programs
+	 */
+	public void merge(ExecutionProfile other) {
+		if (other.fingerprint != fingerprint || other.executions.length != executions.length)
+			throw new IllegalArgumentException("Profiles were recorded for different programs.");
+		for (int address = 0; address < executions.length; address++) {
+			executions[address] += other.executions[address];
+			taken[address] += other.taken[address];
+		}
+	}
+
+	/**
+	 * Writes this profile to a file. Only the addresses that have been executed
+	 * are written.
+	 *
+	 * @param file the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(Path file) throws IOException {
+		try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(fingerprint);
+			out.writeInt(executions.length);
+			out.writeInt((int) Arrays.stream(executions).filter(count -> count != 0).count());
+			for (int address = 0; address < executions.length; address++) {
+				if (executions[address] != 0) {
+					out.writeInt(address);
+					out.writeLong(executions[address]);
+					out.writeLong(taken[address]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the profile of the program of a machine from a file.
+	 *
+	 * <p>
+	 * An empty profile is returned if the file does not exist or was recorded
+	 * for another program, so a stale profile never misleads an optimisation.
+	 *
+	 * @param file    the file to read
+	 * @param machine the machine holding the program
+	 * @return the profile read, or an empty profile
+	 * @throws IOException if the file exists but is not a profile
+	 */
+	public static ExecutionProfile load(Path file, Machine machine) throws IOException {
+		ExecutionProfile profile = new ExecutionProfile(machine);
+		if (!Files.exists(file))
+			return profile;
+		try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				throw new IOException(file + " is not an SML execution profile.");
+			if (in.readLong() != profile.fingerprint || in.readInt() != profile.executions.length)
+				return profile;
+			int entries = in.readInt();
+			for (int i = 0; i < entries; i++) {
+				int address = in.readInt();
+				profile.executions[address] = in.readLong();
+				profile.taken[address] = in.readLong();
+			}
+		}
+		return profile;
+	}
+
+	/**
+	 * Computes the fingerprint of the program of a machine from its text.
+	 */
+	private static long fingerprint(Machine machine) {
+		CRC32 crc = new CRC32();
+		crc.update(machine.toString().getBytes(StandardCharsets.UTF_8));
+		return crc.getValue();
+	}
+
+	/**
+	 * Returns a formatted String representation of this object, listing the
+	 * executed addresses in the form "[address: executions/taken, ...]".
+	 *
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int address = 0; address < executions.length; address++) {
+			if (executions[address] != 0) {
+				if (sb.length() > 1)
+					sb.append(", ");
+				sb.append(address).append(": ").append(executions[address]).append('/').append(taken[address]);
+			}
+		}
+		return sb.append(']').toString();
+	}
+}
@@ -0,0 +1,44 @@
+package sml;
+
+/**
+ * This class represents how the execution of a program within
+ * {@link ExecutionLimits} ended.
+ *
+ * <p>
+ * When the program did not halt, the registers of the machine hold the
+ * partial result and the program counter is the address of the next
+ * instruction that would have been executed.
+ *
+ * @param reason         why the execution stopped
+ * @param steps          the number of instructions executed
+ * @param programCounter the program counter when the execution stopped
+ *
+ * @author Arthur Gousset
+ */
+public record ExecutionResult(StopReason reason, long steps, int programCounter) {
+	/**
+	 * The reasons an execution stops.
+	 */
+	public enum StopReason {
+		/**
+		 * The program counter moved past the last instruction.
+		 */
+		HALTED,
+		/**
+		 * The maximum number of instructions was executed.
+		 */
+		STEP_LIMIT,
+		/**
+		 * The deadline passed.
+		 */
+		DEADLINE,
+		/**
+		 * The cancellation token was cancelled.
+		 */
+		CANCELLED
+	}
+
+	public boolean halted() {
+		return reason == StopReason.HALTED;
+	}
+}
@@ -0,0 +1,36 @@
+package sml;
+
+/**
+ * Reports that a program was stopped by one of its {@link ExecutionLimits}
+ * before it halted, e.g. in the result of a job run in a batch.
+ *
+ * @author Arthur Gousset
+ */
+public class ExecutionStoppedException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * How the execution ended; not serialised, since the message describes it.
+	 */
+	private final transient ExecutionResult result;
+
+	/**
+	 * Constructor: the program stopped for a reason other than halting.
+	 *
+	 * @param result how the execution ended
+	 */
+	public ExecutionStoppedException(ExecutionResult result) {
+		super("Execution stopped (" + result.reason() + ") after " + result.steps()
+				+ " instructions, at address " + result.programCounter() + ".");
+		this.result = result;
+	}
+
+	/**
+	 * Returns how the execution ended.
+	 *
+	 * @return the result, or null if this exception has been deserialised
+	 */
+	public ExecutionResult getResult() {
+		return result;
+	}
+}
@@ -0,0 +1,49 @@
+package sml;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * This interface represents the origin of the values read by {@code in}
+ * instructions (see {@link Machine#setInput}).
+ *
+ * <p>
+ * Values are returned as {@code long}s, so that every {@code int} can be read
+ * and the end of the input can be told apart from any value without boxing.
+ *
+ * <p>
+ * The implementations in {@code sml.input} read a memory-mapped binary file or
+ * a text stream. Sources are not thread-safe.
+ *
+ * @author Arthur Gousset
+ */
+@FunctionalInterface
+public interface InputSource extends Closeable {
+	/**
+	 * The value returned by {@link #next()} once every value has been read.
+	 */
+	long END = Long.MIN_VALUE;
+
+	/**
+	 * A source without any value.
+	 */
+	InputSource EMPTY = () -> END;
+
+	/**
+	 * Reads the next value.
+	 *
+	 * @return the value, or {@link #END} if every value has been read
+	 * @throws UncheckedIOException if the input cannot be read
+	 */
+	long next();
+
+	/**
+	 * Releases the origin of the values, if this source owns one.
+	 *
+	 * @throws IOException if the origin cannot be closed
+	 */
+	@Override
+	default void close() throws IOException {
+	}
+}
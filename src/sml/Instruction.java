@@ -46,6 +46,19 @@ public abstract class Instruction {
 	 */
 	public abstract int execute(Machine machine);
 
+	/**
+	 * Returns an instruction with the same opcode and operands as this one
+	 * but with the given label.
+	 * 
+	 * <p>
+	 * Instructions are immutable, so program transformations use this method
+	 * to move, drop or strip labels without touching the operands.
+	 *
+	 * @param label optional label (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	public abstract Instruction withLabel(String label);
+
 	/**
 	 * Returns a formatted String representation of the given object.
 	 * 
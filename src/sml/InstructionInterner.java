@@ -0,0 +1,129 @@
+package sml;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class shares a single instance of every distinct instruction between
+ * all the programs it translates.
+ *
+ * <p>
+ * Instructions are immutable and their {@code equals} and {@code hashCode}
+ * methods only depend on the opcode and operands, so structurally identical
+ * instructions can be replaced by one shared instance. The label of an
+ * instruction is the only part that differs between otherwise identical
+ * instructions; shared instances are therefore unlabelled and the label is
+ * kept in the {@link Labels} of the machine, which is all that execution
+ * needs.
+ *
+ * <p>
+ * The interner also keeps statistics to report how much memory it saves.
+ *
+ * @author Arthur Gousset
+ */
+public final class InstructionInterner {
+	/**
+	 * Size of an object header with compressed class pointers, in bytes.
+	 */
+	private static final int OBJECT_HEADER = 12;
+	/**
+	 * Size of a reference with compressed oops, in bytes.
+	 */
+	private static final int REFERENCE = 4;
+
+	private final Map<Instruction, Instruction> instances = new HashMap<>();
+	private final Map<Class<?>, Integer> sizes = new HashMap<>();
+	private long interned;
+	private long bytesSaved;
+
+	/**
+	 * Returns the shared, unlabelled, instance of an instruction.
+	 *
+	 * @param instruction the instruction, which may be labelled
+	 * @return an unlabelled instruction equal to {@code instruction}
+	 */
+	public Instruction intern(Instruction instruction) {
+		interned++;
+		Instruction shared = instances.get(instruction);
+		if (shared != null) {
+			bytesSaved += shallowSize(instruction.getClass());
+			return shared;
+		}
+		shared = (instruction.getLabel() == null) ? instruction : instruction.withLabel(null);
+		instances.put(shared, shared);
+		return shared;
+	}
+
+	/**
+	 * Returns the number of instructions passed to {@link #intern}.
+	 *
+	 * @return the number of interned instructions
+	 */
+	public long getInterned() {
+		return interned;
+	}
+
+	/**
+	 * Returns the number of distinct instances shared by the interned
+	 * instructions.
+	 *
+	 * @return the number of distinct instructions
+	 */
+	public int getDistinct() {
+		return instances.size();
+	}
+
+	/**
+	 * Returns an estimate of the heap memory saved by sharing instances, based
+	 * on the shallow size of the instructions that did not need an instance of
+	 * their own.
+	 *
+	 * @return the estimated number of bytes saved
+	 */
+	public long getBytesSaved() {
+		return bytesSaved;
+	}
+
+	/**
+	 * Estimates the shallow size of an instance of a class, assuming a 64-bit
+	 * JVM with compressed oops and 8-byte object alignment.
+	 */
+	private int shallowSize(Class<?> type) {
+		return sizes.computeIfAbsent(type, t -> {
+			int size = OBJECT_HEADER;
+			for (Class<?> c = t; c != null; c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers()))
+						size += fieldSize(field.getType());
+				}
+			}
+			return (size + 7) & ~7;
+		});
+	}
+
+	private static int fieldSize(Class<?> type) {
+		if (type == long.class || type == double.class)
+			return 8;
+		if (type == int.class || type == float.class)
+			return 4;
+		if (type == short.class || type == char.class)
+			return 2;
+		if (type == byte.class || type == boolean.class)
+			return 1;
+		return REFERENCE;
+	}
+
+	/**
+	 * Returns a report of the sharing, e.g. "Interned 1000 instructions into 10
+	 * distinct instances, saving about 23760 bytes."
+	 *
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return "Interned " + interned + " instructions into " + instances.size()
+				+ " distinct instances, saving about " + bytesSaved + " bytes.";
+	}
+}
@@ -17,6 +17,11 @@ import java.util.stream.Collectors;
  */
 public final class Labels {
 	private final Map<String, Integer> labels = new HashMap<>();
+	/**
+	 * Maps every labelled address back to its label, so that the label of an
+	 * instruction can be found without storing it in the instruction.
+	 */
+	private final Map<Integer, String> addresses = new HashMap<>();
 
 	/**
 	 * Adds a label with the associated address to the map.
@@ -32,6 +37,7 @@ public final class Labels {
 					" already exist in this program. No duplicate labels allowed.");
 		}
 		labels.put(label, address);
+		addresses.putIfAbsent(address, label);
 	}
 
 	/**
@@ -59,6 +65,16 @@ public final class Labels {
 		return labels.get(label);
 	}
 
+	/**
+	 * Returns the label associated with an address.
+	 *
+	 * @param address the address
+	 * @return the label referring to the address, or null if there is none
+	 */
+	public String getLabel(int address) {
+		return addresses.get(address);
+	}
+
 	/**
 	 * A representation of this instance,
 	 * in the form "[label -> address, label -> address, ..., label -> address]"
@@ -117,5 +133,6 @@ public final class Labels {
 	 */
 	public void reset() {
 		labels.clear();
+		addresses.clear();
 	}
 }
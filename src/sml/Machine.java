@@ -1,10 +1,25 @@
 package sml;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import sml.channel.IntChannel;
+import sml.map.IntIntHashMap;
+import sml.output.IntBufferOutputSink;
 
 import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
 
@@ -28,16 +43,47 @@ import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
  * @author Arthur Gousset
  */
 public final class Machine {
+	/**
+	 * Number of backward jumps between two readings of the clock when a deadline
+	 * is set.
+	 */
+	private static final int DEADLINE_POLL_INTERVAL = 64;
+	/**
+	 * Longest time, in milliseconds, an instruction waiting for another thread,
+	 * such as {@code join}, {@code send} or {@code recv}, waits between two
+	 * checks of the deadline and cancellation token of the machine.
+	 */
+	private static final long WAIT_POLL_MILLIS = 10;
+	/**
+	 * The maximum number of nested calls, beyond which a program is assumed to
+	 * recurse forever.
+	 */
+	public static final int MAX_CALL_DEPTH = 1 << 20;
+	/**
+	 * Prints every value on its own line of the console, without buffering.
+	 */
+	private static final OutputSink CONSOLE = new OutputSink() {
+		@Override
+		public void accept(int value) {
+			System.out.println(value);
+		}
+
+		@Override
+		public void accept(BigInteger value) {
+			System.out.println(value);
+		}
+	};
+
 	/**
 	 * This fields represents the set of labels that can be used to jump across
 	 * instructions
 	 * in the program.
 	 */
-	private final Labels labels = new Labels();
+	private final Labels labels;
 	/**
 	 * This field represents the instructions that can be executed by the machine.
 	 */
-	private final List<Instruction> program = new ArrayList<>();
+	private final List<Instruction> program;
 	/**
 	 * This field represents the logical memory of the machine.
 	 */
@@ -47,6 +93,93 @@ public final class Machine {
 	 * of the next instruction to be executed.
 	 */
 	private int programCounter = 0;
+	/**
+	 * The optional profile recording the instructions executed by the machine.
+	 */
+	private ExecutionProfile profile;
+	/**
+	 * The optional detector proving that the program does not terminate.
+	 */
+	private NonTerminationDetector nonTerminationDetector;
+	/**
+	 * Receives the values written by {@code out} instructions; prints them to
+	 * the console, one line at a time, by default.
+	 */
+	private OutputSink output = CONSOLE;
+	/**
+	 * The machines started by {@code fork} instructions since the program was
+	 * started and not joined yet, by handle. Null until the first fork.
+	 */
+	private Map<Integer, Child> children;
+	/**
+	 * The number of {@code fork} instructions executed since the program was
+	 * started, which is also the handle of the latest child.
+	 */
+	private int forks;
+	/**
+	 * The limits of the current execution, inherited by the children it forks;
+	 * no limit when the program is executed without limits or in slices.
+	 */
+	private ExecutionLimits limits = ExecutionLimits.NONE;
+	/**
+	 * The deadline of {@code limits}, in the time base of
+	 * {@code System.nanoTime()}.
+	 */
+	private long deadlineNanos;
+	/**
+	 * Why the current execution must stop before its next instruction, as found
+	 * by an instruction that gave up waiting for another thread (see
+	 * {@link #waitTimeout()}), or null.
+	 */
+	private ExecutionResult.StopReason stopReason;
+	/**
+	 * The channels used by {@code send} and {@code recv} instructions, by name.
+	 */
+	private Map<String, IntChannel> channels = Map.of();
+	/**
+	 * The linear memory read by {@code load} and written by {@code store}
+	 * instructions.
+	 */
+	private Memory memory = Memory.EMPTY;
+	/**
+	 * Provides the values read by {@code in} instructions; empty by default.
+	 */
+	private InputSource input = InputSource.EMPTY;
+	/**
+	 * The hash tables used by {@code mput}, {@code mget}, {@code minc} and
+	 * {@code mhas} instructions, by name, created on first use.
+	 */
+	private final Map<String, IntIntHashMap> tables = new HashMap<>();
+	/**
+	 * Creates the hash tables of the machine.
+	 */
+	private Supplier<IntIntHashMap> tableFactory = IntIntHashMap::new;
+	/**
+	 * The return addresses pushed by {@code call} instructions, innermost call
+	 * last; only the first {@code returnDepth} entries are in use.
+	 */
+	private int[] returnStack = new int[16];
+	private int returnDepth;
+
+	/**
+	 * A machine started by a {@code fork} instruction, running on its own virtual
+	 * thread, with the values it writes held back until it is joined.
+	 */
+	private static final class Child {
+		private final Machine machine;
+		private final IntBufferOutputSink output = new IntBufferOutputSink();
+		/**
+		 * Stops the child when the parent stops, or when the token of the parent
+		 * is cancelled.
+		 */
+		private final CancellationToken cancellation;
+		private CompletableFuture<ExecutionResult> done;
+
+		private Child(Machine machine, CancellationToken cancellation) {
+			this.machine = machine;
+			this.cancellation = cancellation;
+		}
+	}
 
 	/**
 	 * Constructor: Instantiates a machine object with a specific state.
@@ -55,6 +188,16 @@ public final class Machine {
 	 *                  instantiate the machine
 	 */
 	public Machine(Registers registers) {
+		this(new Labels(), new ArrayList<>(), registers);
+	}
+
+	/**
+	 * Constructor: a machine sharing the program and labels of another one, used
+	 * for the children started by {@code fork} instructions.
+	 */
+	private Machine(Labels labels, List<Instruction> program, Registers registers) {
+		this.labels = labels;
+		this.program = program;
 		this.registers = registers;
 	}
 
@@ -64,25 +207,497 @@ public final class Machine {
 	 * Precondition: the program and its labels have been stored properly.
 	 */
 	public void execute() {
-		programCounter = 0;
+		start();
+		try {
+			run();
+		} finally {
+			output.flush();
+		}
+	}
+
+	/**
+	 * Executes the instructions stored in {@code program}, beginning at instruction
+	 * 0, with the registers initialised to the values held by
+	 * {@code initialRegisters} instead of 0.
+	 * Precondition: the program and its labels have been stored properly.
+	 *
+	 * @param initialRegisters the register values the program starts with
+	 */
+	public void execute(Registers initialRegisters) {
+		start(initialRegisters);
+		try {
+			run();
+		} finally {
+			output.flush();
+		}
+	}
+
+	/**
+	 * Executes the instructions stored in {@code program}, beginning at instruction
+	 * 0, until the program halts or one of the {@code limits} is reached.
+	 * Precondition: the program and its labels have been stored properly.
+	 *
+	 * @param limits the limits within which the program runs
+	 * @return why the execution stopped, with the number of instructions executed
+	 */
+	public ExecutionResult execute(ExecutionLimits limits) {
+		start();
+		try {
+			return run(limits);
+		} finally {
+			output.flush();
+		}
+	}
+
+	/**
+	 * Executes the instructions stored in {@code program}, beginning at instruction
+	 * 0 with the registers initialised to the values held by
+	 * {@code initialRegisters}, until the program halts or one of the
+	 * {@code limits} is reached.
+	 * Precondition: the program and its labels have been stored properly.
+	 *
+	 * @param initialRegisters the register values the program starts with
+	 * @param limits           the limits within which the program runs
+	 * @return why the execution stopped, with the number of instructions executed
+	 */
+	public ExecutionResult execute(Registers initialRegisters, ExecutionLimits limits) {
+		start(initialRegisters);
+		try {
+			return run(limits);
+		} finally {
+			output.flush();
+		}
+	}
+
+	/**
+	 * Prepares the machine to execute its program from instruction 0 with every
+	 * register set to 0, without executing any instruction. The program is then
+	 * executed, possibly in several slices, by {@link #resume(long)}.
+	 */
+	public void start() {
 		registers.clear();
-		while (programCounter < program.size()) {
+		restart();
+	}
+
+	/**
+	 * Prepares the machine to execute its program from instruction 0 with the
+	 * registers initialised to the values held by {@code initialRegisters},
+	 * without executing any instruction.
+	 *
+	 * @param initialRegisters the register values the program starts with
+	 */
+	public void start(Registers initialRegisters) {
+		registers.copyFrom(initialRegisters);
+		restart();
+	}
+
+	private void restart() {
+		programCounter = 0;
+		stopReason = null;
+		returnDepth = 0;
+		cancelChildren();
+		children = null;
+		forks = 0;
+		tables.values().forEach(IntIntHashMap::close);
+		tables.clear();
+		if (nonTerminationDetector != null)
+			nonTerminationDetector.reset();
+	}
+
+	/**
+	 * Continues executing the program from the current program counter, for at
+	 * most {@code fuel} instructions.
+	 *
+	 * @param fuel the maximum number of instructions to execute
+	 * @return {@code true} if the program has terminated
+	 * @throws NonTerminationException if the program is proved not to terminate
+	 */
+	public boolean resume(long fuel) {
+		// A wait given up in the previous slice is tried again
+		stopReason = null;
+		try {
+			for (; fuel > 0 && programCounter < program.size() && stopReason == null; fuel--)
+				step();
+		} finally {
+			output.flush();
+		}
+		return isHalted();
+	}
+
+	/**
+	 * Tells whether the program has terminated, i.e. whether the program counter
+	 * has moved past the last instruction.
+	 *
+	 * @return {@code true} if there is no instruction left to execute
+	 */
+	public boolean isHalted() {
+		return programCounter >= program.size();
+	}
+
+	public int getProgramCounter() {
+		return this.programCounter;
+	}
+
+	/**
+	 * Records the address a {@code ret} instruction returns to.
+	 *
+	 * @param address the address of the instruction following the call
+	 * @throws IllegalStateException if more than {@code MAX_CALL_DEPTH} calls
+	 *                               are pending
+	 */
+	public void pushReturnAddress(int address) {
+		if (returnDepth == returnStack.length) {
+			if (returnDepth == MAX_CALL_DEPTH)
+				throw new IllegalStateException("Call stack overflow: more than " + MAX_CALL_DEPTH
+						+ " nested calls.");
+			returnStack = Arrays.copyOf(returnStack, Math.min(2 * returnDepth, MAX_CALL_DEPTH));
+		}
+		returnStack[returnDepth++] = address;
+	}
+
+	/**
+	 * Removes the return address of the innermost pending call.
+	 *
+	 * @return the address to continue at, or the address just past the last
+	 *         instruction if no call is pending, so that the program halts
+	 */
+	public int popReturnAddress() {
+		return (returnDepth == 0) ? program.size() : returnStack[--returnDepth];
+	}
+
+	/**
+	 * Returns the number of calls that have not returned yet.
+	 *
+	 * @return the depth of the return stack
+	 */
+	public int getCallDepth() {
+		return returnDepth;
+	}
+
+	/**
+	 * Starts a child machine executing the same program from {@code address},
+	 * with a copy of the registers of this machine, on a new virtual thread.
+	 *
+	 * <p>
+	 * The values the child writes with {@code out} instructions are held back
+	 * and written to the output of this machine when the child is joined, so
+	 * the output of a program does not depend on how its children are
+	 * scheduled. A child runs within the limits of the current execution of this
+	 * machine, and is cancelled when this machine stops before halting or is
+	 * started again; children that are never joined are abandoned, together
+	 * with their output. Children have no input, since input sources are not
+	 * thread-safe; they can be handed values through channels or memory
+	 * instead. For the same reason, children start with hash tables of their
+	 * own. Children start with no pending call, so a {@code ret} that is not
+	 * matched by a {@code call} of the child halts the child.
+	 *
+	 * @param address the address of the first instruction the child executes
+	 * @return the handle of the child, to pass to {@link #join(int)}
+	 */
+	public int fork(int address) {
+		CancellationToken cancellation = (limits.cancellation() == null)
+				? new CancellationToken()
+				: limits.cancellation().child();
+		ExecutionLimits childLimits = limits.withCancellation(cancellation);
+		Child child = new Child(new Machine(labels, program, new Registers()), cancellation);
+		child.machine.registers.setWide(registers.isWide());
+		child.machine.registers.copyFrom(registers);
+		child.machine.programCounter = address;
+		child.machine.output = child.output;
+		child.machine.channels = channels;
+		child.machine.memory = memory;
+		child.machine.tableFactory = tableFactory;
+		child.done = CompletableFuture.supplyAsync(() -> child.machine.run(childLimits),
+				Thread::startVirtualThread);
+		if (children == null)
+			children = new HashMap<>();
+		children.put(++forks, child);
+		return forks;
+	}
+
+	/**
+	 * Waits for a child machine started by {@link #fork(int)} to halt. A child
+	 * can only be joined once.
+	 *
+	 * <p>
+	 * The wait is cut into slices given by {@link #waitTimeout()}, and gives up
+	 * once the deadline has passed, the token is cancelled or the thread is
+	 * interrupted.
+	 *
+	 * <p>
+	 * The child may have changed the memory or channels of this machine, which
+	 * are not part of the state sampled by non-termination detection, so
+	 * non-termination detection starts over from here.
+	 *
+	 * @param handle the handle returned by {@code fork}
+	 * @return the child machine, whose registers hold its final values, or null
+	 *         if this machine must stop before the child halts, in which case
+	 *         the caller must jump to itself
+	 * @throws IllegalArgumentException  if no child has this handle
+	 * @throws ExecutionStoppedException if the step limit stopped the child
+	 * @throws RuntimeException          the exception that stopped the child
+	 */
+	public Machine join(int handle) {
+		Child child = (children == null) ? null : children.get(handle);
+		if (child == null)
+			throw new IllegalArgumentException("No child machine has the handle " + handle + ".");
+		if (nonTerminationDetector != null)
+			nonTerminationDetector.reset();
+		ExecutionResult result;
+		try {
+			result = await(child.done);
+		} catch (CompletionException e) {
+			children.remove(handle);
+			if (e.getCause() instanceof RuntimeException cause)
+				throw cause;
+			throw e;
+		}
+		if (result == null)
+			return null;
+		// A child stopped by the deadline or token it shares with this machine
+		// stops this machine as well.
+		if (result.reason() == ExecutionResult.StopReason.DEADLINE
+				|| result.reason() == ExecutionResult.StopReason.CANCELLED) {
+			stopReason = result.reason();
+			return null;
+		}
+		children.remove(handle);
+		child.output.writeTo(output);
+		if (!result.halted())
+			throw new ExecutionStoppedException(result);
+		return child.machine;
+	}
+
+	/**
+	 * Waits for a child to finish, within the limits of the current execution.
+	 *
+	 * @return how the child stopped, or null if this machine must stop first
+	 */
+	private ExecutionResult await(CompletableFuture<ExecutionResult> done) {
+		while (true) {
+			long timeout = waitTimeout();
+			if (timeout < 0)
+				return null;
+			try {
+				return done.get(timeout, TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				// Checks the limits again
+			} catch (ExecutionException e) {
+				throw new CompletionException(e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Returns how long an instruction waiting for another thread, e.g. for a
+	 * channel, may wait before calling this method again, so that the wait
+	 * stays within the limits of the current execution.
+	 *
+	 * <p>
+	 * Once the deadline has passed, the cancellation token is cancelled or the
+	 * thread is interrupted, the instruction must give up and jump to itself:
+	 * the machine then stops at that instruction with the corresponding
+	 * {@link ExecutionResult.StopReason}, without executing any other
+	 * instruction.
+	 *
+	 * @return the longest time to wait, in nanoseconds, or {@code -1} if the
+	 *         instruction must give up
+	 */
+	public long waitTimeout() {
+		CancellationToken cancellation = limits.cancellation();
+		if (Thread.currentThread().isInterrupted() || (cancellation != null && cancellation.isCancelled())) {
+			stopReason = ExecutionResult.StopReason.CANCELLED;
+			return -1;
+		}
+		if (limits.deadline() == null)
+			return (cancellation == null) ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(WAIT_POLL_MILLIS);
+		long remaining = deadlineNanos - System.nanoTime();
+		if (remaining <= 0) {
+			stopReason = ExecutionResult.StopReason.DEADLINE;
+			return -1;
+		}
+		return Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(WAIT_POLL_MILLIS));
+	}
+
+	/**
+	 * Cancels the children that have not been joined, e.g. when the machine stops
+	 * before halting.
+	 */
+	private void cancelChildren() {
+		if (children != null)
+			children.values().forEach(child -> child.cancellation.cancel());
+	}
+
+	/**
+	 * Runs the fetch-decode-execute cycle from the current program counter until
+	 * it moves past the last instruction.
+	 *
+	 * @return the number of instructions executed
+	 */
+	private long run() {
+		try {
+			return loop();
+		} finally {
+			if (!isHalted())
+				cancelChildren();
+		}
+	}
+
+	private long loop() {
+		long steps = 0;
+		if (profile != null || nonTerminationDetector != null) {
+			for (; programCounter < program.size() && stopReason == null; steps++)
+				step();
+			return steps;
+		}
+		for (; programCounter < program.size(); steps++) {
 			Instruction ins = program.get(programCounter);
 			int programCounterUpdate = ins.execute(this);
-			programCounter = (programCounterUpdate == NORMAL_PROGRAM_COUNTER_UPDATE)
-					? programCounter + 1
-					: programCounterUpdate;
+			if (programCounterUpdate == NORMAL_PROGRAM_COUNTER_UPDATE) {
+				programCounter++;
+			} else {
+				programCounter = programCounterUpdate;
+				// An instruction that gave up waiting, e.g. when the thread is
+				// interrupted, jumps to itself
+				if (stopReason != null)
+					return steps + 1;
+			}
+		}
+		return steps;
+	}
+
+	/**
+	 * Runs the fetch-decode-execute cycle from the current program counter until
+	 * it moves past the last instruction or a limit is reached.
+	 *
+	 * <p>
+	 * The step count is checked before every instruction. The cancellation token
+	 * and the clock are only checked at backward jumps, the clock only at one
+	 * in every {@code DEADLINE_POLL_INTERVAL} of them, since a program that does
+	 * not jump backwards halts within {@code program.size()} instructions anyway.
+	 * An instruction that gave up waiting for another thread jumps to itself,
+	 * so the reason it recorded is checked at that jump.
+	 */
+	private ExecutionResult run(ExecutionLimits limits) {
+		if (limits.maxSteps() == Long.MAX_VALUE && limits.deadline() == null && limits.cancellation() == null) {
+			long steps = run();
+			ExecutionResult.StopReason reason = (stopReason != null) ? stopReason : ExecutionResult.StopReason.HALTED;
+			stopReason = null;
+			return new ExecutionResult(reason, steps, programCounter);
+		}
+		this.limits = limits;
+		try {
+			return loop(limits);
+		} finally {
+			this.limits = ExecutionLimits.NONE;
+			stopReason = null;
+			if (!isHalted())
+				cancelChildren();
+		}
+	}
+
+	private ExecutionResult loop(ExecutionLimits limits) {
+		boolean instrumented = profile != null || nonTerminationDetector != null;
+		long maxSteps = limits.maxSteps();
+		CancellationToken cancellation = limits.cancellation();
+		boolean hasDeadline = limits.deadline() != null;
+		long deadline = hasDeadline ? limits.deadlineNanos() : 0;
+		deadlineNanos = deadline;
+		int backwardJumps = 0;
+		long steps = 0;
+		while (programCounter < program.size()) {
+			if (steps == maxSteps)
+				return new ExecutionResult(ExecutionResult.StopReason.STEP_LIMIT, steps, programCounter);
+			int address = programCounter;
+			if (instrumented) {
+				step();
+			} else {
+				int programCounterUpdate = program.get(address).execute(this);
+				programCounter = (programCounterUpdate == NORMAL_PROGRAM_COUNTER_UPDATE)
+						? address + 1
+						: programCounterUpdate;
+			}
+			steps++;
+			if (programCounter <= address) {
+				if (stopReason != null)
+					return new ExecutionResult(stopReason, steps, programCounter);
+				if (cancellation != null && cancellation.isCancelled())
+					return new ExecutionResult(ExecutionResult.StopReason.CANCELLED, steps, programCounter);
+				if (hasDeadline && (++backwardJumps % DEADLINE_POLL_INTERVAL == 0 || backwardJumps == 1)
+						&& System.nanoTime() - deadline >= 0)
+					return new ExecutionResult(ExecutionResult.StopReason.DEADLINE, steps, programCounter);
+			}
 		}
+		return new ExecutionResult(ExecutionResult.StopReason.HALTED, steps, programCounter);
+	}
+
+	/**
+	 * Executes the instruction at the program counter, recording it in the
+	 * profile and sampling the state of the machine after a backward jump, when
+	 * enabled.
+	 *
+	 * @throws NonTerminationException if the program is proved not to terminate
+	 */
+	private void step() {
+		Instruction ins = program.get(programCounter);
+		int programCounterUpdate = ins.execute(this);
+		boolean jumped = programCounterUpdate != NORMAL_PROGRAM_COUNTER_UPDATE;
+		if (profile != null)
+			profile.record(programCounter, jumped);
+		if (jumped && programCounterUpdate <= programCounter && nonTerminationDetector != null
+				&& nonTerminationDetector.repeats(programCounterUpdate, registers, returnStack, returnDepth))
+			throw new NonTerminationException(programCounterUpdate,
+					nonTerminationDetector.getCycleLength());
+		programCounter = jumped ? programCounterUpdate : programCounter + 1;
 	}
 
-	static final Map<String, Class<?>> OPCODE_MAP = Map.of(
-			"add", sml.instruction.AddInstruction.class,
-			"sub", sml.instruction.SubInstruction.class,
-			"mul", sml.instruction.MulInstruction.class,
-			"div", sml.instruction.DivInstruction.class,
-			"mov", sml.instruction.MovInstruction.class,
-			"out", sml.instruction.OutInstruction.class,
-			"jnz", sml.instruction.JnzInstruction.class);
+	/**
+	 * The classes implementing every opcode. An opcode with several forms, e.g.
+	 * {@code add} with a register or an integer operand, maps to one class per
+	 * form, tried in order by the {@link Translator}.
+	 */
+	static final Map<String, List<Class<? extends Instruction>>> OPCODE_MAP = Map.ofEntries(
+			Map.entry("add", List.of(sml.instruction.AddInstruction.class,
+					sml.instruction.AddImmediateInstruction.class)),
+			Map.entry("sub", List.of(sml.instruction.SubInstruction.class,
+					sml.instruction.SubImmediateInstruction.class)),
+			Map.entry("mul", List.of(sml.instruction.MulInstruction.class,
+					sml.instruction.MulImmediateInstruction.class)),
+			Map.entry("div", List.of(sml.instruction.DivInstruction.class,
+					sml.instruction.DivImmediateInstruction.class)),
+			Map.entry("mov", List.of(sml.instruction.MovInstruction.class)),
+			Map.entry("out", List.of(sml.instruction.OutInstruction.class)),
+			Map.entry("jnz", List.of(sml.instruction.JnzInstruction.class)),
+			Map.entry("jz", List.of(sml.instruction.JzInstruction.class)),
+			Map.entry("jmp", List.of(sml.instruction.JmpInstruction.class)),
+			Map.entry("jlt", List.of(sml.instruction.JltInstruction.class)),
+			Map.entry("jge", List.of(sml.instruction.JgeInstruction.class)),
+			Map.entry("loop", List.of(sml.instruction.LoopInstruction.class)),
+			Map.entry("call", List.of(sml.instruction.CallInstruction.class)),
+			Map.entry("ret", List.of(sml.instruction.RetInstruction.class)),
+			Map.entry("fork", List.of(sml.instruction.ForkInstruction.class)),
+			Map.entry("join", List.of(sml.instruction.JoinInstruction.class)),
+			Map.entry("send", List.of(sml.instruction.SendInstruction.class)),
+			Map.entry("recv", List.of(sml.instruction.RecvInstruction.class)),
+			Map.entry("load", List.of(sml.instruction.LoadInstruction.class)),
+			Map.entry("store", List.of(sml.instruction.StoreInstruction.class)),
+			Map.entry("in", List.of(sml.instruction.InInstruction.class)),
+			Map.entry("vadd", List.of(sml.instruction.VaddInstruction.class)),
+			Map.entry("vsub", List.of(sml.instruction.VsubInstruction.class)),
+			Map.entry("vmul", List.of(sml.instruction.VmulInstruction.class)),
+			Map.entry("fill", List.of(sml.instruction.FillInstruction.class)),
+			Map.entry("copy", List.of(sml.instruction.CopyInstruction.class)),
+			Map.entry("sort", List.of(sml.instruction.SortInstruction.class)),
+			Map.entry("sum", List.of(sml.instruction.SumInstruction.class)),
+			Map.entry("min", List.of(sml.instruction.MinInstruction.class)),
+			Map.entry("max", List.of(sml.instruction.MaxInstruction.class)),
+			Map.entry("search", List.of(sml.instruction.SearchInstruction.class)),
+			Map.entry("mput", List.of(sml.instruction.MputInstruction.class)),
+			Map.entry("mget", List.of(sml.instruction.MgetInstruction.class)),
+			Map.entry("minc", List.of(sml.instruction.MincInstruction.class)),
+			Map.entry("mhas", List.of(sml.instruction.MhasInstruction.class)));
 
 	public Labels getLabels() {
 		return this.labels;
@@ -96,15 +711,190 @@ public final class Machine {
 		return this.registers;
 	}
 
+	public OutputSink getOutput() {
+		return this.output;
+	}
+
+	/**
+	 * Redirects the values written by {@code out} instructions. The sink is
+	 * flushed whenever the machine stops executing, but never closed.
+	 *
+	 * @param output receives every value written by the program
+	 */
+	public void setOutput(OutputSink output) {
+		this.output = Objects.requireNonNull(output);
+	}
+
+	/**
+	 * Returns the channel used by {@code send} and {@code recv} instructions
+	 * under a name.
+	 *
+	 * <p>
+	 * Once a program communicates through a channel, its future depends on other
+	 * machines and not only on its own state, so non-termination detection
+	 * starts over from here.
+	 *
+	 * @param name the name of the channel in the program
+	 * @return the channel
+	 * @throws IllegalArgumentException if no channel has this name
+	 */
+	public IntChannel getChannel(String name) {
+		IntChannel channel = channels.get(name);
+		if (channel == null)
+			throw new IllegalArgumentException("Unknown channel: " + name);
+		if (nonTerminationDetector != null)
+			nonTerminationDetector.reset();
+		return channel;
+	}
+
+	/**
+	 * Connects the machine to channels, e.g. the channels of a
+	 * {@link sml.channel.Pipeline}.
+	 *
+	 * @param channels the channels, by name
+	 */
+	public void setChannels(Map<String, ? extends IntChannel> channels) {
+		this.channels = Map.copyOf(channels);
+	}
+
+	/**
+	 * Returns the memory read by {@code load} and written by {@code store}
+	 * instructions.
+	 *
+	 * <p>
+	 * The memory is not part of the state sampled by non-termination detection,
+	 * and may be written concurrently by children of the machine, so
+	 * non-termination detection starts over from here.
+	 *
+	 * @return the memory, {@link Memory#EMPTY} unless one has been set
+	 */
+	public Memory getMemory() {
+		if (nonTerminationDetector != null)
+			nonTerminationDetector.reset();
+		return memory;
+	}
+
+	/**
+	 * Gives the machine a memory. The memory is shared with the children the
+	 * machine forks, and is never closed by the machine.
+	 *
+	 * @param memory the memory, e.g. from {@link Memory#allocate(long)}
+	 */
+	public void setMemory(Memory memory) {
+		this.memory = Objects.requireNonNull(memory);
+	}
+
+	/**
+	 * Returns the source of the values read by {@code in} instructions.
+	 *
+	 * <p>
+	 * Once a program reads input, its future depends on more than its own state,
+	 * so non-termination detection starts over from here.
+	 *
+	 * @return the input, {@link InputSource#EMPTY} unless one has been set
+	 */
+	public InputSource getInput() {
+		if (nonTerminationDetector != null)
+			nonTerminationDetector.reset();
+		return input;
+	}
+
+	/**
+	 * Redirects the values read by {@code in} instructions. The source is never
+	 * closed by the machine.
+	 *
+	 * @param input provides every value read by the program
+	 */
+	public void setInput(InputSource input) {
+		this.input = Objects.requireNonNull(input);
+	}
+
+	/**
+	 * Returns the hash table used by {@code mput}, {@code mget}, {@code minc}
+	 * and {@code mhas} instructions under a name, creating it if needed.
+	 *
+	 * <p>
+	 * The tables are not part of the state sampled by non-termination detection,
+	 * so non-termination detection starts over from here.
+	 *
+	 * @param name the name of the table in the program
+	 * @return the table
+	 */
+	public IntIntHashMap getTable(String name) {
+		if (nonTerminationDetector != null)
+			nonTerminationDetector.reset();
+		IntIntHashMap table = tables.get(name);
+		if (table == null) {
+			table = tableFactory.get();
+			tables.put(name, table);
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the hash tables created by the program since it was last started,
+	 * e.g. to read the result of an aggregation. The tables are emptied and
+	 * released whenever the program is started again.
+	 *
+	 * @return the tables, by name
+	 */
+	public Map<String, IntIntHashMap> getTables() {
+		return Collections.unmodifiableMap(tables);
+	}
+
+	/**
+	 * Sets how the hash tables of the machine are created, e.g. with a sizing
+	 * hint or outside the heap; applies to the tables created from now on.
+	 *
+	 * @param tableFactory creates an empty table
+	 */
+	public void setTableFactory(Supplier<IntIntHashMap> tableFactory) {
+		this.tableFactory = Objects.requireNonNull(tableFactory);
+	}
+
+	public ExecutionProfile getProfile() {
+		return this.profile;
+	}
+
+	/**
+	 * Attaches a profile to the machine; every later execution adds its counts to
+	 * the profile. Executions are not profiled when {@code profile} is null.
+	 *
+	 * @param profile a profile of the program of this machine, or null
+	 */
+	public void setProfile(ExecutionProfile profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * Enables or disables non-termination detection. When enabled, executing a
+	 * program that returns to the exact same state throws a
+	 * {@link NonTerminationException} instead of running forever.
+	 *
+	 * @param enabled whether non-termination is detected
+	 */
+	public void setNonTerminationDetection(boolean enabled) {
+		this.nonTerminationDetector = enabled ? new NonTerminationDetector() : null;
+	}
+
 	/**
 	 * String representation of the program under execution.
 	 *
+	 * <p>
+	 * Labels are taken from {@code labels} when the instruction itself does not
+	 * carry one, which is the case for shared instructions (see
+	 * {@link InstructionInterner}).
+	 *
 	 * @return pretty formatted version of the code.
 	 */
 	@Override
 	public String toString() {
-		return program.stream()
-				.map(Instruction::toString)
+		return IntStream.range(0, program.size())
+				.mapToObj(address -> {
+					Instruction ins = program.get(address);
+					String label = labels.getLabel(address);
+					return (ins.getLabel() == null && label != null) ? label + ": " + ins : ins.toString();
+				})
 				.collect(Collectors.joining("\n"));
 	}
 
@@ -1,32 +1,150 @@
 package sml;
 
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import sml.batch.BatchExecutor;
+import sml.batch.BatchJob;
+import sml.batch.BatchResult;
+import sml.batch.ShardedBatchCoordinator;
+import sml.input.MappedInputSource;
+import sml.input.TextInputSource;
+import sml.map.IntIntHashMap;
+import sml.output.BinaryOutputSink;
+import sml.output.TextOutputSink;
+import sml.server.ExecutionServer;
+import sml.watch.ProgramWatcher;
 
 public class Main {
 	/**
 	 * Initialises the system and executes the program.
 	 *
-	 * @param args name of the file containing the program text.
+	 * <p>
+	 * If the system property {@code sml.profile} names a file, the execution is
+	 * profiled and the counts are added to the profile stored in that file. If
+	 * the system property {@code sml.detectNonTermination} is {@code true}, the
+	 * execution stops as soon as the program is proved not to terminate. If the
+	 * system property {@code sml.intern} is {@code true}, identical instructions
+	 * share a single instance and the memory saved is reported. The system
+	 * properties {@code sml.maxSteps} and {@code sml.timeout} (in milliseconds)
+	 * stop a program that runs for too long. The system property
+	 * {@code sml.output} selects where {@code out} instructions write:
+	 * {@code text} (the console, by default), {@code none}, or
+	 * {@code binary:<file>} for little-endian integers written to a file. The
+	 * system property {@code sml.memory} gives the program a memory of that many
+	 * words, mapped from the file named by {@code sml.memory.file} if set. The
+	 * system property {@code sml.input} selects where {@code in} instructions
+	 * read: {@code stdin} (decimal numbers on the console, by default),
+	 * {@code text:<file>}, or {@code binary:<file>} for a mapped file of
+	 * little-endian integers. The system properties {@code sml.table.size} and
+	 * {@code sml.table.offHeap} give the expected number of keys of every hash
+	 * table, and whether tables are allocated outside the heap. If the system
+	 * property {@code sml.wide} is {@code true}, registers hold exact integers
+	 * instead of wrapping around at 32 bits (see {@link Registers#setWide}).
+	 *
+	 * <p>
+	 * With {@code --batch} as the first argument, every following file is run
+	 * concurrently and the result of each program is printed. With
+	 * {@code --watch}, every following file is run, then run again whenever it
+	 * changes, until the JVM is stopped. With {@code --server}, programs are
+	 * received over HTTP until the JVM is stopped (see {@link ExecutionServer}).
+	 *
+	 * @param args name of the file containing the program text,
+	 *             or {@code --batch} or {@code --watch} followed by the names of
+	 *             several files,
+	 *             or {@code --server} optionally followed by a port number.
 	 */
 	public static void main(String... args) {
+		if (args.length > 1 && args[0].equals("--batch")) {
+			runBatch(List.of(args).subList(1, args.length));
+			return;
+		}
+		if (args.length > 1 && args[0].equals("--watch")) {
+			runWatch(List.of(args).subList(1, args.length));
+			return;
+		}
+		if (args.length <= 2 && args.length > 0 && args[0].equals("--server")) {
+			runServer((args.length == 2) ? Integer.parseInt(args[1]) : 8023);
+			return;
+		}
 		if (args.length != 1) {
-			System.err.println("Incorrect number of arguments - Machine <file> - required");
+			System.err.println(
+					"Incorrect number of arguments - Machine <file> | --batch <file>... | --watch <file>... | --server [port] - required");
 			System.exit(-1);
 		}
 
 		try {
-			Translator t = new Translator(args[0]);
+			InstructionInterner interner = Boolean.getBoolean("sml.intern") ? new InstructionInterner() : null;
+			Translator t = new Translator(args[0], interner);
 			Machine m = new Machine(new Registers());
 			t.readAndTranslate(m.getLabels(), m.getProgram());
+			if (interner != null)
+				System.out.println(interner);
 
 			System.out.println("Here is the program; it has " + m.getProgram().size() + " instructions.");
 			System.out.println(m);
 
+			String profileFile = System.getProperty("sml.profile");
+			if (profileFile != null)
+				m.setProfile(ExecutionProfile.load(Path.of(profileFile), m));
+
+			m.setNonTerminationDetection(Boolean.getBoolean("sml.detectNonTermination"));
+			m.getRegisters().setWide(Boolean.getBoolean("sml.wide"));
+
+			String outputMode = System.getProperty("sml.output", "text");
+			if (outputMode.equals("text"))
+				m.setOutput(new TextOutputSink(System.out));
+			else if (outputMode.equals("none"))
+				m.setOutput(OutputSink.DISCARD);
+			else if (outputMode.startsWith("binary:"))
+				m.setOutput(BinaryOutputSink.open(Path.of(outputMode.substring("binary:".length()))));
+
+			long memoryWords = Long.getLong("sml.memory", 0);
+			String memoryFile = System.getProperty("sml.memory.file");
+			if (memoryFile != null)
+				m.setMemory(Memory.map(Path.of(memoryFile), memoryWords));
+			else if (memoryWords > 0)
+				m.setMemory(Memory.allocate(memoryWords));
+
+			String inputMode = System.getProperty("sml.input", "stdin");
+			if (inputMode.equals("stdin"))
+				m.setInput(new TextInputSource(System.in));
+			else if (inputMode.startsWith("text:"))
+				m.setInput(new TextInputSource(Files.newInputStream(Path.of(inputMode.substring("text:".length())))));
+			else if (inputMode.startsWith("binary:"))
+				m.setInput(MappedInputSource.open(Path.of(inputMode.substring("binary:".length()))));
+
+			int tableSize = Integer.getInteger("sml.table.size", 0);
+			boolean tableOffHeap = Boolean.getBoolean("sml.table.offHeap");
+			m.setTableFactory(() -> new IntIntHashMap(tableSize, tableOffHeap));
+
 			System.out.println("Beginning program execution.");
-			m.execute();
+			try {
+				ExecutionResult result = m.execute(limits());
+				if (!result.halted())
+					System.out.println(new ExecutionStoppedException(result).getMessage());
+			} catch (NonTerminationException | ExecutionStoppedException e) {
+				// The latter when the step limit stopped a child machine
+				System.out.println(e.getMessage());
+			}
 			System.out.println("Ending program execution.");
+			m.getOutput().close();
+			m.getMemory().close();
+			if (!inputMode.equals("stdin"))
+				m.getInput().close();
+
+			if (profileFile != null)
+				m.getProfile().save(Path.of(profileFile));
 
 			System.out.println("Values of registers at program termination:" + m.getRegisters() + ".");
+			if (!m.getTables().isEmpty())
+				System.out.println("Hash tables at program termination:" + m.getTables() + ".");
 
 			// My tests
 			System.out.println("Labels are:" + m.getLabels().toString() + ".");
@@ -35,4 +153,117 @@ public class Main {
 			System.out.println("Error reading the program from " + args[0]);
 		}
 	}
+
+	/**
+	 * Reads the execution limits from the system properties {@code sml.maxSteps}
+	 * and {@code sml.timeout}.
+	 *
+	 * @return the limits set, if any
+	 */
+	private static ExecutionLimits limits() {
+		ExecutionLimits limits = ExecutionLimits.NONE;
+		Long maxSteps = Long.getLong("sml.maxSteps");
+		if (maxSteps != null)
+			limits = limits.withMaxSteps(maxSteps);
+		Long timeout = Long.getLong("sml.timeout");
+		if (timeout != null)
+			limits = limits.withTimeout(Duration.ofMillis(timeout));
+		return limits;
+	}
+
+	/**
+	 * Runs several programs, then runs every program again whenever its file
+	 * changes, until the JVM is stopped. The limits set by the system properties
+	 * {@code sml.maxSteps} and {@code sml.timeout} apply to every run.
+	 *
+	 * @param files names of the files containing the programs
+	 */
+	private static void runWatch(List<String> files) {
+		try (ProgramWatcher watcher = new ProgramWatcher(files.stream().map(Path::of).toList(),
+				(file, result) -> System.out.println(result))) {
+			watcher.setLimits(Main::limits);
+			watcher.runAll();
+			System.out.println("Watching " + files.size() + " file(s) for changes.");
+			watcher.watch();
+		} catch (IOException e) {
+			System.out.println("Error watching the programs: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Serves programs over HTTP on the loopback interface until the JVM is
+	 * stopped.
+	 *
+	 * <p>
+	 * The number of programs executed at once defaults to the number of
+	 * processors and can be set with the system property
+	 * {@code sml.server.workers}; the number of programs waiting with
+	 * {@code sml.server.queue}, and the time every program may run for with
+	 * {@code sml.server.timeout}, in milliseconds.
+	 *
+	 * @param port the port to listen on
+	 */
+	private static void runServer(int port) {
+		int workers = Integer.getInteger("sml.server.workers", Runtime.getRuntime().availableProcessors());
+		int queue = Integer.getInteger("sml.server.queue", 64 * workers);
+		Duration timeout = Duration.ofMillis(Long.getLong("sml.server.timeout", 10_000));
+		try {
+			ExecutionServer server = new ExecutionServer(
+					new InetSocketAddress(InetAddress.getLoopbackAddress(), port), workers, queue, timeout);
+			server.setNonTerminationDetection(Boolean.getBoolean("sml.detectNonTermination"));
+			Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+			server.start();
+			System.out.println("Listening on http://" + server.getAddress().getHostString() + ":"
+					+ server.getAddress().getPort() + "/run");
+		} catch (IOException e) {
+			System.out.println("Error starting the server: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Runs several programs concurrently and prints their results.
+	 *
+	 * <p>
+	 * The number of programs running at once defaults to the number of
+	 * processors and can be set with the system property
+	 * {@code sml.batch.concurrency}. If the system property
+	 * {@code sml.batch.workers} is set, the programs are sharded across that
+	 * many worker JVMs instead, and a worker returning no result for
+	 * {@code sml.batch.stallTimeout} milliseconds is replaced. The registers
+	 * are wide if the system property {@code sml.wide} is {@code true}.
+	 *
+	 * @param files names of the files containing the programs
+	 */
+	private static void runBatch(List<String> files) {
+		int concurrency = Integer.getInteger("sml.batch.concurrency", Runtime.getRuntime().availableProcessors());
+		List<BatchJob> jobs = new ArrayList<>();
+		for (String file : files) {
+			try {
+				jobs.add(BatchJob.fromFile(Path.of(file)));
+			} catch (IOException e) {
+				System.out.println("Error reading the program from " + file);
+			}
+		}
+
+		int workers = Integer.getInteger("sml.batch.workers", 0);
+		if (workers > 0) {
+			Duration stallTimeout = Duration.ofMillis(Long.getLong("sml.batch.stallTimeout", 60_000));
+			try (ShardedBatchCoordinator coordinator = new ShardedBatchCoordinator(workers, stallTimeout)) {
+				for (BatchResult result : coordinator.runAll(jobs))
+					System.out.println(result);
+			} catch (IOException e) {
+				System.out.println("Error starting the worker processes: " + e.getMessage());
+			}
+			return;
+		}
+
+		try (BatchExecutor executor = new BatchExecutor(concurrency)) {
+			executor.setNonTerminationDetection(Boolean.getBoolean("sml.detectNonTermination"));
+			executor.setWide(Boolean.getBoolean("sml.wide"));
+			for (BatchResult result : executor.runAll(jobs))
+				System.out.println(result);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
 }
@@ -0,0 +1,408 @@
+package sml;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class represents the linear memory of a machine: an array of
+ * {@code int} words, addressed from 0, read by {@code load} and written by
+ * {@code store} instructions.
+ *
+ * <p>
+ * The words live outside the Java heap, in a {@link MemorySegment}, so a
+ * memory of several gigabytes neither takes part in garbage collection nor
+ * lengthens its pauses. A memory can also be mapped from a file, in which
+ * case the program reads and writes the file directly. Words are stored as
+ * little-endian integers, the same format as the binary output of a machine.
+ *
+ * <p>
+ * Besides single words, a memory supports bulk operations over ranges of
+ * words, used by the {@code vadd}, {@code vsub}, {@code vmul}, {@code fill}
+ * and {@code copy} instructions, and intrinsics sorting, reducing and searching
+ * a range, used by the {@code sort}, {@code sum}, {@code min}, {@code max} and
+ * {@code search} instructions. They check their ranges once and then process
+ * as many words at a time as the vector unit of the processor allows.
+ *
+ * <p>
+ * A memory is released by {@link #close()}; it can be shared by several
+ * machines, e.g. the children started by {@code fork} instructions, and is
+ * never closed by a machine.
+ *
+ * @author Arthur Gousset
+ */
+public final class Memory implements AutoCloseable {
+	/**
+	 * A memory without any word, used by machines that have not been given one.
+	 */
+	public static final Memory EMPTY = new Memory(null, MemorySegment.NULL);
+
+	private static final ValueLayout.OfInt WORD = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+	/**
+	 * Number of words from which a range is sorted by several threads; below it,
+	 * splitting the work costs more than it saves.
+	 */
+	private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+	/**
+	 * The arena owning the segment; null for {@link #EMPTY}.
+	 */
+	private final Arena arena;
+	private final MemorySegment segment;
+	private final long size;
+
+	private Memory(Arena arena, MemorySegment segment) {
+		this.arena = arena;
+		this.segment = segment;
+		this.size = segment.byteSize() / Integer.BYTES;
+	}
+
+	/**
+	 * Returns a memory of {@code words} words, all set to 0, allocated outside
+	 * the Java heap.
+	 *
+	 * @param words the number of words of the memory
+	 * @return the memory, to be closed once no machine uses it any more
+	 * @throws IllegalArgumentException if {@code words} is negative
+	 */
+	public static Memory allocate(long words) {
+		if (words < 0)
+			throw new IllegalArgumentException("A memory cannot have " + words + " words.");
+		Arena arena = Arena.ofShared();
+		return new Memory(arena, arena.allocate(words * Integer.BYTES, Integer.BYTES));
+	}
+
+	/**
+	 * Returns a memory of {@code words} words mapped from a file. The file is
+	 * created if needed, and grows to {@code words} words if it is shorter; its
+	 * existing contents are the initial contents of the memory, and every
+	 * {@code store} is written to it.
+	 *
+	 * @param file  the file holding the memory
+	 * @param words the number of words of the memory
+	 * @return the memory, to be closed once no machine uses it any more
+	 * @throws IOException              if the file cannot be mapped
+	 * @throws IllegalArgumentException if {@code words} is negative
+	 */
+	public static Memory map(Path file, long words) throws IOException {
+		if (words < 0)
+			throw new IllegalArgumentException("A memory cannot have " + words + " words.");
+		Arena arena = Arena.ofShared();
+		// The mapping stays valid after the channel is closed.
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			return new Memory(arena, channel.map(FileChannel.MapMode.READ_WRITE, 0, words * Integer.BYTES, arena));
+		} catch (IOException | RuntimeException e) {
+			arena.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the number of words of this memory.
+	 *
+	 * @return the number of addresses, from 0 to {@code size() - 1}
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns the segment holding the words of this memory, e.g. to fill it with
+	 * data before a program runs or to read its results afterwards.
+	 *
+	 * @return the segment, of {@code 4 * size()} bytes
+	 */
+	public MemorySegment segment() {
+		return segment;
+	}
+
+	/**
+	 * Reads a word.
+	 *
+	 * @param address the address of the word
+	 * @return the value of the word
+	 * @throws IndexOutOfBoundsException if there is no word at {@code address}
+	 */
+	public int load(long address) {
+		checkAddress(address);
+		return segment.getAtIndex(WORD, address);
+	}
+
+	/**
+	 * Writes a word.
+	 *
+	 * @param address the address of the word
+	 * @param value   the new value of the word
+	 * @throws IndexOutOfBoundsException if there is no word at {@code address}
+	 */
+	public void store(long address, int value) {
+		checkAddress(address);
+		segment.setAtIndex(WORD, address, value);
+	}
+
+	/**
+	 * Adds two ranges of words, element by element, in increasing address
+	 * order: {@code word[destination + i] = word[first + i] + word[second + i]}.
+	 *
+	 * @param destination the address of the first word of the result
+	 * @param first       the address of the first word of the first operand
+	 * @param second      the address of the first word of the second operand
+	 * @param length      the number of words of every range
+	 * @throws IndexOutOfBoundsException if a range is not inside the memory
+	 */
+	public void add(long destination, long first, long second, long length) {
+		apply(VectorOperators.ADD, destination, first, second, length);
+	}
+
+	/**
+	 * Subtracts two ranges of words, element by element, in increasing address
+	 * order: {@code word[destination + i] = word[first + i] - word[second + i]}.
+	 *
+	 * @param destination the address of the first word of the result
+	 * @param first       the address of the first word of the first operand
+	 * @param second      the address of the first word of the second operand
+	 * @param length      the number of words of every range
+	 * @throws IndexOutOfBoundsException if a range is not inside the memory
+	 */
+	public void subtract(long destination, long first, long second, long length) {
+		apply(VectorOperators.SUB, destination, first, second, length);
+	}
+
+	/**
+	 * Multiplies two ranges of words, element by element, in increasing address
+	 * order: {@code word[destination + i] = word[first + i] * word[second + i]}.
+	 *
+	 * @param destination the address of the first word of the result
+	 * @param first       the address of the first word of the first operand
+	 * @param second      the address of the first word of the second operand
+	 * @param length      the number of words of every range
+	 * @throws IndexOutOfBoundsException if a range is not inside the memory
+	 */
+	public void multiply(long destination, long first, long second, long length) {
+		apply(VectorOperators.MUL, destination, first, second, length);
+	}
+
+	/**
+	 * Applies an operation to two ranges of words, a vector of words at a time.
+	 *
+	 * <p>
+	 * Processing a vector at a time gives the same result as processing a word
+	 * at a time unless the result starts strictly inside an operand, where it
+	 * overwrites operand words that are still to be read; the words are then
+	 * processed one at a time.
+	 */
+	private void apply(VectorOperators.Binary op, long destination, long first, long second, long length) {
+		checkRange(destination, length);
+		checkRange(first, length);
+		checkRange(second, length);
+		long i = 0;
+		if (!overlapsAhead(destination, first, length) && !overlapsAhead(destination, second, length)) {
+			long bound = SPECIES.loopBound(length);
+			for (; i < bound; i += SPECIES.length()) {
+				IntVector x = IntVector.fromMemorySegment(SPECIES, segment, (first + i) * Integer.BYTES,
+						ByteOrder.LITTLE_ENDIAN);
+				IntVector y = IntVector.fromMemorySegment(SPECIES, segment, (second + i) * Integer.BYTES,
+						ByteOrder.LITTLE_ENDIAN);
+				x.lanewise(op, y).intoMemorySegment(segment, (destination + i) * Integer.BYTES,
+						ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+		for (; i < length; i++) {
+			int x = segment.getAtIndex(WORD, first + i);
+			int y = segment.getAtIndex(WORD, second + i);
+			int result = (op == VectorOperators.ADD) ? x + y : (op == VectorOperators.SUB) ? x - y : x * y;
+			segment.setAtIndex(WORD, destination + i, result);
+		}
+	}
+
+	private static boolean overlapsAhead(long destination, long source, long length) {
+		return source < destination && destination < source + length;
+	}
+
+	/**
+	 * Sets every word of a range to the same value.
+	 *
+	 * @param destination the address of the first word of the range
+	 * @param value       the new value of every word
+	 * @param length      the number of words of the range
+	 * @throws IndexOutOfBoundsException if the range is not inside the memory
+	 */
+	public void fill(long destination, int value, long length) {
+		checkRange(destination, length);
+		IntVector values = IntVector.broadcast(SPECIES, value);
+		long i = 0;
+		for (long bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length())
+			values.intoMemorySegment(segment, (destination + i) * Integer.BYTES, ByteOrder.LITTLE_ENDIAN);
+		for (; i < length; i++)
+			segment.setAtIndex(WORD, destination + i, value);
+	}
+
+	/**
+	 * Copies a range of words to another. The ranges may overlap: the result is
+	 * as if every word were read before any is written.
+	 *
+	 * @param destination the address of the first word of the copy
+	 * @param source      the address of the first word copied
+	 * @param length      the number of words copied
+	 * @throws IndexOutOfBoundsException if a range is not inside the memory
+	 */
+	public void copy(long destination, long source, long length) {
+		checkRange(destination, length);
+		checkRange(source, length);
+		MemorySegment.copy(segment, source * Integer.BYTES, segment, destination * Integer.BYTES,
+				length * Integer.BYTES);
+	}
+
+	/**
+	 * Sorts a range of words into ascending order.
+	 *
+	 * <p>
+	 * The words are copied to the heap, sorted there, in parallel from
+	 * {@code PARALLEL_SORT_THRESHOLD} words, and copied back, so sorting a range
+	 * temporarily takes as much heap as the range.
+	 *
+	 * @param address the address of the first word of the range
+	 * @param length  the number of words of the range
+	 * @throws IndexOutOfBoundsException if the range is not inside the memory
+	 */
+	public void sort(long address, int length) {
+		checkRange(address, length);
+		int[] words = new int[length];
+		MemorySegment.copy(segment, WORD, address * Integer.BYTES, words, 0, length);
+		if (length >= PARALLEL_SORT_THRESHOLD)
+			Arrays.parallelSort(words);
+		else
+			Arrays.sort(words);
+		MemorySegment.copy(words, 0, segment, WORD, address * Integer.BYTES, length);
+	}
+
+	/**
+	 * Adds up a range of words, wrapping around like the {@code add} instruction.
+	 *
+	 * @param address the address of the first word of the range
+	 * @param length  the number of words of the range
+	 * @return the sum of the words, 0 for an empty range
+	 * @throws IndexOutOfBoundsException if the range is not inside the memory
+	 */
+	public int sum(long address, long length) {
+		return reduce(VectorOperators.ADD, 0, address, length);
+	}
+
+	/**
+	 * Returns the smallest word of a range.
+	 *
+	 * @param address the address of the first word of the range
+	 * @param length  the number of words of the range
+	 * @return the smallest word, {@code Integer.MAX_VALUE} for an empty range
+	 * @throws IndexOutOfBoundsException if the range is not inside the memory
+	 */
+	public int min(long address, long length) {
+		return reduce(VectorOperators.MIN, Integer.MAX_VALUE, address, length);
+	}
+
+	/**
+	 * Returns the largest word of a range.
+	 *
+	 * @param address the address of the first word of the range
+	 * @param length  the number of words of the range
+	 * @return the largest word, {@code Integer.MIN_VALUE} for an empty range
+	 * @throws IndexOutOfBoundsException if the range is not inside the memory
+	 */
+	public int max(long address, long length) {
+		return reduce(VectorOperators.MAX, Integer.MIN_VALUE, address, length);
+	}
+
+	/**
+	 * Combines a range of words with an associative operation, one vector of
+	 * partial results at a time, which are combined at the end.
+	 */
+	private int reduce(VectorOperators.Associative op, int identity, long address, long length) {
+		checkRange(address, length);
+		IntVector partial = IntVector.broadcast(SPECIES, identity);
+		long i = 0;
+		for (long bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length())
+			partial = partial.lanewise(op, IntVector.fromMemorySegment(SPECIES, segment,
+					(address + i) * Integer.BYTES, ByteOrder.LITTLE_ENDIAN));
+		int result = partial.reduceLanes(op);
+		for (; i < length; i++) {
+			int word = segment.getAtIndex(WORD, address + i);
+			result = (op == VectorOperators.ADD) ? result + word
+					: (op == VectorOperators.MIN) ? Math.min(result, word) : Math.max(result, word);
+		}
+		return result;
+	}
+
+	/**
+	 * Searches a range of words sorted into ascending order for a value, with a
+	 * binary search, following the conventions of
+	 * {@link Arrays#binarySearch(int[], int)}.
+	 *
+	 * @param address the address of the first word of the range
+	 * @param length  the number of words of the range
+	 * @param value   the value searched for
+	 * @return the address of a word equal to {@code value} if there is one,
+	 *         otherwise {@code -1 - a}, where {@code a} is the address at which
+	 *         {@code value} would be inserted to keep the range sorted
+	 * @throws IndexOutOfBoundsException if the range is not inside the memory
+	 */
+	public long search(long address, long length, int value) {
+		checkRange(address, length);
+		long low = address;
+		long high = address + length - 1;
+		while (low <= high) {
+			long middle = (low + high) >>> 1;
+			int word = segment.getAtIndex(WORD, middle);
+			if (word < value)
+				low = middle + 1;
+			else if (word > value)
+				high = middle - 1;
+			else
+				return middle;
+		}
+		return -1 - low;
+	}
+
+	private void checkRange(long address, long length) {
+		if (address < 0 || length < 0 || length > size - address)
+			throw new IndexOutOfBoundsException("Memory range of " + length + " words at address " + address
+					+ " is out of bounds; the memory has " + size + " words.");
+	}
+
+	private void checkAddress(long address) {
+		if (address < 0 || address >= size)
+			throw new IndexOutOfBoundsException(
+					"Memory address " + address + " is out of bounds; the memory has " + size + " words.");
+	}
+
+	/**
+	 * Releases the memory; writes to a mapped file are left to the operating
+	 * system to complete. The memory cannot be used afterwards.
+	 */
+	@Override
+	public void close() {
+		if (arena != null)
+			arena.close();
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 *
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return "Memory[" + size + " words]";
+	}
+}
@@ -0,0 +1,105 @@
+package sml;
+
+import java.util.Arrays;
+
+import sml.Registers.Register;
+
+/**
+ * This class proves that a program does not terminate by finding a state of
+ * the machine that repeats.
+ *
+ * <p>
+ * The machine is deterministic: once it is back at the same address with the
+ * same register values and the same pending calls, it will keep going round
+ * the same cycle forever. Every loop goes through a backward jump, so the
+ * state (address, registers, return stack) is only sampled after backward
+ * jumps. Brent's cycle-finding algorithm is
+ * used, so a single saved state is kept and a repeat is found within about
+ * twice the length of the cycle once the machine has entered it. The hash of
+ * the state is compared first so that the registers and return addresses are
+ * only compared when the state might repeat. In wide mode the hash only covers
+ * the low 32 bits of the registers, so their exact values are compared too.
+ *
+ * @author Arthur Gousset
+ */
+final class NonTerminationDetector {
+	private static final Register[] REGISTERS = Register.values();
+
+	private final int[] saved = new int[REGISTERS.length];
+	private final int[] current = new int[REGISTERS.length];
+	private int[] savedReturnStack = new int[0];
+	/**
+	 * The exact values of the registers in the saved state, in wide mode.
+	 */
+	private final Registers savedRegisters = new Registers();
+	private int savedAddress;
+	private int savedHash;
+	/**
+	 * Number of samples after which the saved state is replaced.
+	 */
+	private long power;
+	/**
+	 * Number of samples since the saved state was taken.
+	 */
+	private long distance;
+
+	NonTerminationDetector() {
+		reset();
+	}
+
+	/**
+	 * Forgets every sampled state, before a new execution.
+	 */
+	void reset() {
+		savedAddress = -1;
+		power = 1;
+		distance = 0;
+	}
+
+	/**
+	 * Samples the state of the machine after a backward jump.
+	 *
+	 * @param address     the address jumped to
+	 * @param registers   the registers of the machine
+	 * @param returnStack the return addresses of the pending calls
+	 * @param returnDepth the number of pending calls
+	 * @return {@code true} if the state is exactly a previously sampled state
+	 */
+	boolean repeats(int address, Registers registers, int[] returnStack, int returnDepth) {
+		int hash = address;
+		for (int i = 0; i < REGISTERS.length; i++) {
+			current[i] = registers.get(REGISTERS[i]);
+			hash = 31 * hash + current[i];
+		}
+		for (int i = 0; i < returnDepth; i++)
+			hash = 31 * hash + returnStack[i];
+		distance++;
+		if (hash == savedHash && address == savedAddress && Arrays.equals(current, saved)
+				&& Arrays.equals(returnStack, 0, returnDepth, savedReturnStack, 0, savedReturnStack.length)
+				&& (!registers.isWide() || registers.equals(savedRegisters)))
+			return true;
+		if (distance == power) {
+			System.arraycopy(current, 0, saved, 0, current.length);
+			savedReturnStack = Arrays.copyOf(returnStack, returnDepth);
+			if (registers.isWide()) {
+				savedRegisters.setWide(true);
+				savedRegisters.copyFrom(registers);
+			}
+			savedAddress = address;
+			savedHash = hash;
+			power <<= 1;
+			distance = 0;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the number of backward jumps between two occurrences of the
+	 * repeated state, once {@link #repeats} has returned {@code true}.
+	 *
+	 * @return the length of the cycle, in backward jumps
+	 */
+	long getCycleLength() {
+		return distance;
+	}
+}
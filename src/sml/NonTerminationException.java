@@ -0,0 +1,36 @@
+package sml;
+
+/**
+ * Thrown by {@link Machine#execute()} when non-termination detection is
+ * enabled and the program is proved to run forever.
+ *
+ * @author Arthur Gousset
+ */
+public class NonTerminationException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	private final int address;
+	private final long cycleLength;
+
+	/**
+	 * Constructor: the program reached the same state twice.
+	 *
+	 * @param address     the address of the repeated state
+	 * @param cycleLength the number of backward jumps between the two
+	 *                    occurrences of the state
+	 */
+	public NonTerminationException(int address, long cycleLength) {
+		super("Program provably does not terminate: the machine returns to the same state at address "
+				+ address + " every " + cycleLength + " backward jump(s).");
+		this.address = address;
+		this.cycleLength = cycleLength;
+	}
+
+	public int getAddress() {
+		return address;
+	}
+
+	public long getCycleLength() {
+		return cycleLength;
+	}
+}
@@ -0,0 +1,72 @@
+package sml;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+
+/**
+ * This interface represents the destination of the values written by
+ * {@code out} instructions (see {@link Machine#setOutput}).
+ *
+ * <p>
+ * A sink may buffer values: the machine calls {@link #flush()} whenever it
+ * stops executing, so the values written by a program are visible once
+ * {@code execute} returns. Any lambda taking an {@code int} is a sink that
+ * does not buffer, e.g. {@code machine.setOutput(list::add)}.
+ *
+ * <p>
+ * The implementations in {@code sml.output} write text, binary or to memory.
+ *
+ * @author Arthur Gousset
+ */
+@FunctionalInterface
+public interface OutputSink extends Closeable {
+	/**
+	 * A sink ignoring every value.
+	 */
+	OutputSink DISCARD = value -> {
+	};
+
+	/**
+	 * Receives a value written by an {@code out} instruction.
+	 *
+	 * @param value the value written
+	 */
+	void accept(int value);
+
+	/**
+	 * Receives a value that does not fit in an {@code int}, written by an
+	 * {@code out} instruction of a machine whose registers are in wide mode (see
+	 * {@link Registers#setWide}).
+	 *
+	 * <p>
+	 * Sinks that can only hold {@code int}s, such as binary files, reject such
+	 * values by default.
+	 *
+	 * @param value the value written
+	 * @throws ArithmeticException if the sink cannot hold the value
+	 */
+	default void accept(BigInteger value) {
+		accept(value.intValueExact());
+	}
+
+	/**
+	 * Writes the values buffered by this sink, if any, to their destination.
+	 *
+	 * @throws UncheckedIOException if the values cannot be written
+	 */
+	default void flush() {
+	}
+
+	/**
+	 * Flushes this sink and releases its destination, if it owns one.
+	 *
+	 * @throws IOException if the values cannot be written or the destination
+	 *                     cannot be closed
+	 */
+	@Override
+	default void close() throws IOException {
+		flush();
+	}
+}
@@ -1,5 +1,6 @@
 package sml;
 
+import java.math.BigInteger;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -11,6 +12,17 @@ import java.util.stream.Collectors;
  * It defines all relevant methods and holds all relevant data
  * to help the machine perform state transitions.
  * 
+ * <p>
+ * Registers hold 32-bit values whose arithmetic wraps around, unless they
+ * are in wide mode (see {@link #setWide}). In wide mode every register holds
+ * an exact integer: a {@code long} while it fits, checked with the
+ * {@code Math.*Exact} methods, and a {@code BigInteger} from the first
+ * operation that overflows it. Only the registers that overflow pay for
+ * {@code BigInteger} arithmetic, and a register goes back to a {@code long}
+ * as soon as its value fits again. Instructions that are not aware of wide
+ * values read the low 32 bits of a register, i.e. the value it would hold
+ * outside of wide mode as long as no division has been made.
+ * 
  * @author Arthur Gousset
  */
 public final class Registers {
@@ -21,7 +33,9 @@ public final class Registers {
      * 
      * <p>
      * The registers are implemented as a mapping from an element of
-     * the {@code Register} enumeration to an {@code Integer}.
+     * the {@code Register} enumeration to an {@code Integer}. In wide mode the
+     * values are held by {@code longs} and {@code bigs} instead, and this map
+     * is only brought up to date when wide mode is switched off.
      * 
      * <p>
      * This field is:
@@ -40,6 +54,26 @@ public final class Registers {
         EAX, EBX, ECX, EDX, ESP, EBP, ESI, EDI;
     }
 
+    private static final Register[] REGISTERS = Register.values();
+
+    /**
+     * The arithmetic operations of wide mode.
+     */
+    private enum Operation {
+        ADD, SUBTRACT, MULTIPLY, DIVIDE
+    }
+
+    /**
+     * The exact value of every register that fits in a {@code long}, by
+     * ordinal, in wide mode; null outside of wide mode.
+     */
+    private long[] longs;
+    /**
+     * The exact value of every register that does not fit in a {@code long}, by
+     * ordinal, and null for the others, in wide mode; null outside of wide mode.
+     */
+    private BigInteger[] bigs;
+
     /**
      * Constructor: produces a mapping from every element of
      * the {@code Register} enumeration to the integer 0.
@@ -56,8 +90,61 @@ public final class Registers {
      * mapping from an element of the {@code Register} enumeration to the integer 0
      */
     public void clear() {
-        for (Register register : Register.values())
-            registers.put(register, 0);
+        if (longs != null) {
+            Arrays.fill(longs, 0);
+            Arrays.fill(bigs, null);
+        } else {
+            for (Register register : Register.values())
+                registers.put(register, 0);
+        }
+    }
+
+    /**
+     * Switches wide mode on or off. Switching it on keeps the current values;
+     * switching it off keeps their low 32 bits.
+     * 
+     * <p>
+     * The transformations of {@code sml.optimiser} do not evaluate the
+     * arithmetic of programs running on wide registers, while the
+     * {@code sml.vector.VectorInterpreter} assumes 32-bit arithmetic.
+     *
+     * @param wide whether the registers hold exact integers
+     */
+    public void setWide(boolean wide) {
+        if (wide && longs == null) {
+            longs = new long[REGISTERS.length];
+            bigs = new BigInteger[REGISTERS.length];
+            for (Register register : REGISTERS)
+                longs[register.ordinal()] = registers.get(register);
+        } else if (!wide && longs != null) {
+            for (Register register : REGISTERS)
+                registers.put(register, get(register));
+            longs = null;
+            bigs = null;
+        }
+    }
+
+    public boolean isWide() {
+        return longs != null;
+    }
+
+    /**
+     * Overwrites every register with the value held by the same register
+     * in {@code other}.
+     *
+     * @param other the registers whose values are copied
+     */
+    public void copyFrom(Registers other) {
+        if (longs != null) {
+            for (Register register : REGISTERS) {
+                int i = register.ordinal();
+                longs[i] = (other.longs != null) ? other.longs[i] : other.get(register);
+                bigs[i] = (other.bigs != null) ? other.bigs[i] : null;
+            }
+        } else {
+            for (Register register : Register.values())
+                registers.put(register, other.get(register));
+        }
     }
 
     /**
@@ -67,7 +154,24 @@ public final class Registers {
      * @param value    new value
      */
     public void set(RegisterName register, int value) {
-        registers.put((Register) register, value);
+        if (longs != null)
+            setLong(index(register), value);
+        else
+            registers.put((Register) register, value);
+    }
+
+    /**
+     * Sets the given register to an exact value in wide mode, or to its low 32
+     * bits otherwise.
+     *
+     * @param register register name
+     * @param value    new value
+     */
+    public void set(RegisterName register, BigInteger value) {
+        if (longs != null)
+            setExact(index(register), value);
+        else
+            set(register, value.intValue());
     }
 
     /**
@@ -77,9 +181,240 @@ public final class Registers {
      * @return value
      */
     public int get(RegisterName register) {
+        if (longs != null) {
+            int i = index(register);
+            return (bigs[i] != null) ? bigs[i].intValue() : (int) longs[i];
+        }
         return registers.get((Register) register);
     }
 
+    /**
+     * Returns the exact value stored in the register.
+     *
+     * @param register register name
+     * @return the value, which only exceeds the range of an {@code int} in wide
+     *         mode
+     */
+    public BigInteger getExact(RegisterName register) {
+        return (longs != null) ? exact(index(register)) : BigInteger.valueOf(get(register));
+    }
+
+    /**
+     * Tells whether the value stored in the register fits in an {@code int},
+     * i.e. whether {@link #get} returns it exactly.
+     *
+     * @param register register name
+     * @return {@code true} unless the register holds a wider value in wide mode
+     */
+    public boolean fitsInt(RegisterName register) {
+        if (longs == null)
+            return true;
+        int i = index(register);
+        return bigs[i] == null && longs[i] == (int) longs[i];
+    }
+
+    /**
+     * Returns the sign of the value stored in the register.
+     *
+     * @param register register name
+     * @return -1, 0 or 1 as the value is negative, zero or positive
+     */
+    public int signum(RegisterName register) {
+        if (longs == null)
+            return Integer.signum(get(register));
+        int i = index(register);
+        return (bigs[i] != null) ? bigs[i].signum() : Long.signum(longs[i]);
+    }
+
+    /**
+     * Compares the values stored in two registers.
+     *
+     * @param left  register name
+     * @param right register name
+     * @return a negative number, zero or a positive number as the value of
+     *         {@code left} is less than, equal to or greater than the value of
+     *         {@code right}
+     */
+    public int compare(RegisterName left, RegisterName right) {
+        if (longs == null)
+            return Integer.compare(get(left), get(right));
+        int l = index(left);
+        int r = index(right);
+        if (bigs[l] == null && bigs[r] == null)
+            return Long.compare(longs[l], longs[r]);
+        return exact(l).compareTo(exact(r));
+    }
+
+    /**
+     * Adds the value of register {@code source} to register {@code result}.
+     *
+     * @param result register name
+     * @param source register name
+     */
+    public void add(RegisterName result, RegisterName source) {
+        if (longs == null)
+            set(result, get(result) + get(source));
+        else
+            combine(Operation.ADD, index(result), index(source));
+    }
+
+    /**
+     * Adds an integer to register {@code result}.
+     *
+     * @param result register name
+     * @param value  integer value
+     */
+    public void add(RegisterName result, int value) {
+        if (longs == null)
+            set(result, get(result) + value);
+        else
+            combine(Operation.ADD, index(result), value, null);
+    }
+
+    /**
+     * Subtracts the value of register {@code source} from register
+     * {@code result}.
+     *
+     * @param result register name
+     * @param source register name
+     */
+    public void subtract(RegisterName result, RegisterName source) {
+        if (longs == null)
+            set(result, get(result) - get(source));
+        else
+            combine(Operation.SUBTRACT, index(result), index(source));
+    }
+
+    /**
+     * Subtracts an integer from register {@code result}.
+     *
+     * @param result register name
+     * @param value  integer value
+     */
+    public void subtract(RegisterName result, int value) {
+        if (longs == null)
+            set(result, get(result) - value);
+        else
+            combine(Operation.SUBTRACT, index(result), value, null);
+    }
+
+    /**
+     * Multiplies register {@code result} by the value of register
+     * {@code source}.
+     *
+     * @param result register name
+     * @param source register name
+     */
+    public void multiply(RegisterName result, RegisterName source) {
+        if (longs == null)
+            set(result, get(result) * get(source));
+        else
+            combine(Operation.MULTIPLY, index(result), index(source));
+    }
+
+    /**
+     * Multiplies register {@code result} by an integer.
+     *
+     * @param result register name
+     * @param value  integer value
+     */
+    public void multiply(RegisterName result, int value) {
+        if (longs == null)
+            set(result, get(result) * value);
+        else
+            combine(Operation.MULTIPLY, index(result), value, null);
+    }
+
+    /**
+     * Divides register {@code result} by the value of register {@code source},
+     * rounding towards zero.
+     *
+     * @param result register name
+     * @param source register name
+     * @throws ArithmeticException if the value of {@code source} is 0
+     */
+    public void divide(RegisterName result, RegisterName source) {
+        if (longs == null)
+            set(result, get(result) / get(source));
+        else
+            combine(Operation.DIVIDE, index(result), index(source));
+    }
+
+    /**
+     * Divides register {@code result} by an integer, rounding towards zero.
+     *
+     * @param result register name
+     * @param value  integer value
+     * @throws ArithmeticException if {@code value} is 0
+     */
+    public void divide(RegisterName result, int value) {
+        if (longs == null)
+            set(result, get(result) / value);
+        else
+            combine(Operation.DIVIDE, index(result), value, null);
+    }
+
+    private static int index(RegisterName register) {
+        return ((Register) register).ordinal();
+    }
+
+    private BigInteger exact(int i) {
+        return (bigs[i] != null) ? bigs[i] : BigInteger.valueOf(longs[i]);
+    }
+
+    private void setLong(int i, long value) {
+        longs[i] = value;
+        bigs[i] = null;
+    }
+
+    private void setExact(int i, BigInteger value) {
+        if (value.bitLength() < Long.SIZE) {
+            setLong(i, value.longValue());
+        } else {
+            longs[i] = 0;
+            bigs[i] = value;
+        }
+    }
+
+    private void combine(Operation operation, int result, int source) {
+        combine(operation, result, longs[source], bigs[source]);
+    }
+
+    /**
+     * Applies an operation to a register in wide mode, on {@code long}s unless
+     * an operand is a {@code BigInteger} or the result overflows.
+     *
+     * @param operation the operation
+     * @param result    the ordinal of the result register
+     * @param operand   the second operand, if it fits in a {@code long}
+     * @param big       the second operand, if it does not fit in a
+     *                  {@code long}, or null
+     */
+    private void combine(Operation operation, int result, long operand, BigInteger big) {
+        if (bigs[result] == null && big == null) {
+            long value = longs[result];
+            try {
+                setLong(result, switch (operation) {
+                    case ADD -> Math.addExact(value, operand);
+                    case SUBTRACT -> Math.subtractExact(value, operand);
+                    case MULTIPLY -> Math.multiplyExact(value, operand);
+                    case DIVIDE -> Math.divideExact(value, operand);
+                });
+                return;
+            } catch (ArithmeticException overflow) {
+                // Redone exactly below, which also reports a division by zero
+            }
+        }
+        BigInteger value = exact(result);
+        BigInteger other = (big != null) ? big : BigInteger.valueOf(operand);
+        setExact(result, switch (operation) {
+            case ADD -> value.add(other);
+            case SUBTRACT -> value.subtract(other);
+            case MULTIPLY -> value.multiply(other);
+            case DIVIDE -> value.divide(other);
+        });
+    }
+
     /**
      * Compares the state and type of this object to that of another object.
      * 
@@ -97,7 +432,14 @@ public final class Registers {
         if (o instanceof Registers other) {
             // The binding variable `other` can be used in this scope
             // because the `instanceof` predicate evaluates to true in this block.
-            return registers.equals(other.registers);
+            if (longs == null && other.longs == null)
+                return registers.equals(other.registers);
+            // Wide values are only equal if they are exactly equal.
+            for (Register register : REGISTERS) {
+                if (!getExact(register).equals(other.getExact(register)))
+                    return false;
+            }
+            return true;
         }
         return false;
     }
@@ -113,7 +455,13 @@ public final class Registers {
      */
     @Override
     public int hashCode() {
-        return registers.hashCode();
+        if (longs == null)
+            return registers.hashCode();
+        // The hash code of the map holding the same int values
+        int hash = 0;
+        for (Register register : REGISTERS)
+            hash += register.hashCode() ^ Integer.hashCode(get(register));
+        return hash;
     }
 
     /**
@@ -125,7 +473,7 @@ public final class Registers {
     public String toString() {
         return registers.entrySet().stream()
                 .sorted(Map.Entry.comparingByKey())
-                .map(e -> e.getKey() + " = " + e.getValue())
+                .map(e -> e.getKey() + " = " + ((longs == null) ? e.getValue() : getExact(e.getKey())))
                 .collect(Collectors.joining(", ", "[", "]"));
     }
 }
@@ -0,0 +1,24 @@
+package sml;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Thrown by a strict {@link Translator} when a program contains instructions
+ * or labels that cannot be translated, instead of printing the errors and
+ * translating the rest of the program.
+ *
+ * @author Arthur Gousset
+ */
+public class TranslationException extends IOException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor: the program could not be translated.
+	 *
+	 * @param errors the errors found in the program, in order
+	 */
+	public TranslationException(List<String> errors) {
+		super("The program cannot be translated: " + String.join("; ", errors));
+	}
+}
@@ -1,11 +1,11 @@
 package sml;
 
-import sml.instruction.*;
-
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -33,6 +33,33 @@ public final class Translator {
    */
   private final String fileName; // source file of SML code
 
+  /**
+   * The SML code to translate when it is not read from a file, null otherwise.
+   */
+  private final String source;
+
+  /**
+   * The optional interner sharing one instance of every distinct instruction;
+   * instructions are not shared when this field is null.
+   */
+  private final InstructionInterner interner;
+
+  /**
+   * Whether errors are reported by throwing a {@link TranslationException}
+   * rather than printed.
+   */
+  private final boolean strict;
+
+  /**
+   * The errors found during the last translation, each with its line number.
+   */
+  private final List<String> errors = new ArrayList<>();
+
+  /**
+   * The number of the line being translated, starting from 1.
+   */
+  private int lineNumber;
+
   /**
    * String representing the characters in the current line of the plaintext file
    * that have not be processed yet and will be processed next.
@@ -48,7 +75,65 @@ public final class Translator {
    *                 that the translator object should parse.
    */
   public Translator(String fileName) {
+    this(fileName, null);
+  }
+
+  /**
+   * Constructor: Produces a translator object which shares the instances of
+   * identical instructions through an interner.
+   * 
+   * <p>
+   * The labels of shared instructions are only recorded in the {@code labels}
+   * passed to {@link #readAndTranslate}.
+   * 
+   * @param fileName name of the plaintext file containing the instructions
+   *                 that the translator object should parse.
+   * @param interner the interner sharing instructions, possibly between
+   *                 several translators, or null to not share instructions
+   */
+  public Translator(String fileName, InstructionInterner interner) {
+    this(fileName, null, interner, false);
+  }
+
+  private Translator(String fileName, String source, InstructionInterner interner, boolean strict) {
     this.fileName = fileName;
+    this.source = source;
+    this.interner = interner;
+    this.strict = strict;
+  }
+
+  /**
+   * Produces a translator object that translates SML code held in memory
+   * instead of a file.
+   * 
+   * @param source the SML code, one instruction per line
+   * @return a translator reading {@code source}
+   */
+  public static Translator forSource(String source) {
+    return new Translator("<source>", source, null, false);
+  }
+
+  /**
+   * Produces a translator reading the same program as this one, which does not
+   * print the errors it finds but throws a {@link TranslationException} listing
+   * them once the whole program has been read. Strict translators are meant
+   * for programs translated concurrently, e.g. in a batch, whose errors must be
+   * reported with their own results.
+   * 
+   * @return a strict translator
+   */
+  public Translator strict() {
+    return new Translator(fileName, source, interner, true);
+  }
+
+  /**
+   * Returns the errors found during the last translation, e.g. unknown
+   * instructions or duplicate labels, each prefixed with its line number.
+   * 
+   * @return the errors, empty if the whole program was translated
+   */
+  public List<String> getErrors() {
+    return List.copyOf(errors);
   }
 
   /**
@@ -74,15 +159,21 @@ public final class Translator {
    *                ({@code Map<String, Integer>})
    * @param program a list of Instructions ({@code List<Instruction>})
    * @throws IOException
+   * @throws TranslationException if this translator is strict and the program
+   *                              contains errors
    */
   public void readAndTranslate(Labels labels, List<Instruction> program) throws IOException {
+    errors.clear();
+    lineNumber = 0;
     // This `try-with-resources` block declares resources that can be used in the
     // `try`
     // block and will be closed after the execution of this block.
     //
     // Specifically declares and initializes a Scanner object using the supplied
     // plaintext file
-    try (var sc = new Scanner(new File(fileName), StandardCharsets.UTF_8)) {
+    try (var sc = (source == null)
+        ? new Scanner(new File(fileName), StandardCharsets.UTF_8)
+        : new Scanner(source)) {
       // Removes any existing labels
       //
       // Specifically removes all mappings from the Map<String, Integer> `labels` map.
@@ -103,6 +194,7 @@ public final class Translator {
       while (sc.hasNextLine()) {
         // Reads a line from the plaintext file using the Scanner `nextLine()` method
         line = sc.nextLine();
+        lineNumber++;
         // Parses the label if present using the Translator `getLabel()` method
         String label = getLabel();
         // Produces an Instruction object of the appropriate type
@@ -135,19 +227,43 @@ public final class Translator {
               labels.addLabel(label, program.size());
             }
           } catch (Exception e) {
-            System.out.println(e.getMessage());
+            error(e.getMessage());
           }
-          program.add(instruction);
+          program.add((interner == null) ? instruction : interner.intern(instruction));
         }
       }
     } catch (Exception e) {
-      System.out.println("Error transforming plaintext file into internal form.");
+      error("Error transforming plaintext file into internal form.");
     }
+    if (strict && !errors.isEmpty())
+      throw new TranslationException(errors);
+  }
+
+  /**
+   * Records an error found in the current line, and prints it unless this
+   * translator is strict.
+   * 
+   * @param message the description of the error
+   */
+  private void error(String message) {
+    errors.add("line " + lineNumber + ": " + message);
+    if (!strict)
+      System.out.println(message);
   }
 
   /**
    * Translates the current line into an instruction with the given label
    *
+   * <p>
+   * The classes implementing the opcode are looked up in
+   * {@link Machine#OPCODE_MAP}, and the instruction is built with the first
+   * public constructor, of the first of these classes, that takes the label
+   * followed by one parameter per operand, where every operand can be converted
+   * to the type of its parameter (see {@link #operand}). For example,
+   * {@code add EAX EBX} builds an {@code AddInstruction} while {@code add EAX 5}
+   * builds an {@code AddImmediateInstruction}. Adding an instruction to the
+   * language therefore only requires adding its class to the map.
+   *
    * @param label the instruction label
    * @return the new instruction
    *         <p>
@@ -159,141 +275,59 @@ public final class Translator {
       return null;
 
     String opcode = scan();
-
-    // Creates new instruction
-    switch (opcode) {
-      case AddInstruction.OP_CODE -> {
-        String r = scan();
-        String s = scan();
-        // Uses Reflection API but couldn't work out way to remove switch statement
-        try {
-          Class<?> instructionImpl = Machine.OPCODE_MAP.get(opcode);
-          Class<?>[] parameterTypes = new Class[] {
-              String.class,
-              sml.RegisterName.class,
-              sml.RegisterName.class };
-          Constructor<?> constructor = instructionImpl.getConstructor(parameterTypes);
-          return (Instruction) constructor.newInstance(
-              label,
-              Register.valueOf(r),
-              Register.valueOf(s));
-        } catch (Exception e) {
-          System.out.println("Error constructing " + opcode + " instruction.");
-        }
-      }
-
-      case SubInstruction.OP_CODE -> {
-        String r = scan();
-        String s = scan();
-        // Uses Reflection API but couldn't work out way to remove switch statement
-        try {
-          Class<?> instructionImpl = Machine.OPCODE_MAP.get(opcode);
-          Class<?>[] parameterTypes = new Class[] {
-              String.class,
-              sml.RegisterName.class,
-              sml.RegisterName.class };
-          Constructor<?> constructor = instructionImpl.getConstructor(parameterTypes);
-          return (Instruction) constructor.newInstance(
-              label,
-              Register.valueOf(r),
-              Register.valueOf(s));
-        } catch (Exception e) {
-          System.out.println("Error constructing " + opcode + " instruction.");
-        }
-      }
-
-      case MulInstruction.OP_CODE -> {
-        String r = scan();
-        String s = scan();
-        // Uses Reflection API but couldn't work out way to remove switch statement
-        try {
-          Class<?> instructionImpl = Machine.OPCODE_MAP.get(opcode);
-          Class<?>[] parameterTypes = new Class[] {
-              String.class,
-              sml.RegisterName.class,
-              sml.RegisterName.class };
-          Constructor<?> constructor = instructionImpl.getConstructor(parameterTypes);
-          return (Instruction) constructor.newInstance(
-              label,
-              Register.valueOf(r),
-              Register.valueOf(s));
-        } catch (Exception e) {
-          System.out.println("Error constructing " + opcode + " instruction.");
-        }
-      }
-
-      case DivInstruction.OP_CODE -> {
-        String r = scan();
-        String s = scan();
-        // Uses Reflection API but couldn't work out way to remove switch statement
-        try {
-          Class<?> instructionImpl = Machine.OPCODE_MAP.get(opcode);
-          Class<?>[] parameterTypes = new Class[] {
-              String.class,
-              sml.RegisterName.class,
-              sml.RegisterName.class };
-          Constructor<?> constructor = instructionImpl.getConstructor(parameterTypes);
-          return (Instruction) constructor.newInstance(
-              label,
-              Register.valueOf(r),
-              Register.valueOf(s));
-        } catch (Exception e) {
-          System.out.println("Error constructing " + opcode + " instruction.");
-        }
-      }
-
-      case OutInstruction.OP_CODE -> {
-        String s = scan();
-        // Uses Reflection API but couldn't work out way to remove switch statement
-        try {
-          Class<?> instructionImpl = Machine.OPCODE_MAP.get(opcode);
-          Class<?>[] parameterTypes = new Class[] { String.class, sml.RegisterName.class };
-          Constructor<?> constructor = instructionImpl.getConstructor(parameterTypes);
-          return (Instruction) constructor.newInstance(label, Register.valueOf(s));
-        } catch (Exception e) {
-          System.out.println("Error constructing " + opcode + " instruction.");
-        }
-      }
-
-      case MovInstruction.OP_CODE -> {
-        String r = scan();
-        int value = Integer.parseInt(scan());
-        return new MovInstruction(label, Register.valueOf(r), value);
-      }
-
-      case JnzInstruction.OP_CODE -> {
-        String s = scan();
-        String L = scan();
-        // Uses Reflection API but couldn't work out way to remove switch statement
+    List<Class<? extends Instruction>> instructionImpls = Machine.OPCODE_MAP.get(opcode);
+    if (instructionImpls == null) {
+      error("Unknown instruction: " + opcode);
+      return null;
+    }
+    List<String> operands = line.isBlank() ? List.of() : List.of(line.trim().split("\\s+"));
+    for (Class<? extends Instruction> instructionImpl : instructionImpls) {
+      for (Constructor<?> constructor : instructionImpl.getConstructors()) {
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        if (parameterTypes.length != operands.size() + 1 || parameterTypes[0] != String.class)
+          continue;
         try {
-          Class<?> instructionImpl = Machine.OPCODE_MAP.get(opcode);
-          Class<?>[] parameterTypes = new Class[] {
-              String.class,
-              sml.RegisterName.class,
-              String.class };
-          Constructor<?> constructor = instructionImpl.getConstructor(parameterTypes);
-          return (Instruction) constructor.newInstance(label, Register.valueOf(s), L);
+          Object[] arguments = new Object[parameterTypes.length];
+          arguments[0] = label;
+          for (int i = 1; i < parameterTypes.length; i++)
+            arguments[i] = operand(parameterTypes[i], operands.get(i - 1));
+          return (Instruction) constructor.newInstance(arguments);
+        } catch (IllegalArgumentException ignored) {
+          // The operands do not fit this constructor; tries the next one
         } catch (Exception e) {
-          System.out.println("Error constructing " + opcode + " instruction.");
+          error("Error constructing " + opcode + " instruction.");
+          return null;
         }
       }
-
-      default -> {
-        System.out.println("Unknown instruction: " + opcode);
-      }
     }
-    // TODO: Then, replace the switch by using the Reflection API
-
-    // Was able to construct Instructions above using Reflection API
-    // but was not able to completely remove the switch statement
-    // I started using the `builder` method below, but couldn't get it to work fully.
-
     // TODO: Next, use dependency injection to allow this machine class
     // to work with different sets of opcodes (different CPUs)
 
+    error("Error constructing " + opcode + " instruction.");
     return null;
   }
 
+  /**
+   * Converts an operand to the type of a constructor parameter: a register
+   * name, a comma-separated list of register names, an integer or a label.
+   *
+   * @param type    the type of the constructor parameter
+   * @param operand the operand as written in the program
+   * @return the operand converted to {@code type}
+   * @throws IllegalArgumentException if the operand cannot be converted
+   */
+  private static Object operand(Class<?> type, String operand) {
+    if (type == RegisterName.class)
+      return Register.valueOf(operand);
+    if (type == RegisterName[].class)
+      return Arrays.stream(operand.split(",")).map(Register::valueOf).toArray(RegisterName[]::new);
+    if (type == int.class)
+      return Integer.parseInt(operand);
+    if (type == String.class)
+      return operand;
+    throw new IllegalArgumentException("Unsupported operand type: " + type.getName());
+  }
+
   /**
    * Creates an instance of the class described in param className should such a
    * class exist. An appropriate constructor is chosen based on the number of
@@ -412,6 +446,9 @@ public final class Translator {
         return word;
       }
 
-    return line;
+    // The word is the last one on the line
+    String word = line;
+    line = "";
+    return word;
   }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package sml.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import sml.CancellationToken;
+import sml.ExecutionLimits;
+import sml.ExecutionResult;
+import sml.Machine;
+import sml.Registers;
+
+/**
+ * This class executes the program of a machine without blocking the caller,
+ * and publishes the values written by {@code out} instructions while the
+ * program runs.
+ *
+ * <p>
+ * Subscribers are added to {@link #output()} before the execution is started,
+ * so that they see every value:
+ *
+ * <pre>
+ * AsyncExecution execution = new AsyncExecution(machine);
+ * execution.output().subscribe(subscriber);
+ * execution.start().thenAccept(result -&gt; ...);
+ * </pre>
+ *
+ * <p>
+ * The publisher honours the demand of its subscribers: once a subscriber has
+ * {@code bufferCapacity} values it has not requested, the next {@code out}
+ * instruction waits until it requests more, so a slow consumer slows the
+ * program down instead of letting the output accumulate in memory. The
+ * publisher is completed when the program stops, and completed exceptionally
+ * if the program fails.
+ *
+ * <p>
+ * Cancelling the future returned by {@link #start} stops the program at its
+ * next backward jump. An {@code out} instruction waiting for a subscriber
+ * gives up within {@code OFFER_POLL_MILLIS} milliseconds of the cancellation,
+ * dropping its value, so the program reaches that jump even if no subscriber
+ * ever requests more.
+ *
+ * @author Arthur Gousset
+ */
+public final class AsyncExecution {
+	/**
+	 * Longest time, in milliseconds, an {@code out} instruction waits for a
+	 * subscriber between two checks of the cancellation token.
+	 */
+	private static final long OFFER_POLL_MILLIS = 10;
+
+	private final Machine machine;
+	private final SubmissionPublisher<Integer> publisher;
+	private CompletableFuture<ExecutionResult> result;
+
+	/**
+	 * Constructor: an execution of the program of {@code machine} publishing its
+	 * output with the default buffer capacity.
+	 *
+	 * @param machine the machine holding the program
+	 */
+	public AsyncExecution(Machine machine) {
+		this(machine, Flow.defaultBufferSize());
+	}
+
+	/**
+	 * Constructor: an execution of the program of {@code machine} publishing its
+	 * output with a buffer of {@code bufferCapacity} values per subscriber.
+	 *
+	 * @param machine        the machine holding the program
+	 * @param bufferCapacity the number of values buffered for every subscriber
+	 */
+	public AsyncExecution(Machine machine, int bufferCapacity) {
+		this.machine = machine;
+		this.publisher = new SubmissionPublisher<>(ForkJoinPool.commonPool(), bufferCapacity);
+	}
+
+	/**
+	 * Returns the publisher of the values written by {@code out} instructions.
+	 *
+	 * @return the publisher of the output of the program
+	 */
+	public Flow.Publisher<Integer> output() {
+		return publisher;
+	}
+
+	public Machine getMachine() {
+		return machine;
+	}
+
+	/**
+	 * Starts executing the program on a new virtual thread, with every register
+	 * set to 0 and no limit.
+	 *
+	 * @return the result of the execution, once the program stops
+	 */
+	public CompletableFuture<ExecutionResult> start() {
+		return start(null, ExecutionLimits.NONE, Thread::startVirtualThread);
+	}
+
+	/**
+	 * Starts executing the program.
+	 *
+	 * @param initialRegisters the register values the program starts with, or
+	 *                         null for every register set to 0
+	 * @param limits           the limits within which the program runs
+	 * @param executor         the executor running the program
+	 * @return the result of the execution, once the program stops
+	 * @throws IllegalStateException if the execution has already been started
+	 */
+	public synchronized CompletableFuture<ExecutionResult> start(Registers initialRegisters, ExecutionLimits limits,
+			Executor executor) {
+		if (result != null)
+			throw new IllegalStateException("The execution has already been started.");
+		CancellationToken token = (limits.cancellation() != null) ? limits.cancellation() : new CancellationToken();
+		ExecutionLimits cancellable = limits.withCancellation(token);
+		machine.setOutput(value -> publish(value, token));
+		result = CompletableFuture.supplyAsync(() -> {
+			try {
+				ExecutionResult executionResult = (initialRegisters == null)
+						? machine.execute(cancellable)
+						: machine.execute(initialRegisters, cancellable);
+				publisher.close();
+				return executionResult;
+			} catch (RuntimeException e) {
+				publisher.closeExceptionally(e);
+				throw e;
+			}
+		}, executor);
+		// Only the runner closes the publisher: closing it here would wait for the
+		// lock held by an out instruction waiting for a subscriber
+		result.whenComplete((executionResult, error) -> {
+			if (result.isCancelled())
+				token.cancel();
+		});
+		return result;
+	}
+
+	/**
+	 * Publishes a value written by an {@code out} instruction, waiting for every
+	 * subscriber to have room for it unless the execution is cancelled.
+	 *
+	 * @param value the value written
+	 * @param token the cancellation token of the execution
+	 */
+	private void publish(int value, CancellationToken token) {
+		publisher.offer(value, OFFER_POLL_MILLIS, TimeUnit.MILLISECONDS,
+				(subscriber, item) -> awaitSpace(token));
+	}
+
+	/**
+	 * Waits, in slices of {@code OFFER_POLL_MILLIS} milliseconds, until no
+	 * subscriber has a full buffer. Called by the publisher, holding its lock,
+	 * for a subscriber whose buffer is still full after the first slice.
+	 *
+	 * @param token the cancellation token of the execution
+	 * @return true to offer the value to the subscriber again, or false to drop
+	 *         it because the execution is cancelled or the thread interrupted
+	 */
+	private boolean awaitSpace(CancellationToken token) {
+		long slice = TimeUnit.MILLISECONDS.toNanos(OFFER_POLL_MILLIS);
+		while (!token.isCancelled() && !Thread.currentThread().isInterrupted()) {
+			if (publisher.estimateMaximumLag() < publisher.getMaxBufferCapacity())
+				return true;
+			LockSupport.parkNanos(slice);
+		}
+		return false;
+	}
+}
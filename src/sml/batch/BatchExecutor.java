@@ -0,0 +1,189 @@
+package sml.batch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import sml.ExecutionLimits;
+import sml.ExecutionResult;
+import sml.ExecutionStoppedException;
+import sml.Machine;
+import sml.Registers;
+import sml.Translator;
+import sml.output.IntBufferOutputSink;
+
+/**
+ * This class runs many independent SML programs concurrently, each on its own
+ * virtual thread with its own machine and registers.
+ *
+ * <p>
+ * The number of programs running at the same time is limited. Once the limit
+ * is reached, {@link #submit} blocks the caller until a program completes,
+ * which stops a fast producer of jobs from queueing an unbounded amount of
+ * work.
+ *
+ * <p>
+ * The values written by {@code out} instructions are captured in the result of
+ * each program instead of being printed.
+ *
+ * @author Arthur Gousset
+ */
+public final class BatchExecutor implements AutoCloseable {
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	/**
+	 * One permit per program allowed to run at the same time.
+	 */
+	private final Semaphore permits;
+	private volatile boolean nonTerminationDetection;
+	private volatile boolean wide;
+
+	/**
+	 * Constructor: an executor running at most {@code maxConcurrency} programs
+	 * at the same time.
+	 *
+	 * @param maxConcurrency the maximum number of programs running at once
+	 */
+	public BatchExecutor(int maxConcurrency) {
+		if (maxConcurrency < 1)
+			throw new IllegalArgumentException("At least one program must be allowed to run.");
+		this.permits = new Semaphore(maxConcurrency);
+	}
+
+	/**
+	 * Enables or disables non-termination detection in the machines running the
+	 * programs (see {@link Machine#setNonTerminationDetection}).
+	 *
+	 * @param enabled whether non-termination is detected
+	 */
+	public void setNonTerminationDetection(boolean enabled) {
+		this.nonTerminationDetection = enabled;
+	}
+
+	/**
+	 * Switches the registers of the machines running the programs to wide mode
+	 * (see {@link Registers#setWide}).
+	 *
+	 * @param wide whether the registers hold exact integers
+	 */
+	public void setWide(boolean wide) {
+		this.wide = wide;
+	}
+
+	/**
+	 * Starts running a job, waiting first until fewer than the maximum number of
+	 * programs are running.
+	 *
+	 * @param job the job to run
+	 * @return the result of the job, once it completes
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public CompletableFuture<BatchResult> submit(BatchJob job) throws InterruptedException {
+		return submit(job, Long.MAX_VALUE, null);
+	}
+
+	/**
+	 * Starts running a job within limits, waiting first until fewer than the
+	 * maximum number of programs are running. The timeout starts when the
+	 * program does, not while it waits to run.
+	 *
+	 * @param job      the job to run
+	 * @param maxSteps the maximum number of instructions the program executes
+	 * @param timeout  how long the program may run for, or null for no timeout
+	 * @return the result of the job, once it completes
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public CompletableFuture<BatchResult> submit(BatchJob job, long maxSteps, Duration timeout)
+			throws InterruptedException {
+		permits.acquire();
+		try {
+			return CompletableFuture.supplyAsync(() -> {
+				try {
+					ExecutionLimits limits = ExecutionLimits.NONE.withMaxSteps(maxSteps);
+					return run(job, nonTerminationDetection, wide,
+							(timeout == null) ? limits : limits.withTimeout(timeout));
+				} finally {
+					permits.release();
+				}
+			}, executor);
+		} catch (RejectedExecutionException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Runs every job and waits for all of them to complete.
+	 *
+	 * @param jobs the jobs to run
+	 * @return the results, in the order of the jobs
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public List<BatchResult> runAll(Collection<BatchJob> jobs) throws InterruptedException {
+		List<CompletableFuture<BatchResult>> futures = new ArrayList<>(jobs.size());
+		for (BatchJob job : jobs)
+			futures.add(submit(job));
+		return futures.stream().map(CompletableFuture::join).toList();
+	}
+
+	/**
+	 * Translates and executes a job on the current thread, within limits. A job
+	 * stopped by a limit fails with an {@link ExecutionStoppedException}, and its
+	 * result holds the registers and output at that point. A job whose program
+	 * cannot be translated fails with a {@link sml.TranslationException} listing
+	 * the errors, and is not executed.
+	 *
+	 * @param job                     the job to run
+	 * @param nonTerminationDetection whether non-termination is detected
+	 * @param limits                  the limits within which the program runs
+	 * @return the result of the job
+	 */
+	public static BatchResult run(BatchJob job, boolean nonTerminationDetection, ExecutionLimits limits) {
+		return run(job, nonTerminationDetection, false, limits);
+	}
+
+	/**
+	 * Translates and executes a job on the current thread, within limits, as
+	 * {@link #run(BatchJob, boolean, ExecutionLimits)} does.
+	 *
+	 * @param job                     the job to run
+	 * @param nonTerminationDetection whether non-termination is detected
+	 * @param wide                    whether the registers hold exact integers
+	 * @param limits                  the limits within which the program runs
+	 * @return the result of the job
+	 */
+	static BatchResult run(BatchJob job, boolean nonTerminationDetection, boolean wide, ExecutionLimits limits) {
+		long start = System.nanoTime();
+		Machine machine = new Machine(new Registers());
+		machine.getRegisters().setWide(wide);
+		IntBufferOutputSink output = new IntBufferOutputSink();
+		machine.setOutput(output);
+		machine.setNonTerminationDetection(nonTerminationDetection);
+		Throwable error = null;
+		try {
+			Translator.forSource(job.source()).strict().readAndTranslate(machine.getLabels(), machine.getProgram());
+			ExecutionResult result = (job.initialRegisters() == null)
+					? machine.execute(limits)
+					: machine.execute(job.initialRegisters(), limits);
+			if (!result.halted())
+				error = new ExecutionStoppedException(result);
+		} catch (Exception e) {
+			error = e;
+		}
+		return new BatchResult(job.name(), machine.getRegisters(),
+				output.toArray(), error, System.nanoTime() - start);
+	}
+
+	/**
+	 * Waits for the running programs to complete and releases the executor.
+	 */
+	@Override
+	public void close() {
+		executor.close();
+	}
+}
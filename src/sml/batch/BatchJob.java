@@ -0,0 +1,43 @@
+package sml.batch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import sml.Registers;
+
+/**
+ * This class represents a program to run in a batch: its SML code and,
+ * optionally, the initial values of its registers.
+ *
+ * @param name             a name identifying the job in its result
+ * @param source           the SML code, one instruction per line
+ * @param initialRegisters the registers the program starts with, or null to
+ *                         start with every register set to 0
+ *
+ * @author Arthur Gousset
+ */
+public record BatchJob(String name, String source, Registers initialRegisters) {
+	/**
+	 * Returns a job running SML code with every register initially set to 0.
+	 *
+	 * @param name   a name identifying the job in its result
+	 * @param source the SML code
+	 * @return the job
+	 */
+	public static BatchJob of(String name, String source) {
+		return new BatchJob(name, source, null);
+	}
+
+	/**
+	 * Returns a job running the SML code of a file, named after the file.
+	 *
+	 * @param file the file containing the SML code
+	 * @return the job
+	 * @throws IOException if the file cannot be read
+	 */
+	public static BatchJob fromFile(Path file) throws IOException {
+		return of(file.toString(), Files.readString(file, StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,40 @@
+package sml.batch;
+
+import java.util.Arrays;
+
+import sml.Registers;
+
+/**
+ * This class represents the outcome of a job run in a batch.
+ *
+ * @param name      the name of the job
+ * @param registers the registers of the machine when the program stopped
+ * @param output    the values written by {@code out} instructions, in order
+ * @param error     the exception that stopped the program, or null if it ran
+ *                  to completion
+ * @param nanos     the time spent translating and executing the program, in
+ *                  nanoseconds
+ *
+ * @author Arthur Gousset
+ */
+public record BatchResult(String name, Registers registers, int[] output, Throwable error, long nanos) {
+	/**
+	 * Tells whether the program ran to completion.
+	 *
+	 * @return {@code true} if no exception stopped the program
+	 */
+	public boolean succeeded() {
+		return error == null;
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 *
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return name + ": " + (succeeded() ? "registers " + registers : "failed (" + error + ")")
+				+ ", output " + Arrays.toString(output);
+	}
+}
@@ -0,0 +1,63 @@
+package sml.batch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+
+/**
+ * This class is the entry point of a worker JVM started by a
+ * {@link ShardedBatchCoordinator}.
+ *
+ * <p>
+ * A worker reads jobs from its standard input, runs them with a
+ * {@link BatchExecutor} and writes their results to its standard output, using
+ * the {@link WorkerProtocol}. Anything else the engine prints goes to the
+ * standard error, so it cannot corrupt the protocol. The worker exits once
+ * asked to shut down, or once its input is closed, after its running jobs
+ * complete.
+ *
+ * <p>
+ * The system properties {@code sml.batch.concurrency},
+ * {@code sml.detectNonTermination} and {@code sml.wide} are honoured as in
+ * {@link sml.Main}. Every job runs within the limits sent with it, so that a
+ * program that never terminates stops by itself instead of holding the worker.
+ *
+ * @author Arthur Gousset
+ */
+public final class BatchWorker {
+	private BatchWorker() {
+	}
+
+	public static void main(String... args) throws IOException, InterruptedException {
+		PrintStream protocol = System.out;
+		System.setOut(System.err);
+		DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(protocol));
+		int concurrency = Integer.getInteger("sml.batch.concurrency", Runtime.getRuntime().availableProcessors());
+
+		try (BatchExecutor executor = new BatchExecutor(concurrency)) {
+			executor.setNonTerminationDetection(Boolean.getBoolean("sml.detectNonTermination"));
+			executor.setWide(Boolean.getBoolean("sml.wide"));
+			for (var request = WorkerProtocol.readRequest(in); request != null; request = WorkerProtocol.readRequest(in)) {
+				int id = request.id();
+				executor.submit(request.job(), request.maxSteps(), request.timeout()).thenAccept(result -> {
+					synchronized (out) {
+						try {
+							WorkerProtocol.writeResponse(out, id, result);
+							out.flush();
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					}
+				});
+			}
+		}
+		synchronized (out) {
+			out.flush();
+		}
+	}
+}
@@ -0,0 +1,414 @@
+package sml.batch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import sml.ExecutionLimits;
+import sml.Registers;
+
+/**
+ * This class runs a batch of SML programs in several worker JVMs on the local
+ * host, so that a very large batch is not limited by the heap of a single JVM
+ * and the garbage collection of one worker does not pause the others.
+ *
+ * <p>
+ * Every worker is a child process running {@link BatchWorker}, which receives
+ * jobs on its standard input and sends results back on its standard output
+ * using the compact binary {@link WorkerProtocol}. Each job goes to the worker
+ * with the fewest jobs in flight.
+ *
+ * <p>
+ * Every job runs within the {@link ExecutionLimits} of the coordinator, and for
+ * at most half the stall timeout, so that a program that never terminates
+ * stops by itself and fails with an {@link sml.ExecutionStoppedException}.
+ *
+ * <p>
+ * A worker that exits, or that has jobs in flight but has not returned a
+ * result for longer than the stall timeout, is killed and replaced, and its
+ * jobs are sent again to the least loaded workers. The failure is charged to
+ * the oldest of these jobs only, the one the worker was most likely stuck on;
+ * a job charged {@value #MAX_ATTEMPTS} times fails with an error instead of
+ * being retried forever. A worker that cannot be restarted is no longer used,
+ * and once none is left, jobs fail with the reason.
+ *
+ * <p>
+ * The coordinator only relies on the input and output streams of the workers,
+ * so workers on other hosts could be reached through sockets the same way.
+ *
+ * @author Arthur Gousset
+ */
+public final class ShardedBatchCoordinator implements AutoCloseable {
+	/**
+	 * Number of worker failures charged to a job before it fails.
+	 */
+	static final int MAX_ATTEMPTS = 3;
+
+	/**
+	 * A job sent to a worker whose result has not been received yet.
+	 */
+	private static final class Pending {
+		private final BatchJob job;
+		private final CompletableFuture<BatchResult> result = new CompletableFuture<>();
+		/**
+		 * The number of workers that failed while this job was the oldest in
+		 * flight on them.
+		 */
+		private int failures;
+
+		private Pending(BatchJob job) {
+			this.job = job;
+		}
+	}
+
+	/**
+	 * A worker process and the jobs in flight on it.
+	 */
+	private final class Worker {
+		private final int index;
+		/**
+		 * The jobs in flight, by request id; ids increase, so the oldest comes
+		 * first.
+		 */
+		private final SortedMap<Integer, Pending> inFlight = new TreeMap<>();
+		/**
+		 * The running process, or null if it could not be restarted.
+		 */
+		private Process process;
+		private DataOutputStream in;
+		/**
+		 * When the worker last returned a result or was given a job while idle, in
+		 * the time base of {@code System.nanoTime()}.
+		 */
+		private long lastProgress;
+
+		private Worker(int index) {
+			this.index = index;
+		}
+
+		/**
+		 * Starts the process of the worker, and a thread reading its results.
+		 */
+		private void start() throws IOException {
+			Process started = new ProcessBuilder(command)
+					.redirectError(ProcessBuilder.Redirect.INHERIT)
+					.start();
+			process = started;
+			in = new DataOutputStream(new BufferedOutputStream(started.getOutputStream()));
+			lastProgress = System.nanoTime();
+			DataInputStream out = new DataInputStream(new BufferedInputStream(started.getInputStream()));
+			Thread.ofVirtual().name("sml-worker-" + index + "-reader").start(() -> read(this, started, out));
+		}
+	}
+
+	private final List<String> command;
+	private final long stallNanos;
+	private final ExecutionLimits limits;
+	private final Worker[] workers;
+	private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(
+			runnable -> Thread.ofPlatform().name("sml-worker-watchdog").daemon(true).unstarted(runnable));
+	private int nextId;
+	private boolean closed;
+	/**
+	 * Why the last worker that could not be restarted failed, or null.
+	 */
+	private String restartFailure;
+
+	/**
+	 * Constructor: a coordinator starting {@code workers} worker JVMs with the
+	 * same Java runtime and classes as this one.
+	 *
+	 * @param workers      the number of worker processes
+	 * @param stallTimeout how long a worker with jobs in flight may go without
+	 *                     returning a result
+	 * @throws IOException if a worker cannot be started
+	 */
+	public ShardedBatchCoordinator(int workers, Duration stallTimeout) throws IOException {
+		this(workers, stallTimeout, defaultCommand());
+	}
+
+	/**
+	 * Constructor: a coordinator starting {@code workers} worker processes with a
+	 * given command.
+	 *
+	 * @param workers      the number of worker processes
+	 * @param stallTimeout how long a worker with jobs in flight may go without
+	 *                     returning a result
+	 * @param command      the command starting a worker, e.g. a {@code java}
+	 *                     command line running {@link BatchWorker}
+	 * @throws IOException if a worker cannot be started
+	 */
+	public ShardedBatchCoordinator(int workers, Duration stallTimeout, List<String> command) throws IOException {
+		this(workers, stallTimeout, ExecutionLimits.NONE, command);
+	}
+
+	/**
+	 * Constructor: a coordinator starting {@code workers} worker processes with a
+	 * given command, running every job within limits. The maximum number of
+	 * steps applies to each job and the deadline to the whole batch; a
+	 * cancellation token cannot reach the workers.
+	 *
+	 * @param workers      the number of worker processes
+	 * @param stallTimeout how long a worker with jobs in flight may go without
+	 *                     returning a result
+	 * @param limits       the limits within which every job runs
+	 * @param command      the command starting a worker, e.g.
+	 *                     {@link #defaultCommand()}
+	 * @throws IOException if a worker cannot be started
+	 */
+	public ShardedBatchCoordinator(int workers, Duration stallTimeout, ExecutionLimits limits, List<String> command)
+			throws IOException {
+		if (workers < 1)
+			throw new IllegalArgumentException("At least one worker is required.");
+		if (limits.cancellation() != null)
+			throw new IllegalArgumentException("Worker processes cannot be cancelled with a token.");
+		this.command = List.copyOf(command);
+		this.stallNanos = stallTimeout.toNanos();
+		this.limits = limits;
+		this.workers = new Worker[workers];
+		synchronized (this) {
+			for (int i = 0; i < workers; i++) {
+				this.workers[i] = new Worker(i);
+				this.workers[i].start();
+			}
+		}
+		long period = Math.max(1, stallTimeout.toMillis() / 4);
+		watchdog.scheduleAtFixedRate(this::checkStalls, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the command starting a worker JVM with the Java runtime, the
+	 * classes and the module and preview options of this JVM.
+	 *
+	 * @return the command line
+	 */
+	public static List<String> defaultCommand() {
+		List<String> command = new ArrayList<>();
+		command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+			if (argument.equals("--enable-preview") || argument.startsWith("--add-modules")
+					|| argument.startsWith("-Dsml."))
+				command.add(argument);
+		}
+		String classPath = System.getProperty("java.class.path");
+		try {
+			// The classes of the engine, when loaded by another class loader (e.g. a
+			// test launcher)
+			classPath = Path.of(BatchWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+					+ File.pathSeparator + classPath;
+		} catch (URISyntaxException | NullPointerException | SecurityException e) {
+			// Falls back to the class path of this JVM
+		}
+		command.addAll(List.of("-cp", classPath, BatchWorker.class.getName()));
+		return command;
+	}
+
+	/**
+	 * Sends a job to the worker with the fewest jobs in flight.
+	 *
+	 * @param job the job to run
+	 * @return the result of the job, once it completes
+	 * @throws RejectedExecutionException if the coordinator is closed
+	 */
+	public synchronized CompletableFuture<BatchResult> submit(BatchJob job) {
+		if (closed)
+			throw new RejectedExecutionException("The coordinator is closed.");
+		Pending pending = new Pending(job);
+		dispatch(pending);
+		return pending.result;
+	}
+
+	/**
+	 * Runs every job and waits for all of them to complete.
+	 *
+	 * @param jobs the jobs to run
+	 * @return the results, in the order of the jobs
+	 */
+	public List<BatchResult> runAll(Collection<BatchJob> jobs) {
+		List<CompletableFuture<BatchResult>> futures = new ArrayList<>(jobs.size());
+		for (BatchJob job : jobs)
+			futures.add(submit(job));
+		return futures.stream().map(CompletableFuture::join).toList();
+	}
+
+	/**
+	 * Returns the number of jobs in flight on every worker.
+	 *
+	 * @return the load of every worker
+	 */
+	public synchronized int[] getLoads() {
+		int[] loads = new int[workers.length];
+		for (int i = 0; i < workers.length; i++)
+			loads[i] = workers[i].inFlight.size();
+		return loads;
+	}
+
+	/**
+	 * Sends a job to the least loaded worker. Called with the lock held.
+	 */
+	private void dispatch(Pending pending) {
+		Worker worker = null;
+		for (Worker candidate : workers) {
+			if (candidate.process != null && (worker == null || candidate.inFlight.size() < worker.inFlight.size()))
+				worker = candidate;
+		}
+		if (worker == null) {
+			complete(pending, "No worker is running. " + restartFailure);
+			return;
+		}
+		int id = nextId++;
+		if (worker.inFlight.isEmpty())
+			worker.lastProgress = System.nanoTime();
+		worker.inFlight.put(id, pending);
+		try {
+			WorkerProtocol.writeRequest(worker.in, id, pending.job, limits.maxSteps(), timeout());
+			worker.in.flush();
+		} catch (IOException e) {
+			fail(worker, "exited");
+		}
+	}
+
+	/**
+	 * Returns how long the next job may run for: half the stall timeout, so that
+	 * it stops before its worker is deemed stalled, or less if the deadline of
+	 * the batch is closer.
+	 */
+	private Duration timeout() {
+		Duration timeout = Duration.ofNanos(stallNanos / 2);
+		if (limits.deadline() != null) {
+			Duration remaining = Duration.between(Instant.now(), limits.deadline());
+			if (remaining.compareTo(timeout) < 0)
+				timeout = remaining.isNegative() ? Duration.ZERO : remaining;
+		}
+		return timeout;
+	}
+
+	/**
+	 * Completes a job with an error instead of running it.
+	 */
+	private static void complete(Pending pending, String error) {
+		pending.result.complete(new BatchResult(pending.job.name(), new Registers(), new int[0],
+				new WorkerProtocol.WorkerException(error), 0));
+	}
+
+	/**
+	 * Reads the results of a worker process until it exits.
+	 */
+	private void read(Worker worker, Process process, DataInputStream out) {
+		try {
+			while (true) {
+				WorkerProtocol.Response response = WorkerProtocol.readResponse(out);
+				Pending pending;
+				synchronized (this) {
+					if (worker.process != process)
+						return;
+					pending = worker.inFlight.remove(response.id());
+					worker.lastProgress = System.nanoTime();
+					notifyAll();
+				}
+				if (pending != null)
+					pending.result.complete(response.result());
+			}
+		} catch (IOException e) {
+			synchronized (this) {
+				if (worker.process == process && !(closed && worker.inFlight.isEmpty()))
+					fail(worker, "exited");
+			}
+		}
+	}
+
+	/**
+	 * Replaces the workers that have not returned a result for too long.
+	 */
+	private synchronized void checkStalls() {
+		long now = System.nanoTime();
+		for (Worker worker : workers) {
+			if (worker.process != null && !worker.inFlight.isEmpty() && now - worker.lastProgress > stallNanos)
+				fail(worker, "stalled");
+		}
+	}
+
+	/**
+	 * Kills a worker, starts a new process in its place and sends its jobs again,
+	 * charging the failure to the oldest of them. Called with the lock held.
+	 */
+	private void fail(Worker worker, String reason) {
+		worker.process.destroyForcibly();
+		worker.process = null;
+		List<Pending> orphans = new ArrayList<>(worker.inFlight.values());
+		worker.inFlight.clear();
+		try {
+			worker.start();
+		} catch (IOException e) {
+			restartFailure = "Error restarting worker " + worker.index + ": " + e.getMessage();
+		}
+		for (Pending pending : orphans) {
+			if (pending == orphans.getFirst() && ++pending.failures >= MAX_ATTEMPTS)
+				complete(pending, "Worker " + reason + " " + pending.failures + " times.");
+			else
+				dispatch(pending);
+		}
+		notifyAll();
+	}
+
+	/**
+	 * Waits for every job in flight to complete, then shuts the workers down.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			closed = true;
+			try {
+				while (getLoadTotal() > 0)
+					wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			watchdog.shutdownNow();
+			for (Worker worker : workers) {
+				try {
+					WorkerProtocol.writeShutdown(worker.in);
+					worker.in.close();
+				} catch (IOException e) {
+					// Already exited
+				}
+			}
+		}
+		for (Worker worker : workers) {
+			if (worker.process == null)
+				continue;
+			try {
+				if (!worker.process.waitFor(stallNanos, TimeUnit.NANOSECONDS))
+					worker.process.destroyForcibly();
+			} catch (InterruptedException e) {
+				worker.process.destroyForcibly();
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private int getLoadTotal() {
+		int total = 0;
+		for (Worker worker : workers)
+			total += worker.inFlight.size();
+		return total;
+	}
+}
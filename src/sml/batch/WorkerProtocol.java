@@ -0,0 +1,184 @@
+package sml.batch;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import sml.Registers;
+import sml.Registers.Register;
+
+/**
+ * This class defines the binary protocol between a
+ * {@link ShardedBatchCoordinator} and its {@link BatchWorker}s.
+ *
+ * <p>
+ * The coordinator writes requests to the standard input of a worker and the
+ * worker writes responses to its standard output, in any order; the id of a
+ * request is repeated in its response. All numbers are big-endian.
+ *
+ * <pre>
+ * request  = id:int (-1 to shut down), name, source, maxSteps:long, timeout:long,
+ *            hasRegisters:byte, [registers]
+ * response = id:int, name, registers, outputCount:int, output:int*, error, nanos:long
+ * name, source, error = length:int (-1 for null), UTF-8 bytes
+ * timeout   = nanoseconds the job may run for, -1 for no timeout
+ * registers = wide:byte, 8 x (int, or wide value if wide), in the order of {@link Register}
+ * wide value = length:int, two's-complement bytes
+ * </pre>
+ *
+ * @author Arthur Gousset
+ */
+final class WorkerProtocol {
+	/**
+	 * The id of the request asking a worker to exit once its jobs complete.
+	 */
+	static final int SHUTDOWN = -1;
+
+	/**
+	 * A job, the limits within which it runs and the id of the request carrying
+	 * it.
+	 *
+	 * @param maxSteps the maximum number of instructions the job executes
+	 * @param timeout  how long the job may run for, or null for no timeout
+	 */
+	record Request(int id, BatchJob job, long maxSteps, Duration timeout) {
+	}
+
+	/**
+	 * A result and the id of the request it answers.
+	 */
+	record Response(int id, BatchResult result) {
+	}
+
+	private WorkerProtocol() {
+	}
+
+	static void writeRequest(DataOutputStream out, int id, BatchJob job, long maxSteps, Duration timeout)
+			throws IOException {
+		out.writeInt(id);
+		writeString(out, job.name());
+		writeString(out, job.source());
+		out.writeLong(maxSteps);
+		out.writeLong((timeout == null) ? -1 : timeout.toNanos());
+		out.writeBoolean(job.initialRegisters() != null);
+		if (job.initialRegisters() != null)
+			writeRegisters(out, job.initialRegisters());
+	}
+
+	static void writeShutdown(DataOutputStream out) throws IOException {
+		out.writeInt(SHUTDOWN);
+	}
+
+	/**
+	 * Reads the next request.
+	 *
+	 * @param in the standard input of the worker
+	 * @return the request, or null when the worker is asked to shut down or its
+	 *         input is closed
+	 * @throws IOException if the input cannot be read
+	 */
+	static Request readRequest(DataInputStream in) throws IOException {
+		int id;
+		try {
+			id = in.readInt();
+		} catch (EOFException e) {
+			return null;
+		}
+		if (id == SHUTDOWN)
+			return null;
+		String name = readString(in);
+		String source = readString(in);
+		long maxSteps = in.readLong();
+		long timeout = in.readLong();
+		Registers registers = in.readBoolean() ? readRegisters(in) : null;
+		return new Request(id, new BatchJob(name, source, registers), maxSteps,
+				(timeout < 0) ? null : Duration.ofNanos(timeout));
+	}
+
+	static void writeResponse(DataOutputStream out, int id, BatchResult result) throws IOException {
+		out.writeInt(id);
+		writeString(out, result.name());
+		writeRegisters(out, result.registers());
+		out.writeInt(result.output().length);
+		for (int value : result.output())
+			out.writeInt(value);
+		writeString(out, (result.error() == null) ? null : result.error().toString());
+		out.writeLong(result.nanos());
+	}
+
+	static Response readResponse(DataInputStream in) throws IOException {
+		int id = in.readInt();
+		String name = readString(in);
+		Registers registers = readRegisters(in);
+		int[] output = new int[in.readInt()];
+		for (int i = 0; i < output.length; i++)
+			output[i] = in.readInt();
+		String error = readString(in);
+		long nanos = in.readLong();
+		return new Response(id, new BatchResult(name, registers, output,
+				(error == null) ? null : new WorkerException(error), nanos));
+	}
+
+	private static void writeRegisters(DataOutputStream out, Registers registers) throws IOException {
+		out.writeBoolean(registers.isWide());
+		for (Register register : Register.values()) {
+			if (registers.isWide()) {
+				byte[] bytes = registers.getExact(register).toByteArray();
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			} else {
+				out.writeInt(registers.get(register));
+			}
+		}
+	}
+
+	private static Registers readRegisters(DataInputStream in) throws IOException {
+		Registers registers = new Registers();
+		registers.setWide(in.readBoolean());
+		for (Register register : Register.values()) {
+			if (registers.isWide())
+				registers.set(register, new BigInteger(in.readNBytes(in.readInt())));
+			else
+				registers.set(register, in.readInt());
+		}
+		return registers;
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			return null;
+		return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Stands, in the coordinator, for the exception that stopped a job in a
+	 * worker or for the failure of the worker itself.
+	 */
+	static final class WorkerException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		WorkerException(String message) {
+			super(message);
+		}
+
+		@Override
+		public String toString() {
+			return getMessage();
+		}
+	}
+}
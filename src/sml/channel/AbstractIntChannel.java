@@ -0,0 +1,156 @@
+package sml.channel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class implements the blocking, closing and cancelling of a channel on
+ * top of the non-blocking operations of a ring buffer.
+ *
+ * <p>
+ * The timeout of a timed operation is counted from the end of its first
+ * {@code SPINS} attempts, so that an operation that does not wait long never
+ * reads the clock.
+ *
+ * @author Arthur Gousset
+ */
+abstract sealed class AbstractIntChannel implements IntChannel permits SpscIntChannel, MpmcIntChannel {
+	/**
+	 * Returned by {@link #poll()} when the buffer is empty.
+	 */
+	static final long EMPTY = Long.MIN_VALUE;
+	/**
+	 * Number of failed attempts spent spinning before parking.
+	 */
+	private static final int SPINS = 64;
+	/**
+	 * Longest time a waiting thread parks between two attempts, in nanoseconds.
+	 */
+	private static final long MAX_PARK_NANOS = 1_000_000;
+
+	/**
+	 * Number of slots, a power of two.
+	 */
+	final int capacity;
+	final int mask;
+	private volatile boolean closed;
+	private volatile boolean cancelled;
+
+	AbstractIntChannel(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("The capacity must be between 1 and 2^30.");
+		this.capacity = (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+	}
+
+	/**
+	 * Adds a value to the buffer if it is not full.
+	 *
+	 * @param value the value to add
+	 * @return {@code true} if the value was added
+	 */
+	abstract boolean offer(int value);
+
+	/**
+	 * Removes the oldest value from the buffer if it is not empty.
+	 *
+	 * @return the value removed, or {@link #EMPTY}
+	 */
+	abstract long poll();
+
+	@Override
+	public final boolean send(int value) throws InterruptedException {
+		for (int attempt = 0;; attempt++) {
+			if (cancelled)
+				return false;
+			if (offer(value))
+				return true;
+			backOff(attempt);
+		}
+	}
+
+	@Override
+	public final boolean send(int value, long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+		long nanos = unit.toNanos(timeout);
+		long start = 0;
+		for (int attempt = 0;; attempt++) {
+			if (cancelled)
+				return false;
+			if (offer(value))
+				return true;
+			if (attempt == SPINS)
+				start = System.nanoTime();
+			else if (attempt > SPINS && System.nanoTime() - start >= nanos)
+				throw new TimeoutException();
+			backOff(attempt);
+		}
+	}
+
+	@Override
+	public final long receive() throws InterruptedException {
+		for (int attempt = 0;; attempt++) {
+			long value = poll();
+			if (value != EMPTY)
+				return value;
+			if (closed)
+				return pollClosed();
+			backOff(attempt);
+		}
+	}
+
+	@Override
+	public final long receive(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+		long nanos = unit.toNanos(timeout);
+		long start = 0;
+		for (int attempt = 0;; attempt++) {
+			long value = poll();
+			if (value != EMPTY)
+				return value;
+			if (closed)
+				return pollClosed();
+			if (attempt == SPINS)
+				start = System.nanoTime();
+			else if (attempt > SPINS && System.nanoTime() - start >= nanos)
+				throw new TimeoutException();
+			backOff(attempt);
+		}
+	}
+
+	/**
+	 * Receives from a closed channel the values sent just before it was closed.
+	 */
+	private long pollClosed() {
+		long value = poll();
+		return (value != EMPTY) ? value : CLOSED;
+	}
+
+	/**
+	 * Waits before the next attempt: spins first, then parks for a time doubling
+	 * with every attempt.
+	 */
+	private static void backOff(int attempt) throws InterruptedException {
+		if (attempt < SPINS) {
+			Thread.onSpinWait();
+			return;
+		}
+		LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1_000L << Math.min(attempt - SPINS, 10)));
+		if (Thread.interrupted())
+			throw new InterruptedException();
+	}
+
+	@Override
+	public final void close() {
+		closed = true;
+	}
+
+	@Override
+	public final void cancel() {
+		cancelled = true;
+	}
+
+	@Override
+	public final int capacity() {
+		return capacity;
+	}
+}
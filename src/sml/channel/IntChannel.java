@@ -0,0 +1,93 @@
+package sml.channel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This interface represents a bounded channel of {@code int} values between
+ * machines: producers {@link #send} values, consumers {@link #receive} them in
+ * the order they were sent.
+ *
+ * <p>
+ * Values are stored unboxed. Both operations block while the channel is full,
+ * respectively empty; a blocked thread spins briefly and then parks, which is
+ * cheap on a virtual thread.
+ *
+ * <p>
+ * A channel is closed once every producer is done: consumers receive the
+ * values still buffered and then {@link #CLOSED}. A channel is cancelled once
+ * every consumer is done: sending fails instead of blocking forever.
+ *
+ * @author Arthur Gousset
+ */
+public interface IntChannel {
+	/**
+	 * Returned by {@link #receive()} when the channel is closed and empty. It
+	 * lies outside the range of {@code int}, so it is never a value.
+	 */
+	long CLOSED = Long.MIN_VALUE;
+
+	/**
+	 * Sends a value, waiting while the channel is full.
+	 *
+	 * @param value the value to send
+	 * @return {@code true} if the value was sent, {@code false} if the channel is
+	 *         cancelled, i.e. no consumer will ever receive it
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	boolean send(int value) throws InterruptedException;
+
+	/**
+	 * Sends a value, waiting at most {@code timeout} while the channel is full.
+	 *
+	 * @param value   the value to send
+	 * @param timeout the longest time to wait
+	 * @param unit    the unit of {@code timeout}
+	 * @return {@code true} if the value was sent, {@code false} if the channel is
+	 *         cancelled, i.e. no consumer will ever receive it
+	 * @throws InterruptedException if interrupted while waiting
+	 * @throws TimeoutException     if the channel is still full after
+	 *                              {@code timeout}
+	 */
+	boolean send(int value, long timeout, TimeUnit unit) throws InterruptedException, TimeoutException;
+
+	/**
+	 * Receives a value, waiting while the channel is empty.
+	 *
+	 * @return the value received, or {@link #CLOSED} if the channel is closed and
+	 *         every value sent has been received
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	long receive() throws InterruptedException;
+
+	/**
+	 * Receives a value, waiting at most {@code timeout} while the channel is
+	 * empty.
+	 *
+	 * @param timeout the longest time to wait
+	 * @param unit    the unit of {@code timeout}
+	 * @return the value received, or {@link #CLOSED} if the channel is closed and
+	 *         every value sent has been received
+	 * @throws InterruptedException if interrupted while waiting
+	 * @throws TimeoutException     if the channel is still empty after
+	 *                              {@code timeout}
+	 */
+	long receive(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException;
+
+	/**
+	 * Tells the consumers that no value will be sent anymore.
+	 */
+	void close();
+
+	/**
+	 * Tells the producers that no value will be received anymore.
+	 */
+	void cancel();
+
+	/**
+	 * Returns the maximum number of values held by the channel.
+	 *
+	 * @return the capacity of the channel
+	 */
+	int capacity();
+}
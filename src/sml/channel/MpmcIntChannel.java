@@ -0,0 +1,85 @@
+package sml.channel;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class implements a channel with any number of producers and consumers
+ * as a lock-free bounded ring buffer (Vyukov's algorithm).
+ *
+ * <p>
+ * Every slot carries a sequence number telling whether it is ready to be
+ * written or read for a given index. A thread claims an index by a
+ * compare-and-set of the tail (producers) or the head (consumers), then
+ * accesses the slot and publishes it by a release store of its sequence
+ * number, so threads only contend on the index they claim.
+ *
+ * @author Arthur Gousset
+ */
+public final class MpmcIntChannel extends AbstractIntChannel {
+	private final int[] buffer;
+	/**
+	 * For every slot: equal to the index for which it can be written, or to that
+	 * index plus one when it holds the value to read.
+	 */
+	private final AtomicLongArray sequences;
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Constructor: a channel holding at least {@code capacity} values.
+	 *
+	 * @param capacity the minimum capacity, rounded up to a power of two
+	 */
+	public MpmcIntChannel(int capacity) {
+		super(capacity);
+		this.buffer = new int[this.capacity];
+		this.sequences = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++)
+			sequences.setPlain(i, i);
+	}
+
+	@Override
+	boolean offer(int value) {
+		long t = tail.get();
+		while (true) {
+			int slot = (int) t & mask;
+			long difference = sequences.getAcquire(slot) - t;
+			if (difference == 0) {
+				if (tail.compareAndSet(t, t + 1)) {
+					buffer[slot] = value;
+					sequences.setRelease(slot, t + 1);
+					return true;
+				}
+				t = tail.get();
+			} else if (difference < 0) {
+				// Full
+				return false;
+			} else {
+				t = tail.get();
+			}
+		}
+	}
+
+	@Override
+	long poll() {
+		long h = head.get();
+		while (true) {
+			int slot = (int) h & mask;
+			long difference = sequences.getAcquire(slot) - (h + 1);
+			if (difference == 0) {
+				if (head.compareAndSet(h, h + 1)) {
+					int value = buffer[slot];
+					sequences.setRelease(slot, h + capacity);
+					return value;
+				}
+				h = head.get();
+			} else if (difference < 0) {
+				// Empty
+				return EMPTY;
+			} else {
+				h = head.get();
+			}
+		}
+	}
+}
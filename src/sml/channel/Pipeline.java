@@ -0,0 +1,180 @@
+package sml.channel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import sml.ExecutionLimits;
+import sml.ExecutionResult;
+import sml.Instruction;
+import sml.Machine;
+import sml.instruction.ForkInstruction;
+import sml.instruction.RecvInstruction;
+import sml.instruction.SendInstruction;
+
+/**
+ * This class runs several machines, the stages of a pipeline, concurrently,
+ * connecting them through the channels named by their {@code send} and
+ * {@code recv} instructions.
+ *
+ * <p>
+ * Every stage runs on its own virtual thread. The channels are created from
+ * the programs of the stages: a channel written and read by a single stage
+ * each is a {@link SpscIntChannel}, any other channel is a
+ * {@link MpmcIntChannel}. A channel is closed when every stage sending to it
+ * has halted, which lets the stages receiving from it halt once they have
+ * received every value; it is cancelled when every stage receiving from it has
+ * halted, which lets the stages sending to it halt instead of waiting forever.
+ *
+ * <p>
+ * For example, with stage A "{@code l1: send c EAX; sub EAX EBX; jnz EAX l1}"
+ * and stage B "{@code l1: recv c ECX; add EDX ECX; jnz ECX l1}", B adds up
+ * every value produced by A while A is still producing them.
+ *
+ * @author Arthur Gousset
+ */
+public final class Pipeline {
+	private final int capacity;
+	private final List<Machine> stages = new ArrayList<>();
+	private final Map<String, IntChannel> channels = new HashMap<>();
+
+	/**
+	 * Constructor: a pipeline whose channels hold at least {@code capacity}
+	 * values.
+	 *
+	 * @param capacity the minimum capacity of every channel
+	 */
+	public Pipeline(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("The capacity must be at least 1.");
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Adds a stage to the pipeline.
+	 *
+	 * @param machine the machine holding the program of the stage
+	 */
+	public void addStage(Machine machine) {
+		stages.add(machine);
+	}
+
+	/**
+	 * Returns the channels of the pipeline, by name, once it has been run.
+	 *
+	 * @return the channels of the last run
+	 */
+	public Map<String, IntChannel> getChannels() {
+		return Map.copyOf(channels);
+	}
+
+	/**
+	 * Runs every stage from its first instruction, with every register set to 0,
+	 * and waits for all of them to halt.
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 * @throws RuntimeException     the first exception that stopped a stage, once
+	 *                              every stage has stopped
+	 */
+	public void run() throws InterruptedException {
+		run(ExecutionLimits.NONE);
+	}
+
+	/**
+	 * Runs every stage from its first instruction, with every register set to 0,
+	 * within {@code limits}, and waits for all of them to stop.
+	 *
+	 * <p>
+	 * Every stage runs within the same limits, the step limit counting the
+	 * instructions of every stage separately, so a deadline or cancellation
+	 * stops the stages waiting on a channel as well as the running ones. A stage
+	 * that stops before halting closes and cancels its channels like a halted
+	 * one, which lets the other stages stop instead of waiting for it.
+	 *
+	 * @param limits the limits within which every stage runs
+	 * @return how every stage stopped, in the order the stages were added
+	 * @throws InterruptedException if interrupted while waiting
+	 * @throws RuntimeException     the first exception that stopped a stage, once
+	 *                              every stage has stopped
+	 */
+	public List<ExecutionResult> run(ExecutionLimits limits) throws InterruptedException {
+		int n = stages.size();
+		List<Set<String>> sends = new ArrayList<>(n);
+		List<Set<String>> receives = new ArrayList<>(n);
+		Map<String, AtomicInteger> producers = new HashMap<>();
+		Map<String, AtomicInteger> consumers = new HashMap<>();
+		Set<String> shared = new LinkedHashSet<>();
+		for (Machine stage : stages) {
+			Set<String> sent = new LinkedHashSet<>();
+			Set<String> received = new LinkedHashSet<>();
+			boolean forks = false;
+			for (Instruction ins : stage.getProgram()) {
+				if (ins instanceof SendInstruction send)
+					sent.add(send.getChannel());
+				else if (ins instanceof RecvInstruction recv)
+					received.add(recv.getChannel());
+				else if (ins instanceof ForkInstruction)
+					forks = true;
+			}
+			for (String name : sent) {
+				if (producers.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet() > 1 || forks)
+					shared.add(name);
+			}
+			for (String name : received) {
+				if (consumers.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet() > 1 || forks)
+					shared.add(name);
+			}
+			sends.add(sent);
+			receives.add(received);
+		}
+
+		channels.clear();
+		Set<String> names = new LinkedHashSet<>(producers.keySet());
+		names.addAll(consumers.keySet());
+		for (String name : names) {
+			IntChannel channel = shared.contains(name) ? new MpmcIntChannel(capacity) : new SpscIntChannel(capacity);
+			if (!producers.containsKey(name))
+				channel.close();
+			if (!consumers.containsKey(name))
+				channel.cancel();
+			channels.put(name, channel);
+		}
+
+		AtomicReference<RuntimeException> failure = new AtomicReference<>();
+		ExecutionResult[] results = new ExecutionResult[n];
+		List<Thread> threads = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			int index = i;
+			Machine stage = stages.get(i);
+			Set<String> sent = sends.get(i);
+			Set<String> received = receives.get(i);
+			stage.setChannels(channels);
+			threads.add(Thread.ofVirtual().name("sml-stage-" + i).start(() -> {
+				try {
+					results[index] = stage.execute(limits);
+				} catch (RuntimeException e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					for (String name : sent) {
+						if (producers.get(name).decrementAndGet() == 0)
+							channels.get(name).close();
+					}
+					for (String name : received) {
+						if (consumers.get(name).decrementAndGet() == 0)
+							channels.get(name).cancel();
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads)
+			thread.join();
+		if (failure.get() != null)
+			throw failure.get();
+		return List.of(results);
+	}
+}
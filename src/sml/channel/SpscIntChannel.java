@@ -0,0 +1,90 @@
+package sml.channel;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * This class implements a channel with a single producer and a single
+ * consumer as a lock-free ring buffer.
+ *
+ * <p>
+ * Each index is written by one thread only, so no compare-and-set is needed:
+ * the producer publishes a value by a release store of the tail after writing
+ * the slot, and the consumer frees a slot by a release store of the head after
+ * reading it. Each side caches the last index it read from the other side and
+ * only reads it again when the buffer looks full, respectively empty.
+ *
+ * <p>
+ * Using this class with more than one producer or consumer thread loses or
+ * duplicates values; use {@link MpmcIntChannel} instead.
+ *
+ * @author Arthur Gousset
+ */
+public final class SpscIntChannel extends AbstractIntChannel {
+	private static final VarHandle HEAD;
+	private static final VarHandle TAIL;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			HEAD = lookup.findVarHandle(SpscIntChannel.class, "head", long.class);
+			TAIL = lookup.findVarHandle(SpscIntChannel.class, "tail", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final int[] buffer;
+	/**
+	 * Index of the next value to receive; written by the consumer only.
+	 */
+	private volatile long head;
+	/**
+	 * Index of the next value to send; written by the producer only.
+	 */
+	private volatile long tail;
+	/**
+	 * The head as last seen by the producer.
+	 */
+	private long cachedHead;
+	/**
+	 * The tail as last seen by the consumer.
+	 */
+	private long cachedTail;
+
+	/**
+	 * Constructor: a channel holding at least {@code capacity} values.
+	 *
+	 * @param capacity the minimum capacity, rounded up to a power of two
+	 */
+	public SpscIntChannel(int capacity) {
+		super(capacity);
+		this.buffer = new int[this.capacity];
+	}
+
+	@Override
+	boolean offer(int value) {
+		long t = (long) TAIL.getOpaque(this);
+		if (t - cachedHead >= capacity) {
+			cachedHead = (long) HEAD.getAcquire(this);
+			if (t - cachedHead >= capacity)
+				return false;
+		}
+		buffer[(int) t & mask] = value;
+		TAIL.setRelease(this, t + 1);
+		return true;
+	}
+
+	@Override
+	long poll() {
+		long h = (long) HEAD.getOpaque(this);
+		if (h >= cachedTail) {
+			cachedTail = (long) TAIL.getAcquire(this);
+			if (h >= cachedTail)
+				return EMPTY;
+		}
+		int value = buffer[(int) h & mask];
+		HEAD.setRelease(this, h + 1);
+		return value;
+	}
+}
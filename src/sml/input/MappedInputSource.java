@@ -0,0 +1,82 @@
+package sml.input;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import sml.InputSource;
+
+/**
+ * This class reads values from a file of 4-byte little-endian integers, such
+ * as the files written by {@link sml.output.BinaryOutputSink}, mapped into
+ * memory.
+ *
+ * <p>
+ * The whole file is mapped as a single {@link MemorySegment}, so files larger
+ * than 2 GiB can be read, and reading a value is a bounds check and a load
+ * from the page cache; the operating system reads the file ahead as it is
+ * scanned. Trailing bytes that do not form a whole integer are ignored.
+ *
+ * @author Arthur Gousset
+ */
+public final class MappedInputSource implements InputSource {
+	private static final ValueLayout.OfInt VALUE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+	private final Arena arena;
+	private final MemorySegment segment;
+	private final long size;
+	private long position;
+
+	private MappedInputSource(Arena arena, MemorySegment segment) {
+		this.arena = arena;
+		this.segment = segment;
+		this.size = segment.byteSize() / Integer.BYTES;
+	}
+
+	/**
+	 * Returns a source reading a file from its first value.
+	 *
+	 * @param file the file to read
+	 * @return the source, to be closed once the program has run
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public static MappedInputSource open(Path file) throws IOException {
+		Arena arena = Arena.ofShared();
+		// The mapping stays valid after the channel is closed.
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new MappedInputSource(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+		} catch (IOException | RuntimeException e) {
+			arena.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public long next() {
+		if (position == size)
+			return END;
+		return segment.getAtIndex(VALUE, position++);
+	}
+
+	/**
+	 * Returns the number of values not read yet.
+	 *
+	 * @return the number of values left in the file
+	 */
+	public long remaining() {
+		return size - position;
+	}
+
+	/**
+	 * Unmaps the file. The source cannot be read afterwards.
+	 */
+	@Override
+	public void close() {
+		arena.close();
+	}
+}
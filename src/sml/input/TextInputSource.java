@@ -0,0 +1,111 @@
+package sml.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import sml.InputSource;
+
+/**
+ * This class reads values written as decimal numbers, separated by
+ * whitespace, from an input stream.
+ *
+ * <p>
+ * The stream is read through a byte buffer, and digits are converted as they
+ * are scanned, so reading a value neither allocates a string nor locks the
+ * stream.
+ *
+ * @author Arthur Gousset
+ */
+public final class TextInputSource implements InputSource {
+	private final InputStream in;
+	private final byte[] buffer;
+	private int position;
+	private int limit;
+	/**
+	 * Number of bytes consumed before the buffer, for error messages.
+	 */
+	private long offset;
+
+	/**
+	 * Constructor: a source reading from {@code in} through a buffer of 8 KiB.
+	 *
+	 * @param in the stream to read from, e.g. {@code System.in}
+	 */
+	public TextInputSource(InputStream in) {
+		this(in, 8192);
+	}
+
+	/**
+	 * Constructor: a source reading from {@code in} through a buffer of
+	 * {@code bufferSize} bytes.
+	 *
+	 * @param in         the stream to read from
+	 * @param bufferSize the size of the buffer, in bytes
+	 */
+	public TextInputSource(InputStream in, int bufferSize) {
+		this.in = in;
+		this.buffer = new byte[Math.max(1, bufferSize)];
+	}
+
+	/**
+	 * Reads the next value.
+	 *
+	 * @return the value, or {@link #END} at the end of the stream
+	 * @throws NumberFormatException if the next word is not an {@code int}
+	 * @throws UncheckedIOException  if the stream cannot be read
+	 */
+	@Override
+	public long next() {
+		int b = read();
+		while (b >= 0 && b <= ' ')
+			b = read();
+		if (b < 0)
+			return END;
+		long start = offset + position - 1;
+		boolean negative = b == '-';
+		if (negative)
+			b = read();
+		long value = 0;
+		int digits = 0;
+		for (; b >= '0' && b <= '9'; b = read(), digits++) {
+			value = value * 10 + (b - '0');
+			if (value > Integer.MAX_VALUE + 1L)
+				throw new NumberFormatException("The number at byte " + start + " of the input is too large.");
+		}
+		if (digits == 0 || b > ' ')
+			throw new NumberFormatException("Not an integer at byte " + start + " of the input.");
+		value = negative ? -value : value;
+		if (value > Integer.MAX_VALUE)
+			throw new NumberFormatException("The number at byte " + start + " of the input is too large.");
+		return value;
+	}
+
+	/**
+	 * Returns the next byte of the stream, or -1 at its end.
+	 */
+	private int read() {
+		if (position == limit) {
+			try {
+				offset += limit;
+				position = 0;
+				limit = Math.max(0, in.read(buffer));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			if (limit == 0)
+				return -1;
+		}
+		return buffer[position++] & 0xFF;
+	}
+
+	/**
+	 * Closes the stream.
+	 *
+	 * @throws IOException if the stream cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -39,6 +39,14 @@ public class AddInstruction extends Instruction {
 		this.source = source;
 	}
 
+	public RegisterName getResult() {
+		return result;
+	}
+
+	public RegisterName getSource() {
+		return source;
+	}
+
 	/**
 	 * Performs a state transition on a given machine.
 	 * 
@@ -54,12 +62,22 @@ public class AddInstruction extends Instruction {
 	 */
 	@Override
 	public int execute(Machine m) {
-		int value1 = m.getRegisters().get(result);
-		int value2 = m.getRegisters().get(source);
-		m.getRegisters().set(result, value1 + value2);
+		m.getRegisters().add(result, source);
 		return NORMAL_PROGRAM_COUNTER_UPDATE;
 	}
 
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new AddInstruction(label, result, source);
+	}
+
 	/**
 	 * Returns a formatted String representation of this object.
 	 * 
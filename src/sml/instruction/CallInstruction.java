@@ -0,0 +1,131 @@
+package sml.instruction;
+
+import java.util.Objects;
+
+import sml.Instruction;
+import sml.Machine;
+
+/**
+ * This class represents a subroutine call instruction given a label name to
+ * call.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data to
+ * perform the appropriate state transition on a machine, so that a block of
+ * code shared by several parts of a program is written only once.
+ * 
+ * @author Arthur Gousset
+ */
+public class CallInstruction extends Instruction {
+	private final String destinationLabel;
+	public static final String OP_CODE = "call";
+
+	/**
+	 * Constructor: Instantiates a subroutine call instruction given a label
+	 * name to call.
+	 * 
+	 * @param label            optional name given to this instruction; label
+	 *                         name can be used to jump to this instruction from
+	 *                         other instructions.
+	 * @param destinationLabel name of the first instruction of the subroutine.
+	 */
+	public CallInstruction(String label, String destinationLabel) {
+		super(label, OP_CODE);
+		this.destinationLabel = destinationLabel;
+	}
+
+	public String getDestinationLabel() {
+		return destinationLabel;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Records the address of the next instruction on the return stack of the
+	 * machine, then jumps to the instruction labelled {@code destinationLabel}.
+	 * A later {@code ret} instruction continues at the recorded address.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 * @throws IllegalStateException if too many calls are pending
+	 */
+	@Override
+	public int execute(Machine m) {
+		int address;
+		try {
+			address = m.getLabels().getAddress(destinationLabel);
+		} catch (Exception e) {
+			System.out.println(e.getMessage());
+			return NORMAL_PROGRAM_COUNTER_UPDATE;
+		}
+		m.pushReturnAddress(m.getProgramCounter() + 1);
+		return address;
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new CallInstruction(label, destinationLabel);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + destinationLabel;
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof CallInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.destinationLabel, other.destinationLabel);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + destinationLabel.hashCode(); // Hash code of this String
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
@@ -35,6 +35,14 @@ public class DivInstruction extends Instruction {
 		this.source = source;
 	}
 
+	public RegisterName getResult() {
+		return result;
+	}
+
+	public RegisterName getSource() {
+		return source;
+	}
+
   /** 
 	 * Performs a state transition on a given machine.
 	 * 
@@ -48,12 +56,22 @@ public class DivInstruction extends Instruction {
 	 */
 	@Override
 	public int execute(Machine m) {
-		int value1 = m.getRegisters().get(result);
-		int value2 = m.getRegisters().get(source);
-		m.getRegisters().set(result, value1 / value2);
+		m.getRegisters().divide(result, source);
 		return NORMAL_PROGRAM_COUNTER_UPDATE;
 	}
 
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new DivInstruction(label, result, source);
+	}
+
   /**
 	 * Returns a formatted String representation of this object.
 	 * 
@@ -0,0 +1,141 @@
+package sml.instruction;
+
+import java.util.Objects;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers;
+import sml.Registers.Register;
+
+/**
+ * This class represents a fill instruction given three register names.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data
+ * to set every word of a range of the memory of a machine to the same value.
+ * 
+ * @author Arthur Gousset
+ */
+public class FillInstruction extends Instruction {
+	private final RegisterName destination;
+	private final RegisterName value;
+	private final RegisterName length;
+	public static final String OP_CODE = "fill";
+
+	/**
+	 * Constructor: Instantiates a fill instruction given three register names.
+	 * 
+	 * @param label       optional name given to this instruction; label name can be
+	 *                    used to jump to this instruction from other instructions.
+	 * @param destination name of the register holding the address of the range.
+	 * @param value       name of the register holding the value of every word.
+	 * @param length      name of the register holding the number of words of the range.
+	 */
+	public FillInstruction(String label, RegisterName destination, RegisterName value, RegisterName length) {
+		super(label, OP_CODE);
+		this.destination = destination;
+		this.value = value;
+		this.length = length;
+	}
+
+	public RegisterName getDestination() {
+		return destination;
+	}
+
+	public RegisterName getValue() {
+		return value;
+	}
+
+	public RegisterName getLength() {
+		return length;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Sets {@code length} words of memory, from the address held by
+	 * {@code destination}, to the value of a register.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 * @throws IndexOutOfBoundsException if a range is outside the memory
+	 */
+	@Override
+	public int execute(Machine m) {
+		Registers registers = m.getRegisters();
+		m.getMemory().fill(registers.get(destination), registers.get(value), registers.get(length));
+		return NORMAL_PROGRAM_COUNTER_UPDATE;
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new FillInstruction(label, destination, value, length);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + destination + " " + value + " " + length;
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof FillInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.destination, other.destination)
+					&& Objects.equals(this.value, other.value)
+					&& Objects.equals(this.length, other.length);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + ((Register) destination).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + ((Register) value).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + ((Register) length).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
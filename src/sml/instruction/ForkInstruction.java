@@ -0,0 +1,142 @@
+package sml.instruction;
+
+import java.util.Objects;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers.Register;
+
+/**
+ * This class represents a "fork" instruction given a register name and a label
+ * name at which a child machine starts.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data
+ * to perform the appropriate state transition on a machine.
+ * 
+ * @author Arthur Gousset
+ */
+public class ForkInstruction extends Instruction {
+	private final RegisterName result;
+	private final String destinationLabel;
+	public static final String OP_CODE = "fork";
+
+	/**
+	 * Constructor: Instantiates a "fork" instruction given a register name and a
+	 * label name at which a child machine starts.
+	 * 
+	 * @param label            optional name given to this instruction; label name
+	 *                         can be used to jump to this instruction from other
+	 *                         instructions.
+	 * @param result           name of the register in which the handle of the
+	 *                         child machine will be stored.
+	 * @param destinationLabel name of the instruction the child machine executes
+	 *                         first.
+	 */
+	public ForkInstruction(String label, RegisterName result, String destinationLabel) {
+		super(label, OP_CODE);
+		this.result = result;
+		this.destinationLabel = destinationLabel;
+	}
+
+	public RegisterName getResult() {
+		return result;
+	}
+
+	public String getDestinationLabel() {
+		return destinationLabel;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Starts a child machine with a copy of the registers of the machine,
+	 * executing the same program from the instruction labeled
+	 * {@code destinationLabel} on its own virtual thread (see
+	 * {@link Machine#fork(int)}), and stores the handle of the child in a
+	 * register. The machine itself continues with the next instruction.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 */
+	@Override
+	public int execute(Machine m) {
+		try {
+			int address = m.getLabels().getAddress(destinationLabel);
+			m.getRegisters().set(result, m.fork(address));
+		} catch (Exception e) {
+			System.out.println(e.getMessage());
+		}
+		return NORMAL_PROGRAM_COUNTER_UPDATE;
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new ForkInstruction(label, result, destinationLabel);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + result + " " + destinationLabel;
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof ForkInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.result, other.result)
+					&& Objects.equals(this.destinationLabel, other.destinationLabel);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + ((Register) result).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + destinationLabel.hashCode(); // // Hash code of this String
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
@@ -0,0 +1,135 @@
+package sml.instruction;
+
+import java.util.Objects;
+
+import sml.InputSource;
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers.Register;
+
+/**
+ * This class represents an input instruction given two register names.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data
+ * to read the next value of the input of a machine into a register, and to
+ * signal the end of the input in another register.
+ * 
+ * @author Arthur Gousset
+ */
+public class InInstruction extends Instruction {
+	private final RegisterName result;
+	private final RegisterName flag;
+	public static final String OP_CODE = "in";
+
+	/**
+	 * Constructor: Instantiates an input instruction given two register names.
+	 * 
+	 * @param label  optional name given to this instruction; label name can be
+	 *               used to jump to this instruction from other instructions.
+	 * @param result name of the register in which the value read will be stored.
+	 * @param flag   name of the register set to 1 if a value was read, and to 0
+	 *               at the end of the input.
+	 */
+	public InInstruction(String label, RegisterName result, RegisterName flag) {
+		super(label, OP_CODE);
+		this.result = result;
+		this.flag = flag;
+	}
+
+	public RegisterName getResult() {
+		return result;
+	}
+
+	public RegisterName getFlag() {
+		return flag;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Reads the next value of the input. At the end of the input, both registers
+	 * are set to 0, so a loop ending with {@code jnz} on the flag stops there.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 */
+	@Override
+	public int execute(Machine m) {
+		long value = m.getInput().next();
+		boolean read = value != InputSource.END;
+		m.getRegisters().set(result, read ? (int) value : 0);
+		m.getRegisters().set(flag, read ? 1 : 0);
+		return NORMAL_PROGRAM_COUNTER_UPDATE;
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new InInstruction(label, result, flag);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + result + " " + flag;
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof InInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.result, other.result)
+					&& Objects.equals(this.flag, other.flag);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + ((Register) result).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + ((Register) flag).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
@@ -0,0 +1,152 @@
+package sml.instruction;
+
+import java.util.Objects;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers.Register;
+
+/**
+ * This class represents a "jump if less than" instruction given two register
+ * names and a label name to jump to.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data to
+ * perform the appropriate state transition on a machine without computing the
+ * comparison into a scratch register first.
+ * 
+ * @author Arthur Gousset
+ */
+public class JltInstruction extends Instruction {
+	private final RegisterName left;
+	private final RegisterName right;
+	private final String destinationLabel;
+	public static final String OP_CODE = "jlt";
+
+	/**
+	 * Constructor: Instantiates a "jump if less than" instruction given two
+	 * register names and a label name to jump to.
+	 * 
+	 * @param label            optional name given to this instruction; label
+	 *                         name can be used to jump to this instruction from
+	 *                         other instructions.
+	 * @param left             name of the register whose value is compared.
+	 * @param right            name of the register whose value {@code left} is
+	 *                         compared to.
+	 * @param destinationLabel name of the instruction to which the program
+	 *                         should jump if the value at register {@code left}
+	 *                         is less than the value at register {@code right}.
+	 */
+	public JltInstruction(String label, RegisterName left, RegisterName right, String destinationLabel) {
+		super(label, OP_CODE);
+		this.left = left;
+		this.right = right;
+		this.destinationLabel = destinationLabel;
+	}
+
+	public RegisterName getLeft() {
+		return left;
+	}
+
+	public RegisterName getRight() {
+		return right;
+	}
+
+	public String getDestinationLabel() {
+		return destinationLabel;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Jumps to the instruction labelled {@code destinationLabel} if the value
+	 * of register {@code left} is less than the value of register {@code
+	 * right}, and continues with the next instruction otherwise.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 */
+	@Override
+	public int execute(Machine m) {
+		try {
+			if (m.getRegisters().compare(left, right) < 0) {
+				return m.getLabels().getAddress(destinationLabel);
+			}
+		} catch (Exception e) {
+			System.out.println(e.getMessage());
+		}
+		return NORMAL_PROGRAM_COUNTER_UPDATE;
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new JltInstruction(label, left, right, destinationLabel);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + left + " " + right + " " + destinationLabel;
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof JltInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.left, other.left)
+					&& Objects.equals(this.right, other.right)
+					&& Objects.equals(this.destinationLabel, other.destinationLabel);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + ((Register) left).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + ((Register) right).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + destinationLabel.hashCode(); // Hash code of this String
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
@@ -41,6 +41,14 @@ public class JnzInstruction extends Instruction {
 		this.destinationLabel = destinationLabel;
 	}
 
+	public RegisterName getSource() {
+		return source;
+	}
+
+	public String getDestinationLabel() {
+		return destinationLabel;
+	}
+
 	/**
 	 * Performs a state transition on a given machine.
 	 * 
@@ -57,7 +65,7 @@ public class JnzInstruction extends Instruction {
 		try {
 			// If the value stored at register `source` is not zero
 			// then execute the instruction labeled `destinationLabel` next.
-			if (m.getRegisters().get(source) != 0) {
+			if (m.getRegisters().signum(source) != 0) {
 				// Returns the index of the next instruction to execute in the
 				// List<Instruction> `program` list.
 				return m.getLabels().getAddress(destinationLabel);
@@ -71,6 +79,18 @@ public class JnzInstruction extends Instruction {
 		return NORMAL_PROGRAM_COUNTER_UPDATE;
 	}
 
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new JnzInstruction(label, source, destinationLabel);
+	}
+
 	/**
 	 * Returns a formatted String representation of this object.
 	 * 
@@ -0,0 +1,152 @@
+package sml.instruction;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers.Register;
+
+/**
+ * This class represents a "join" instruction given the name of the register
+ * holding the handle of a child machine and the names of the registers to
+ * merge back from it, written as a comma-separated list, e.g.
+ * {@code join EDX EAX,EBX}.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data
+ * to perform the appropriate state transition on a machine.
+ * 
+ * @author Arthur Gousset
+ */
+public class JoinInstruction extends Instruction {
+	private final RegisterName source;
+	private final List<RegisterName> results;
+	public static final String OP_CODE = "join";
+
+	/**
+	 * Constructor: Instantiates a "join" instruction given the register holding
+	 * the handle of a child machine and the registers to merge back from it.
+	 * 
+	 * @param label   optional name given to this instruction; label name can be
+	 *                used to jump to
+	 *                this instruction from other instructions.
+	 * @param source  name of the register holding the handle of the child
+	 *                machine, as stored by a {@code fork} instruction.
+	 * @param results names of the registers whose final values in the child
+	 *                machine will be stored in the same registers of this
+	 *                machine.
+	 */
+	public JoinInstruction(String label, RegisterName source, RegisterName... results) {
+		super(label, OP_CODE);
+		this.source = source;
+		this.results = List.of(results);
+	}
+
+	public RegisterName getSource() {
+		return source;
+	}
+
+	public List<RegisterName> getResults() {
+		return results;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Waits for the child machine whose handle is stored in register
+	 * {@code source} to halt (see {@link Machine#join(int)}), then copies the
+	 * final values of the {@code results} registers in the child to the same
+	 * registers of the machine, and writes the output of the child.
+	 *
+	 * <p>
+	 * If the machine reaches its deadline, is cancelled or is interrupted while
+	 * waiting (see {@link Machine#waitTimeout()}), the instruction jumps to
+	 * itself, and the machine stops at the {@code join} without executing it
+	 * again.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 */
+	@Override
+	public int execute(Machine m) {
+		Machine child = m.join(m.getRegisters().get(source));
+		if (child == null)
+			return m.getProgramCounter();
+		for (RegisterName result : results)
+			m.getRegisters().set(result, child.getRegisters().getExact(result));
+		return NORMAL_PROGRAM_COUNTER_UPDATE;
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new JoinInstruction(label, source, results.toArray(RegisterName[]::new));
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + source + " "
+				+ results.stream().map(Object::toString).collect(Collectors.joining(","));
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof JoinInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.source, other.source)
+					&& Objects.equals(this.results, other.results);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + ((Register) source).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + results.hashCode(); // Hash code of this List
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
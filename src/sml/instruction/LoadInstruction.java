@@ -0,0 +1,131 @@
+package sml.instruction;
+
+import java.util.Objects;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers.Register;
+
+/**
+ * This class represents a load instruction given two register names.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data
+ * to read a word of the memory of a machine into a register, at the address
+ * held by another register.
+ * 
+ * @author Arthur Gousset
+ */
+public class LoadInstruction extends Instruction {
+	private final RegisterName result;
+	private final RegisterName address;
+	public static final String OP_CODE = "load";
+
+	/**
+	 * Constructor: Instantiates a load instruction given two register names.
+	 * 
+	 * @param label   optional name given to this instruction; label name can be
+	 *                used to jump to this instruction from other instructions.
+	 * @param result  name of the register in which the word will be stored.
+	 * @param address name of the register holding the address of the word.
+	 */
+	public LoadInstruction(String label, RegisterName result, RegisterName address) {
+		super(label, OP_CODE);
+		this.result = result;
+		this.address = address;
+	}
+
+	public RegisterName getResult() {
+		return result;
+	}
+
+	public RegisterName getAddress() {
+		return address;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Reads the word of memory at the address held by a register.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 * @throws IndexOutOfBoundsException if the address is outside the memory
+	 */
+	@Override
+	public int execute(Machine m) {
+		int value = m.getMemory().load(m.getRegisters().get(address));
+		m.getRegisters().set(result, value);
+		return NORMAL_PROGRAM_COUNTER_UPDATE;
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new LoadInstruction(label, result, address);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + result + " " + address;
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof LoadInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.result, other.result)
+					&& Objects.equals(this.address, other.address);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + ((Register) result).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + ((Register) address).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
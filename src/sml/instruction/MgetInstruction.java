@@ -0,0 +1,140 @@
+package sml.instruction;
+
+import java.util.Objects;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers.Register;
+
+/**
+ * This class represents a map get instruction given a table name and two
+ * register names.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data to
+ * read the value of a key from a hash table owned by a machine into a register.
+ * 
+ * @author Arthur Gousset
+ */
+public class MgetInstruction extends Instruction {
+	private final RegisterName result;
+	private final String table;
+	private final RegisterName key;
+	public static final String OP_CODE = "mget";
+
+	/**
+	 * Constructor: Instantiates a map get instruction given a table name and
+	 * two register names.
+	 * 
+	 * @param label  optional name given to this instruction; label name can be
+	 *               used to jump to this instruction from other instructions.
+	 * @param result name of the register in which the value will be stored.
+	 * @param table  name of the hash table.
+	 * @param key    name of the register holding the key.
+	 */
+	public MgetInstruction(String label, RegisterName result, String table, RegisterName key) {
+		super(label, OP_CODE);
+		this.result = result;
+		this.table = table;
+		this.key = key;
+	}
+
+	public RegisterName getResult() {
+		return result;
+	}
+
+	public String getTable() {
+		return table;
+	}
+
+	public RegisterName getKey() {
+		return key;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Stores the value of the key held by a register, in a hash table of the
+	 * machine, in another register; 0 if the table does not contain the key.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 */
+	@Override
+	public int execute(Machine m) {
+		m.getRegisters().set(result, m.getTable(table).get(m.getRegisters().get(key), 0));
+		return NORMAL_PROGRAM_COUNTER_UPDATE;
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new MgetInstruction(label, result, table, key);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + result + " " + table + " " + key;
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof MgetInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.result, other.result)
+					&& Objects.equals(this.table, other.table)
+					&& Objects.equals(this.key, other.key);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + ((Register) result).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + table.hashCode(); // Hash code of this String
+		hash = 31 * hash + ((Register) key).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
@@ -0,0 +1,145 @@
+package sml.instruction;
+
+import java.util.Objects;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers;
+import sml.Registers.Register;
+
+/**
+ * This class represents a minimum instruction given three register names.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data to
+ * reduce a range of the memory of a machine to a single value, stored in a
+ * register.
+ * 
+ * @author Arthur Gousset
+ */
+public class MinInstruction extends Instruction {
+	private final RegisterName result;
+	private final RegisterName address;
+	private final RegisterName length;
+	public static final String OP_CODE = "min";
+
+	/**
+	 * Constructor: Instantiates a minimum instruction given three register
+	 * names.
+	 * 
+	 * @param label   optional name given to this instruction; label name can be
+	 *                used to jump to this instruction from other instructions.
+	 * @param result  name of the register in which the value will be stored.
+	 * @param address name of the register holding the address of the range.
+	 * @param length  name of the register holding the number of words of the
+	 *                range.
+	 */
+	public MinInstruction(String label, RegisterName result, RegisterName address, RegisterName length) {
+		super(label, OP_CODE);
+		this.result = result;
+		this.address = address;
+		this.length = length;
+	}
+
+	public RegisterName getResult() {
+		return result;
+	}
+
+	public RegisterName getAddress() {
+		return address;
+	}
+
+	public RegisterName getLength() {
+		return length;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Stores the smallest of {@code length} words of memory, from the address
+	 * held by {@code address}, in a register; {@code Integer.MAX_VALUE} for an
+	 * empty range.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 * @throws IndexOutOfBoundsException if the range is outside the memory
+	 */
+	@Override
+	public int execute(Machine m) {
+		Registers registers = m.getRegisters();
+		registers.set(result, m.getMemory().min(registers.get(address), registers.get(length)));
+		return NORMAL_PROGRAM_COUNTER_UPDATE;
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new MinInstruction(label, result, address, length);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + result + " " + address + " " + length;
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof MinInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.result, other.result)
+					&& Objects.equals(this.address, other.address)
+					&& Objects.equals(this.length, other.length);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + ((Register) result).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + ((Register) address).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + ((Register) length).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
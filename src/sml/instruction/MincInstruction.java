@@ -0,0 +1,142 @@
+package sml.instruction;
+
+import java.util.Objects;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers.Register;
+
+/**
+ * This class represents a map increment instruction given a table name and two
+ * register names.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data to
+ * add to the value of a key in a hash table owned by a machine, e.g. to count
+ * occurrences.
+ * 
+ * @author Arthur Gousset
+ */
+public class MincInstruction extends Instruction {
+	private final String table;
+	private final RegisterName key;
+	private final RegisterName delta;
+	public static final String OP_CODE = "minc";
+
+	/**
+	 * Constructor: Instantiates a map increment instruction given a table name
+	 * and two register names.
+	 * 
+	 * @param label optional name given to this instruction; label name can be
+	 *              used to jump to this instruction from other instructions.
+	 * @param table name of the hash table.
+	 * @param key   name of the register holding the key.
+	 * @param delta name of the register holding the amount added.
+	 */
+	public MincInstruction(String label, String table, RegisterName key, RegisterName delta) {
+		super(label, OP_CODE);
+		this.table = table;
+		this.key = key;
+		this.delta = delta;
+	}
+
+	public String getTable() {
+		return table;
+	}
+
+	public RegisterName getKey() {
+		return key;
+	}
+
+	public RegisterName getDelta() {
+		return delta;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Adds the value of a register to the value of the key held by another
+	 * register, in a hash table of the machine. A key the table does not
+	 * contain yet starts from 0.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 */
+	@Override
+	public int execute(Machine m) {
+		m.getTable(table).addTo(m.getRegisters().get(key), m.getRegisters().get(delta));
+		return NORMAL_PROGRAM_COUNTER_UPDATE;
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new MincInstruction(label, table, key, delta);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + table + " " + key + " " + delta;
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof MincInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.table, other.table)
+					&& Objects.equals(this.key, other.key)
+					&& Objects.equals(this.delta, other.delta);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + table.hashCode(); // Hash code of this String
+		hash = 31 * hash + ((Register) key).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + ((Register) delta).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
@@ -37,6 +37,14 @@ public class MovInstruction extends Instruction {
 		this.value = value;
 	}
 
+	public RegisterName getResult() {
+		return result;
+	}
+
+	public int getValue() {
+		return value;
+	}
+
 	/**
 	 * Performs a state transition on a given machine.
 	 * 
@@ -54,6 +62,18 @@ public class MovInstruction extends Instruction {
 		return NORMAL_PROGRAM_COUNTER_UPDATE;
 	}
 
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new MovInstruction(label, result, value);
+	}
+
 	/**
 	 * Returns a formatted String representation of this object.
 	 * 
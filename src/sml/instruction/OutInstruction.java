@@ -33,8 +33,13 @@ public class OutInstruction extends Instruction {
 		this.source = source;
 	}
 
+	public RegisterName getSource() {
+		return source;
+	}
+
 	/**
-	 * Prints the value of a register to the console.
+	 * Prints the value of a register to the console, or to wherever the output
+	 * of the machine has been redirected.
 	 * 
 	 * @param m Machine object with a given set of registers
 	 * @return the new program counter (for jump instructions)
@@ -43,10 +48,25 @@ public class OutInstruction extends Instruction {
 	 */
 	@Override
 	public int execute(Machine m) {
-		System.out.println(m.getRegisters().get(source));
+		if (m.getRegisters().fitsInt(source))
+			m.getOutput().accept(m.getRegisters().get(source));
+		else
+			m.getOutput().accept(m.getRegisters().getExact(source));
 		return NORMAL_PROGRAM_COUNTER_UPDATE;
 	}
 
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new OutInstruction(label, source);
+	}
+
 	/**
 	 * Returns a formatted String representation of this object.
 	 * 
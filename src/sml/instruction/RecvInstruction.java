@@ -0,0 +1,159 @@
+package sml.instruction;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers.Register;
+import sml.channel.IntChannel;
+
+/**
+ * This class represents a receive instruction given a channel name and a
+ * register name.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data
+ * to store in a register a value received from another machine through a
+ * channel.
+ * 
+ * @author Arthur Gousset
+ */
+public class RecvInstruction extends Instruction {
+	private final String channel;
+	private final RegisterName result;
+	public static final String OP_CODE = "recv";
+
+	/**
+	 * Constructor: Instantiates a receive instruction given a channel name and a
+	 * register name.
+	 * 
+	 * @param label   optional name given to this instruction; label name can be
+	 *                used to jump to this instruction from other instructions.
+	 * @param channel name of the channel the value will be received from.
+	 * @param result  name of the register in which the value will be stored.
+	 */
+	public RecvInstruction(String label, String channel, RegisterName result) {
+		super(label, OP_CODE);
+		this.channel = channel;
+		this.result = result;
+	}
+
+	public String getChannel() {
+		return channel;
+	}
+
+	public RegisterName getResult() {
+		return result;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Receives a value from a channel and stores it in a register, waiting while
+	 * the channel is empty. If no machine will ever send to the channel again and
+	 * every value has been received, the program halts instead; this is how the
+	 * consuming stage of a pipeline ends.
+	 *
+	 * <p>
+	 * The wait stays within the limits of the machine (see
+	 * {@link Machine#waitTimeout()}): once the deadline has passed, the machine is
+	 * cancelled or the thread is interrupted, the instruction jumps to itself and
+	 * the machine stops at the {@code recv}.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 */
+	@Override
+	public int execute(Machine m) {
+		IntChannel source = m.getChannel(channel);
+		while (true) {
+			long timeout = m.waitTimeout();
+			if (timeout < 0)
+				return m.getProgramCounter();
+			try {
+				long value = source.receive(timeout, TimeUnit.NANOSECONDS);
+				if (value == IntChannel.CLOSED)
+					// Moves past the last instruction, which halts the program
+					return m.getProgram().size();
+				m.getRegisters().set(result, (int) value);
+				return NORMAL_PROGRAM_COUNTER_UPDATE;
+			} catch (TimeoutException e) {
+				// Checks the limits of the machine again
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new RecvInstruction(label, channel, result);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + channel + " " + result;
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof RecvInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.channel, other.channel)
+					&& Objects.equals(this.result, other.result);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + channel.hashCode(); // Hash code of this String
+		hash = 31 * hash + ((Register) result).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
@@ -0,0 +1,92 @@
+package sml.instruction;
+
+import sml.Instruction;
+import sml.Machine;
+
+/**
+ * This class represents a subroutine return instruction.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data to
+ * perform the appropriate state transition on a machine.
+ * 
+ * @author Arthur Gousset
+ */
+public class RetInstruction extends Instruction {
+	public static final String OP_CODE = "ret";
+
+	/**
+	 * Constructor: Instantiates a subroutine return instruction.
+	 * 
+	 * @param label optional name given to this instruction; label name can be
+	 *              used to jump to this instruction from other instructions.
+	 */
+	public RetInstruction(String label) {
+		super(label, OP_CODE);
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Continues at the address recorded by the innermost pending {@code call}
+	 * instruction. A {@code ret} instruction with no pending call halts the
+	 * program.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 */
+	@Override
+	public int execute(Machine m) {
+		return m.popReturnAddress();
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new RetInstruction(label);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode();
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the type of this object to that of the other object.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof RetInstruction;
+	}
+
+	/**
+	 * Produces the hash code of this object, which has no state.
+	 * 
+	 * @return the hash code of the opcode
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
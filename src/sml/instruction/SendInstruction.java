@@ -0,0 +1,155 @@
+package sml.instruction;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers.Register;
+import sml.channel.IntChannel;
+
+/**
+ * This class represents a send instruction given a channel name and a register
+ * name.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data
+ * to send the value of a register to another machine through a channel.
+ * 
+ * @author Arthur Gousset
+ */
+public class SendInstruction extends Instruction {
+	private final String channel;
+	private final RegisterName source;
+	public static final String OP_CODE = "send";
+
+	/**
+	 * Constructor: Instantiates a send instruction given a channel name and a
+	 * register name.
+	 * 
+	 * @param label   optional name given to this instruction; label name can be
+	 *                used to jump to this instruction from other instructions.
+	 * @param channel name of the channel the value will be sent to.
+	 * @param source  name of the register whose value will be sent.
+	 */
+	public SendInstruction(String label, String channel, RegisterName source) {
+		super(label, OP_CODE);
+		this.channel = channel;
+		this.source = source;
+	}
+
+	public String getChannel() {
+		return channel;
+	}
+
+	public RegisterName getSource() {
+		return source;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Sends the value of a register through a channel, waiting while the channel
+	 * is full. If no machine will ever receive from the channel again, the
+	 * program halts instead.
+	 *
+	 * <p>
+	 * The wait stays within the limits of the machine (see
+	 * {@link Machine#waitTimeout()}): once the deadline has passed, the machine is
+	 * cancelled or the thread is interrupted, the instruction jumps to itself and
+	 * the machine stops at the {@code send}.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 */
+	@Override
+	public int execute(Machine m) {
+		IntChannel destination = m.getChannel(channel);
+		while (true) {
+			long timeout = m.waitTimeout();
+			if (timeout < 0)
+				return m.getProgramCounter();
+			try {
+				if (destination.send(m.getRegisters().get(source), timeout, TimeUnit.NANOSECONDS))
+					return NORMAL_PROGRAM_COUNTER_UPDATE;
+				// Moves past the last instruction, which halts the program
+				return m.getProgram().size();
+			} catch (TimeoutException e) {
+				// Checks the limits of the machine again
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new SendInstruction(label, channel, source);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + channel + " " + source;
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof SendInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.channel, other.channel)
+					&& Objects.equals(this.source, other.source);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + channel.hashCode(); // Hash code of this String
+		hash = 31 * hash + ((Register) source).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
@@ -0,0 +1,161 @@
+package sml.instruction;
+
+import java.util.Objects;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers;
+import sml.Registers.Register;
+
+/**
+ * This class represents a vector multiplication instruction given four register
+ * names.
+ * 
+ * <p>
+ * This class, both, defines all relevant methods and holds all relevant data
+ * to perform the appropriate state transition on a machine: the element-wise
+ * multiplication of two ranges of its memory.
+ * 
+ * @author Arthur Gousset
+ */
+public class VmulInstruction extends Instruction {
+	private final RegisterName destination;
+	private final RegisterName first;
+	private final RegisterName second;
+	private final RegisterName length;
+	public static final String OP_CODE = "vmul";
+
+	/**
+	 * Constructor: Instantiates a vector multiplication instruction given four
+	 * register names.
+	 * 
+	 * @param label       optional name given to this instruction; label name can be
+	 *                    used to jump to this instruction from other instructions.
+	 * @param destination name of the register holding the address of the
+	 *                    result.
+	 * @param first       name of the register holding the address of the first
+	 *                    operand.
+	 * @param second      name of the register holding the address of the second
+	 *                    operand.
+	 * @param length      name of the register holding the number of words of
+	 *                    every range.
+	 */
+	public VmulInstruction(String label, RegisterName destination, RegisterName first, RegisterName second,
+			RegisterName length) {
+		super(label, OP_CODE);
+		this.destination = destination;
+		this.first = first;
+		this.second = second;
+		this.length = length;
+	}
+
+	public RegisterName getDestination() {
+		return destination;
+	}
+
+	public RegisterName getFirst() {
+		return first;
+	}
+
+	public RegisterName getSecond() {
+		return second;
+	}
+
+	public RegisterName getLength() {
+		return length;
+	}
+
+	/**
+	 * Performs a state transition on a given machine.
+	 * 
+	 * <p>
+	 * Sets every word {@code destination[i]} of a range of memory to
+	 * {@code first[i] * second[i]}, for {@code i} from 0 to {@code length - 1},
+	 * where the ranges start at the addresses held by the registers.
+	 * 
+	 * @param m Machine object with a given set of registers
+	 * @return the new program counter (for jump instructions)
+	 *         or NORMAL_PROGRAM_COUNTER_UPDATE to indicate that
+	 *         the instruction with the next address is to be executed
+	 * @throws IndexOutOfBoundsException if a range is outside the memory
+	 */
+	@Override
+	public int execute(Machine m) {
+		Registers registers = m.getRegisters();
+		m.getMemory().multiply(registers.get(destination), registers.get(first), registers.get(second),
+				registers.get(length));
+		return NORMAL_PROGRAM_COUNTER_UPDATE;
+	}
+
+	/**
+	 * Returns an instruction with the same operands as this one but with the given
+	 * label.
+	 * 
+	 * @param label optional name given to the new instruction (can be null)
+	 * @return a copy of this instruction carrying {@code label}
+	 */
+	@Override
+	public Instruction withLabel(String label) {
+		return new VmulInstruction(label, destination, first, second, length);
+	}
+
+	/**
+	 * Returns a formatted String representation of this object.
+	 * 
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return getLabelString() + getOpcode() + " " + destination + " " + first + " " + second + " "
+				+ length;
+	}
+
+	/**
+	 * Evaluates whether an object is equal to this one by comparing
+	 * the state and type of this object to that of the other object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @param o the reference object to compare
+	 * @return {@code true} if the state and type of the objects is equal,
+	 *         {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		// Uses `instanceof` pattern matching.
+		if (o instanceof VmulInstruction other) {
+			// The binding variable `other` can be used in this scope
+			// because the `instanceof` predicate evaluates to true in this block.
+			return Objects.equals(this.destination, other.destination)
+					&& Objects.equals(this.first, other.first)
+					&& Objects.equals(this.second, other.second)
+					&& Objects.equals(this.length, other.length);
+		}
+		return false;
+	}
+
+	/**
+	 * Produces a unique hash code for every possible state of this object.
+	 * 
+	 * <p>
+	 * The state of this object is defined by the fields of this object, which is
+	 * why they
+	 * are used to calculate unique hash codes for this class.
+	 * 
+	 * @return a unique hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7; // Arbitrary non-zero constant
+		hash = 31 * hash + ((Register) destination).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + ((Register) first).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + ((Register) second).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + ((Register) length).hashCode(); // Hash code of this Enum constant
+		hash = 31 * hash + OP_CODE.hashCode(); // // Hash code of this String
+		return hash;
+	}
+}
@@ -0,0 +1,287 @@
+package sml.map;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * This class maps {@code int} keys to {@code int} values without boxing, using
+ * open addressing with linear probing.
+ *
+ * <p>
+ * Keys and values are interleaved in a single table, so a lookup usually
+ * reads one cache line. The table is a {@link MemorySegment} over an
+ * {@code int[]} on the heap or, for maps too large to scan during garbage
+ * collection, over memory outside the heap. It holds a power-of-two number of
+ * slots and doubles when more than half of them are used, which keeps probe
+ * sequences short; giving the expected number of keys up front avoids
+ * resizing altogether.
+ *
+ * <p>
+ * A free slot holds the key 0, so the key 0 itself is kept outside the table.
+ * Instances are not thread-safe.
+ *
+ * @author Arthur Gousset
+ */
+public final class IntIntHashMap implements AutoCloseable {
+	private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT;
+	private static final int MIN_CAPACITY = 16;
+	/**
+	 * Number of slots from which the table can no longer double.
+	 */
+	private static final int MAX_CAPACITY = 1 << 29;
+
+	/**
+	 * Receives the entries of a map, see {@link IntIntHashMap#forEach}.
+	 */
+	@FunctionalInterface
+	public interface EntryConsumer {
+		void accept(int key, int value);
+	}
+
+	private final boolean offHeap;
+	/**
+	 * The arena owning the off-heap table; null on the heap.
+	 */
+	private Arena arena;
+	/**
+	 * Key of slot {@code i} at index {@code 2 * i}, its value at {@code 2 * i + 1}.
+	 */
+	private MemorySegment table;
+	private int capacity;
+	private int mask;
+	/**
+	 * Number of keys in the table, excluding the key 0.
+	 */
+	private int used;
+	private boolean hasZeroKey;
+	private int zeroValue;
+	private int resizes;
+
+	/**
+	 * Constructor: an empty map on the heap.
+	 */
+	public IntIntHashMap() {
+		this(0, false);
+	}
+
+	/**
+	 * Constructor: an empty map sized for a number of keys.
+	 *
+	 * @param expectedSize the number of keys the map can hold without resizing
+	 * @param offHeap      whether the table is allocated outside the heap, in
+	 *                     which case the map must be closed to release it
+	 * @throws IllegalArgumentException if {@code expectedSize} is negative or
+	 *                                  too large
+	 */
+	public IntIntHashMap(int expectedSize, boolean offHeap) {
+		if (expectedSize < 0 || expectedSize > MAX_CAPACITY / 2)
+			throw new IllegalArgumentException("Cannot size a map for " + expectedSize + " keys.");
+		this.offHeap = offHeap;
+		allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1));
+	}
+
+	private void allocate(int capacity) {
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+		if (offHeap) {
+			arena = Arena.ofShared();
+			table = arena.allocate(2L * capacity * Integer.BYTES, Integer.BYTES);
+		} else {
+			table = MemorySegment.ofArray(new int[2 * capacity]);
+		}
+	}
+
+	/**
+	 * Returns the first slot to probe for a key, spreading nearby keys apart.
+	 */
+	private int slot(int key) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * Returns the slot holding a non-zero key, or the free slot where it would be
+	 * inserted.
+	 */
+	private int find(int key) {
+		int slot = slot(key);
+		for (;;) {
+			int k = table.getAtIndex(INT, 2L * slot);
+			if (k == key || k == 0)
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Returns the value of a key.
+	 *
+	 * @param key          the key
+	 * @param defaultValue the value returned if the map does not contain the key
+	 * @return the value of the key, or {@code defaultValue}
+	 */
+	public int get(int key, int defaultValue) {
+		if (key == 0)
+			return hasZeroKey ? zeroValue : defaultValue;
+		int slot = find(key);
+		return (table.getAtIndex(INT, 2L * slot) == 0) ? defaultValue : table.getAtIndex(INT, 2L * slot + 1);
+	}
+
+	public boolean containsKey(int key) {
+		if (key == 0)
+			return hasZeroKey;
+		return table.getAtIndex(INT, 2L * find(key)) != 0;
+	}
+
+	/**
+	 * Sets the value of a key, adding the key if needed.
+	 *
+	 * @param key   the key
+	 * @param value the new value of the key
+	 */
+	public void put(int key, int value) {
+		if (key == 0) {
+			hasZeroKey = true;
+			zeroValue = value;
+			return;
+		}
+		int slot = find(key);
+		if (table.getAtIndex(INT, 2L * slot) == 0)
+			slot = insert(key, slot);
+		table.setAtIndex(INT, 2L * slot + 1, value);
+	}
+
+	/**
+	 * Adds to the value of a key, which is 0 if the map does not contain the key
+	 * yet; the sum wraps around like the {@code add} instruction.
+	 *
+	 * @param key   the key
+	 * @param delta the amount added
+	 * @return the new value of the key
+	 */
+	public int addTo(int key, int delta) {
+		if (key == 0) {
+			zeroValue = hasZeroKey ? zeroValue + delta : delta;
+			hasZeroKey = true;
+			return zeroValue;
+		}
+		int slot = find(key);
+		if (table.getAtIndex(INT, 2L * slot) == 0)
+			slot = insert(key, slot);
+		int value = table.getAtIndex(INT, 2L * slot + 1) + delta;
+		table.setAtIndex(INT, 2L * slot + 1, value);
+		return value;
+	}
+
+	/**
+	 * Stores a new key, with the value 0, in a free slot, doubling the table
+	 * first if it would become more than half full.
+	 *
+	 * @return the slot now holding the key
+	 */
+	private int insert(int key, int slot) {
+		if (used + 1 > capacity / 2) {
+			resize(capacity * 2);
+			slot = find(key);
+		}
+		table.setAtIndex(INT, 2L * slot, key);
+		table.setAtIndex(INT, 2L * slot + 1, 0);
+		used++;
+		return slot;
+	}
+
+	private void resize(int newCapacity) {
+		if (newCapacity > MAX_CAPACITY)
+			throw new IllegalStateException("The map cannot hold more than " + MAX_CAPACITY / 2 + " keys.");
+		Arena oldArena = arena;
+		MemorySegment oldTable = table;
+		int oldCapacity = capacity;
+		allocate(newCapacity);
+		for (long i = 0; i < oldCapacity; i++) {
+			int key = oldTable.getAtIndex(INT, 2 * i);
+			if (key != 0) {
+				int slot = find(key);
+				table.setAtIndex(INT, 2L * slot, key);
+				table.setAtIndex(INT, 2L * slot + 1, oldTable.getAtIndex(INT, 2 * i + 1));
+			}
+		}
+		if (oldArena != null)
+			oldArena.close();
+		resizes++;
+	}
+
+	public int size() {
+		return used + (hasZeroKey ? 1 : 0);
+	}
+
+	/**
+	 * Returns the number of slots of the table.
+	 *
+	 * @return the capacity, a power of two, at least twice the number of keys
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of times the table has doubled since the map was
+	 * created; a sizing hint that is too small shows up here.
+	 *
+	 * @return the number of resizes
+	 */
+	public int getResizes() {
+		return resizes;
+	}
+
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	/**
+	 * Passes every entry of the map to a consumer, in no particular order.
+	 *
+	 * @param consumer receives every key and its value
+	 */
+	public void forEach(EntryConsumer consumer) {
+		if (hasZeroKey)
+			consumer.accept(0, zeroValue);
+		for (long i = 0; i < capacity; i++) {
+			int key = table.getAtIndex(INT, 2 * i);
+			if (key != 0)
+				consumer.accept(key, table.getAtIndex(INT, 2 * i + 1));
+		}
+	}
+
+	/**
+	 * Removes every entry, keeping the capacity of the table.
+	 */
+	public void clear() {
+		table.fill((byte) 0);
+		used = 0;
+		hasZeroKey = false;
+		zeroValue = 0;
+	}
+
+	/**
+	 * Releases the table if it is outside the heap. The map cannot be used
+	 * afterwards.
+	 */
+	@Override
+	public void close() {
+		if (arena != null)
+			arena.close();
+	}
+
+	/**
+	 * Returns a formatted String representation of this object, with its sizing
+	 * statistics.
+	 *
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return "IntIntHashMap[size=" + size() + ", capacity=" + capacity + ", resizes=" + resizes
+				+ (offHeap ? ", off-heap]" : "]");
+	}
+}
@@ -0,0 +1,276 @@
+package sml.optimiser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import sml.ExecutionProfile;
+import sml.Instruction;
+import sml.Machine;
+import sml.instruction.*;
+
+/**
+ * This class reorders the basic blocks of a program from an
+ * {@link ExecutionProfile}, so that the hot path of the program falls through
+ * from block to block and the code that is rarely executed is moved out of
+ * line, after it.
+ *
+ * <p>
+ * The first block stays first. Every other block is placed after the
+ * predecessor that most often continues to it, following the most frequent
+ * successor of every placed block until the trace reaches a placed block; the
+ * next trace then starts at the hottest block not placed yet. Blocks that were
+ * never executed keep their order, at the end of the program.
+ *
+ * <p>
+ * A conditional jump whose taken target is placed right after it is inverted,
+ * e.g. {@code jnz} becomes {@code jz}, and a {@code jmp} is added wherever a
+ * block no longer falls through to the block it continued to; a {@code jmp}
+ * to the block placed right after it is removed. A {@code call} or
+ * {@code fork} never ends a block, so the instruction it returns or continues
+ * to stays right after it.
+ *
+ * @author Arthur Gousset
+ */
+public final class BlockLayout {
+	/**
+	 * Returns a copy of the program of {@code machine} whose basic blocks are
+	 * laid out along its hot paths.
+	 *
+	 * @param machine the machine holding the program
+	 * @param profile a profile of the program of {@code machine}
+	 * @return a new machine holding the reordered program and its labels, or a
+	 *         copy of the program if a jump has no destination
+	 * @throws IllegalArgumentException if the profile was recorded for another
+	 *                                  program
+	 */
+	public Machine reorder(Machine machine, ExecutionProfile profile) {
+		if (!profile.isFor(machine))
+			throw new IllegalArgumentException("The profile was recorded for another program.");
+		return new Reordering(machine, profile).run();
+	}
+
+	/**
+	 * Tells whether an instruction is a jump that may also continue with the
+	 * next instruction.
+	 */
+	private static boolean isConditional(Instruction ins) {
+		return ins instanceof JnzInstruction || ins instanceof JzInstruction || ins instanceof JltInstruction
+				|| ins instanceof JgeInstruction || ins instanceof LoopInstruction;
+	}
+
+	/**
+	 * Returns the conditional jump taken exactly when {@code ins} is not, or null
+	 * if there is none, as for {@code loop}.
+	 */
+	private static Instruction inverted(Instruction ins, String destination) {
+		if (ins instanceof JnzInstruction jnz)
+			return new JzInstruction(null, jnz.getSource(), destination);
+		if (ins instanceof JzInstruction jz)
+			return new JnzInstruction(null, jz.getSource(), destination);
+		if (ins instanceof JltInstruction jlt)
+			return new JgeInstruction(null, jlt.getLeft(), jlt.getRight(), destination);
+		if (ins instanceof JgeInstruction jge)
+			return new JltInstruction(null, jge.getLeft(), jge.getRight(), destination);
+		return null;
+	}
+
+	/**
+	 * The state of the reordering of one program.
+	 */
+	private static final class Reordering {
+		private final Machine machine;
+		private final ExecutionProfile profile;
+		private final List<Instruction> program;
+		/**
+		 * The address every instruction may jump to, or -1.
+		 */
+		private final int[] targets;
+		/**
+		 * The first address of every block, in program order.
+		 */
+		private final List<Integer> starts = new ArrayList<>();
+		/**
+		 * The index of the block starting at every address, or -1 within a block.
+		 */
+		private final int[] blockAt;
+		/**
+		 * The labels used by the program, including the ones created by this pass.
+		 */
+		private final Set<String> labels = new HashSet<>();
+		/**
+		 * The label jumps to every address use in the reordered program.
+		 */
+		private final Map<Integer, String> names = new HashMap<>();
+
+		Reordering(Machine machine, ExecutionProfile profile) {
+			this.machine = machine;
+			this.profile = profile;
+			this.program = Programs.labelled(machine);
+			this.targets = new int[program.size()];
+			this.blockAt = new int[program.size() + 1];
+			for (Instruction ins : program) {
+				if (ins.getLabel() != null)
+					labels.add(ins.getLabel());
+				if (Programs.destination(ins) != null)
+					labels.add(Programs.destination(ins));
+			}
+		}
+
+		Machine run() {
+			int n = program.size();
+			if (n == 0)
+				return Programs.copyOf(machine);
+			boolean[] leaders = new boolean[n + 1];
+			leaders[0] = true;
+			for (int pc = 0; pc < n; pc++) {
+				Instruction ins = program.get(pc);
+				targets[pc] = -1;
+				if (Programs.destination(ins) == null) {
+					if (ins instanceof RetInstruction)
+						leaders[pc + 1] = true;
+					continue;
+				}
+				try {
+					targets[pc] = machine.getLabels().getAddress(Programs.destination(ins));
+				} catch (Exception e) {
+					return Programs.copyOf(machine);
+				}
+				leaders[targets[pc]] = true;
+				if (isConditional(ins) || ins instanceof JmpInstruction)
+					leaders[pc + 1] = true;
+			}
+			for (int pc = 0; pc < n; pc++) {
+				blockAt[pc] = leaders[pc] ? starts.size() : -1;
+				if (leaders[pc])
+					starts.add(pc);
+			}
+			blockAt[n] = -1;
+			return emit(order());
+		}
+
+		/**
+		 * Returns the blocks in the order they are laid out.
+		 */
+		private List<Integer> order() {
+			int blocks = starts.size();
+			boolean[] placed = new boolean[blocks];
+			List<Integer> order = new ArrayList<>(blocks);
+			int block = 0;
+			while (true) {
+				placed[block] = true;
+				order.add(block);
+				if (order.size() == blocks)
+					return order;
+				int last = end(block) - 1;
+				Instruction ins = program.get(last);
+				int next = -1;
+				long weight = 0;
+				if (!(ins instanceof JmpInstruction || ins instanceof RetInstruction)) {
+					long fallThrough = isConditional(ins) ? profile.getNotTaken(last) : profile.getExecutions(last);
+					if (blockAt[last + 1] >= 0 && !placed[blockAt[last + 1]] && fallThrough > 0) {
+						next = blockAt[last + 1];
+						weight = fallThrough;
+					}
+				}
+				if ((isConditional(ins) || ins instanceof JmpInstruction) && blockAt[targets[last]] >= 0
+						&& !placed[blockAt[targets[last]]] && profile.getTaken(last) > weight)
+					next = blockAt[targets[last]];
+				if (next < 0)
+					next = hottestUnplaced(placed);
+				block = next;
+			}
+		}
+
+		/**
+		 * Returns the block not placed yet whose first instruction was executed most
+		 * often, or the first one not placed yet if none was executed.
+		 */
+		private int hottestUnplaced(boolean[] placed) {
+			int hottest = -1;
+			for (int block = 0; block < starts.size(); block++) {
+				if (!placed[block] && (hottest < 0
+						|| profile.getExecutions(starts.get(block)) > profile.getExecutions(starts.get(hottest))))
+					hottest = block;
+			}
+			return hottest;
+		}
+
+		/**
+		 * Returns the address following the last instruction of a block.
+		 */
+		private int end(int block) {
+			return (block + 1 < starts.size()) ? starts.get(block + 1) : program.size();
+		}
+
+		/**
+		 * Lays the blocks out in order, fixing up the jumps between them.
+		 */
+		private Machine emit(List<Integer> order) {
+			int n = program.size();
+			List<Instruction> reordered = new ArrayList<>(n + order.size());
+			// The original address every instruction jumps to, or -1.
+			List<Integer> jumps = new ArrayList<>(n + order.size());
+			int[] newStart = new int[starts.size()];
+			for (int i = 0; i < order.size(); i++) {
+				int block = order.get(i);
+				int start = starts.get(block);
+				int end = end(block);
+				int following = (i + 1 < order.size()) ? starts.get(order.get(i + 1)) : n;
+				newStart[block] = reordered.size();
+				for (int pc = start; pc < end - 1; pc++) {
+					reordered.add(program.get(pc));
+					jumps.add(targets[pc]);
+				}
+				Instruction last = program.get(end - 1);
+				int target = targets[end - 1];
+				if (last instanceof JmpInstruction) {
+					if (target != following) {
+						reordered.add(last);
+						jumps.add(target);
+					}
+					continue;
+				}
+				if (isConditional(last) && end != following && target == following
+						&& inverted(last, name(end)) != null) {
+					reordered.add(inverted(last, name(end)));
+					jumps.add(end);
+					continue;
+				}
+				reordered.add(last);
+				jumps.add(target);
+				if (!(last instanceof RetInstruction) && end != following) {
+					reordered.add(new JmpInstruction(null, name(end)));
+					jumps.add(end);
+				}
+			}
+
+			int size = reordered.size();
+			int[] newTargets = new int[size];
+			for (int pc = 0; pc < size; pc++) {
+				int target = jumps.get(pc);
+				newTargets[pc] = (target < 0) ? -1 : (target == n) ? size : newStart[blockAt[target]];
+			}
+			return Programs.assemble(reordered.toArray(Instruction[]::new), newTargets, machine);
+		}
+
+		/**
+		 * Returns a label for the block starting at an address: its own label, or
+		 * a new label of the form {@code b<address>} if it has none.
+		 */
+		private String name(int address) {
+			return names.computeIfAbsent(address, a -> {
+				String label = machine.getLabels().getLabel(a);
+				if (label != null)
+					return label;
+				String candidate = "b" + a;
+				for (int k = 1; !labels.add(candidate); k++)
+					candidate = "b" + a + "_" + k;
+				return candidate;
+			});
+		}
+	}
+}
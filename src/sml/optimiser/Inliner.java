@@ -0,0 +1,249 @@
+package sml.optimiser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.instruction.*;
+
+/**
+ * This class replaces {@code call} instructions by a copy of the subroutine
+ * they call, so that a program can share its code through subroutines
+ * without paying for the calls on its hot paths.
+ *
+ * <p>
+ * A subroutine runs from the label of a {@code call} to the first {@code ret}
+ * instruction after it. It can only be inlined if its jumps stay within it
+ * and it does not {@code fork}. Every call of a subroutine of at most
+ * {@code maxSize} instructions is inlined, and so is every selected call, e.g.
+ * the hot calls of an {@link sml.ExecutionProfile}, of a subroutine of at most
+ * {@code maxHotSize} instructions. The labels of the copied instructions are
+ * renamed apart, and jumps to the {@code ret} instruction of the subroutine
+ * continue after the inlined copy.
+ *
+ * <p>
+ * Calls within an inlined copy are kept, so a recursive subroutine is inlined
+ * at most one level deep. The subroutines themselves are kept for the calls
+ * that were not inlined.
+ *
+ * @author Arthur Gousset
+ */
+public final class Inliner {
+	/**
+	 * The maximum number of instructions, without the {@code ret}, of a
+	 * subroutine inlined at every call.
+	 */
+	private int maxSize = 8;
+	/**
+	 * The maximum number of instructions, without the {@code ret}, of a
+	 * subroutine inlined at a selected call.
+	 */
+	private int maxHotSize = 64;
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public void setMaxHotSize(int maxHotSize) {
+		this.maxHotSize = maxHotSize;
+	}
+
+	/**
+	 * Returns a copy of the program of {@code machine} in which every call of a
+	 * small subroutine has been inlined.
+	 *
+	 * @param machine the machine holding the program
+	 * @return a new machine holding the inlined program and its labels
+	 */
+	public Machine inline(Machine machine) {
+		return inline(machine, address -> false);
+	}
+
+	/**
+	 * Returns a copy of the program of {@code machine} in which every call of a
+	 * small subroutine, and every selected call of a larger one, has been
+	 * inlined.
+	 *
+	 * @param machine  the machine holding the program
+	 * @param selected tells, from the address of a {@code call} instruction,
+	 *                 whether it should be inlined up to {@code maxHotSize}
+	 *                 instructions, e.g. {@link sml.ExecutionProfile#hotterThan}
+	 * @return a new machine holding the inlined program and its labels
+	 */
+	public Machine inline(Machine machine, IntPredicate selected) {
+		return new Inlining(machine).run(selected);
+	}
+
+	/**
+	 * The instructions of a subroutine, from {@code start} to the {@code ret}
+	 * instruction at {@code end}.
+	 */
+	private record Subroutine(int start, int end) {
+		int size() {
+			return end - start;
+		}
+	}
+
+	/**
+	 * This class holds the state of a single inlining pass over a program.
+	 */
+	private final class Inlining {
+		private final Machine machine;
+		private final List<Instruction> program;
+		/**
+		 * The subroutine of every called label, or null if it cannot be inlined.
+		 */
+		private final Map<String, Subroutine> subroutines = new HashMap<>();
+		/**
+		 * The labels used by the program, including the ones created by this pass.
+		 */
+		private final Set<String> labels = new HashSet<>();
+		private final List<Instruction> inlined = new ArrayList<>();
+		/**
+		 * The labels to give to the next instruction added to the inlined program.
+		 */
+		private final List<String> pending = new ArrayList<>();
+		/**
+		 * Maps every label that ended up on the same instruction as another one to
+		 * the label jumps must use instead.
+		 */
+		private final Map<String, String> renamed = new HashMap<>();
+
+		Inlining(Machine machine) {
+			this.machine = machine;
+			this.program = Programs.labelled(machine);
+			for (Instruction ins : program) {
+				if (ins.getLabel() != null)
+					labels.add(ins.getLabel());
+				if (Programs.destination(ins) != null)
+					labels.add(Programs.destination(ins));
+			}
+		}
+
+		Machine run(IntPredicate selected) {
+			for (int pc = 0; pc < program.size(); pc++) {
+				Instruction ins = program.get(pc);
+				Subroutine subroutine = (ins instanceof CallInstruction call)
+						? subroutines.computeIfAbsent(call.getDestinationLabel(), this::subroutine)
+						: null;
+				if (subroutine != null && (subroutine.size() <= maxSize
+						|| (subroutine.size() <= maxHotSize && selected.test(pc)))) {
+					if (ins.getLabel() != null)
+						pending.add(ins.getLabel());
+					copy(subroutine);
+				} else {
+					add(ins);
+				}
+			}
+
+			List<Instruction> result = new ArrayList<>(inlined.size());
+			for (Instruction ins : inlined) {
+				String destination = Programs.destination(ins);
+				result.add((destination != null && renamed.containsKey(destination))
+						? Programs.withDestination(ins, ins.getLabel(), renamed.get(destination))
+						: ins);
+			}
+			Machine inlinedMachine = Programs.withLabels(result, machine);
+			// Jumps to the end of the program, after an inlined last call.
+			for (String label : pending)
+				Programs.addLabel(inlinedMachine, label, result.size());
+			return inlinedMachine;
+		}
+
+		/**
+		 * Finds the subroutine starting at a label.
+		 *
+		 * @return the subroutine, or null if it cannot be inlined
+		 */
+		private Subroutine subroutine(String label) {
+			Integer start = address(label);
+			if (start == null)
+				return null;
+			int end = start;
+			while (end < program.size() && !(program.get(end) instanceof RetInstruction))
+				end++;
+			if (end == program.size())
+				return null;
+			for (int pc = start; pc < end; pc++) {
+				Instruction ins = program.get(pc);
+				if (ins instanceof ForkInstruction)
+					return null;
+				if (Programs.destination(ins) != null && !(ins instanceof CallInstruction)) {
+					Integer target = address(Programs.destination(ins));
+					if (target == null || target < start || target > end)
+						return null;
+				}
+			}
+			return new Subroutine(start, end);
+		}
+
+		/**
+		 * Adds a copy of the body of a subroutine to the inlined program.
+		 */
+		private void copy(Subroutine subroutine) {
+			// Gives a new label to every instruction jumped to from within the body.
+			Map<Integer, String> copies = new HashMap<>();
+			for (int pc = subroutine.start(); pc < subroutine.end(); pc++) {
+				Instruction ins = program.get(pc);
+				String destination = Programs.destination(ins);
+				if (destination != null && !(ins instanceof CallInstruction))
+					copies.computeIfAbsent(address(destination), address -> fresh(destination));
+			}
+			for (int pc = subroutine.start(); pc < subroutine.end(); pc++) {
+				Instruction ins = program.get(pc);
+				String label = copies.get(pc);
+				String destination = Programs.destination(ins);
+				add((destination != null && !(ins instanceof CallInstruction))
+						? Programs.withDestination(ins, label, copies.get(address(destination)))
+						: ins.withLabel(label));
+			}
+			// Returning continues with the instruction following the call.
+			if (copies.containsKey(subroutine.end()))
+				pending.add(copies.get(subroutine.end()));
+		}
+
+		/**
+		 * Adds an instruction to the inlined program, giving it the pending labels.
+		 */
+		private void add(Instruction ins) {
+			if (!pending.isEmpty()) {
+				String label = pending.get(0);
+				for (String other : pending.subList(1, pending.size()))
+					renamed.put(other, label);
+				if (ins.getLabel() != null)
+					renamed.put(ins.getLabel(), label);
+				ins = ins.withLabel(label);
+				pending.clear();
+			}
+			inlined.add(ins);
+		}
+
+		/**
+		 * Returns a label of the form {@code label_n} that is not used yet.
+		 */
+		private String fresh(String label) {
+			for (int n = 1;; n++) {
+				String candidate = label + "_" + n;
+				if (labels.add(candidate))
+					return candidate;
+			}
+		}
+
+		/**
+		 * Returns the address of a label, or null if the label does not exist.
+		 */
+		private Integer address(String label) {
+			try {
+				return machine.getLabels().getAddress(label);
+			} catch (Exception e) {
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package sml.optimiser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * This class represents the value of a register as a polynomial, with integer
+ * coefficients, over a set of atoms.
+ *
+ * <p>
+ * Atoms are numbered: the first ones stand for the initial values of the
+ * registers, further ones stand for the results of divisions that cannot be
+ * expressed as a polynomial. Coefficients are Java {@code int}s, so arithmetic
+ * wraps around exactly like the arithmetic of the machine. Two equal
+ * polynomials therefore always evaluate to the same register value, which is
+ * what the {@link Superoptimiser} relies on to prove two blocks equivalent.
+ *
+ * <p>
+ * Instances are immutable.
+ *
+ * @author Arthur Gousset
+ */
+final class Polynomial {
+	/**
+	 * Maps every monomial, written as the sorted atom numbers separated by
+	 * {@code "*"} (the empty string for the constant term), to its non-zero
+	 * coefficient.
+	 */
+	private final Map<String, Integer> terms;
+
+	private Polynomial(Map<String, Integer> terms) {
+		this.terms = terms;
+	}
+
+	/**
+	 * Returns the polynomial representing a constant.
+	 *
+	 * @param value the constant
+	 * @return the constant polynomial
+	 */
+	static Polynomial constant(int value) {
+		Map<String, Integer> terms = new TreeMap<>();
+		if (value != 0)
+			terms.put("", value);
+		return new Polynomial(terms);
+	}
+
+	/**
+	 * Returns the polynomial representing a single atom.
+	 *
+	 * @param atom the atom number
+	 * @return the polynomial {@code 1 * atom}
+	 */
+	static Polynomial atom(int atom) {
+		Map<String, Integer> terms = new TreeMap<>();
+		terms.put(Integer.toString(atom), 1);
+		return new Polynomial(terms);
+	}
+
+	Polynomial add(Polynomial other) {
+		Map<String, Integer> sum = new TreeMap<>(terms);
+		other.terms.forEach((monomial, coefficient) -> accumulate(sum, monomial, coefficient));
+		return new Polynomial(sum);
+	}
+
+	Polynomial subtract(Polynomial other) {
+		Map<String, Integer> difference = new TreeMap<>(terms);
+		other.terms.forEach((monomial, coefficient) -> accumulate(difference, monomial, -coefficient));
+		return new Polynomial(difference);
+	}
+
+	Polynomial multiply(Polynomial other) {
+		Map<String, Integer> product = new TreeMap<>();
+		terms.forEach((m1, c1) -> other.terms.forEach(
+				(m2, c2) -> accumulate(product, multiply(m1, m2), c1 * c2)));
+		return new Polynomial(product);
+	}
+
+	boolean isConstant() {
+		return terms.isEmpty() || (terms.size() == 1 && terms.containsKey(""));
+	}
+
+	/**
+	 * Returns the value of a constant polynomial.
+	 *
+	 * @return the constant term
+	 */
+	int constantValue() {
+		return terms.getOrDefault("", 0);
+	}
+
+	private static void accumulate(Map<String, Integer> terms, String monomial, int coefficient) {
+		int total = terms.getOrDefault(monomial, 0) + coefficient;
+		if (total == 0)
+			terms.remove(monomial);
+		else
+			terms.put(monomial, total);
+	}
+
+	/**
+	 * Multiplies two monomials by merging their atoms.
+	 */
+	private static String multiply(String m1, String m2) {
+		if (m1.isEmpty())
+			return m2;
+		if (m2.isEmpty())
+			return m1;
+		List<Integer> atoms = new ArrayList<>();
+		for (String atom : (m1 + "*" + m2).split("\\*"))
+			atoms.add(Integer.parseInt(atom));
+		Collections.sort(atoms);
+		return atoms.stream().map(String::valueOf).collect(Collectors.joining("*"));
+	}
+
+	/**
+	 * Returns a canonical String representation of this polynomial, e.g.
+	 * "[ -> 3, 0*1 -> 2]" for {@code 3 + 2 * atom0 * atom1}.
+	 *
+	 * @return canonical String representation of the polynomial
+	 */
+	@Override
+	public String toString() {
+		return terms.entrySet().stream()
+				.map(e -> e.getKey() + " -> " + e.getValue())
+				.collect(Collectors.joining(", ", "[", "]"));
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof Polynomial other) {
+			return terms.equals(other.terms);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return terms.hashCode();
+	}
+}
@@ -0,0 +1,323 @@
+package sml.optimiser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers;
+import sml.instruction.*;
+
+/**
+ * This class holds the helper methods shared by the program transformations
+ * in this package.
+ *
+ * @author Arthur Gousset
+ */
+final class Programs {
+	private Programs() {
+	}
+
+	/**
+	 * Returns the register written by an arithmetic or {@code mov} instruction.
+	 *
+	 * @param ins an {@code add}, {@code sub}, {@code mul}, {@code div} or
+	 *            {@code mov} instruction, with a register or an integer operand
+	 * @return the result register
+	 */
+	static RegisterName result(Instruction ins) {
+		if (ins instanceof MovInstruction mov)
+			return mov.getResult();
+		if (ins instanceof AddInstruction add)
+			return add.getResult();
+		if (ins instanceof SubInstruction sub)
+			return sub.getResult();
+		if (ins instanceof MulInstruction mul)
+			return mul.getResult();
+		if (ins instanceof DivInstruction div)
+			return div.getResult();
+		if (ins instanceof AddImmediateInstruction add)
+			return add.getResult();
+		if (ins instanceof SubImmediateInstruction sub)
+			return sub.getResult();
+		if (ins instanceof MulImmediateInstruction mul)
+			return mul.getResult();
+		return ((DivImmediateInstruction) ins).getResult();
+	}
+
+	/**
+	 * Tells whether an instruction is an {@code add}, {@code sub}, {@code mul}
+	 * or {@code div} instruction with an integer operand.
+	 *
+	 * @param ins the instruction
+	 * @return {@code true} for the immediate form of an arithmetic instruction
+	 */
+	static boolean isImmediate(Instruction ins) {
+		return ins instanceof AddImmediateInstruction || ins instanceof SubImmediateInstruction
+				|| ins instanceof MulImmediateInstruction || ins instanceof DivImmediateInstruction;
+	}
+
+	/**
+	 * Returns the integer operand of an immediate arithmetic instruction.
+	 *
+	 * @param ins an instruction for which {@link #isImmediate} holds
+	 * @return the integer operand
+	 */
+	static int immediate(Instruction ins) {
+		if (ins instanceof AddImmediateInstruction add)
+			return add.getValue();
+		if (ins instanceof SubImmediateInstruction sub)
+			return sub.getValue();
+		if (ins instanceof MulImmediateInstruction mul)
+			return mul.getValue();
+		return ((DivImmediateInstruction) ins).getValue();
+	}
+
+	/**
+	 * Builds the arithmetic instruction with a given opcode and operands.
+	 *
+	 * @param label  optional label of the instruction (can be null)
+	 * @param opcode {@code add}, {@code sub}, {@code mul} or {@code div}
+	 * @param result the result register
+	 * @param value  the integer operand
+	 * @return the immediate form of the instruction
+	 */
+	static Instruction immediate(String label, String opcode, RegisterName result, int value) {
+		return switch (opcode) {
+			case AddInstruction.OP_CODE -> new AddImmediateInstruction(label, result, value);
+			case SubInstruction.OP_CODE -> new SubImmediateInstruction(label, result, value);
+			case MulInstruction.OP_CODE -> new MulImmediateInstruction(label, result, value);
+			default -> new DivImmediateInstruction(label, result, value);
+		};
+	}
+
+	/**
+	 * Returns the register read by a two-register arithmetic instruction.
+	 *
+	 * @param ins an {@code add}, {@code sub}, {@code mul} or {@code div}
+	 *            instruction
+	 * @return the source register
+	 */
+	static RegisterName source(Instruction ins) {
+		if (ins instanceof AddInstruction add)
+			return add.getSource();
+		if (ins instanceof SubInstruction sub)
+			return sub.getSource();
+		if (ins instanceof MulInstruction mul)
+			return mul.getSource();
+		return ((DivInstruction) ins).getSource();
+	}
+
+	/**
+	 * Returns the label an instruction may jump to.
+	 *
+	 * @param ins the instruction
+	 * @return the destination label of a jump, {@code call} or {@code fork}
+	 *         instruction, or null for any other instruction
+	 */
+	static String destination(Instruction ins) {
+		if (ins instanceof JnzInstruction jnz)
+			return jnz.getDestinationLabel();
+		if (ins instanceof JzInstruction jz)
+			return jz.getDestinationLabel();
+		if (ins instanceof JmpInstruction jmp)
+			return jmp.getDestinationLabel();
+		if (ins instanceof JltInstruction jlt)
+			return jlt.getDestinationLabel();
+		if (ins instanceof JgeInstruction jge)
+			return jge.getDestinationLabel();
+		if (ins instanceof LoopInstruction loop)
+			return loop.getDestinationLabel();
+		if (ins instanceof CallInstruction call)
+			return call.getDestinationLabel();
+		if (ins instanceof ForkInstruction fork)
+			return fork.getDestinationLabel();
+		return null;
+	}
+
+	/**
+	 * Returns a copy of an instruction with another destination label.
+	 *
+	 * @param ins         an instruction for which {@link #destination} is not
+	 *                    null
+	 * @param label       the label of the copy (can be null)
+	 * @param destination the destination label of the copy
+	 * @return the copy
+	 */
+	static Instruction withDestination(Instruction ins, String label, String destination) {
+		if (ins instanceof JnzInstruction jnz)
+			return new JnzInstruction(label, jnz.getSource(), destination);
+		if (ins instanceof JzInstruction jz)
+			return new JzInstruction(label, jz.getSource(), destination);
+		if (ins instanceof JmpInstruction)
+			return new JmpInstruction(label, destination);
+		if (ins instanceof JltInstruction jlt)
+			return new JltInstruction(label, jlt.getLeft(), jlt.getRight(), destination);
+		if (ins instanceof JgeInstruction jge)
+			return new JgeInstruction(label, jge.getLeft(), jge.getRight(), destination);
+		if (ins instanceof LoopInstruction loop)
+			return new LoopInstruction(label, loop.getCounter(), destination);
+		if (ins instanceof CallInstruction)
+			return new CallInstruction(label, destination);
+		return new ForkInstruction(label, ((ForkInstruction) ins).getResult(), destination);
+	}
+
+	/**
+	 * Computes, for every address, the address of the first instruction at or
+	 * after it that has not been removed.
+	 *
+	 * @param program the program, with {@code null} in place of removed
+	 *                instructions
+	 * @return the next remaining instruction of every address, or
+	 *         {@code program.length} if there is none
+	 */
+	static int[] nextInstructions(Instruction[] program) {
+		int[] next = new int[program.length];
+		int following = program.length;
+		for (int pc = program.length - 1; pc >= 0; pc--) {
+			if (program[pc] != null)
+				following = pc;
+			next[pc] = following;
+		}
+		return next;
+	}
+
+	/**
+	 * Builds a machine holding the remaining instructions of a transformed
+	 * program.
+	 *
+	 * <p>
+	 * Jumps whose target has been removed are redirected to the next remaining
+	 * instruction. Only labels that are jumped to are kept, and when several
+	 * labels end up on the same instruction the jumps are renamed to use a single
+	 * one of them.
+	 *
+	 * @param program the program, with {@code null} in place of removed
+	 *                instructions
+	 * @param targets the jump target of every instruction, as an address in
+	 *                {@code program}, or {@code -1} for instructions that do
+	 *                not jump
+	 * @param source  the machine the program was transformed from
+	 * @return a new machine holding the program and its labels
+	 */
+	static Machine assemble(Instruction[] program, int[] targets, Machine source) {
+		int n = program.length;
+		int[] next = nextInstructions(program);
+		int[] newAddress = new int[n + 1];
+		int size = 0;
+		for (int pc = 0; pc < n; pc++) {
+			newAddress[pc] = size;
+			if (program[pc] != null)
+				size++;
+		}
+		newAddress[n] = size;
+
+		// Picks a single label name for every address that is jumped to.
+		String[] labelAt = new String[size + 1];
+		for (int pc = 0; pc < n; pc++) {
+			if (program[pc] != null && targets[pc] >= 0) {
+				int target = newAddress[(targets[pc] < n) ? next[targets[pc]] : n];
+				if (labelAt[target] == null)
+					labelAt[target] = destination(program[pc]);
+			}
+		}
+
+		List<Instruction> instructions = new ArrayList<>(size);
+		for (int pc = 0; pc < n; pc++) {
+			Instruction ins = program[pc];
+			if (ins == null)
+				continue;
+			if (targets[pc] >= 0) {
+				String name = labelAt[newAddress[(targets[pc] < n) ? next[targets[pc]] : n]];
+				ins = withDestination(ins, null, name);
+			}
+			instructions.add(ins.withLabel(labelAt[instructions.size()]));
+		}
+
+		Machine machine = newMachine(source);
+		machine.getProgram().addAll(instructions);
+		for (int address = 0; address <= size; address++) {
+			if (labelAt[address] != null)
+				addLabel(machine, labelAt[address], address);
+		}
+		return machine;
+	}
+
+	/**
+	 * Returns the program of a machine with every labelled instruction carrying
+	 * its label, including shared instructions whose label is only recorded in
+	 * the labels of the machine.
+	 *
+	 * @param machine the machine holding the program
+	 * @return the labelled instructions of the program
+	 */
+	static List<Instruction> labelled(Machine machine) {
+		List<Instruction> program = new ArrayList<>(machine.getProgram().size());
+		for (int address = 0; address < machine.getProgram().size(); address++) {
+			Instruction ins = machine.getProgram().get(address);
+			String label = machine.getLabels().getLabel(address);
+			program.add((label == null || label.equals(ins.getLabel())) ? ins : ins.withLabel(label));
+		}
+		return program;
+	}
+
+	/**
+	 * Copies the program and labels of a machine into a new machine.
+	 *
+	 * @param machine the machine to copy
+	 * @return a new machine with the same program and labels
+	 */
+	static Machine copyOf(Machine machine) {
+		return withLabels(labelled(machine), machine);
+	}
+
+	/**
+	 * Builds a machine holding a program, with a label for every labelled
+	 * instruction.
+	 *
+	 * @param program the instructions of the program
+	 * @param source  the machine the program was transformed from
+	 * @return a new machine holding the program and its labels
+	 */
+	static Machine withLabels(List<Instruction> program, Machine source) {
+		Machine machine = newMachine(source);
+		machine.getProgram().addAll(program);
+		for (int address = 0; address < program.size(); address++) {
+			String label = program.get(address).getLabel();
+			if (label != null)
+				addLabel(machine, label, address);
+		}
+		return machine;
+	}
+
+	/**
+	 * Adds a label to a transformed program.
+	 *
+	 * @param machine the machine holding the program
+	 * @param label   the label to add
+	 * @param address the address of the label
+	 * @throws IllegalStateException if the program already has the label, as
+	 *                               a transformation must never duplicate one
+	 */
+	static void addLabel(Machine machine, String label, int address) {
+		try {
+			machine.getLabels().addLabel(label, address);
+		} catch (Exception e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Creates the machine holding a transformed program, whose registers are
+	 * wide if those of the original machine are.
+	 *
+	 * @param source the machine the program was transformed from
+	 * @return a new machine with an empty program
+	 */
+	private static Machine newMachine(Machine source) {
+		Machine machine = new Machine(new Registers());
+		machine.getRegisters().setWide(source.getRegisters().isWide());
+		return machine;
+	}
+}
@@ -0,0 +1,431 @@
+package sml.optimiser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers;
+import sml.Registers.Register;
+import sml.instruction.*;
+
+/**
+ * This class partially evaluates a program for a subset of known initial
+ * register values.
+ *
+ * <p>
+ * The result is a residual program which, when executed with the remaining
+ * registers supplied by the caller (see {@link Machine#execute(Registers)}),
+ * leaves the machine in the same final state as the original program would.
+ * The residual program is produced in three steps:
+ * <ul>
+ * <li>constants are propagated from the known inputs along the feasible paths
+ * of the program, so branches whose registers are known become static;
+ * <li>instructions whose result is known are folded into {@code mov}
+ * instructions, arithmetic instructions reading a register whose value is
+ * known take that value as an integer operand instead, statically untaken
+ * branches and unreachable instructions are removed;
+ * <li>stores to registers that are overwritten before being read are removed.
+ * Every register is considered read when the program terminates because the
+ * final register values are the result of the program.
+ * </ul>
+ *
+ * <p>
+ * Programs containing instructions this class does not know how to analyse,
+ * such as {@code call} or {@code fork}, are returned unchanged after the
+ * known inputs. Since constants are evaluated with 32-bit
+ * arithmetic, nothing is folded in programs whose machine has wide registers
+ * (see {@link Registers#setWide}); only their dead stores are removed.
+ *
+ * @author Arthur Gousset
+ */
+public final class Specialiser {
+	private static final int REGISTER_COUNT = Register.values().length;
+	private static final int ALL_REGISTERS = (1 << REGISTER_COUNT) - 1;
+
+	/**
+	 * Produces the residual program of {@code machine} for the given known
+	 * initial register values.
+	 *
+	 * <p>
+	 * The known values are materialised by {@code mov} instructions at the start
+	 * of the residual program, so the residual program does not rely on the
+	 * caller supplying them again.
+	 *
+	 * @param machine     the machine holding the program and its labels
+	 * @param knownInputs initial values of the registers known ahead of
+	 *                    execution; every other register is treated as unknown
+	 * @return a new machine holding the residual program and its labels
+	 */
+	public Machine specialise(Machine machine, Map<? extends RegisterName, Integer> knownInputs) {
+		List<Instruction> program = new ArrayList<>();
+		// Materialises the known inputs in register order so that the residual
+		// program does not depend on the iteration order of the map.
+		for (Register register : Register.values()) {
+			if (knownInputs.containsKey(register))
+				program.add(new MovInstruction(null, register, knownInputs.get(register)));
+		}
+		int offset = program.size();
+		program.addAll(machine.getProgram());
+
+		int[] targets = jumpTargets(program, offset, machine);
+		if (targets == null) {
+			program.subList(offset, program.size()).clear();
+			program.addAll(Programs.labelled(machine));
+			return Programs.withLabels(program, machine);
+		}
+
+		// Folding evaluates arithmetic on 32 bits, which would change the
+		// results of a program running on wide registers.
+		Instruction[] residual = machine.getRegisters().isWide()
+				? program.toArray(Instruction[]::new)
+				: fold(program, propagateConstants(program, targets));
+		eliminateDeadStores(residual, targets);
+		return Programs.assemble(residual, targets, machine);
+	}
+
+	/**
+	 * Resolves the address every jump instruction may jump to.
+	 *
+	 * @param program the program, including the materialised known inputs
+	 * @param offset  number of instructions inserted before the original program
+	 * @param machine the machine holding the labels of the original program
+	 * @return the jump target of every instruction ({@code -1} for non-jumps), or
+	 *         {@code null} if the program cannot be analysed
+	 */
+	private static int[] jumpTargets(List<Instruction> program, int offset, Machine machine) {
+		int[] targets = new int[program.size()];
+		for (int pc = 0; pc < program.size(); pc++) {
+			Instruction ins = program.get(pc);
+			targets[pc] = -1;
+			if (isBranch(ins)) {
+				try {
+					targets[pc] = machine.getLabels().getAddress(Programs.destination(ins)) + offset;
+				} catch (Exception e) {
+					return null;
+				}
+			} else if (!(ins instanceof AddInstruction || ins instanceof SubInstruction
+					|| ins instanceof MulInstruction || ins instanceof DivInstruction
+					|| ins instanceof MovInstruction || ins instanceof OutInstruction
+					|| Programs.isImmediate(ins))) {
+				return null;
+			}
+		}
+		return targets;
+	}
+
+	/**
+	 * Tells whether an instruction is a jump, whose only effect besides
+	 * choosing the next instruction is the decrement of a {@code loop} counter.
+	 */
+	private static boolean isBranch(Instruction ins) {
+		return ins instanceof JnzInstruction || ins instanceof JzInstruction || ins instanceof JmpInstruction
+				|| ins instanceof JltInstruction || ins instanceof JgeInstruction || ins instanceof LoopInstruction;
+	}
+
+	/**
+	 * Tells whether a jump instruction is taken.
+	 *
+	 * @param ins   the jump instruction
+	 * @param state the register values known after the instruction, i.e. with
+	 *              the counter of a {@code loop} already decremented
+	 * @return whether the jump is taken, or null if it is not known
+	 */
+	private static Boolean taken(Instruction ins, Integer[] state) {
+		if (ins instanceof JmpInstruction)
+			return true;
+		if (ins instanceof JnzInstruction jnz)
+			return isNonZero(state[index(jnz.getSource())]);
+		if (ins instanceof LoopInstruction loop)
+			return isNonZero(state[index(loop.getCounter())]);
+		if (ins instanceof JzInstruction jz) {
+			Boolean nonZero = isNonZero(state[index(jz.getSource())]);
+			return (nonZero == null) ? null : !nonZero;
+		}
+		RegisterName left;
+		RegisterName right;
+		if (ins instanceof JltInstruction jlt) {
+			left = jlt.getLeft();
+			right = jlt.getRight();
+		} else {
+			left = ((JgeInstruction) ins).getLeft();
+			right = ((JgeInstruction) ins).getRight();
+		}
+		int comparison;
+		if (left.equals(right))
+			comparison = 0;
+		else if (state[index(left)] == null || state[index(right)] == null)
+			return null;
+		else
+			comparison = Integer.compare(state[index(left)], state[index(right)]);
+		return (ins instanceof JltInstruction) ? comparison < 0 : comparison >= 0;
+	}
+
+	private static Boolean isNonZero(Integer value) {
+		return (value == null) ? null : value != 0;
+	}
+
+	/**
+	 * Computes, for every instruction, which registers hold a value known before
+	 * the instruction executes.
+	 *
+	 * <p>
+	 * Only successors that are feasible under the known values are visited, so a
+	 * {@code null} state means the instruction can never execute. Within a state,
+	 * a {@code null} register value means the value is not known.
+	 *
+	 * @param program the program to analyse
+	 * @param targets the jump target of every instruction
+	 * @return the state before every instruction
+	 */
+	private static Integer[][] propagateConstants(List<Instruction> program, int[] targets) {
+		int n = program.size();
+		Integer[][] states = new Integer[n][];
+		Deque<Integer> worklist = new ArrayDeque<>();
+		if (n > 0) {
+			states[0] = new Integer[REGISTER_COUNT];
+			worklist.add(0);
+		}
+
+		while (!worklist.isEmpty()) {
+			int pc = worklist.poll();
+			Instruction ins = program.get(pc);
+			Integer[] after = states[pc].clone();
+			boolean fallsThrough = true;
+			boolean jumps = false;
+
+			if (ins instanceof MovInstruction mov) {
+				after[index(mov.getResult())] = mov.getValue();
+			} else if (isBranch(ins)) {
+				if (ins instanceof LoopInstruction loop) {
+					Integer counter = after[index(loop.getCounter())];
+					after[index(loop.getCounter())] = (counter == null) ? null : counter - 1;
+				}
+				Boolean taken = taken(ins, after);
+				fallsThrough = !Boolean.TRUE.equals(taken);
+				jumps = !Boolean.FALSE.equals(taken);
+			} else if (!(ins instanceof OutInstruction)) {
+				RegisterName result = Programs.result(ins);
+				Integer operand = operand(ins, after);
+				// Division by a known zero always aborts the program.
+				if (ins.getOpcode().equals(DivInstruction.OP_CODE) && operand != null && operand == 0)
+					fallsThrough = false;
+				after[index(result)] = evaluate(ins, after[index(result)], operand, sameRegister(ins));
+			}
+
+			if (fallsThrough && pc + 1 < n && merge(states, pc + 1, after))
+				worklist.add(pc + 1);
+			if (jumps && targets[pc] < n && merge(states, targets[pc], after))
+				worklist.add(targets[pc]);
+		}
+		return states;
+	}
+
+	/**
+	 * Returns the value of the second operand of an arithmetic instruction: its
+	 * integer operand, or the value of its source register if it is known.
+	 *
+	 * @param ins   the arithmetic instruction
+	 * @param state the register values known before the instruction
+	 * @return the value of the operand, or null if it is not known
+	 */
+	private static Integer operand(Instruction ins, Integer[] state) {
+		return Programs.isImmediate(ins) ? Integer.valueOf(Programs.immediate(ins))
+				: state[index(Programs.source(ins))];
+	}
+
+	/**
+	 * Tells whether an arithmetic instruction reads its result register as its
+	 * second operand.
+	 */
+	private static boolean sameRegister(Instruction ins) {
+		return !Programs.isImmediate(ins) && Programs.result(ins).equals(Programs.source(ins));
+	}
+
+	/**
+	 * Computes the result of an arithmetic instruction, if it is known.
+	 *
+	 * @param ins          the arithmetic instruction
+	 * @param result       the value of the result register, or null if unknown
+	 * @param operand      the value of the second operand, or null if unknown
+	 * @param sameRegister whether the result and source registers are the same
+	 * @return the value of the result register after the instruction, or null if
+	 *         it is not known
+	 */
+	private static Integer evaluate(Instruction ins, Integer result, Integer operand, boolean sameRegister) {
+		String opcode = ins.getOpcode();
+		if (opcode.equals(SubInstruction.OP_CODE) && sameRegister)
+			return 0;
+		if (opcode.equals(MulInstruction.OP_CODE)
+				&& (Objects.equals(result, 0) || Objects.equals(operand, 0)))
+			return 0;
+		if (result == null || operand == null)
+			return null;
+		return switch (opcode) {
+			case AddInstruction.OP_CODE -> result + operand;
+			case SubInstruction.OP_CODE -> result - operand;
+			case MulInstruction.OP_CODE -> result * operand;
+			default -> (operand == 0) ? null : result / operand;
+		};
+	}
+
+	/**
+	 * Merges a state into the state recorded before an instruction.
+	 *
+	 * @param states the states before every instruction
+	 * @param pc     the instruction whose state is updated
+	 * @param state  the incoming state
+	 * @return {@code true} if the recorded state changed
+	 */
+	private static boolean merge(Integer[][] states, int pc, Integer[] state) {
+		if (states[pc] == null) {
+			states[pc] = state.clone();
+			return true;
+		}
+		boolean changed = false;
+		for (int i = 0; i < REGISTER_COUNT; i++) {
+			if (states[pc][i] != null && !states[pc][i].equals(state[i])) {
+				states[pc][i] = null;
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Replaces instructions with known results by {@code mov} instructions,
+	 * known source registers by integer operands, and removes unreachable
+	 * instructions and branches that are never taken.
+	 *
+	 * @param program the original program
+	 * @param states  the state before every instruction
+	 * @return the folded program, with {@code null} in place of removed
+	 *         instructions
+	 */
+	private static Instruction[] fold(List<Instruction> program, Integer[][] states) {
+		Instruction[] folded = new Instruction[program.size()];
+		for (int pc = 0; pc < folded.length; pc++) {
+			Instruction ins = program.get(pc);
+			Integer[] state = states[pc];
+			if (state == null)
+				continue;
+			folded[pc] = ins;
+			if (isBranch(ins)) {
+				// A loop instruction is kept for the decrement of its counter.
+				if (!(ins instanceof LoopInstruction) && Boolean.FALSE.equals(taken(ins, state)))
+					folded[pc] = null;
+			} else if (!(ins instanceof MovInstruction || ins instanceof OutInstruction)) {
+				RegisterName result = Programs.result(ins);
+				Integer operand = operand(ins, state);
+				Integer value = evaluate(ins, state[index(result)], operand, sameRegister(ins));
+				if (value != null)
+					folded[pc] = new MovInstruction(ins.getLabel(), result, value);
+				else if (operand != null && !Programs.isImmediate(ins) && !sameRegister(ins))
+					// The source register is no longer read, so its store may become dead.
+					folded[pc] = Programs.immediate(ins.getLabel(), ins.getOpcode(), result, operand);
+			}
+		}
+		return folded;
+	}
+
+	/**
+	 * Removes, until none is left, every {@code add}, {@code sub}, {@code mul} or
+	 * {@code mov} instruction whose result is overwritten before being read.
+	 *
+	 * <p>
+	 * Divisions are kept because they abort the program when dividing by zero.
+	 *
+	 * @param program the program, with {@code null} in place of removed
+	 *                instructions
+	 * @param targets the jump target of every instruction
+	 */
+	private static void eliminateDeadStores(Instruction[] program, int[] targets) {
+		int n = program.length;
+		boolean removed = true;
+		while (removed) {
+			removed = false;
+			int[] next = Programs.nextInstructions(program);
+			int[] liveIn = new int[n];
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (int pc = n - 1; pc >= 0; pc--) {
+					if (program[pc] == null)
+						continue;
+					int live = liveOut(program, targets, next, liveIn, pc);
+					int in = transfer(program[pc], live);
+					if (in != liveIn[pc]) {
+						liveIn[pc] = in;
+						changed = true;
+					}
+				}
+			}
+			for (int pc = 0; pc < n; pc++) {
+				Instruction ins = program[pc];
+				if (ins == null || ins.getOpcode().equals(DivInstruction.OP_CODE) || ins instanceof OutInstruction
+						|| isBranch(ins))
+					continue;
+				if ((liveOut(program, targets, next, liveIn, pc) & bit(Programs.result(ins))) == 0) {
+					program[pc] = null;
+					removed = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the registers read after an instruction before being written.
+	 */
+	private static int liveOut(Instruction[] program, int[] targets, int[] next, int[] liveIn, int pc) {
+		int live = 0;
+		if (!(program[pc] instanceof JmpInstruction)) {
+			int successor = (pc + 1 < program.length) ? next[pc + 1] : program.length;
+			live = (successor < program.length) ? liveIn[successor] : ALL_REGISTERS;
+		}
+		if (targets[pc] >= 0) {
+			int target = (targets[pc] < program.length) ? next[targets[pc]] : program.length;
+			live |= (target < program.length) ? liveIn[target] : ALL_REGISTERS;
+		}
+		return live;
+	}
+
+	/**
+	 * Computes the registers read before an instruction from those read after it.
+	 */
+	private static int transfer(Instruction ins, int live) {
+		if (ins instanceof MovInstruction mov)
+			return live & ~bit(mov.getResult());
+		if (ins instanceof OutInstruction out)
+			return live | bit(out.getSource());
+		if (ins instanceof JnzInstruction jnz)
+			return live | bit(jnz.getSource());
+		if (ins instanceof JzInstruction jz)
+			return live | bit(jz.getSource());
+		if (ins instanceof JltInstruction jlt)
+			return live | bit(jlt.getLeft()) | bit(jlt.getRight());
+		if (ins instanceof JgeInstruction jge)
+			return live | bit(jge.getLeft()) | bit(jge.getRight());
+		// A loop instruction reads its counter before decrementing it.
+		if (ins instanceof LoopInstruction loop)
+			return live | bit(loop.getCounter());
+		if (ins instanceof JmpInstruction)
+			return live;
+		// Arithmetic instructions read both registers before writing the result.
+		if (Programs.isImmediate(ins))
+			return live | bit(Programs.result(ins));
+		return live | bit(Programs.source(ins)) | bit(Programs.result(ins));
+	}
+
+	private static int index(RegisterName register) {
+		return ((Register) register).ordinal();
+	}
+
+	private static int bit(RegisterName register) {
+		return 1 << index(register);
+	}
+}
@@ -0,0 +1,541 @@
+package sml.optimiser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.instruction.*;
+
+/**
+ * This class replaces straight-line blocks of arithmetic instructions by the
+ * shortest equivalent sequence of instructions it can find.
+ *
+ * <p>
+ * A block is a maximal sequence of {@code add}, {@code sub}, {@code mul},
+ * {@code div} and {@code mov} instructions, with register or integer
+ * operands, that is only labelled on its first instruction. Candidate
+ * sequences are enumerated by increasing length over the registers and
+ * constants of the block. A candidate is first run on a set
+ * of test inputs, and if it agrees with the block on all of them, it is
+ * proved equivalent by comparing the final value of each of the eight
+ * registers as a {@link Polynomial} of their initial values. A candidate must
+ * also divide by exactly the same values as the block, so it fails with an
+ * {@code ArithmeticException} exactly when the block does.
+ *
+ * <p>
+ * Since equivalence is proved for 32-bit arithmetic, which wraps around,
+ * programs whose machine has wide registers (see
+ * {@link sml.Registers#setWide}) are returned unchanged.
+ *
+ * <p>
+ * Search results are kept in a cache keyed by the block with its registers
+ * renamed in order of first use, so a block is only ever searched once. The
+ * cache can be persisted to a file and is reloaded when a superoptimiser is
+ * created with the same file.
+ *
+ * @author Arthur Gousset
+ */
+public final class Superoptimiser {
+	private static final String MOV = MovInstruction.OP_CODE;
+	private static final String ADD = AddInstruction.OP_CODE;
+	private static final String SUB = SubInstruction.OP_CODE;
+	private static final String MUL = MulInstruction.OP_CODE;
+	private static final String DIV = DivInstruction.OP_CODE;
+	private static final List<String> OPERATIONS = List.of(ADD, SUB, MUL, DIV);
+	private static final int TEST_INPUTS = 16;
+
+	/**
+	 * The file the cache is persisted to, or null if it is only kept in memory.
+	 */
+	private final Path cacheFile;
+	/**
+	 * Maps normalised blocks to the shortest normalised sequence found for them.
+	 */
+	private final Properties cache = new Properties();
+	/**
+	 * The maximum length of the candidate sequences.
+	 */
+	private int maxLength = 3;
+	/**
+	 * The maximum number of candidate sequences tried for a single block.
+	 */
+	private long searchBudget = 2_000_000;
+
+	/**
+	 * Constructor: a superoptimiser whose cache is only kept in memory.
+	 */
+	public Superoptimiser() {
+		this.cacheFile = null;
+	}
+
+	/**
+	 * Constructor: a superoptimiser whose cache is loaded from, and saved to, a
+	 * file.
+	 *
+	 * @param cacheFile the cache file; it is created by {@link #saveCache()} if
+	 *                  it does not exist yet
+	 * @throws IOException if the cache file exists but cannot be read
+	 */
+	public Superoptimiser(Path cacheFile) throws IOException {
+		this.cacheFile = cacheFile;
+		if (Files.exists(cacheFile)) {
+			try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+				cache.load(reader);
+			}
+		}
+	}
+
+	public void setMaxLength(int maxLength) {
+		this.maxLength = maxLength;
+	}
+
+	public void setSearchBudget(long searchBudget) {
+		this.searchBudget = searchBudget;
+	}
+
+	/**
+	 * Writes the cache to the cache file, if there is one.
+	 *
+	 * @throws IOException if the cache file cannot be written
+	 */
+	public void saveCache() throws IOException {
+		if (cacheFile == null)
+			return;
+		try (Writer writer = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8)) {
+			cache.store(writer, "SML superoptimiser results");
+		}
+	}
+
+	/**
+	 * Returns a copy of the program of {@code machine} in which every block has
+	 * been replaced by the shortest equivalent sequence found.
+	 *
+	 * @param machine the machine holding the program
+	 * @return a new machine holding the optimised program and its labels
+	 */
+	public Machine optimise(Machine machine) {
+		return optimise(machine, address -> true);
+	}
+
+	/**
+	 * Returns a copy of the program of {@code machine} in which the selected
+	 * blocks have been replaced by the shortest equivalent sequence found.
+	 *
+	 * @param machine  the machine holding the program
+	 * @param selected tells, from the address of its first instruction, whether
+	 *                 a block should be optimised
+	 * @return a new machine holding the optimised program and its labels
+	 */
+	public Machine optimise(Machine machine, IntPredicate selected) {
+		// Equivalence is only proved for 32-bit arithmetic.
+		if (machine.getRegisters().isWide())
+			return Programs.copyOf(machine);
+		List<Instruction> program = Programs.labelled(machine);
+		List<Instruction> optimised = new ArrayList<>(program.size());
+		int start = 0;
+		while (start < program.size()) {
+			int end = start;
+			while (end < program.size() && isArithmetic(program.get(end))
+					&& (end == start || program.get(end).getLabel() == null))
+				end++;
+			if (end - start < 2) {
+				optimised.add(program.get(start));
+				start++;
+			} else {
+				List<Instruction> block = program.subList(start, end);
+				optimised.addAll(selected.test(start) ? optimiseBlock(block) : block);
+				start = end;
+			}
+		}
+		return Programs.withLabels(optimised, machine);
+	}
+
+	/**
+	 * Returns the shortest sequence found that is equivalent to a block.
+	 *
+	 * <p>
+	 * The label of the first instruction of the block is carried by the first
+	 * instruction of the result.
+	 *
+	 * @param block a block of {@code add}, {@code sub}, {@code mul},
+	 *              {@code div} and {@code mov} instructions
+	 * @return an equivalent sequence that is not longer than {@code block}
+	 */
+	public List<Instruction> optimiseBlock(List<Instruction> block) {
+		List<RegisterName> registers = new ArrayList<>();
+		List<String[]> normalised = normalise(block, registers);
+		String key = format(normalised);
+
+		String result = cache.getProperty(key);
+		if (result == null) {
+			List<String[]> found = search(normalised, registers.size());
+			result = (found == null) ? key : format(found);
+			cache.setProperty(key, result);
+		}
+		// An empty sequence cannot carry the label of the block.
+		if (result.equals(key) || (result.isEmpty() && block.get(0).getLabel() != null))
+			return block;
+
+		List<Instruction> sequence = new ArrayList<>();
+		String label = block.get(0).getLabel();
+		for (String[] ins : parse(result)) {
+			sequence.add(instantiate(ins, registers, sequence.isEmpty() ? label : null));
+		}
+		return sequence;
+	}
+
+	private static boolean isArithmetic(Instruction ins) {
+		return ins instanceof AddInstruction || ins instanceof SubInstruction
+				|| ins instanceof MulInstruction || ins instanceof DivInstruction
+				|| ins instanceof MovInstruction || Programs.isImmediate(ins);
+	}
+
+	/**
+	 * Rewrites a block with its registers renamed "r0", "r1", ... in order of
+	 * first use, e.g. "mov EBX 1; add EAX EBX" becomes "mov r0 1; add r1 r0".
+	 *
+	 * @param block     the block
+	 * @param registers receives the register each name stands for
+	 * @return the normalised instructions, as {opcode, operand, operand}
+	 */
+	private static List<String[]> normalise(List<Instruction> block, List<RegisterName> registers) {
+		List<String[]> normalised = new ArrayList<>();
+		for (Instruction ins : block) {
+			String result = name(Programs.result(ins), registers);
+			String operand;
+			if (ins instanceof MovInstruction mov)
+				operand = Integer.toString(mov.getValue());
+			else if (Programs.isImmediate(ins))
+				operand = Integer.toString(Programs.immediate(ins));
+			else
+				operand = name(Programs.source(ins), registers);
+			normalised.add(new String[] { ins.getOpcode(), result, operand });
+		}
+		return normalised;
+	}
+
+	private static String name(RegisterName register, List<RegisterName> registers) {
+		if (!registers.contains(register))
+			registers.add(register);
+		return "r" + registers.indexOf(register);
+	}
+
+	/**
+	 * Tells whether a normalised operand names a register rather than being an
+	 * integer.
+	 */
+	private static boolean isRegister(String operand) {
+		return operand.startsWith("r");
+	}
+
+	private static Instruction instantiate(String[] ins, List<RegisterName> registers, String label) {
+		RegisterName result = registers.get(Integer.parseInt(ins[1].substring(1)));
+		if (ins[0].equals(MOV))
+			return new MovInstruction(label, result, Integer.parseInt(ins[2]));
+		if (!isRegister(ins[2]))
+			return Programs.immediate(label, ins[0], result, Integer.parseInt(ins[2]));
+		RegisterName source = registers.get(Integer.parseInt(ins[2].substring(1)));
+		return switch (ins[0]) {
+			case ADD -> new AddInstruction(label, result, source);
+			case SUB -> new SubInstruction(label, result, source);
+			case MUL -> new MulInstruction(label, result, source);
+			default -> new DivInstruction(label, result, source);
+		};
+	}
+
+	private static String format(List<String[]> instructions) {
+		return instructions.stream()
+				.map(ins -> String.join(" ", ins))
+				.collect(Collectors.joining("; "));
+	}
+
+	private static List<String[]> parse(String instructions) {
+		List<String[]> parsed = new ArrayList<>();
+		if (!instructions.isEmpty()) {
+			for (String ins : instructions.split("; "))
+				parsed.add(ins.split(" "));
+		}
+		return parsed;
+	}
+
+	/**
+	 * Searches for the shortest sequence equivalent to a normalised block.
+	 *
+	 * @param block     the normalised block
+	 * @param registers the number of registers used by the block
+	 * @return the shortest sequence shorter than the block, or null if none was
+	 *         found within the search budget
+	 */
+	private List<String[]> search(List<String[]> block, int registers) {
+		Map<String, Integer> quotients = new HashMap<>();
+		SymbolicState expected = SymbolicState.of(block, registers, quotients);
+		if (expected.alwaysFails())
+			return null;
+
+		// Candidates use the constants of the block and the constant terms of the
+		// values it computes.
+		Set<Integer> constants = new LinkedHashSet<>();
+		for (String[] ins : block) {
+			if (!isRegister(ins[2]))
+				constants.add(Integer.parseInt(ins[2]));
+		}
+		for (Polynomial value : expected.values) {
+			if (value.isConstant() || value.constantValue() != 0)
+				constants.add(value.constantValue());
+		}
+
+		List<String[]> alphabet = new ArrayList<>();
+		for (int r = 0; r < registers; r++) {
+			for (int constant : constants)
+				alphabet.add(new String[] { MOV, "r" + r, Integer.toString(constant) });
+			for (String op : OPERATIONS) {
+				for (int s = 0; s < registers; s++)
+					alphabet.add(new String[] { op, "r" + r, "r" + s });
+			}
+		}
+		// Immediate operands of 0 are left out: they do nothing, zero the register
+		// or always fail.
+		for (int r = 0; r < registers; r++) {
+			for (String op : OPERATIONS) {
+				for (int constant : constants) {
+					if (constant != 0)
+						alphabet.add(new String[] { op, "r" + r, Integer.toString(constant) });
+				}
+			}
+		}
+
+		int[][] inputs = testInputs(registers);
+		int[][] outputs = new int[inputs.length][];
+		for (int i = 0; i < inputs.length; i++)
+			outputs[i] = run(block, inputs[i]);
+
+		Search search = new Search(alphabet, inputs, outputs, expected, quotients, registers, searchBudget);
+		for (int length = 0; length < block.size() && length <= maxLength; length++) {
+			List<String[]> found = search.find(length);
+			if (found != null)
+				return found;
+			if (search.exhausted())
+				break;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns deterministic test inputs, mixing edge values with random ones.
+	 */
+	private static int[][] testInputs(int registers) {
+		Random random = new Random(registers);
+		int[] edges = { 0, 1, -1, 2, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		int[][] inputs = new int[TEST_INPUTS][registers];
+		for (int i = 0; i < TEST_INPUTS; i++) {
+			for (int r = 0; r < registers; r++)
+				inputs[i][r] = (i < edges.length) ? edges[(i + r) % edges.length] : random.nextInt();
+		}
+		return inputs;
+	}
+
+	/**
+	 * Runs a normalised sequence on concrete register values.
+	 *
+	 * @return the final register values, or null if the sequence divides by zero
+	 */
+	private static int[] run(List<String[]> sequence, int[] input) {
+		int[] values = input.clone();
+		for (String[] ins : sequence) {
+			if (!step(ins, values))
+				return null;
+		}
+		return values;
+	}
+
+	/**
+	 * Executes a normalised instruction on concrete register values.
+	 *
+	 * @return {@code false} if the instruction divides by zero
+	 */
+	private static boolean step(String[] ins, int[] values) {
+		int r = Integer.parseInt(ins[1].substring(1));
+		if (ins[0].equals(MOV)) {
+			values[r] = Integer.parseInt(ins[2]);
+			return true;
+		}
+		int s = isRegister(ins[2]) ? values[Integer.parseInt(ins[2].substring(1))] : Integer.parseInt(ins[2]);
+		switch (ins[0]) {
+			case ADD -> values[r] += s;
+			case SUB -> values[r] -= s;
+			case MUL -> values[r] *= s;
+			default -> {
+				if (s == 0)
+					return false;
+				values[r] /= s;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This class enumerates the candidate sequences of a given length.
+	 */
+	private static final class Search {
+		private final List<String[]> alphabet;
+		private final int[][] inputs;
+		private final int[][] outputs;
+		private final SymbolicState expected;
+		private final Map<String, Integer> quotients;
+		private final int registers;
+		private long budget;
+
+		Search(List<String[]> alphabet, int[][] inputs, int[][] outputs, SymbolicState expected,
+				Map<String, Integer> quotients, int registers, long budget) {
+			this.alphabet = alphabet;
+			this.inputs = inputs;
+			this.outputs = outputs;
+			this.expected = expected;
+			this.quotients = quotients;
+			this.registers = registers;
+			this.budget = budget;
+		}
+
+		boolean exhausted() {
+			return budget <= 0;
+		}
+
+		List<String[]> find(int length) {
+			int[][] values = new int[inputs.length][];
+			for (int i = 0; i < inputs.length; i++)
+				values[i] = inputs[i].clone();
+			return find(new ArrayList<>(), length, values);
+		}
+
+		/**
+		 * Extends a candidate prefix, whose results on the test inputs are
+		 * {@code values} (null entries for inputs on which it divides by zero).
+		 */
+		private List<String[]> find(List<String[]> prefix, int length, int[][] values) {
+			if (prefix.size() == length) {
+				budget--;
+				for (int i = 0; i < inputs.length; i++) {
+					if (!Arrays.equals(values[i], outputs[i]))
+						return null;
+				}
+				return SymbolicState.of(prefix, registers, quotients).equals(expected) ? new ArrayList<>(prefix) : null;
+			}
+			for (String[] ins : alphabet) {
+				if (exhausted())
+					return null;
+				int[][] next = new int[values.length][];
+				for (int i = 0; i < values.length; i++) {
+					if (values[i] != null) {
+						next[i] = values[i].clone();
+						if (!step(ins, next[i]))
+							next[i] = null;
+					}
+				}
+				prefix.add(ins);
+				List<String[]> found = find(prefix, length, next);
+				prefix.remove(prefix.size() - 1);
+				if (found != null)
+					return found;
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * This class holds the symbolic result of a normalised sequence: the final
+	 * value of every register, and the values the sequence divides by.
+	 */
+	private static final class SymbolicState {
+		private final Polynomial[] values;
+		private final Set<Polynomial> divisors = new HashSet<>();
+		private boolean alwaysFails;
+
+		private SymbolicState(int registers) {
+			values = new Polynomial[registers];
+			for (int r = 0; r < registers; r++)
+				values[r] = Polynomial.atom(r);
+		}
+
+		/**
+		 * Evaluates a normalised sequence symbolically. Divisions that cannot be
+		 * folded become new atoms, numbered after the registers; sequences
+		 * evaluated with the same {@code quotients} share the atoms of equal
+		 * divisions.
+		 */
+		static SymbolicState of(List<String[]> sequence, int registers, Map<String, Integer> quotients) {
+			SymbolicState state = new SymbolicState(registers);
+			for (String[] ins : sequence) {
+				int r = Integer.parseInt(ins[1].substring(1));
+				if (ins[0].equals(MOV)) {
+					state.values[r] = Polynomial.constant(Integer.parseInt(ins[2]));
+					continue;
+				}
+				Polynomial s = isRegister(ins[2]) ? state.values[Integer.parseInt(ins[2].substring(1))]
+						: Polynomial.constant(Integer.parseInt(ins[2]));
+				switch (ins[0]) {
+					case ADD -> state.values[r] = state.values[r].add(s);
+					case SUB -> state.values[r] = state.values[r].subtract(s);
+					case MUL -> state.values[r] = state.values[r].multiply(s);
+					default -> state.values[r] = state.divide(state.values[r], s, quotients, registers);
+				}
+			}
+			return state;
+		}
+
+		private Polynomial divide(Polynomial dividend, Polynomial divisor, Map<String, Integer> quotients,
+				int registers) {
+			if (divisor.isConstant()) {
+				if (divisor.constantValue() == 0) {
+					alwaysFails = true;
+					return dividend;
+				}
+				if (dividend.isConstant())
+					return Polynomial.constant(dividend.constantValue() / divisor.constantValue());
+				if (divisor.constantValue() == 1)
+					return dividend;
+			} else {
+				divisors.add(divisor);
+			}
+			String key = dividend + " / " + divisor;
+			quotients.putIfAbsent(key, registers + quotients.size());
+			return Polynomial.atom(quotients.get(key));
+		}
+
+		boolean alwaysFails() {
+			return alwaysFails;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o instanceof SymbolicState other) {
+				return Arrays.equals(values, other.values)
+						&& divisors.equals(other.divisors)
+						&& alwaysFails == other.alwaysFails;
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(values);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package sml.output;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import sml.OutputSink;
+
+/**
+ * This class writes values to a file as a stream of 4-byte little-endian
+ * integers, without any conversion to text.
+ *
+ * <p>
+ * Values are stored in a direct buffer, which is written to the file channel
+ * when it is full or flushed. The file can be read back, e.g., with
+ * {@code ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer()}.
+ *
+ * @author Arthur Gousset
+ */
+public final class BinaryOutputSink implements OutputSink {
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+
+	/**
+	 * Constructor: a sink writing to an open channel through a buffer of 64 KiB.
+	 * Closing the sink closes the channel.
+	 *
+	 * @param channel the channel to write to
+	 */
+	public BinaryOutputSink(FileChannel channel) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Returns a sink writing to a file, which is created or truncated.
+	 *
+	 * @param file the file to write to
+	 * @return the sink, to be closed once every value has been written
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static BinaryOutputSink open(Path file) throws IOException {
+		return new BinaryOutputSink(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING));
+	}
+
+	@Override
+	public void accept(int value) {
+		if (buffer.remaining() < Integer.BYTES)
+			flush();
+		buffer.putInt(value);
+	}
+
+	@Override
+	public void flush() {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			buffer.compact();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package sml.output;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import sml.OutputSink;
+
+/**
+ * This class keeps the values written by a program in memory, in a growing
+ * array of {@code int}s, so that writing a value is a single array store in
+ * the common case and values are never boxed. The rare values that do not fit
+ * in an {@code int} are kept aside, by position.
+ *
+ * @author Arthur Gousset
+ */
+public final class IntBufferOutputSink implements OutputSink {
+	private int[] values;
+	private int size;
+	/**
+	 * The values that do not fit in an {@code int}, by position; null until the
+	 * first one.
+	 */
+	private Map<Integer, BigInteger> wideValues;
+
+	/**
+	 * Constructor: an empty buffer.
+	 */
+	public IntBufferOutputSink() {
+		this(16);
+	}
+
+	/**
+	 * Constructor: an empty buffer with room for {@code initialCapacity} values.
+	 *
+	 * @param initialCapacity the number of values held before the buffer grows
+	 */
+	public IntBufferOutputSink(int initialCapacity) {
+		this.values = new int[Math.max(1, initialCapacity)];
+	}
+
+	@Override
+	public void accept(int value) {
+		if (size == values.length)
+			values = Arrays.copyOf(values, size * 2);
+		values[size++] = value;
+	}
+
+	@Override
+	public void accept(BigInteger value) {
+		if (value.bitLength() >= Integer.SIZE) {
+			if (wideValues == null)
+				wideValues = new HashMap<>();
+			wideValues.put(size, value);
+		}
+		accept(value.intValue());
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns a value held by the buffer, or its low 32 bits for a value that
+	 * does not fit in an {@code int}.
+	 *
+	 * @param index the position of the value, in the order values were written
+	 * @return the value
+	 * @throws IndexOutOfBoundsException if there is no value at {@code index}
+	 */
+	public int get(int index) {
+		return values[Objects.checkIndex(index, size)];
+	}
+
+	/**
+	 * Returns a copy of the values held by the buffer.
+	 *
+	 * @return the values, in the order they were written
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * Writes every value held by the buffer to another sink.
+	 *
+	 * @param sink the sink to write to
+	 */
+	public void writeTo(OutputSink sink) {
+		for (int i = 0; i < size; i++) {
+			BigInteger wide = (wideValues == null) ? null : wideValues.get(i);
+			if (wide != null)
+				sink.accept(wide);
+			else
+				sink.accept(values[i]);
+		}
+	}
+
+	/**
+	 * Removes every value, keeping the memory allocated for them.
+	 */
+	public void clear() {
+		size = 0;
+		wideValues = null;
+	}
+}
@@ -0,0 +1,130 @@
+package sml.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import sml.OutputSink;
+
+/**
+ * This class writes values as text, one decimal number per line, to an output
+ * stream, exactly as {@code System.out.println(int)} would.
+ *
+ * <p>
+ * Values are converted to ASCII digits directly into a byte buffer, which is
+ * written to the stream in one call when it is full or flushed. Writing a value
+ * therefore neither allocates a string nor locks the stream.
+ *
+ * @author Arthur Gousset
+ */
+public final class TextOutputSink implements OutputSink {
+	private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+	/**
+	 * Room for the longest value, "-2147483648", and a line separator.
+	 */
+	private static final int MAX_LINE = 11 + LINE_SEPARATOR.length;
+
+	private final OutputStream out;
+	private final int bufferSize;
+	/**
+	 * Allocated on the first value, so that a machine that never writes costs
+	 * nothing.
+	 */
+	private byte[] buffer;
+	private int position;
+
+	/**
+	 * Constructor: a sink writing to {@code out} through a buffer of 8 KiB.
+	 *
+	 * @param out the stream to write to, e.g. {@code System.out}
+	 */
+	public TextOutputSink(OutputStream out) {
+		this(out, 8192);
+	}
+
+	/**
+	 * Constructor: a sink writing to {@code out} through a buffer of
+	 * {@code bufferSize} bytes.
+	 *
+	 * @param out        the stream to write to
+	 * @param bufferSize the size of the buffer, in bytes
+	 */
+	public TextOutputSink(OutputStream out, int bufferSize) {
+		this.out = out;
+		this.bufferSize = Math.max(bufferSize, MAX_LINE);
+	}
+
+	@Override
+	public void accept(int value) {
+		if (buffer == null)
+			buffer = new byte[bufferSize];
+		else if (position > buffer.length - MAX_LINE)
+			drain();
+		position = putDecimal(value, buffer, position);
+		for (byte b : LINE_SEPARATOR)
+			buffer[position++] = b;
+	}
+
+	@Override
+	public void accept(BigInteger value) {
+		byte[] line = (value + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII);
+		if (buffer == null)
+			buffer = new byte[bufferSize];
+		if (position > buffer.length - line.length)
+			drain();
+		if (line.length > buffer.length) {
+			try {
+				out.write(line);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		} else {
+			System.arraycopy(line, 0, buffer, position, line.length);
+			position += line.length;
+		}
+	}
+
+	/**
+	 * Writes the decimal digits of a value at a position of a buffer.
+	 *
+	 * @return the position after the last digit
+	 */
+	static int putDecimal(int value, byte[] buffer, int position) {
+		long v = value;
+		if (v < 0) {
+			buffer[position++] = '-';
+			v = -v;
+		}
+		int digits = 1;
+		for (long p = 10; p <= v; p *= 10)
+			digits++;
+		int end = position + digits;
+		for (int i = end - 1; i >= position; i--) {
+			buffer[i] = (byte) ('0' + v % 10);
+			v /= 10;
+		}
+		return end;
+	}
+
+	private void drain() {
+		try {
+			out.write(buffer, 0, position);
+			position = 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void flush() {
+		if (position > 0)
+			drain();
+		try {
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
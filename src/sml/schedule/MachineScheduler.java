@@ -0,0 +1,239 @@
+package sml.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sml.Machine;
+import sml.Registers;
+
+/**
+ * This class runs many machines on a small, fixed number of carrier threads
+ * by executing every program in slices of a bounded number of instructions.
+ *
+ * <p>
+ * A carrier takes the next machine, resumes it from its saved program counter
+ * with a quantum of instruction "fuel" (see {@link Machine#resume(long)}) and
+ * puts it back in the queue unless it halted. A long-running program therefore
+ * never holds a carrier for more than one quantum, and a short program
+ * submitted behind hundreds of long ones completes after a few quanta instead
+ * of waiting for all of them.
+ *
+ * <p>
+ * Machines are picked by stride scheduling: every machine advances a virtual
+ * time, its "pass", by a stride inversely proportional to its priority each
+ * time it runs, and the machine with the smallest pass runs next. Over time a
+ * machine of priority 2 therefore receives twice the instructions of a machine
+ * of priority 1. A machine submitted later starts at the current virtual time,
+ * so it is neither starved nor allowed to catch up on time it was not there
+ * for.
+ *
+ * @author Arthur Gousset
+ */
+public final class MachineScheduler implements AutoCloseable {
+	/**
+	 * The stride of a machine of priority 1.
+	 */
+	private static final long STRIDE_1 = 1L << 20;
+
+	/**
+	 * A submitted machine waiting in the ready queue.
+	 */
+	private static final class Task implements Comparable<Task> {
+		private final Machine machine;
+		private final long stride;
+		private final CompletableFuture<Machine> result = new CompletableFuture<>();
+		private long pass;
+		/**
+		 * Breaks ties between equal passes in the order machines were queued.
+		 */
+		private long sequence;
+
+		private Task(Machine machine, int priority) {
+			this.machine = machine;
+			this.stride = STRIDE_1 / priority;
+		}
+
+		@Override
+		public int compareTo(Task other) {
+			int byPass = Long.compare(pass, other.pass);
+			return (byPass != 0) ? byPass : Long.compare(sequence, other.sequence);
+		}
+	}
+
+	private final long quantum;
+	private final PriorityBlockingQueue<Task> ready = new PriorityBlockingQueue<>();
+	private final List<Thread> carriers;
+	private final AtomicLong sequence = new AtomicLong();
+	/**
+	 * Number of submitted machines that have not completed.
+	 */
+	private final AtomicInteger pending = new AtomicInteger();
+	/**
+	 * The pass of the machine most recently picked to run.
+	 */
+	private volatile long virtualTime;
+	private volatile boolean closed;
+	/**
+	 * Set when closing is interrupted: the machines still pending are cancelled.
+	 */
+	private volatile boolean cancelled;
+
+	/**
+	 * Constructor: a scheduler with {@code carriers} carrier threads, running
+	 * every machine for at most {@code quantum} instructions at a time.
+	 *
+	 * @param carriers the number of carrier threads
+	 * @param quantum  the maximum number of instructions run in one slice
+	 */
+	public MachineScheduler(int carriers, long quantum) {
+		if (carriers < 1)
+			throw new IllegalArgumentException("At least one carrier thread is required.");
+		if (quantum < 1)
+			throw new IllegalArgumentException("The quantum must be at least one instruction.");
+		this.quantum = quantum;
+		this.carriers = new ArrayList<>(carriers);
+		for (int i = 0; i < carriers; i++)
+			this.carriers.add(Thread.ofPlatform().name("sml-carrier-" + i).daemon(true).start(this::carry));
+	}
+
+	/**
+	 * Starts the program of a machine from instruction 0, with every register set
+	 * to 0.
+	 *
+	 * @param machine  the machine holding the program
+	 * @param priority the share of instructions the machine receives, at least 1
+	 * @return the machine, once its program halts
+	 */
+	public CompletableFuture<Machine> submit(Machine machine, int priority) {
+		return schedule(machine, priority, machine::start);
+	}
+
+	/**
+	 * Starts the program of a machine from instruction 0, with the registers
+	 * initialised to the values held by {@code initialRegisters}.
+	 *
+	 * @param machine          the machine holding the program
+	 * @param initialRegisters the register values the program starts with
+	 * @param priority         the share of instructions the machine receives, at
+	 *                         least 1
+	 * @return the machine, once its program halts
+	 */
+	public CompletableFuture<Machine> submit(Machine machine, Registers initialRegisters, int priority) {
+		return schedule(machine, priority, () -> machine.start(initialRegisters));
+	}
+
+	/**
+	 * Queues a machine, starting it only once it is accepted, so that a rejected
+	 * machine is left as it was.
+	 */
+	private CompletableFuture<Machine> schedule(Machine machine, int priority, Runnable start) {
+		if (priority < 1)
+			throw new IllegalArgumentException("The priority must be at least 1.");
+		// Counted as pending before checking whether the scheduler is closed, so
+		// that no carrier can stop between the check and the enqueue.
+		pending.incrementAndGet();
+		if (closed) {
+			pending.decrementAndGet();
+			throw new RejectedExecutionException("The scheduler is closed.");
+		}
+		try {
+			start.run();
+		} catch (RuntimeException e) {
+			pending.decrementAndGet();
+			throw e;
+		}
+		Task task = new Task(machine, priority);
+		task.pass = virtualTime + task.stride;
+		enqueue(task);
+		return task.result;
+	}
+
+	private void enqueue(Task task) {
+		task.sequence = sequence.getAndIncrement();
+		ready.add(task);
+	}
+
+	/**
+	 * The loop of every carrier thread: runs one quantum of the next machine
+	 * until the scheduler is closed and every machine has completed.
+	 */
+	private void carry() {
+		while (!closed || pending.get() > 0) {
+			Task task;
+			try {
+				task = ready.poll(10, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				// Interrupted by close, which cancels the pending machines
+				continue;
+			}
+			if (task == null)
+				continue;
+			virtualTime = task.pass;
+			if (task.result.isDone() || cancelled) {
+				// Cancelled by the submitter, or by close
+				task.result.cancel(false);
+				pending.decrementAndGet();
+				continue;
+			}
+			try {
+				if (task.machine.resume(quantum)) {
+					task.result.complete(task.machine);
+					pending.decrementAndGet();
+				} else {
+					task.pass += task.stride;
+					enqueue(task);
+				}
+			} catch (RuntimeException e) {
+				task.result.completeExceptionally(e);
+				pending.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of submitted machines whose program has not completed.
+	 *
+	 * @return the number of pending machines
+	 */
+	public int getPending() {
+		return pending.get();
+	}
+
+	/**
+	 * Stops accepting machines, waits for the submitted ones to complete and
+	 * stops the carrier threads.
+	 *
+	 * <p>
+	 * This blocks for as long as any submitted program runs, i.e. forever if one
+	 * never halts. Interrupting the calling thread cancels the machines that have
+	 * not completed instead: their results are cancelled, a machine waiting on a
+	 * channel or a child stops waiting, and the carriers stop after their current
+	 * quantum. The interrupt status is then restored.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		boolean interrupted = false;
+		for (Thread carrier : carriers) {
+			while (carrier.isAlive()) {
+				try {
+					carrier.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+					if (!cancelled) {
+						cancelled = true;
+						carriers.forEach(Thread::interrupt);
+					}
+				}
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+}
@@ -0,0 +1,257 @@
+package sml.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import sml.ExecutionLimits;
+import sml.Registers;
+import sml.Registers.Register;
+import sml.batch.BatchExecutor;
+import sml.batch.BatchJob;
+import sml.batch.BatchResult;
+
+/**
+ * This class is a local HTTP server translating and executing SML programs,
+ * so that a single JVM, with its JIT-compiled engine, serves many programs.
+ *
+ * <ul>
+ * <li>{@code POST /run} executes the SML code in the request body. The initial
+ * values of registers may be given as query parameters, e.g.
+ * {@code /run?EAX=5}. The response is a JSON object with the final
+ * {@code registers}, the {@code output} values, the {@code error} that stopped
+ * the program, if any, and the execution time in {@code nanos}.
+ * <li>{@code GET /stats} returns a JSON object with the number of requests
+ * served, failed and rejected, the throughput since the server started, and
+ * percentiles of the latency of {@code /run} requests, in microseconds.
+ * </ul>
+ *
+ * <p>
+ * Programs are executed on a bounded pool of worker threads with a bounded
+ * queue; a request arriving when the queue is full is rejected with status 503
+ * rather than delaying every other request. Every program, together with the
+ * children it forks, runs within a timeout, so a program that never
+ * terminates only holds a worker for that long. A program that cannot be
+ * translated is not executed, and its translation errors are returned as its
+ * {@code error}.
+ *
+ * @author Arthur Gousset
+ */
+public final class ExecutionServer implements AutoCloseable {
+	private final HttpServer server;
+	private final ThreadPoolExecutor workers;
+	private final ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+	private final Duration timeout;
+	private volatile boolean nonTerminationDetection;
+
+	private final LatencyHistogram latencies = new LatencyHistogram();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final long started = System.nanoTime();
+
+	/**
+	 * Constructor: a server listening on {@code address}, not started yet.
+	 *
+	 * @param address       the address to listen on; port 0 picks a free port
+	 * @param workers       the number of programs executed at the same time
+	 * @param queueCapacity the number of programs waiting for a worker
+	 * @param timeout       the time every program is allowed to run for
+	 * @throws IOException if the address cannot be bound
+	 */
+	public ExecutionServer(InetSocketAddress address, int workers, int queueCapacity, Duration timeout)
+			throws IOException {
+		this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				Thread.ofPlatform().name("sml-server-worker-", 0).daemon(true).factory());
+		this.timeout = timeout;
+		this.server = HttpServer.create(address, 0);
+		// Requests are parsed on virtual threads and only executed on the workers
+		this.server.setExecutor(requests);
+		this.server.createContext("/run", this::run);
+		this.server.createContext("/stats", this::stats);
+	}
+
+	/**
+	 * Enables or disables non-termination detection in the machines executing
+	 * the programs.
+	 *
+	 * @param enabled whether non-termination is detected
+	 */
+	public void setNonTerminationDetection(boolean enabled) {
+		this.nonTerminationDetection = enabled;
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Returns the address the server listens on, with the port actually bound.
+	 *
+	 * @return the address of the server
+	 */
+	public InetSocketAddress getAddress() {
+		return server.getAddress();
+	}
+
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+	private void run(HttpExchange exchange) throws IOException {
+		long start = System.nanoTime();
+		try (exchange) {
+			if (!exchange.getRequestMethod().equals("POST")) {
+				respond(exchange, 405, "{\"error\":\"Use POST\"}");
+				return;
+			}
+			BatchJob job;
+			try {
+				String source = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+				job = new BatchJob("request", source, registers(exchange.getRequestURI().getRawQuery()));
+			} catch (IllegalArgumentException e) {
+				failed.increment();
+				respond(exchange, 400, "{\"error\":" + quote(e.getMessage()) + "}");
+				return;
+			}
+
+			Future<BatchResult> future;
+			try {
+				future = workers.submit(() -> BatchExecutor.run(job, nonTerminationDetection,
+						ExecutionLimits.NONE.withTimeout(timeout)));
+			} catch (RejectedExecutionException e) {
+				rejected.increment();
+				respond(exchange, 503, "{\"error\":\"Too many requests\"}");
+				return;
+			}
+			BatchResult result;
+			try {
+				result = future.get();
+			} catch (ExecutionException e) {
+				failed.increment();
+				respond(exchange, 500, "{\"error\":" + quote(String.valueOf(e.getCause())) + "}");
+				return;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				future.cancel(true);
+				return;
+			}
+			if (!result.succeeded())
+				failed.increment();
+			respond(exchange, 200, toJson(result));
+		} finally {
+			latencies.record(System.nanoTime() - start);
+		}
+	}
+
+	private void stats(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			double seconds = (System.nanoTime() - started) / 1e9;
+			long served = latencies.getCount();
+			String json = "{\"requests\":" + served
+					+ ",\"failed\":" + failed.sum()
+					+ ",\"rejected\":" + rejected.sum()
+					+ ",\"queued\":" + workers.getQueue().size()
+					+ ",\"throughput\":" + String.format(Locale.ROOT, "%.3f", served / seconds)
+					+ ",\"latencyMicros\":{"
+					+ "\"mean\":" + String.format(Locale.ROOT, "%.3f", latencies.getMean() / 1e3)
+					+ ",\"p50\":" + latencies.getPercentile(50) / 1_000
+					+ ",\"p90\":" + latencies.getPercentile(90) / 1_000
+					+ ",\"p99\":" + latencies.getPercentile(99) / 1_000
+					+ ",\"p999\":" + latencies.getPercentile(99.9) / 1_000
+					+ ",\"max\":" + latencies.getPercentile(100) / 1_000
+					+ "}}";
+			respond(exchange, 200, json);
+		}
+	}
+
+	/**
+	 * Parses the initial values of registers from a query string, e.g.
+	 * "EAX=5&amp;EBX=-1".
+	 *
+	 * @return the registers, or null if the query is empty
+	 * @throws IllegalArgumentException if a register or value is invalid
+	 */
+	private static Registers registers(String query) {
+		if (query == null || query.isEmpty())
+			return null;
+		Registers registers = new Registers();
+		for (String parameter : query.split("&")) {
+			String[] pair = parameter.split("=", 2);
+			if (pair.length != 2)
+				throw new IllegalArgumentException("Invalid parameter: " + parameter);
+			registers.set(Register.valueOf(URLDecoder.decode(pair[0], StandardCharsets.UTF_8)),
+					Integer.parseInt(URLDecoder.decode(pair[1], StandardCharsets.UTF_8)));
+		}
+		return registers;
+	}
+
+	private static String toJson(BatchResult result) {
+		String registers = Arrays.stream(Register.values())
+				.map(register -> "\"" + register + "\":" + result.registers().get(register))
+				.collect(Collectors.joining(",", "{", "}"));
+		String output = Arrays.stream(result.output())
+				.mapToObj(String::valueOf)
+				.collect(Collectors.joining(",", "[", "]"));
+		return "{\"registers\":" + registers
+				+ ",\"output\":" + output
+				+ ",\"error\":" + (result.succeeded() ? "null" : quote(result.error().toString()))
+				+ ",\"nanos\":" + result.nanos() + "}";
+	}
+
+	private static String quote(String s) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (char c : s.toCharArray()) {
+			switch (c) {
+				case '"' -> sb.append("\\\"");
+				case '\\' -> sb.append("\\\\");
+				case '\n' -> sb.append("\\n");
+				default -> {
+					if (c < 0x20)
+						sb.append(String.format("\\u%04x", (int) c));
+					else
+						sb.append(c);
+				}
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	/**
+	 * Stops accepting requests, waiting up to a second for the requests being
+	 * served, and stops the workers.
+	 */
+	@Override
+	public void close() {
+		server.stop(1);
+		workers.shutdownNow();
+		requests.shutdown();
+	}
+}
@@ -0,0 +1,97 @@
+package sml.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class records latencies, in nanoseconds, into buckets of logarithmic
+ * width and estimates their percentiles.
+ *
+ * <p>
+ * Every power of two is divided into {@value #SUB_BUCKETS} buckets of equal
+ * width, so a percentile is reported with a relative error below
+ * 1/{@value #SUB_BUCKETS}, whatever the magnitude of the latencies, in a
+ * fixed amount of memory. Recording is lock-free and can be done by many
+ * threads at once.
+ *
+ * @author Arthur Gousset
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+	private final LongAdder total = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+
+	/**
+	 * Records one latency.
+	 *
+	 * @param nanos the latency, in nanoseconds
+	 */
+	public void record(long nanos) {
+		counts.incrementAndGet(bucket(Math.max(0, nanos)));
+		total.increment();
+		sum.add(nanos);
+	}
+
+	public long getCount() {
+		return total.sum();
+	}
+
+	/**
+	 * Returns the mean of the latencies recorded.
+	 *
+	 * @return the mean latency, in nanoseconds, or 0 if none was recorded
+	 */
+	public double getMean() {
+		long count = total.sum();
+		return (count == 0) ? 0 : (double) sum.sum() / count;
+	}
+
+	/**
+	 * Estimates a percentile of the latencies recorded.
+	 *
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the upper bound of the bucket holding the percentile, in
+	 *         nanoseconds, or 0 if no latency was recorded
+	 */
+	public long getPercentile(double percentile) {
+		long count = total.sum();
+		if (count == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int bucket = 0; bucket < counts.length(); bucket++) {
+			seen += counts.get(bucket);
+			if (seen >= rank)
+				return upperBound(bucket);
+		}
+		return upperBound(counts.length() - 1);
+	}
+
+	/**
+	 * Returns the bucket of a value: values below {@code SUB_BUCKETS} have a
+	 * bucket each, larger values share a bucket with the values having the same
+	 * highest {@code SUB_BUCKET_BITS + 1} bits.
+	 */
+	static int bucket(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Returns the largest value held by a bucket.
+	 */
+	static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = bucket % SUB_BUCKETS;
+		long lowerBound = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+		return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
@@ -0,0 +1,94 @@
+package sml.vector;
+
+import java.util.Arrays;
+
+import sml.RegisterName;
+import sml.Registers;
+import sml.Registers.Register;
+
+/**
+ * This class holds the outcome of running a program on every lane of a
+ * {@link VectorInterpreter}.
+ *
+ * @author Arthur Gousset
+ */
+public final class LaneResults {
+	/**
+	 * The state of a lane when the interpreter stopped.
+	 */
+	public enum Status {
+		/** The program ran to completion. */
+		HALTED,
+		/** The program divided by zero. */
+		FAILED,
+		/** The program was still running when the step limit was reached. */
+		UNFINISHED
+	}
+
+	private final int[][] registers;
+	private final int[][] outputs;
+	private final Status[] statuses;
+
+	LaneResults(int[][] registers, int[][] outputs, Status[] statuses) {
+		this.registers = registers;
+		this.outputs = outputs;
+		this.statuses = statuses;
+	}
+
+	public int getLanes() {
+		return statuses.length;
+	}
+
+	public Status getStatus(int lane) {
+		return statuses[lane];
+	}
+
+	/**
+	 * Returns the value of a register in a lane when the interpreter stopped.
+	 *
+	 * @param lane     the lane
+	 * @param register the register
+	 * @return the value of the register
+	 */
+	public int get(int lane, RegisterName register) {
+		return registers[((Register) register).ordinal()][lane];
+	}
+
+	/**
+	 * Returns the registers of a lane when the interpreter stopped.
+	 *
+	 * @param lane the lane
+	 * @return a copy of the registers of the lane
+	 */
+	public Registers getRegisters(int lane) {
+		Registers result = new Registers();
+		for (Register register : Register.values())
+			result.set(register, get(lane, register));
+		return result;
+	}
+
+	/**
+	 * Returns the values written by {@code out} instructions in a lane.
+	 *
+	 * @param lane the lane
+	 * @return the values written, in order
+	 */
+	public int[] getOutput(int lane) {
+		return outputs[lane].clone();
+	}
+
+	/**
+	 * Returns a formatted String representation of this object, counting the
+	 * lanes in each state.
+	 *
+	 * @return Nicely formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		return Arrays.stream(Status.values())
+				.map(status -> status + " = " + Arrays.stream(statuses).filter(s -> s == status).count())
+				.reduce((a, b) -> a + ", " + b)
+				.map(counts -> "[" + counts + "]")
+				.orElse("[]");
+	}
+}
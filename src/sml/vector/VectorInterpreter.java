@@ -0,0 +1,334 @@
+package sml.vector;
+
+import java.util.Arrays;
+import java.util.List;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.RegisterName;
+import sml.Registers;
+import sml.Registers.Register;
+import sml.instruction.*;
+
+/**
+ * This class runs one program over many sets of initial register values at
+ * once, using the Vector API.
+ *
+ * <p>
+ * Every set of initial values is a lane. Each register is stored as a column
+ * holding its value in every lane, so a single dispatched instruction updates
+ * many lanes with a few SIMD operations. Every lane has its own program
+ * counter: at each step the instruction with the lowest program counter is
+ * executed on the lanes waiting at it, under a lane mask. Lanes that take
+ * different branches of a jump therefore progress independently and run
+ * together again once they reach the same instruction.
+ *
+ * <p>
+ * A lane that divides by zero fails without affecting the other lanes. As a
+ * lane that never halts would keep the lanes after it waiting, the number of
+ * dispatched instructions is bounded by a step limit.
+ *
+ * <p>
+ * The Vector API is an incubating module: compile and run with
+ * {@code --add-modules jdk.incubator.vector}.
+ *
+ * @author Arthur Gousset
+ */
+public final class VectorInterpreter {
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+	private static final int REGISTER_COUNT = Register.values().length;
+	private static final int FAILED = Integer.MAX_VALUE;
+
+	private static final int MOV = 0;
+	private static final int ADD = 1;
+	private static final int SUB = 2;
+	private static final int MUL = 3;
+	private static final int DIV = 4;
+	private static final int OUT = 5;
+	private static final int JNZ = 6;
+	private static final int ADD_IMMEDIATE = 7;
+	private static final int SUB_IMMEDIATE = 8;
+	private static final int MUL_IMMEDIATE = 9;
+	private static final int DIV_IMMEDIATE = 10;
+	private static final int JZ = 11;
+	private static final int JMP = 12;
+	private static final int JLT = 13;
+	private static final int JGE = 14;
+	private static final int LOOP = 15;
+
+	/**
+	 * The decoded program: the operation, first operand, second operand and jump
+	 * target of every instruction.
+	 */
+	private final int[] operations;
+	private final int[] first;
+	private final int[] second;
+	private final int[] targets;
+	private long maxSteps = Long.MAX_VALUE;
+
+	/**
+	 * Constructor: an interpreter for the program of a machine.
+	 *
+	 * @param machine the machine holding the program and its labels
+	 * @throws IllegalArgumentException if the program contains an instruction
+	 *                                  the interpreter does not support, or
+	 *                                  jumps to a label that does not exist
+	 */
+	public VectorInterpreter(Machine machine) {
+		List<Instruction> program = machine.getProgram();
+		int size = program.size();
+		operations = new int[size];
+		first = new int[size];
+		second = new int[size];
+		targets = new int[size];
+		for (int pc = 0; pc < size; pc++)
+			decode(pc, program.get(pc), machine);
+	}
+
+	private void decode(int pc, Instruction ins, Machine machine) {
+		if (ins instanceof MovInstruction mov) {
+			set(pc, MOV, mov.getResult(), mov.getValue());
+		} else if (ins instanceof AddInstruction add) {
+			set(pc, ADD, add.getResult(), index(add.getSource()));
+		} else if (ins instanceof SubInstruction sub) {
+			set(pc, SUB, sub.getResult(), index(sub.getSource()));
+		} else if (ins instanceof MulInstruction mul) {
+			set(pc, MUL, mul.getResult(), index(mul.getSource()));
+		} else if (ins instanceof DivInstruction div) {
+			set(pc, DIV, div.getResult(), index(div.getSource()));
+		} else if (ins instanceof AddImmediateInstruction add) {
+			set(pc, ADD_IMMEDIATE, add.getResult(), add.getValue());
+		} else if (ins instanceof SubImmediateInstruction sub) {
+			set(pc, SUB_IMMEDIATE, sub.getResult(), sub.getValue());
+		} else if (ins instanceof MulImmediateInstruction mul) {
+			set(pc, MUL_IMMEDIATE, mul.getResult(), mul.getValue());
+		} else if (ins instanceof DivImmediateInstruction div) {
+			set(pc, DIV_IMMEDIATE, div.getResult(), div.getValue());
+		} else if (ins instanceof OutInstruction out) {
+			set(pc, OUT, out.getSource(), 0);
+		} else if (ins instanceof JnzInstruction jnz) {
+			set(pc, JNZ, jnz.getSource(), 0);
+			target(pc, jnz.getDestinationLabel(), machine);
+		} else if (ins instanceof JzInstruction jz) {
+			set(pc, JZ, jz.getSource(), 0);
+			target(pc, jz.getDestinationLabel(), machine);
+		} else if (ins instanceof JmpInstruction jmp) {
+			operations[pc] = JMP;
+			target(pc, jmp.getDestinationLabel(), machine);
+		} else if (ins instanceof JltInstruction jlt) {
+			set(pc, JLT, jlt.getLeft(), index(jlt.getRight()));
+			target(pc, jlt.getDestinationLabel(), machine);
+		} else if (ins instanceof JgeInstruction jge) {
+			set(pc, JGE, jge.getLeft(), index(jge.getRight()));
+			target(pc, jge.getDestinationLabel(), machine);
+		} else if (ins instanceof LoopInstruction loop) {
+			set(pc, LOOP, loop.getCounter(), 0);
+			target(pc, loop.getDestinationLabel(), machine);
+		} else {
+			throw new IllegalArgumentException("Instruction not supported by the vector interpreter: " + ins);
+		}
+	}
+
+	private void target(int pc, String label, Machine machine) {
+		try {
+			targets[pc] = machine.getLabels().getAddress(label);
+		} catch (Exception e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+
+	private void set(int pc, int operation, RegisterName register, int operand) {
+		operations[pc] = operation;
+		first[pc] = index(register);
+		second[pc] = operand;
+	}
+
+	private static int index(RegisterName register) {
+		return ((Register) register).ordinal();
+	}
+
+	/**
+	 * Limits the number of instructions dispatched by a run; lanes still
+	 * running when the limit is reached are reported as unfinished.
+	 *
+	 * @param maxSteps the maximum number of dispatched instructions
+	 */
+	public void setMaxSteps(long maxSteps) {
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Runs the program on every lane, with the lanes starting from the given
+	 * registers.
+	 *
+	 * @param initialRegisters the initial registers of every lane
+	 * @return the outcome of every lane
+	 */
+	public LaneResults run(List<Registers> initialRegisters) {
+		int lanes = initialRegisters.size();
+		int[][] columns = new int[REGISTER_COUNT][lanes];
+		for (int lane = 0; lane < lanes; lane++) {
+			for (Register register : Register.values())
+				columns[register.ordinal()][lane] = initialRegisters.get(lane).get(register);
+		}
+		return run(columns);
+	}
+
+	/**
+	 * Runs the program on every lane, with the lanes starting from the given
+	 * register columns.
+	 *
+	 * @param initialColumns the initial value of every register (first index,
+	 *                       in {@code Register} order) in every lane (second
+	 *                       index)
+	 * @return the outcome of every lane
+	 */
+	public LaneResults run(int[][] initialColumns) {
+		int lanes = initialColumns[0].length;
+		int padded = SPECIES.loopBound(lanes + SPECIES.length() - 1);
+		int size = operations.length;
+
+		int[][] columns = new int[REGISTER_COUNT][];
+		for (int r = 0; r < REGISTER_COUNT; r++)
+			columns[r] = Arrays.copyOf(initialColumns[r], padded);
+		int[] pcs = new int[padded];
+		// Padding lanes are halted from the start.
+		Arrays.fill(pcs, lanes, padded, size);
+		OutputBuffer outputs = new OutputBuffer(lanes);
+
+		for (long step = 0; step < maxSteps; step++) {
+			int pc = minimum(pcs);
+			if (pc >= size)
+				break;
+			int[] result = columns[first[pc]];
+			int operand = second[pc];
+			int next = pc + 1;
+			for (int i = 0; i < padded; i += SPECIES.length()) {
+				IntVector pcVector = IntVector.fromArray(SPECIES, pcs, i);
+				VectorMask<Integer> active = pcVector.eq(pc);
+				if (!active.anyTrue())
+					continue;
+				switch (operations[pc]) {
+					case MOV -> IntVector.broadcast(SPECIES, operand).intoArray(result, i, active);
+					case ADD, SUB, MUL, ADD_IMMEDIATE, SUB_IMMEDIATE, MUL_IMMEDIATE -> {
+						IntVector r = IntVector.fromArray(SPECIES, result, i);
+						IntVector s = operand(operations[pc], operand, columns, i);
+						VectorOperators.Binary op = switch (operations[pc]) {
+							case ADD, ADD_IMMEDIATE -> VectorOperators.ADD;
+							case SUB, SUB_IMMEDIATE -> VectorOperators.SUB;
+							default -> VectorOperators.MUL;
+						};
+						r.lanewise(op, s).intoArray(result, i, active);
+					}
+					case DIV, DIV_IMMEDIATE -> {
+						IntVector r = IntVector.fromArray(SPECIES, result, i);
+						IntVector s = operand(operations[pc], operand, columns, i);
+						VectorMask<Integer> zero = s.eq(0);
+						// Divides the lanes by 1 where the divisor is 0; those lanes fail.
+						r.div(s.blend(1, zero)).intoArray(result, i, active.andNot(zero));
+						pcVector = pcVector.blend(FAILED, active.and(zero));
+						active = active.andNot(zero);
+					}
+					case OUT -> {
+						for (int lane = i; lane < i + SPECIES.length(); lane++) {
+							if (active.laneIsSet(lane - i))
+								outputs.add(lane, result[lane]);
+						}
+					}
+					default -> {
+						VectorMask<Integer> taken = jumps(pc, columns, i, active);
+						pcVector = pcVector.blend(targets[pc], taken);
+						active = active.andNot(taken);
+					}
+				}
+				pcVector.blend(next, active).intoArray(pcs, i);
+			}
+		}
+
+		LaneResults.Status[] statuses = new LaneResults.Status[lanes];
+		for (int lane = 0; lane < lanes; lane++) {
+			statuses[lane] = (pcs[lane] == FAILED) ? LaneResults.Status.FAILED
+					: (pcs[lane] >= size) ? LaneResults.Status.HALTED : LaneResults.Status.UNFINISHED;
+		}
+		for (int r = 0; r < REGISTER_COUNT; r++)
+			columns[r] = Arrays.copyOf(columns[r], lanes);
+		return new LaneResults(columns, outputs.toArrays(), statuses);
+	}
+
+	/**
+	 * Loads the second operand of an arithmetic instruction for the lanes
+	 * starting at {@code i}: a register column, or an integer broadcast to every
+	 * lane.
+	 */
+	private static IntVector operand(int operation, int operand, int[][] columns, int i) {
+		return (operation >= ADD_IMMEDIATE) ? IntVector.broadcast(SPECIES, operand)
+				: IntVector.fromArray(SPECIES, columns[operand], i);
+	}
+
+	/**
+	 * Executes a jump instruction on the active lanes starting at {@code i}.
+	 *
+	 * @return the lanes that take the jump
+	 */
+	private VectorMask<Integer> jumps(int pc, int[][] columns, int i, VectorMask<Integer> active) {
+		int[] register = columns[first[pc]];
+		IntVector r = IntVector.fromArray(SPECIES, register, i);
+		VectorMask<Integer> taken = switch (operations[pc]) {
+			case JZ -> r.eq(0);
+			case JMP -> SPECIES.maskAll(true);
+			case JLT -> r.lt(IntVector.fromArray(SPECIES, columns[second[pc]], i));
+			case JGE -> r.compare(VectorOperators.GE, IntVector.fromArray(SPECIES, columns[second[pc]], i));
+			case LOOP -> {
+				r = r.sub(1);
+				r.intoArray(register, i, active);
+				yield r.compare(VectorOperators.NE, 0);
+			}
+			default -> r.compare(VectorOperators.NE, 0);
+		};
+		return taken.and(active);
+	}
+
+	/**
+	 * Returns the lowest program counter of all lanes.
+	 */
+	private static int minimum(int[] pcs) {
+		IntVector min = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+		for (int i = 0; i < pcs.length; i += SPECIES.length())
+			min = min.min(IntVector.fromArray(SPECIES, pcs, i));
+		return min.reduceLanes(VectorOperators.MIN);
+	}
+
+	/**
+	 * This class collects the values written by {@code out} instructions in
+	 * every lane without boxing them.
+	 */
+	private static final class OutputBuffer {
+		private final int[][] values;
+		private final int[] sizes;
+
+		OutputBuffer(int lanes) {
+			values = new int[lanes][];
+			sizes = new int[lanes];
+		}
+
+		void add(int lane, int value) {
+			if (values[lane] == null)
+				values[lane] = new int[4];
+			else if (sizes[lane] == values[lane].length)
+				values[lane] = Arrays.copyOf(values[lane], 2 * sizes[lane]);
+			values[lane][sizes[lane]++] = value;
+		}
+
+		int[][] toArrays() {
+			int[][] arrays = new int[values.length][];
+			for (int lane = 0; lane < values.length; lane++)
+				arrays[lane] = (values[lane] == null) ? new int[0] : Arrays.copyOf(values[lane], sizes[lane]);
+			return arrays;
+		}
+	}
+}
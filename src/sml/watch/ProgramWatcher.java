@@ -0,0 +1,252 @@
+package sml.watch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import sml.ExecutionLimits;
+import sml.ExecutionResult;
+import sml.ExecutionStoppedException;
+import sml.Machine;
+import sml.Registers;
+import sml.Translator;
+import sml.batch.BatchResult;
+import sml.output.IntBufferOutputSink;
+
+/**
+ * This class keeps SML programs translated in a long-lived JVM and executes a
+ * program again every time its file changes.
+ *
+ * <p>
+ * The directories of the files are watched with a {@link WatchService}. When
+ * a file changes, only that program is translated and executed again. The
+ * translation of every program is cached with the text it was translated
+ * from, so a file that is saved without being modified is not translated
+ * again, and every run after the first one benefits from the engine being
+ * already loaded and JIT-compiled.
+ *
+ * <p>
+ * The result of every run is passed to a listener, with the values written by
+ * {@code out} instructions captured instead of printed.
+ *
+ * @author Arthur Gousset
+ */
+public final class ProgramWatcher implements AutoCloseable {
+	/**
+	 * How long to wait for more events after a change, so that a file written in
+	 * several steps is only executed once.
+	 */
+	private static final long SETTLE_MILLIS = 50;
+
+	/**
+	 * A program translated from the text of a file.
+	 */
+	private record Translation(String source, Machine machine) {
+	}
+
+	private final List<Path> files;
+	private final BiConsumer<Path, BatchResult> listener;
+	private final WatchService watchService;
+	private final Map<WatchKey, Path> directories = new HashMap<>();
+	private final Map<Path, Translation> translations = new LinkedHashMap<>();
+	private Supplier<ExecutionLimits> limits = () -> ExecutionLimits.NONE;
+	private int translated;
+
+	/**
+	 * Constructor: a watcher of the given files, reporting every run to
+	 * {@code listener}.
+	 *
+	 * @param files    the files containing the programs
+	 * @param listener receives the file and the result of every run
+	 * @throws IOException if a directory cannot be watched
+	 */
+	public ProgramWatcher(List<Path> files, BiConsumer<Path, BatchResult> listener) throws IOException {
+		this.files = files.stream().map(file -> file.toAbsolutePath().normalize()).distinct().toList();
+		this.listener = Objects.requireNonNull(listener);
+		this.watchService = FileSystems.getDefault().newWatchService();
+		Set<Path> parents = new LinkedHashSet<>();
+		for (Path file : this.files)
+			parents.add(file.getParent());
+		for (Path directory : parents) {
+			WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY);
+			directories.put(key, directory);
+		}
+	}
+
+	/**
+	 * Sets the limits every run is executed within; the supplier is called
+	 * before every run, so a timeout starts afresh each time.
+	 *
+	 * @param limits supplies the limits of a run
+	 */
+	public void setLimits(Supplier<ExecutionLimits> limits) {
+		this.limits = Objects.requireNonNull(limits);
+	}
+
+	/**
+	 * Returns the number of times a program has been translated, which does not
+	 * grow when a file is saved without being modified.
+	 *
+	 * @return the number of translations
+	 */
+	public int getTranslated() {
+		return translated;
+	}
+
+	/**
+	 * Executes every program once, translating only the programs whose text
+	 * changed since they were last translated.
+	 */
+	public void runAll() {
+		for (Path file : files)
+			run(file, true);
+	}
+
+	/**
+	 * Waits up to {@code timeout} for files to change and executes the changed
+	 * programs.
+	 *
+	 * @param timeout how long to wait for a change
+	 * @return the files whose new runs were reported to the listener
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public List<Path> poll(Duration timeout) throws InterruptedException {
+		WatchKey key = watchService.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		if (key == null)
+			return List.of();
+		Set<Path> changed = new LinkedHashSet<>();
+		while (key != null) {
+			collect(key, changed);
+			key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+		}
+		List<Path> executed = new ArrayList<>();
+		for (Path file : changed) {
+			if (run(file, false))
+				executed.add(file);
+		}
+		return executed;
+	}
+
+	/**
+	 * Executes changed programs until the thread is interrupted or the watcher is
+	 * closed.
+	 */
+	public void watch() {
+		try {
+			while (!Thread.currentThread().isInterrupted())
+				poll(Duration.ofDays(1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException e) {
+			// Closed by another thread
+		}
+	}
+
+	/**
+	 * Adds the watched files named by the events of a key to {@code changed}.
+	 */
+	private void collect(WatchKey key, Set<Path> changed) {
+		Path directory = directories.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				// Events were lost: every file is checked against its translation
+				changed.addAll(files);
+			} else if (event.context() instanceof Path name) {
+				Path file = directory.resolve(name);
+				if (files.contains(file))
+					changed.add(file);
+			}
+		}
+		key.reset();
+	}
+
+	/**
+	 * Executes a program, translating it again if its text changed. A file that
+	 * cannot be read or translated is reported to the listener as a failed run.
+	 *
+	 * @param always whether to execute the program even if it is unchanged
+	 * @return {@code false} if nothing was reported, since the program is
+	 *         unchanged
+	 */
+	private boolean run(Path file, boolean always) {
+		String source;
+		try {
+			source = Files.readString(file, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			translations.remove(file);
+			fail(file, e);
+			return true;
+		}
+		Translation translation = translations.get(file);
+		boolean changed = translation == null || !translation.source().equals(source);
+		if (!changed && !always)
+			return false;
+		if (changed) {
+			Machine machine = new Machine(new Registers());
+			try {
+				Translator.forSource(source).strict().readAndTranslate(machine.getLabels(), machine.getProgram());
+			} catch (IOException e) {
+				// Translated again on the next change, even if only saved again
+				translations.remove(file);
+				fail(file, e);
+				return true;
+			}
+			translation = new Translation(source, machine);
+			translations.put(file, translation);
+			translated++;
+		}
+
+		long start = System.nanoTime();
+		Machine machine = translation.machine();
+		IntBufferOutputSink output = new IntBufferOutputSink();
+		machine.setOutput(output);
+		Throwable error = null;
+		try {
+			ExecutionResult result = machine.execute(limits.get());
+			if (!result.halted())
+				error = new ExecutionStoppedException(result);
+		} catch (RuntimeException e) {
+			error = e;
+		}
+		listener.accept(file, new BatchResult(file.toString(), machine.getRegisters(),
+				output.toArray(), error, System.nanoTime() - start));
+		return true;
+	}
+
+	/**
+	 * Reports a program that could not be executed to the listener.
+	 */
+	private void fail(Path file, IOException error) {
+		listener.accept(file, new BatchResult(file.toString(), new Registers(), new int[0], error, 0));
+	}
+
+	/**
+	 * Stops watching the files.
+	 *
+	 * @throws IOException if the watch service cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		watchService.close();
+	}
+}
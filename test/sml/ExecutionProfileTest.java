@@ -0,0 +1,97 @@
+package sml;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sml.instruction.*;
+
+import static sml.Registers.Register.*;
+
+import java.nio.file.Path;
+
+class ExecutionProfileTest {
+  private Machine machine;
+
+  /**
+   * Temporary directory used to save profiles.
+   */
+  @TempDir
+  Path temporaryDirectory;
+
+  /**
+   * Sets up a machine computing the factorial of 6.
+   */
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    machine.getProgram().add(new MovInstruction(null, EAX, 6));
+    machine.getProgram().add(new MovInstruction(null, EBX, 1));
+    machine.getProgram().add(new MovInstruction(null, ECX, 1));
+    machine.getProgram().add(new MulInstruction("f3", EBX, EAX));
+    machine.getProgram().add(new SubInstruction(null, EAX, ECX));
+    machine.getProgram().add(new JnzInstruction(null, EAX, "f3"));
+    machine.getProgram().add(new OutInstruction(null, EBX));
+    try {
+      machine.getLabels().addLabel("f3", 3);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+  }
+
+  @Test
+  void givenProfiledMachine_whenExecuting_thenBranchCountsAreRecorded() {
+    machine.setProfile(new ExecutionProfile(machine));
+    machine.execute();
+
+    ExecutionProfile profile = machine.getProfile();
+    Assertions.assertEquals(1, profile.getExecutions(0));
+    Assertions.assertEquals(6, profile.getExecutions(3));
+    Assertions.assertEquals(5, profile.getTaken(5));
+    Assertions.assertEquals(1, profile.getNotTaken(5));
+    Assertions.assertEquals(720, machine.getRegisters().get(EBX));
+  }
+
+  @Test
+  void givenRepeatedExecutions_whenProfiling_thenCountsAccumulate() {
+    machine.setProfile(new ExecutionProfile(machine));
+    machine.execute();
+    machine.execute();
+
+    Assertions.assertEquals(12, machine.getProfile().getExecutions(3));
+  }
+
+  @Test
+  void givenSavedProfile_whenLoading_thenCountsAreRestored() throws Exception {
+    Path file = temporaryDirectory.resolve("test.profile");
+    machine.setProfile(new ExecutionProfile(machine));
+    machine.execute();
+    machine.getProfile().save(file);
+
+    ExecutionProfile loaded = ExecutionProfile.load(file, machine);
+
+    Assertions.assertEquals(machine.getProfile().toString(), loaded.toString());
+    Assertions.assertTrue(loaded.hotterThan(6).test(3));
+    Assertions.assertFalse(loaded.hotterThan(6).test(0));
+  }
+
+  @Test
+  void givenProfileOfAnotherProgram_whenLoading_thenProfileIsEmpty() throws Exception {
+    Path file = temporaryDirectory.resolve("test.profile");
+    machine.setProfile(new ExecutionProfile(machine));
+    machine.execute();
+    machine.getProfile().save(file);
+
+    machine.getProgram().set(0, new MovInstruction(null, EAX, 5));
+    ExecutionProfile loaded = ExecutionProfile.load(file, machine);
+
+    Assertions.assertEquals(0, loaded.getExecutions(0));
+  }
+}
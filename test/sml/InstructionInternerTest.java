@@ -0,0 +1,62 @@
+package sml;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.instruction.*;
+
+import static sml.Registers.Register.*;
+
+class InstructionInternerTest {
+  private InstructionInterner interner;
+
+  @BeforeEach
+  void setUp() {
+    interner = new InstructionInterner();
+  }
+
+  @AfterEach
+  void tearDown() {
+    interner = null;
+  }
+
+  @Test
+  void givenEqualInstructions_whenInterning_thenSameInstance() {
+    Instruction first = interner.intern(new AddInstruction(null, EAX, EBX));
+    Instruction second = interner.intern(new AddInstruction(null, EAX, EBX));
+
+    Assertions.assertSame(first, second);
+    Assertions.assertEquals(2, interner.getInterned());
+    Assertions.assertEquals(1, interner.getDistinct());
+  }
+
+  @Test
+  void givenLabelledInstruction_whenInterning_thenSharedInstanceIsUnlabelled() {
+    Instruction labelled = interner.intern(new AddInstruction("f3", EAX, EBX));
+    Instruction unlabelled = interner.intern(new AddInstruction(null, EAX, EBX));
+
+    Assertions.assertNull(labelled.getLabel());
+    Assertions.assertSame(labelled, unlabelled);
+  }
+
+  @Test
+  void givenDifferentInstructions_whenInterning_thenDifferentInstances() {
+    Instruction first = interner.intern(new AddInstruction(null, EAX, EBX));
+    Instruction second = interner.intern(new AddInstruction(null, EBX, EAX));
+
+    Assertions.assertNotSame(first, second);
+    Assertions.assertEquals(0, interner.getBytesSaved());
+  }
+
+  @Test
+  void givenRepeatedInstructions_whenInterning_thenMemorySavedIsReported() {
+    for (int i = 0; i < 10; i++) {
+      interner.intern(new MovInstruction(null, EAX, 1));
+    }
+    // header (12) + label, opcode, result (3 * 4) + value (4) = 28, aligned to 32
+    Assertions.assertEquals(9 * 32, interner.getBytesSaved());
+    Assertions.assertTrue(interner.toString().contains("saving about 288 bytes"));
+  }
+}
@@ -115,4 +115,190 @@ class MachineTest {
     Assertions.assertEquals(machine, otherMachine);
     Assertions.assertEquals(machine.hashCode(), otherMachine.hashCode());
   }
+
+  @Test
+  void givenInitialRegisters_whenExecuting_thenRegistersAreNotZeroed() {
+    // Adds the value of EBX to EAX, both supplied by the caller
+    machine.getProgram().add(new sml.instruction.AddInstruction(null, Registers.Register.EAX,
+        Registers.Register.EBX));
+    Registers initialRegisters = new Registers();
+    initialRegisters.set(Registers.Register.EAX, 4);
+    initialRegisters.set(Registers.Register.EBX, 3);
+
+    machine.execute(initialRegisters);
+
+    Assertions.assertEquals(7, machine.getRegisters().get(Registers.Register.EAX));
+    Assertions.assertEquals(3, machine.getRegisters().get(Registers.Register.EBX));
+    // The caller's registers are only read
+    Assertions.assertEquals(4, initialRegisters.get(Registers.Register.EAX));
+  }
+
+  @Test
+  void givenFuel_whenResuming_thenExecutionContinuesFromProgramCounter() {
+    machine.getProgram().add(new sml.instruction.MovInstruction(null, Registers.Register.EAX, 1));
+    machine.getProgram().add(new sml.instruction.MovInstruction(null, Registers.Register.EBX, 2));
+    machine.getProgram().add(new sml.instruction.MovInstruction(null, Registers.Register.ECX, 3));
+    machine.start();
+
+    Assertions.assertFalse(machine.resume(2));
+    Assertions.assertEquals(2, machine.getProgramCounter());
+    Assertions.assertEquals(0, machine.getRegisters().get(Registers.Register.ECX));
+    Assertions.assertTrue(machine.resume(2));
+    Assertions.assertTrue(machine.isHalted());
+    Assertions.assertEquals(3, machine.getRegisters().get(Registers.Register.ECX));
+  }
+
+  /**
+   * Writes the program: "mov ECX 1; l1: add EAX ECX; jnz ECX l1", which counts
+   * in EAX forever.
+   */
+  private void addInfiniteLoop() throws Exception {
+    machine.getProgram().add(new sml.instruction.MovInstruction(null, Registers.Register.ECX, 1));
+    machine.getProgram().add(new sml.instruction.AddInstruction("l1", Registers.Register.EAX,
+        Registers.Register.ECX));
+    machine.getProgram().add(new sml.instruction.JnzInstruction(null, Registers.Register.ECX, "l1"));
+    machine.getLabels().addLabel("l1", 1);
+  }
+
+  @Test
+  void givenStepLimit_whenExecutingInfiniteLoop_thenStopsWithPartialResult() throws Exception {
+    addInfiniteLoop();
+
+    ExecutionResult result = machine.execute(ExecutionLimits.NONE.withMaxSteps(21));
+
+    Assertions.assertEquals(ExecutionResult.StopReason.STEP_LIMIT, result.reason());
+    Assertions.assertEquals(21, result.steps());
+    Assertions.assertEquals(10, machine.getRegisters().get(Registers.Register.EAX));
+    Assertions.assertEquals(1, result.programCounter());
+  }
+
+  @Test
+  void givenDeadline_whenExecutingInfiniteLoop_thenStopsAtDeadline() throws Exception {
+    addInfiniteLoop();
+
+    ExecutionResult result = machine.execute(ExecutionLimits.NONE.withTimeout(java.time.Duration.ofMillis(50)));
+
+    Assertions.assertEquals(ExecutionResult.StopReason.DEADLINE, result.reason());
+    Assertions.assertTrue(machine.getRegisters().get(Registers.Register.EAX) > 0);
+  }
+
+  @Test
+  void givenCancelledToken_whenExecutingInfiniteLoop_thenStopsAtBackwardJump() throws Exception {
+    addInfiniteLoop();
+    CancellationToken token = new CancellationToken();
+    token.cancel();
+
+    ExecutionResult result = machine.execute(ExecutionLimits.NONE.withCancellation(token));
+
+    Assertions.assertEquals(ExecutionResult.StopReason.CANCELLED, result.reason());
+    Assertions.assertEquals(3, result.steps());
+  }
+
+  /**
+   * Writes a program joining a child that counts in memory word 0 forever.
+   */
+  private void addSpinningChild() throws Exception {
+    Translator.forSource("""
+              mov ECX 1
+              fork EAX spin
+              join EAX EBX
+              jmp end
+        spin: store EDX EBX
+              add EBX ECX
+              jmp spin
+         end: mov ECX 0
+        """).readAndTranslate(machine.getLabels(), machine.getProgram());
+    machine.setMemory(Memory.allocate(1));
+  }
+
+  /**
+   * Waits until the child of {@link #addSpinningChild()} has stopped counting.
+   */
+  private void awaitChildStopped() throws InterruptedException {
+    int count;
+    do {
+      count = machine.getMemory().load(0);
+      Thread.sleep(20);
+    } while (count != machine.getMemory().load(0));
+  }
+
+  @Test
+  void givenDeadline_whenJoiningSpinningChild_thenParentAndChildStop() throws Exception {
+    addSpinningChild();
+
+    ExecutionResult result = machine.execute(ExecutionLimits.NONE.withTimeout(java.time.Duration.ofMillis(50)));
+
+    Assertions.assertEquals(ExecutionResult.StopReason.DEADLINE, result.reason());
+    Assertions.assertEquals(2, result.programCounter());
+    Assertions.assertTimeoutPreemptively(java.time.Duration.ofSeconds(5), this::awaitChildStopped);
+  }
+
+  @Test
+  void givenCancellation_whenJoiningSpinningChild_thenParentAndChildStop() throws Exception {
+    addSpinningChild();
+    CancellationToken token = new CancellationToken();
+    // A platform thread, since the spinning child may hold the only carrier
+    // thread of virtual threads
+    Thread.ofPlatform().start(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      token.cancel();
+    });
+
+    ExecutionResult result = machine.execute(ExecutionLimits.NONE.withCancellation(token));
+
+    Assertions.assertEquals(ExecutionResult.StopReason.CANCELLED, result.reason());
+    Assertions.assertEquals(2, result.programCounter());
+    Assertions.assertTimeoutPreemptively(java.time.Duration.ofSeconds(5), this::awaitChildStopped);
+  }
+
+  @Test
+  void givenDeadlineAfterBackwardJumps_whenJoiningSpinningChild_thenJoinIsNotExecutedAgain() throws Exception {
+    // The loop makes the join not the first backward jump, after which the
+    // clock is only checked once in a while
+    Translator.forSource("""
+              mov ECX 1
+              mov ESI 3
+        wait: sub ESI ECX
+              jnz ESI wait
+              fork EAX spin
+              join EAX EBX
+              jmp end
+        spin: store EDX EBX
+              add EBX ECX
+              jmp spin
+         end: mov ECX 0
+        """).readAndTranslate(machine.getLabels(), machine.getProgram());
+    machine.setMemory(Memory.allocate(1));
+
+    ExecutionResult result = machine.execute(ExecutionLimits.NONE.withTimeout(java.time.Duration.ofMillis(50)));
+
+    Assertions.assertEquals(ExecutionResult.StopReason.DEADLINE, result.reason());
+    Assertions.assertEquals(5, result.programCounter());
+    Assertions.assertEquals(10, result.steps());
+    Assertions.assertTimeoutPreemptively(java.time.Duration.ofSeconds(5), this::awaitChildStopped);
+  }
+
+  @Test
+  void givenStepLimit_whenJoiningSpinningChild_thenChildStopsAndJoinReportsIt() throws Exception {
+    addSpinningChild();
+
+    ExecutionStoppedException e = Assertions.assertThrows(ExecutionStoppedException.class,
+        () -> machine.execute(ExecutionLimits.NONE.withMaxSteps(1000)));
+
+    Assertions.assertEquals(ExecutionResult.StopReason.STEP_LIMIT, e.getResult().reason());
+  }
+
+  @Test
+  void givenLimitsNotReached_whenExecuting_thenHalts() {
+    machine.getProgram().add(new sml.instruction.MovInstruction(null, Registers.Register.EAX, 1));
+
+    ExecutionResult result = machine.execute(ExecutionLimits.NONE.withMaxSteps(1));
+
+    Assertions.assertTrue(result.halted());
+    Assertions.assertEquals(1, result.steps());
+  }
 }
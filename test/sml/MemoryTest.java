@@ -0,0 +1,217 @@
+package sml;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import sml.instruction.*;
+
+import static sml.Registers.Register.*;
+
+class MemoryTest {
+  private Memory memory;
+  private Path file;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    memory = Memory.allocate(16);
+    file = Files.createTempFile("sml", ".mem");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    memory.close();
+    memory = null;
+    Files.deleteIfExists(file);
+    file = null;
+  }
+
+  @Test
+  void givenNewMemory_whenLoading_thenEveryWordIsZero() {
+    Assertions.assertEquals(16, memory.size());
+    for (int address = 0; address < 16; address++)
+      Assertions.assertEquals(0, memory.load(address));
+  }
+
+  @Test
+  void givenStoredWord_whenLoading_thenSameValue() {
+    memory.store(15, Integer.MIN_VALUE);
+    memory.store(0, -1);
+
+    Assertions.assertEquals(Integer.MIN_VALUE, memory.load(15));
+    Assertions.assertEquals(-1, memory.load(0));
+  }
+
+  @Test
+  void givenAddressOutOfBounds_whenAccessing_thenIndexOutOfBoundsException() {
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> memory.load(16));
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> memory.store(-1, 0));
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> Memory.EMPTY.load(0));
+  }
+
+  @Test
+  void givenMappedFile_whenStoring_thenFileHoldsLittleEndianWords() throws IOException {
+    Files.write(file, new byte[] {7, 0, 0, 0});
+    try (Memory mapped = Memory.map(file, 4)) {
+      Assertions.assertEquals(7, mapped.load(0));
+      mapped.store(3, 0x01020304);
+    }
+    ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+
+    Assertions.assertEquals(16, bytes.capacity());
+    Assertions.assertEquals(0x01020304, bytes.getInt(12));
+  }
+
+  @Test
+  void givenProgramWithLoadAndStore_whenExecuting_thenMemoryIsSummed() {
+    // Sums words 0 to 3 into word 4
+    for (int address = 0; address < 4; address++)
+      memory.store(address, address + 1);
+    Machine machine = new Machine(new Registers());
+    machine.setMemory(memory);
+    machine.getProgram().add(new MovInstruction(null, EBX, 4));
+    machine.getProgram().add(new MovInstruction(null, ECX, 1));
+    machine.getProgram().add(new SubInstruction("loop", EBX, ECX));
+    machine.getProgram().add(new LoadInstruction(null, EDX, EBX));
+    machine.getProgram().add(new AddInstruction(null, EAX, EDX));
+    machine.getProgram().add(new JnzInstruction(null, EBX, "loop"));
+    machine.getProgram().add(new MovInstruction(null, EBX, 4));
+    machine.getProgram().add(new StoreInstruction(null, EBX, EAX));
+    try {
+      machine.getLabels().addLabel("loop", 2);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    machine.execute();
+
+    Assertions.assertEquals(10, memory.load(4));
+  }
+
+  @Test
+  void givenRangesOfAnyLength_whenAddingSubtractingMultiplying_thenSameAsWordByWord() {
+    try (Memory large = Memory.allocate(300)) {
+      for (int address = 0; address < 100; address++) {
+        large.store(address, address * 7 - 300);
+        large.store(100 + address, address * address);
+      }
+      for (int length : new int[] {0, 1, 7, 8, 9, 33, 100}) {
+        large.add(200, 0, 100, length);
+        for (int i = 0; i < length; i++)
+          Assertions.assertEquals(large.load(i) + large.load(100 + i), large.load(200 + i));
+        large.subtract(200, 0, 100, length);
+        for (int i = 0; i < length; i++)
+          Assertions.assertEquals(large.load(i) - large.load(100 + i), large.load(200 + i));
+        large.multiply(200, 0, 100, length);
+        for (int i = 0; i < length; i++)
+          Assertions.assertEquals(large.load(i) * large.load(100 + i), large.load(200 + i));
+      }
+    }
+  }
+
+  @Test
+  void givenResultStartingInsideOperand_whenAdding_thenWordsAreProcessedInOrder() {
+    // word[i + 1] = word[i] + word[32 + i] with ones from 32, word by word, counts 1, 2, 3, ...
+    try (Memory large = Memory.allocate(64)) {
+      large.store(0, 1);
+      large.fill(32, 1, 20);
+      large.add(1, 0, 32, 20);
+
+      for (int address = 0; address <= 20; address++)
+        Assertions.assertEquals(address + 1, large.load(address));
+    }
+  }
+
+  @Test
+  void givenRange_whenFilling_thenOnlyRangeIsSet() {
+    memory.fill(3, -9, 11);
+
+    for (int address = 0; address < 16; address++)
+      Assertions.assertEquals((address >= 3 && address < 14) ? -9 : 0, memory.load(address));
+  }
+
+  @Test
+  void givenOverlappingRanges_whenCopying_thenWordsAreReadBeforeWritten() {
+    for (int address = 0; address < 10; address++)
+      memory.store(address, address);
+    memory.copy(2, 0, 10);
+
+    for (int address = 0; address < 10; address++)
+      Assertions.assertEquals(address, memory.load(address + 2));
+  }
+
+  @Test
+  void givenRangeOutOfBounds_whenProcessingRange_thenIndexOutOfBoundsException() {
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> memory.fill(10, 0, 7));
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> memory.copy(0, 0, -1));
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> memory.add(0, 0, 9, 8));
+  }
+
+  @Test
+  void givenLargeRange_whenSorting_thenRangeIsSortedInParallel() {
+    int length = 50_000;
+    try (Memory large = Memory.allocate(length + 2)) {
+      Random random = new Random(7);
+      int[] expected = new int[length];
+      for (int i = 0; i < length; i++) {
+        expected[i] = random.nextInt();
+        large.store(1 + i, expected[i]);
+      }
+      large.store(0, Integer.MAX_VALUE);
+      large.store(length + 1, Integer.MIN_VALUE);
+      large.sort(1, length);
+      Arrays.sort(expected);
+
+      for (int i = 0; i < length; i++)
+        Assertions.assertEquals(expected[i], large.load(1 + i));
+      // Words around the range are left alone
+      Assertions.assertEquals(Integer.MAX_VALUE, large.load(0));
+      Assertions.assertEquals(Integer.MIN_VALUE, large.load(length + 1));
+    }
+  }
+
+  @Test
+  void givenRangesOfAnyLength_whenReducing_thenSameAsWordByWord() {
+    try (Memory large = Memory.allocate(100)) {
+      for (int address = 0; address < 100; address++)
+        large.store(address, (address * 7919) % 201 - 100);
+      for (int length : new int[] {0, 1, 7, 8, 9, 33, 99}) {
+        int sum = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < length; i++) {
+          sum += large.load(1 + i);
+          min = Math.min(min, large.load(1 + i));
+          max = Math.max(max, large.load(1 + i));
+        }
+
+        Assertions.assertEquals(sum, large.sum(1, length));
+        Assertions.assertEquals(min, large.min(1, length));
+        Assertions.assertEquals(max, large.max(1, length));
+      }
+    }
+  }
+
+  @Test
+  void givenSortedRange_whenSearching_thenSameConventionsAsArraysBinarySearch() {
+    int[] words = {-5, 0, 3, 3, 8, 13};
+    for (int i = 0; i < words.length; i++)
+      memory.store(4 + i, words[i]);
+    for (int value = -7; value <= 15; value++) {
+      int expected = Arrays.binarySearch(words, value);
+      long found = memory.search(4, words.length, value);
+      if (expected >= 0)
+        Assertions.assertEquals(value, memory.load(found));
+      else
+        Assertions.assertEquals(expected - 4, found);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package sml;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.instruction.*;
+
+import static sml.Registers.Register.*;
+
+import java.math.BigInteger;
+
+class NonTerminationDetectorTest {
+  private Machine machine;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    machine.setNonTerminationDetection(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+  }
+
+  private void addLabel(String label, int address) {
+    try {
+      machine.getLabels().addLabel(label, address);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+  }
+
+  @Test
+  void givenProgramReturningToSameState_whenExecuting_thenNonTerminationIsDetected() {
+    // test1.sml without the output: EAX is reset on every iteration
+    machine.getProgram().add(new MovInstruction("L1", EAX, 66));
+    machine.getProgram().add(new MovInstruction(null, EBX, 10));
+    machine.getProgram().add(new AddInstruction(null, EAX, EAX));
+    machine.getProgram().add(new MulInstruction(null, EAX, EBX));
+    machine.getProgram().add(new JnzInstruction(null, EAX, "L1"));
+    addLabel("L1", 0);
+
+    NonTerminationException e = Assertions.assertThrows(NonTerminationException.class, machine::execute);
+    Assertions.assertEquals(0, e.getAddress());
+    Assertions.assertEquals(1, e.getCycleLength());
+  }
+
+  @Test
+  void givenCycleOfSeveralIterations_whenExecuting_thenNonTerminationIsDetected() {
+    // EAX cycles through 1, 2, 0 ... but EBX keeps it from reaching 0 at the jump
+    machine.getProgram().add(new MovInstruction(null, EAX, 1));
+    machine.getProgram().add(new MovInstruction(null, ECX, 3));
+    machine.getProgram().add(new MovInstruction(null, EDX, 1));
+    machine.getProgram().add(new AddInstruction("loop", EAX, EDX));
+    machine.getProgram().add(new MovInstruction(null, EBX, 0));
+    machine.getProgram().add(new AddInstruction(null, EBX, EAX));
+    machine.getProgram().add(new DivInstruction(null, EBX, ECX));
+    machine.getProgram().add(new MulInstruction(null, EBX, ECX));
+    machine.getProgram().add(new SubInstruction(null, EAX, EBX));
+    machine.getProgram().add(new JnzInstruction(null, EDX, "loop"));
+    addLabel("loop", 3);
+
+    NonTerminationException e = Assertions.assertThrows(NonTerminationException.class, machine::execute);
+    Assertions.assertEquals(3, e.getCycleLength());
+  }
+
+  @Test
+  void givenTerminatingLoop_whenExecuting_thenProgramCompletes() {
+    machine.getProgram().add(new MovInstruction(null, EAX, 10_000));
+    machine.getProgram().add(new MovInstruction(null, ECX, 1));
+    machine.getProgram().add(new SubInstruction("loop", EAX, ECX));
+    machine.getProgram().add(new JnzInstruction(null, EAX, "loop"));
+    addLabel("loop", 2);
+
+    Assertions.assertDoesNotThrow(() -> machine.execute());
+    Assertions.assertEquals(0, machine.getRegisters().get(EAX));
+  }
+
+  @Test
+  void givenSubroutineCalledTwiceInSameState_whenExecuting_thenProgramCompletes() {
+    // Both calls jump backwards to "sub" with the same registers, but return to
+    // different addresses.
+    machine.getProgram().add(new JmpInstruction(null, "main"));
+    machine.getProgram().add(new RetInstruction("sub"));
+    machine.getProgram().add(new CallInstruction("main", "sub"));
+    machine.getProgram().add(new CallInstruction(null, "sub"));
+    machine.getProgram().add(new MovInstruction(null, EAX, 1));
+    addLabel("sub", 1);
+    addLabel("main", 2);
+
+    Assertions.assertDoesNotThrow(() -> machine.execute());
+    Assertions.assertEquals(1, machine.getRegisters().get(EAX));
+  }
+
+  @Test
+  void givenStateChangedOnlyByJoinedChildren_whenExecuting_thenProgramCompletes() throws Exception {
+    // The parent is in the same state at every "jmp top"; only the memory word
+    // counted up by its children changes, until a child returns 0.
+    Translator.forSource("""
+           top: fork EDX child
+                join EDX EAX
+                mov EDX 0
+                jz EAX end
+                jmp top
+         child: mov EBX 0
+                load EAX EBX
+                mov ECX 5
+                jge EAX ECX stop
+                add EAX 1
+                store EBX EAX
+                mov EAX 1
+                jmp end
+          stop: mov EAX 0
+           end: mov ESI 1
+        """).readAndTranslate(machine.getLabels(), machine.getProgram());
+    machine.setMemory(Memory.allocate(1));
+
+    Assertions.assertDoesNotThrow(() -> machine.execute());
+    Assertions.assertEquals(5, machine.getMemory().load(0));
+  }
+
+  @Test
+  void givenWideRegistersWithRepeatingLowBits_whenExecuting_thenProgramCompletes() {
+    // EAX doubles until it reaches 2^40; its low 32 bits stay 0 from 2^32 on.
+    machine.getRegisters().setWide(true);
+    machine.getProgram().add(new MovInstruction(null, EAX, 1));
+    machine.getProgram().add(new MovInstruction(null, EBX, 2));
+    machine.getProgram().add(new MovInstruction(null, ECX, 1 << 20));
+    machine.getProgram().add(new MulInstruction(null, ECX, ECX));
+    machine.getProgram().add(new MulInstruction("loop", EAX, EBX));
+    machine.getProgram().add(new JltInstruction(null, EAX, ECX, "loop"));
+    addLabel("loop", 4);
+
+    Assertions.assertDoesNotThrow(() -> machine.execute());
+    Assertions.assertEquals(BigInteger.ONE.shiftLeft(40), machine.getRegisters().getExact(EAX));
+  }
+}
@@ -0,0 +1,149 @@
+package sml;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.output.TextOutputSink;
+
+import static sml.Registers.Register.*;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+
+class RegistersTest {
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    registers = new Registers();
+  }
+
+  @AfterEach
+  void tearDown() {
+    registers = null;
+  }
+
+  @Test
+  void givenDefaultMode_whenOverflowing_thenValueWrapsAround() {
+    registers.set(EAX, Integer.MAX_VALUE);
+    registers.add(EAX, 1);
+
+    Assertions.assertEquals(Integer.MIN_VALUE, registers.get(EAX));
+    Assertions.assertEquals(BigInteger.valueOf(Integer.MIN_VALUE), registers.getExact(EAX));
+  }
+
+  @Test
+  void givenWideMode_whenOverflowingInt_thenValueIsExact() {
+    registers.setWide(true);
+    registers.set(EAX, Integer.MAX_VALUE);
+    registers.add(EAX, 1);
+
+    Assertions.assertEquals(BigInteger.valueOf(1L << 31), registers.getExact(EAX));
+    Assertions.assertEquals(Integer.MIN_VALUE, registers.get(EAX));
+    Assertions.assertFalse(registers.fitsInt(EAX));
+  }
+
+  @Test
+  void givenWideMode_whenOverflowingLong_thenOnlyThatRegisterIsPromotedAndLaterDemoted() {
+    registers.setWide(true);
+    registers.set(EAX, BigInteger.valueOf(Long.MAX_VALUE));
+    registers.set(EBX, 2);
+    registers.multiply(EAX, EBX);
+
+    Assertions.assertEquals(BigInteger.valueOf(Long.MAX_VALUE).shiftLeft(1), registers.getExact(EAX));
+    Assertions.assertEquals(1, registers.compare(EAX, EBX));
+
+    registers.divide(EAX, EBX);
+    registers.subtract(EAX, 1);
+
+    Assertions.assertEquals(BigInteger.valueOf(Long.MAX_VALUE - 1), registers.getExact(EAX));
+    Assertions.assertEquals(BigInteger.TWO, registers.getExact(EBX));
+  }
+
+  @Test
+  void givenWideMode_whenDividingMinimumByMinusOne_thenValueIsExact() {
+    registers.setWide(true);
+    registers.set(EAX, BigInteger.valueOf(Long.MIN_VALUE));
+    registers.divide(EAX, -1);
+
+    Assertions.assertEquals(BigInteger.valueOf(Long.MIN_VALUE).negate(), registers.getExact(EAX));
+  }
+
+  @Test
+  void givenWideMode_whenDividingByZero_thenArithmeticException() {
+    registers.setWide(true);
+    registers.set(EAX, 5);
+
+    Assertions.assertThrows(ArithmeticException.class, () -> registers.divide(EAX, EBX));
+  }
+
+  @Test
+  void givenValuesWithSameLowBits_whenComparing_thenOnlyExactValuesAreEqual() {
+    Registers other = new Registers();
+    registers.setWide(true);
+    other.setWide(true);
+    registers.set(EAX, BigInteger.ONE.shiftLeft(32));
+
+    Assertions.assertEquals(0, registers.get(EAX));
+    Assertions.assertEquals(1, registers.signum(EAX));
+    Assertions.assertNotEquals(other, registers);
+
+    other.copyFrom(registers);
+    Assertions.assertEquals(other, registers);
+    Assertions.assertEquals(other.hashCode(), registers.hashCode());
+  }
+
+  @Test
+  void givenWideMachine_whenComputingFactorial_thenResultAndOutputAreExact() throws Exception {
+    Machine machine = new Machine(new Registers());
+    machine.getRegisters().setWide(true);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    machine.setOutput(new TextOutputSink(bytes));
+    Translator.forSource("""
+        mov EAX 25
+        mov EBX 1
+        f3: mul EBX EAX
+        loop EAX f3
+        out EBX
+        """).readAndTranslate(machine.getLabels(), machine.getProgram());
+    machine.execute();
+
+    BigInteger factorial = BigInteger.ONE;
+    for (int i = 2; i <= 25; i++)
+      factorial = factorial.multiply(BigInteger.valueOf(i));
+    Assertions.assertEquals(factorial, machine.getRegisters().getExact(EBX));
+    Assertions.assertEquals(factorial + System.lineSeparator(), bytes.toString());
+  }
+
+  @Test
+  void givenWideValues_whenSwitchingWideModeOff_thenLowBitsAreKept() {
+    registers.setWide(true);
+    registers.set(EAX, BigInteger.ONE.shiftLeft(40).add(BigInteger.valueOf(7)));
+    registers.set(EBX, -3);
+    Registers narrow = new Registers();
+    narrow.set(EAX, 7);
+    narrow.set(EBX, -3);
+
+    registers.setWide(false);
+
+    Assertions.assertEquals(7, registers.get(EAX));
+    Assertions.assertEquals(-3, registers.get(EBX));
+    Assertions.assertEquals(narrow, registers);
+    Assertions.assertEquals(narrow.hashCode(), registers.hashCode());
+  }
+
+  @Test
+  void givenSameValuesInBothModes_whenComparing_thenEqualWithSameHashCode() {
+    Registers narrow = new Registers();
+    narrow.set(ECX, 42);
+    registers.setWide(true);
+    registers.set(ECX, 40);
+    registers.add(ECX, 2);
+
+    Assertions.assertEquals(narrow, registers);
+    Assertions.assertEquals(narrow.hashCode(), registers.hashCode());
+    Assertions.assertEquals(narrow.toString(), registers.toString());
+  }
+}
@@ -16,6 +16,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.util.List;
 
 class TranslatorTest {
   // SML specific fields
@@ -188,4 +189,107 @@ class TranslatorTest {
     Assertions.assertEquals(720, registers.get(EBX));
     Assertions.assertEquals(0, registers.get(EAX));
   }
+
+  @Test
+  public void givenInterner_whenTranslating_thenIdenticalInstructionsAreShared() {
+    // Writes test instructions to test file
+    try {
+      bufferedWriter.write("    mov EAX 3" + "\n");
+      bufferedWriter.write("    mov ECX 1" + "\n");
+      bufferedWriter.write("f3: add EBX EAX" + "\n");
+      bufferedWriter.write("    add EBX EAX" + "\n");
+      bufferedWriter.write("    sub EAX ECX" + "\n");
+      bufferedWriter.write("    jnz EAX f3" + "\n");
+      bufferedWriter.close();
+    } catch (IOException ioe) {
+      System.err.println("Error creating file: " + this.getClass().getSimpleName());
+    }
+
+    // Parses test instructions from test file
+    InstructionInterner interner = new InstructionInterner();
+    try {
+      new Translator(path.toString(), interner).readAndTranslate(machine.getLabels(), machine.getProgram());
+    } catch (Exception e) {
+      System.out.println("Error reading the program from " + path.toString());
+    }
+    machine.execute();
+
+    // Checks the labelled and unlabelled "add EBX EAX" share an instance
+    Assertions.assertSame(machine.getProgram().get(2), machine.getProgram().get(3));
+    Assertions.assertEquals(5, interner.getDistinct());
+    // Checks the label is still printed and still jumped to
+    Assertions.assertTrue(machine.toString().contains("f3: add EBX EAX"));
+    Assertions.assertEquals(12, registers.get(EBX));
+  }
+
+  @Test
+  public void givenInvalidOperands_whenTranslating_thenOnlyValidInstructionsAreKept() throws Exception {
+    Translator.forSource("""
+        mov EAX x
+        mov EAX 4
+        add EAX
+        fork EDX f3
+        f3: join EDX EAX
+        """).readAndTranslate(machine.getLabels(), machine.getProgram());
+
+    Assertions.assertEquals(3, machine.getProgram().size());
+    Assertions.assertEquals(new MovInstruction(null, EAX, 4), machine.getProgram().get(0));
+    Assertions.assertEquals(new ForkInstruction(null, EDX, "f3"), machine.getProgram().get(1));
+    Assertions.assertEquals(new JoinInstruction("f3", EDX, EAX), machine.getProgram().get(2));
+  }
+
+  @Test
+  public void givenInvalidInstructions_whenTranslatingStrictly_thenErrorsAreThrownWithLineNumbers() {
+    Translator translator = Translator.forSource("""
+        foo EAX
+        mov EAX 3
+        l1: mov EAX 4
+        l1: add EAX
+        """).strict();
+
+    TranslationException e = Assertions.assertThrows(TranslationException.class,
+        () -> translator.readAndTranslate(machine.getLabels(), machine.getProgram()));
+
+    Assertions.assertEquals(List.of("line 1: Unknown instruction: foo",
+        "line 4: Error constructing add instruction."), translator.getErrors());
+    Assertions.assertTrue(e.getMessage().contains("line 1: Unknown instruction: foo"));
+  }
+
+  @Test
+  public void givenDuplicateLabel_whenTranslatingStrictly_thenErrorIsThrown() {
+    Translator translator = Translator.forSource("""
+        l1: mov EAX 3
+        l1: mov EAX 4
+        """).strict();
+
+    Assertions.assertThrows(TranslationException.class,
+        () -> translator.readAndTranslate(machine.getLabels(), machine.getProgram()));
+    Assertions.assertEquals(1, translator.getErrors().size());
+    Assertions.assertTrue(translator.getErrors().get(0).startsWith("line 2: "));
+  }
+
+  @Test
+  public void givenIntegerOrRegisterOperand_whenTranslating_thenMatchingFormIsChosen() throws Exception {
+    Translator.forSource("""
+        add EAX 5
+        add EAX EBX
+        div ECX -2
+        """).readAndTranslate(machine.getLabels(), machine.getProgram());
+
+    Assertions.assertEquals(new AddImmediateInstruction(null, EAX, 5), machine.getProgram().get(0));
+    Assertions.assertEquals(new AddInstruction(null, EAX, EBX), machine.getProgram().get(1));
+    Assertions.assertEquals(new DivImmediateInstruction(null, ECX, -2), machine.getProgram().get(2));
+  }
+
+  @Test
+  public void givenInstructionsWithoutOperands_whenTranslating_thenCorrect() throws Exception {
+    Translator.forSource("""
+        ret
+        f3: ret
+        """).readAndTranslate(machine.getLabels(), machine.getProgram());
+
+    Assertions.assertEquals(2, machine.getProgram().size());
+    Assertions.assertEquals(new RetInstruction(null), machine.getProgram().get(0));
+    Assertions.assertEquals("f3: ret", machine.getProgram().get(1).toString());
+  }
 }
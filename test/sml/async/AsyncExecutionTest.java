@@ -0,0 +1,173 @@
+package sml.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.ExecutionResult;
+import sml.Machine;
+import sml.Registers;
+import sml.Translator;
+
+import static sml.Registers.Register.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+class AsyncExecutionTest {
+  /**
+   * Writes the numbers from EAX down to 1.
+   */
+  private static final String COUNTDOWN = """
+          mov ECX 1
+      l1: out EAX
+          sub EAX ECX
+          jnz EAX l1
+      """;
+
+  private Machine machine;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    machine = new Machine(new Registers());
+    Translator.forSource(COUNTDOWN).readAndTranslate(machine.getLabels(), machine.getProgram());
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+  }
+
+  /**
+   * A subscriber requesting one value at a time and recording what it receives.
+   */
+  private static final class Recorder implements Flow.Subscriber<Integer> {
+    private final List<Integer> values = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<List<Integer>> completed = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(Integer item) {
+      values.add(item);
+      subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      completed.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      completed.complete(values);
+    }
+  }
+
+  @Test
+  void givenSubscriber_whenExecuting_thenEveryValueIsPublishedInOrder() throws Exception {
+    AsyncExecution execution = new AsyncExecution(machine, 2);
+    Recorder recorder = new Recorder();
+    execution.output().subscribe(recorder);
+    Registers initialRegisters = new Registers();
+    initialRegisters.set(EAX, 100);
+
+    ExecutionResult result = execution.start(initialRegisters, sml.ExecutionLimits.NONE, Thread::startVirtualThread)
+        .get(5, TimeUnit.SECONDS);
+    List<Integer> values = recorder.completed.get(5, TimeUnit.SECONDS);
+
+    Assertions.assertTrue(result.halted());
+    Assertions.assertEquals(100, values.size());
+    Assertions.assertEquals(100, values.get(0));
+    Assertions.assertEquals(1, values.get(99));
+    Assertions.assertEquals(0, execution.getMachine().getRegisters().get(EAX));
+  }
+
+  @Test
+  void givenSubscriberRequestingNothing_whenBufferIsFull_thenProgramWaits() throws Exception {
+    AsyncExecution execution = new AsyncExecution(machine, 4);
+    CompletableFuture<Flow.Subscription> subscribed = new CompletableFuture<>();
+    execution.output().subscribe(new Flow.Subscriber<>() {
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscribed.complete(subscription);
+      }
+
+      public void onNext(Integer item) {
+      }
+
+      public void onError(Throwable throwable) {
+      }
+
+      public void onComplete() {
+      }
+    });
+    Registers initialRegisters = new Registers();
+    initialRegisters.set(EAX, 100);
+
+    CompletableFuture<ExecutionResult> result = execution.start(initialRegisters, sml.ExecutionLimits.NONE,
+        Thread::startVirtualThread);
+    Thread.sleep(100);
+
+    Assertions.assertFalse(result.isDone());
+    subscribed.get().request(Long.MAX_VALUE);
+    Assertions.assertTrue(result.get(5, TimeUnit.SECONDS).halted());
+  }
+
+  @Test
+  void givenOutWaitingForSubscriberRequestingNothing_whenCancelling_thenProgramStops() throws Exception {
+    AsyncExecution execution = new AsyncExecution(machine, 4);
+    CompletableFuture<Void> subscribed = new CompletableFuture<>();
+    execution.output().subscribe(new Flow.Subscriber<>() {
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscribed.complete(null);
+      }
+
+      public void onNext(Integer item) {
+      }
+
+      public void onError(Throwable throwable) {
+      }
+
+      public void onComplete() {
+      }
+    });
+    Registers initialRegisters = new Registers();
+    initialRegisters.set(EAX, 100);
+    CompletableFuture<Thread> runner = new CompletableFuture<>();
+
+    CompletableFuture<ExecutionResult> result = execution.start(initialRegisters, sml.ExecutionLimits.NONE,
+        task -> runner.complete(Thread.ofPlatform().start(task)));
+    subscribed.get(5, TimeUnit.SECONDS);
+    Thread.sleep(100);
+    Assertions.assertFalse(result.isDone());
+
+    Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> result.cancel(false));
+    Thread thread = runner.get(5, TimeUnit.SECONDS);
+    thread.join(5_000);
+
+    Assertions.assertFalse(thread.isAlive());
+    Assertions.assertTrue(result.isCancelled());
+    // Stopped long before counting down to 0
+    Assertions.assertNotEquals(0, execution.getMachine().getRegisters().get(EAX));
+  }
+
+  @Test
+  void givenStartedExecution_whenStartingAgain_thenIllegalStateException() {
+    AsyncExecution execution = new AsyncExecution(machine);
+    // Counts down from 0, so runs until cancelled
+    CompletableFuture<ExecutionResult> result = execution.start();
+
+    Assertions.assertThrows(IllegalStateException.class, execution::start);
+    result.cancel(false);
+  }
+}
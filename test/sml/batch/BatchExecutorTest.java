@@ -0,0 +1,87 @@
+package sml.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.NonTerminationException;
+import sml.TranslationException;
+import sml.Registers;
+
+import static sml.Registers.Register.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+class BatchExecutorTest {
+  private static final String FACTORIAL = """
+          mov EBX 1
+          mov ECX 1
+      f3: mul EBX EAX
+          sub EAX ECX
+          jnz EAX f3
+          out EBX
+      """;
+
+  private BatchExecutor executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = new BatchExecutor(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.close();
+    executor = null;
+  }
+
+  @Test
+  void givenManyJobs_whenRunningAll_thenEveryResultIsCollectedInOrder() throws Exception {
+    List<BatchJob> jobs = new ArrayList<>();
+    for (int n = 1; n <= 100; n++) {
+      Registers initialRegisters = new Registers();
+      initialRegisters.set(EAX, n % 10 + 1);
+      jobs.add(new BatchJob("job" + n, FACTORIAL, initialRegisters));
+    }
+
+    List<BatchResult> results = executor.runAll(jobs);
+
+    Assertions.assertEquals(100, results.size());
+    Assertions.assertEquals("job7", results.get(6).name());
+    // 7 % 10 + 1 = 8 and 8! = 40320
+    Assertions.assertArrayEquals(new int[] { 40320 }, results.get(6).output());
+    Assertions.assertEquals(40320, results.get(6).registers().get(EBX));
+    Assertions.assertTrue(results.stream().allMatch(BatchResult::succeeded));
+  }
+
+  @Test
+  void givenFailingJob_whenRunning_thenErrorIsReportedAndOtherJobsSucceed() throws Exception {
+    CompletableFuture<BatchResult> failing = executor.submit(BatchJob.of("div", "mov EAX 1\ndiv EAX EBX"));
+    CompletableFuture<BatchResult> passing = executor.submit(BatchJob.of("mov", "mov EAX 1\nout EAX"));
+
+    Assertions.assertInstanceOf(ArithmeticException.class, failing.join().error());
+    Assertions.assertTrue(passing.join().succeeded());
+    Assertions.assertArrayEquals(new int[] { 1 }, passing.join().output());
+  }
+
+  @Test
+  void givenUntranslatableJob_whenRunning_thenJobFailsWithTranslationErrors() throws Exception {
+    BatchResult result = executor.submit(BatchJob.of("foo", "foo EAX\nmov EAX 3")).join();
+
+    Assertions.assertFalse(result.succeeded());
+    Assertions.assertInstanceOf(TranslationException.class, result.error());
+    Assertions.assertTrue(result.error().getMessage().contains("Unknown instruction: foo"));
+    Assertions.assertEquals(0, result.registers().get(EAX));
+  }
+
+  @Test
+  void givenNonTerminatingJob_whenDetectionEnabled_thenJobFails() throws Exception {
+    executor.setNonTerminationDetection(true);
+    BatchResult result = executor.submit(BatchJob.of("loop", "mov EAX 1\nL1: jnz EAX L1")).join();
+
+    Assertions.assertInstanceOf(NonTerminationException.class, result.error());
+  }
+}
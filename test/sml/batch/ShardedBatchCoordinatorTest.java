@@ -0,0 +1,139 @@
+package sml.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.ExecutionLimits;
+import sml.Registers;
+
+import static sml.Registers.Register.*;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class ShardedBatchCoordinatorTest {
+  private static final String FACTORIAL = """
+          mov EBX 1
+          mov ECX 1
+      f3: mul EBX EAX
+          sub EAX ECX
+          jnz EAX f3
+          out EBX
+      """;
+  private static final String FOREVER = """
+          mov EAX 1
+      l1: jnz EAX l1
+      """;
+
+  private ShardedBatchCoordinator coordinator;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    coordinator = new ShardedBatchCoordinator(2, Duration.ofSeconds(2));
+  }
+
+  @AfterEach
+  void tearDown() {
+    coordinator.close();
+    coordinator = null;
+  }
+
+  @Test
+  void givenManyJobs_whenRunningAll_thenResultsComeBackFromWorkersInOrder() {
+    List<BatchJob> jobs = new ArrayList<>();
+    for (int n = 1; n <= 50; n++) {
+      Registers initialRegisters = new Registers();
+      initialRegisters.set(EAX, n % 10 + 1);
+      jobs.add(new BatchJob("job" + n, FACTORIAL, initialRegisters));
+    }
+    jobs.add(BatchJob.of("failing", "div EAX EBX"));
+
+    List<BatchResult> results = coordinator.runAll(jobs);
+
+    Assertions.assertEquals(51, results.size());
+    Assertions.assertEquals("job7", results.get(6).name());
+    Assertions.assertArrayEquals(new int[] { 40320 }, results.get(6).output());
+    Assertions.assertEquals(40320, results.get(6).registers().get(EBX));
+    Assertions.assertTrue(results.subList(0, 50).stream().allMatch(BatchResult::succeeded));
+    Assertions.assertTrue(results.get(50).error().toString().contains("ArithmeticException"));
+  }
+
+  @Test
+  void givenJobThatNeverHalts_whenRunning_thenItStopsItselfAndOtherJobsSucceed() throws Exception {
+    CompletableFuture<BatchResult> forever = coordinator.submit(BatchJob.of("forever", FOREVER));
+    Registers initialRegisters = new Registers();
+    initialRegisters.set(EAX, 5);
+    BatchResult result = coordinator.submit(new BatchJob("factorial", FACTORIAL, initialRegisters))
+        .get(30, TimeUnit.SECONDS);
+
+    Assertions.assertEquals(120, result.registers().get(EBX));
+    BatchResult stopped = forever.get(60, TimeUnit.SECONDS);
+    Assertions.assertFalse(stopped.succeeded());
+    Assertions.assertTrue(stopped.error().getMessage().contains("DEADLINE"));
+    Assertions.assertEquals(1, stopped.registers().get(EAX));
+  }
+
+  @Test
+  void givenStepLimit_whenRunningJobThatNeverHalts_thenJobStopsAtLimit() throws Exception {
+    try (ShardedBatchCoordinator limited = new ShardedBatchCoordinator(1, Duration.ofSeconds(30),
+        ExecutionLimits.NONE.withMaxSteps(1_000), ShardedBatchCoordinator.defaultCommand())) {
+      BatchResult stopped = limited.submit(BatchJob.of("forever", FOREVER)).get(30, TimeUnit.SECONDS);
+
+      Assertions.assertTrue(stopped.error().getMessage().contains("STEP_LIMIT"));
+      Assertions.assertTrue(stopped.error().getMessage().contains("after 1000 instructions"));
+    }
+  }
+
+  @Test
+  void givenWideWorkers_whenRunning_thenWideRegistersComeBackExactly() throws Exception {
+    List<String> command = new ArrayList<>(ShardedBatchCoordinator.defaultCommand());
+    command.add(command.indexOf("-cp"), "-Dsml.wide=true");
+    try (ShardedBatchCoordinator wide = new ShardedBatchCoordinator(1, Duration.ofSeconds(30), command)) {
+      BatchResult result = wide.submit(BatchJob.of("square", """
+          mov EAX 65536
+          mul EAX EAX
+          mul EAX EAX
+          sub EBX EAX
+          """)).get(30, TimeUnit.SECONDS);
+
+      Assertions.assertTrue(result.registers().isWide());
+      Assertions.assertEquals(BigInteger.ONE.shiftLeft(64), result.registers().getExact(EAX));
+      Assertions.assertEquals(BigInteger.ONE.shiftLeft(64).negate(), result.registers().getExact(EBX));
+    }
+  }
+
+  @Test
+  void givenStallingWorker_whenReplaced_thenOnlyOldestJobIsCharged() throws Exception {
+    List<String> command = new ArrayList<>(ShardedBatchCoordinator.defaultCommand());
+    int classPath = command.indexOf("-cp") + 1;
+    command.set(classPath, Path.of(SilentWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+        + File.pathSeparator + command.get(classPath));
+    command.set(command.size() - 1, SilentWorker.class.getName());
+    try (ShardedBatchCoordinator silent = new ShardedBatchCoordinator(1, Duration.ofMillis(200), command)) {
+      CompletableFuture<BatchResult> oldest = silent.submit(BatchJob.of("oldest", FACTORIAL));
+      CompletableFuture<BatchResult> next = silent.submit(BatchJob.of("next", FACTORIAL));
+
+      BatchResult failed = oldest.get(60, TimeUnit.SECONDS);
+      Assertions.assertEquals("Worker stalled 3 times.", failed.error().getMessage());
+      Assertions.assertFalse(next.isDone());
+      Assertions.assertEquals("Worker stalled 3 times.", next.get(60, TimeUnit.SECONDS).error().getMessage());
+    }
+  }
+
+  /**
+   * A worker that never answers.
+   */
+  static final class SilentWorker {
+    public static void main(String... args) throws InterruptedException {
+      Thread.sleep(Long.MAX_VALUE);
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package sml.channel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+class MpmcIntChannelTest {
+  private MpmcIntChannel channel;
+
+  @BeforeEach
+  void setUp() {
+    channel = new MpmcIntChannel(16);
+  }
+
+  @AfterEach
+  void tearDown() {
+    channel = null;
+  }
+
+  @Test
+  void givenFullChannel_whenOffering_thenRejected() {
+    for (int i = 0; i < 16; i++)
+      Assertions.assertTrue(channel.offer(i));
+    Assertions.assertFalse(channel.offer(16));
+    Assertions.assertEquals(0, channel.poll());
+    Assertions.assertTrue(channel.offer(16));
+  }
+
+  @Test
+  void givenEmptyChannel_whenPolling_thenEmpty() {
+    Assertions.assertEquals(AbstractIntChannel.EMPTY, channel.poll());
+  }
+
+  @Test
+  void givenManyProducersAndConsumers_whenTransferring_thenEveryValueIsReceivedOnce() throws Exception {
+    int producers = 4;
+    int perProducer = 25_000;
+    AtomicLong sum = new AtomicLong();
+    AtomicLong count = new AtomicLong();
+    List<Thread> producerThreads = new ArrayList<>();
+    List<Thread> consumerThreads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      producerThreads.add(Thread.ofVirtual().start(() -> {
+        try {
+          for (int i = 1; i <= perProducer; i++)
+            channel.send(i);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }));
+    }
+    for (int c = 0; c < 3; c++) {
+      consumerThreads.add(Thread.ofVirtual().start(() -> {
+        try {
+          for (long value = channel.receive(); value != IntChannel.CLOSED; value = channel.receive()) {
+            sum.addAndGet(value);
+            count.incrementAndGet();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }));
+    }
+    for (Thread thread : producerThreads)
+      thread.join();
+    channel.close();
+    for (Thread thread : consumerThreads)
+      thread.join();
+
+    Assertions.assertEquals((long) producers * perProducer, count.get());
+    Assertions.assertEquals((long) producers * perProducer * (perProducer + 1) / 2, sum.get());
+  }
+}
@@ -0,0 +1,129 @@
+package sml.channel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.ExecutionLimits;
+import sml.ExecutionResult;
+import sml.Machine;
+import sml.Registers;
+import sml.Translator;
+
+import static sml.Registers.Register.*;
+
+import java.time.Duration;
+import java.util.List;
+
+class PipelineTest {
+  /**
+   * Sends the numbers from 1000 down to 1 on channel "numbers".
+   */
+  private static final String PRODUCER = """
+          mov EAX 1000
+          mov EBX 1
+      l1: send numbers EAX
+          sub EAX EBX
+          jnz EAX l1
+      """;
+
+  /**
+   * Squares every number received on "numbers" and sends it on "squares".
+   */
+  private static final String SQUARER = """
+          mov EBX 1
+      l1: recv numbers EAX
+          mul EAX EAX
+          send squares EAX
+          jnz EBX l1
+      """;
+
+  /**
+   * Adds up every value received on "squares" in EDX.
+   */
+  private static final String SUMMER = """
+          mov EBX 1
+      l1: recv squares EAX
+          add EDX EAX
+          jnz EBX l1
+      """;
+
+  private Pipeline pipeline;
+
+  @BeforeEach
+  void setUp() {
+    pipeline = new Pipeline(16);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pipeline = null;
+  }
+
+  private Machine stage(String source) throws Exception {
+    Machine machine = new Machine(new Registers());
+    Translator.forSource(source).readAndTranslate(machine.getLabels(), machine.getProgram());
+    pipeline.addStage(machine);
+    return machine;
+  }
+
+  @Test
+  void givenThreeStages_whenRunning_thenValuesStreamThroughChannels() throws Exception {
+    stage(PRODUCER);
+    stage(SQUARER);
+    Machine summer = stage(SUMMER);
+
+    pipeline.run();
+
+    // 1^2 + 2^2 + ... + 1000^2
+    Assertions.assertEquals(333_833_500, summer.getRegisters().get(EDX));
+    Assertions.assertInstanceOf(SpscIntChannel.class, pipeline.getChannels().get("numbers"));
+  }
+
+  @Test
+  void givenTwoConsumers_whenRunning_thenChannelIsSharedAndEveryValueIsReceivedOnce() throws Exception {
+    stage(PRODUCER);
+    Machine first = stage(SUMMER.replace("squares", "numbers"));
+    Machine second = stage(SUMMER.replace("squares", "numbers"));
+
+    pipeline.run();
+
+    Assertions.assertEquals(500_500,
+        first.getRegisters().get(EDX) + second.getRegisters().get(EDX));
+    Assertions.assertInstanceOf(MpmcIntChannel.class, pipeline.getChannels().get("numbers"));
+  }
+
+  @Test
+  void givenConsumerHaltingEarly_whenRunning_thenProducerHalts() throws Exception {
+    Machine producer = stage(PRODUCER);
+    Machine consumer = stage("recv numbers EAX");
+
+    pipeline.run();
+
+    Assertions.assertEquals(1000, consumer.getRegisters().get(EAX));
+    // The producer stopped at a send once nobody could receive
+    Assertions.assertTrue(producer.getRegisters().get(EAX) > 0);
+  }
+
+  @Test
+  void givenProducerNeverSending_whenRunningWithTimeout_thenEveryStageStopsAtDeadline() throws Exception {
+    // Spins forever before sending anything
+    stage("""
+            mov EBX 1
+        l1: jnz EBX l1
+            send numbers EAX
+        """);
+    stage(SQUARER);
+    stage(SUMMER);
+
+    List<ExecutionResult> results = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5),
+        () -> pipeline.run(ExecutionLimits.NONE.withTimeout(Duration.ofMillis(100))));
+
+    Assertions.assertEquals(ExecutionResult.StopReason.DEADLINE, results.get(0).reason());
+    // The other stages stop waiting at their recv at the deadline, unless the
+    // stage before them stopped first and closed their channel
+    for (ExecutionResult result : results.subList(1, 3))
+      Assertions.assertTrue(result.reason() == ExecutionResult.StopReason.DEADLINE || result.halted());
+  }
+}
@@ -0,0 +1,86 @@
+package sml.channel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class SpscIntChannelTest {
+  private SpscIntChannel channel;
+
+  @BeforeEach
+  void setUp() {
+    channel = new SpscIntChannel(5);
+  }
+
+  @AfterEach
+  void tearDown() {
+    channel = null;
+  }
+
+  @Test
+  void givenCapacity_whenCreating_thenRoundedUpToPowerOfTwo() {
+    Assertions.assertEquals(8, channel.capacity());
+    Assertions.assertEquals(1, new SpscIntChannel(1).capacity());
+  }
+
+  @Test
+  void givenFullChannel_whenOffering_thenRejected() {
+    for (int i = 0; i < 8; i++)
+      Assertions.assertTrue(channel.offer(i));
+    Assertions.assertFalse(channel.offer(8));
+    Assertions.assertEquals(0, channel.poll());
+    Assertions.assertTrue(channel.offer(8));
+  }
+
+  @Test
+  void givenClosedChannel_whenReceiving_thenBufferedValuesThenClosed() throws Exception {
+    channel.send(-1);
+    channel.close();
+
+    Assertions.assertEquals(-1, channel.receive());
+    Assertions.assertEquals(IntChannel.CLOSED, channel.receive());
+  }
+
+  @Test
+  void givenCancelledChannel_whenSending_thenFails() throws Exception {
+    channel.cancel();
+    Assertions.assertFalse(channel.send(1));
+  }
+
+  @Test
+  void givenEmptyChannel_whenReceivingWithTimeout_thenTimeoutException() {
+    Assertions.assertThrows(TimeoutException.class, () -> channel.receive(10, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void givenFullChannel_whenSendingWithTimeout_thenTimeoutException() throws Exception {
+    for (int i = 0; i < 8; i++)
+      Assertions.assertTrue(channel.send(i, 10, TimeUnit.MILLISECONDS));
+    Assertions.assertThrows(TimeoutException.class, () -> channel.send(8, 10, TimeUnit.MILLISECONDS));
+    Assertions.assertEquals(0, channel.receive(10, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void givenProducerThread_whenReceiving_thenEveryValueInOrder() throws Exception {
+    Thread producer = Thread.ofVirtual().start(() -> {
+      try {
+        for (int i = 0; i < 100_000; i++)
+          channel.send(i);
+        channel.close();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    long expected = 0;
+    for (long value = channel.receive(); value != IntChannel.CLOSED; value = channel.receive())
+      Assertions.assertEquals(expected++, value);
+    producer.join();
+
+    Assertions.assertEquals(100_000, expected);
+  }
+}
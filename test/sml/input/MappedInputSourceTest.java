@@ -0,0 +1,61 @@
+package sml.input;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.InputSource;
+import sml.output.BinaryOutputSink;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class MappedInputSourceTest {
+  private Path file;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    file = Files.createTempFile("sml", ".bin");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+    file = null;
+  }
+
+  @Test
+  void givenBinaryOutput_whenReading_thenSameValuesThenEnd() throws IOException {
+    try (BinaryOutputSink sink = BinaryOutputSink.open(file)) {
+      sink.accept(3);
+      sink.accept(Integer.MIN_VALUE);
+      sink.accept(-1);
+    }
+    try (MappedInputSource source = MappedInputSource.open(file)) {
+      Assertions.assertEquals(3, source.remaining());
+      Assertions.assertEquals(3, source.next());
+      Assertions.assertEquals(Integer.MIN_VALUE, source.next());
+      Assertions.assertEquals(-1, source.next());
+      Assertions.assertEquals(InputSource.END, source.next());
+      Assertions.assertEquals(InputSource.END, source.next());
+    }
+  }
+
+  @Test
+  void givenTrailingBytes_whenReading_thenPartialValueIsIgnored() throws IOException {
+    Files.write(file, new byte[] {1, 0, 0, 0, 2, 0});
+    try (MappedInputSource source = MappedInputSource.open(file)) {
+      Assertions.assertEquals(1, source.next());
+      Assertions.assertEquals(InputSource.END, source.next());
+    }
+  }
+
+  @Test
+  void givenEmptyFile_whenReading_thenEnd() throws IOException {
+    try (MappedInputSource source = MappedInputSource.open(file)) {
+      Assertions.assertEquals(InputSource.END, source.next());
+    }
+  }
+}
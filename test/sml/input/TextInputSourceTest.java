@@ -0,0 +1,48 @@
+package sml.input;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import sml.InputSource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+class TextInputSourceTest {
+  private static TextInputSource source(String text) {
+    // A tiny buffer makes numbers straddle refills
+    return new TextInputSource(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)), 3);
+  }
+
+  @Test
+  void givenNumbersSeparatedByWhitespace_whenReading_thenSameValuesThenEnd() {
+    TextInputSource source = source("  12\n-7\t2147483647\r\n-2147483648 0\n");
+
+    Assertions.assertEquals(12, source.next());
+    Assertions.assertEquals(-7, source.next());
+    Assertions.assertEquals(Integer.MAX_VALUE, source.next());
+    Assertions.assertEquals(Integer.MIN_VALUE, source.next());
+    Assertions.assertEquals(0, source.next());
+    Assertions.assertEquals(InputSource.END, source.next());
+  }
+
+  @Test
+  void givenNumberWithoutTrailingNewline_whenReading_thenValueIsRead() {
+    TextInputSource source = source("42");
+
+    Assertions.assertEquals(42, source.next());
+    Assertions.assertEquals(InputSource.END, source.next());
+  }
+
+  @Test
+  void givenInvalidWord_whenReading_thenNumberFormatException() {
+    Assertions.assertThrows(NumberFormatException.class, () -> source("1x").next());
+    Assertions.assertThrows(NumberFormatException.class, () -> source("-").next());
+  }
+
+  @Test
+  void givenNumberOutOfRange_whenReading_thenNumberFormatException() {
+    Assertions.assertThrows(NumberFormatException.class, () -> source("2147483648").next());
+    Assertions.assertThrows(NumberFormatException.class, () -> source("99999999999999999999").next());
+  }
+}
@@ -0,0 +1,65 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class AddImmediateInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new AddImmediateInstruction(null, EAX, 5);
+    Assertions.assertEquals("add", instruction.getOpcode());
+    Assertions.assertEquals("add EAX 5", instruction.toString());
+  }
+
+  @Test
+  void givenRegisterAndValue_whenAdding_thenResultIsCorrect() {
+    registers.set(EAX, -7);
+    new AddImmediateInstruction(null, EAX, 5).execute(machine);
+    Assertions.assertEquals(-2, registers.get(EAX));
+  }
+
+  @Test
+  void givenInstruction_whenExecuting_thenProgramCounterIsNormal() {
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE,
+        new AddImmediateInstruction(null, EAX, 5).execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new AddImmediateInstruction(null, EAX, 5);
+    Instruction SecondInstruction = new AddImmediateInstruction(null, EAX, 5);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new AddImmediateInstruction(null, EAX, 6)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new AddImmediateInstruction(null, EAX, 5);
+    Instruction SecondInstruction = new AddImmediateInstruction(null, EAX, 5);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
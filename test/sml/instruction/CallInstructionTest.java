@@ -0,0 +1,90 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+import sml.Translator;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class CallInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new CallInstruction(null, "f3");
+    Assertions.assertEquals("call", instruction.getOpcode());
+    Assertions.assertEquals("call f3", instruction.toString());
+  }
+
+  @Test
+  void givenLabel_whenExecuting_thenReturnAddressIsPushedAndContinueAtLabel() {
+    try {
+      machine.getLabels().addLabel("f3", 10);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    Assertions.assertEquals(10, new CallInstruction(null, "f3").execute(machine));
+    Assertions.assertEquals(1, machine.getCallDepth());
+    Assertions.assertEquals(1, machine.popReturnAddress());
+  }
+
+  @Test
+  void givenSubroutine_whenCalledTwice_thenEachCallReturnsAfterItself() throws Exception {
+    Translator.forSource("""
+        mov EBX 3
+        call double
+        call double
+        jmp end
+        double: add EBX EBX
+        ret
+        end: out EBX
+        """).readAndTranslate(machine.getLabels(), machine.getProgram());
+    machine.execute();
+    Assertions.assertEquals(12, registers.get(EBX));
+    Assertions.assertEquals(0, machine.getCallDepth());
+  }
+
+  @Test
+  void givenUnboundedRecursion_whenExecuting_thenIllegalStateException() throws Exception {
+    Translator.forSource("""
+        f: call f
+        """).readAndTranslate(machine.getLabels(), machine.getProgram());
+    Assertions.assertThrows(IllegalStateException.class, () -> machine.execute());
+    Assertions.assertEquals(Machine.MAX_CALL_DEPTH, machine.getCallDepth());
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new CallInstruction(null, "f3");
+    Instruction SecondInstruction = new CallInstruction(null, "f3");
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new CallInstruction(null, "f4")));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new CallInstruction(null, "f3");
+    Instruction SecondInstruction = new CallInstruction(null, "f3");
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
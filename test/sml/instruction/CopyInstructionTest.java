@@ -0,0 +1,78 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Memory;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class CopyInstructionTest {
+  private Machine machine;
+  private Registers registers;
+  private Memory memory;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+    memory = Memory.allocate(64);
+    machine.setMemory(memory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    memory.close();
+    machine = null;
+    registers = null;
+    memory = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new CopyInstruction(null, EAX, EBX, EDX);
+    Assertions.assertEquals("copy", instruction.getOpcode());
+    Assertions.assertEquals("copy EAX EBX EDX", instruction.toString());
+  }
+
+  @Test
+  void givenRange_whenExecuting_thenRangeIsCopied() {
+    for (int i = 0; i < 30; i++)
+      memory.store(i, i * i);
+    registers.set(EAX, 32);
+    registers.set(EBX, 0);
+    registers.set(EDX, 30);
+    Instruction instruction = new CopyInstruction(null, EAX, EBX, EDX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    for (int i = 0; i < 30; i++)
+      Assertions.assertEquals(i * i, memory.load(32 + i));
+  }
+
+  @Test
+  void givenRangeOutOfBounds_whenExecuting_thenIndexOutOfBoundsException() {
+    registers.set(EDX, 65);
+    Instruction instruction = new CopyInstruction(null, EAX, EBX, EDX);
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> instruction.execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new CopyInstruction(null, EAX, EBX, EDX);
+    Instruction SecondInstruction = new CopyInstruction(null, EAX, EBX, EDX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new CopyInstruction(null, EBX, EAX, EDX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new CopyInstruction(null, EAX, EBX, EDX);
+    Instruction SecondInstruction = new CopyInstruction(null, EAX, EBX, EDX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
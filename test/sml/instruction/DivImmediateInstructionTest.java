@@ -0,0 +1,65 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class DivImmediateInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new DivImmediateInstruction(null, EAX, 4);
+    Assertions.assertEquals("div", instruction.getOpcode());
+    Assertions.assertEquals("div EAX 4", instruction.toString());
+  }
+
+  @Test
+  void givenRegisterAndValue_whenDividing_thenResultIsTruncated() {
+    registers.set(EAX, -9);
+    new DivImmediateInstruction(null, EAX, 4).execute(machine);
+    Assertions.assertEquals(-2, registers.get(EAX));
+  }
+
+  @Test
+  void givenZeroValue_whenDividing_thenArithmeticException() {
+    Assertions.assertThrows(ArithmeticException.class,
+        () -> new DivImmediateInstruction(null, EAX, 0).execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new DivImmediateInstruction(null, EAX, 4);
+    Instruction SecondInstruction = new DivImmediateInstruction(null, EAX, 4);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new DivImmediateInstruction(null, EAX, 2)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new DivImmediateInstruction(null, EAX, 4);
+    Instruction SecondInstruction = new DivImmediateInstruction(null, EAX, 4);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,78 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Memory;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class FillInstructionTest {
+  private Machine machine;
+  private Registers registers;
+  private Memory memory;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+    memory = Memory.allocate(64);
+    machine.setMemory(memory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    memory.close();
+    machine = null;
+    registers = null;
+    memory = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new FillInstruction(null, EAX, EBX, EDX);
+    Assertions.assertEquals("fill", instruction.getOpcode());
+    Assertions.assertEquals("fill EAX EBX EDX", instruction.toString());
+  }
+
+  @Test
+  void givenRange_whenExecuting_thenRangeIsFilled() {
+    registers.set(EAX, 10);
+    registers.set(EBX, 42);
+    registers.set(EDX, 50);
+    Instruction instruction = new FillInstruction(null, EAX, EBX, EDX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    Assertions.assertEquals(0, memory.load(9));
+    Assertions.assertEquals(42, memory.load(10));
+    Assertions.assertEquals(42, memory.load(59));
+    Assertions.assertEquals(0, memory.load(60));
+  }
+
+  @Test
+  void givenRangeOutOfBounds_whenExecuting_thenIndexOutOfBoundsException() {
+    registers.set(EDX, 65);
+    Instruction instruction = new FillInstruction(null, EAX, EBX, EDX);
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> instruction.execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new FillInstruction(null, EAX, EBX, EDX);
+    Instruction SecondInstruction = new FillInstruction(null, EAX, EBX, EDX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new FillInstruction(null, EAX, ECX, EDX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new FillInstruction(null, EAX, EBX, EDX);
+    Instruction SecondInstruction = new FillInstruction(null, EAX, EBX, EDX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
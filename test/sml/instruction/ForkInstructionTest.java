@@ -0,0 +1,64 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class ForkInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenLabel_whenExecutingFork_thenChildStartsAtLabelWithCopyOfRegisters() throws Exception {
+    // "fork EDX child; child: add EAX EBX"
+    machine.getProgram().add(new ForkInstruction(null, EDX, "child"));
+    machine.getProgram().add(new AddInstruction("child", EAX, EBX));
+    machine.getLabels().addLabel("child", 1);
+    registers.set(EAX, 5);
+    registers.set(EBX, 6);
+
+    Instruction instruction = machine.getProgram().get(0);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    Machine child = machine.join(registers.get(EDX));
+
+    Assertions.assertEquals(1, registers.get(EDX));
+    Assertions.assertEquals(11, child.getRegisters().get(EAX));
+    // The registers of the parent are not shared with the child
+    Assertions.assertEquals(5, registers.get(EAX));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new ForkInstruction(null, EAX, "f3");
+    Instruction SecondInstruction = new ForkInstruction(null, EAX, "f3");
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new JnzInstruction(null, EAX, "f3")));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new ForkInstruction(null, EAX, "f3");
+    Instruction SecondInstruction = new ForkInstruction(null, EAX, "f3");
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,90 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+import sml.input.TextInputSource;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+class InInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  private void setInput(String text) {
+    machine.setInput(new TextInputSource(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII))));
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new InInstruction(null, EAX, EBX);
+    Assertions.assertEquals("in", instruction.getOpcode());
+    Assertions.assertEquals("in EAX EBX", instruction.toString());
+  }
+
+  @Test
+  void givenInput_whenExecutingIn_thenValueIsReadAndFlagIsSet() {
+    setInput("-5");
+    Instruction instruction = new InInstruction(null, EAX, EBX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    Assertions.assertEquals(-5, registers.get(EAX));
+    Assertions.assertEquals(1, registers.get(EBX));
+  }
+
+  @Test
+  void givenEndOfInput_whenExecutingIn_thenFlagIsCleared() {
+    registers.set(EAX, 9);
+    registers.set(EBX, 9);
+    Instruction instruction = new InInstruction(null, EAX, EBX);
+    instruction.execute(machine);
+    Assertions.assertEquals(0, registers.get(EAX));
+    Assertions.assertEquals(0, registers.get(EBX));
+  }
+
+  @Test
+  void givenLoopOverInput_whenExecuting_thenValuesAreSummed() throws Exception {
+    setInput("1 2 3 4");
+    machine.getProgram().add(new InInstruction("loop", EAX, EBX));
+    machine.getProgram().add(new AddInstruction(null, ECX, EAX));
+    machine.getProgram().add(new JnzInstruction(null, EBX, "loop"));
+    machine.getLabels().addLabel("loop", 0);
+    machine.execute();
+    Assertions.assertEquals(10, registers.get(ECX));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new InInstruction(null, EAX, EBX);
+    Instruction SecondInstruction = new InInstruction(null, EAX, EBX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new InInstruction(null, EBX, EAX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new InInstruction(null, EAX, EBX);
+    Instruction SecondInstruction = new InInstruction(null, EAX, EBX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,76 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class JgeInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new JgeInstruction(null, EAX, EBX, "f3");
+    Assertions.assertEquals("jge", instruction.getOpcode());
+    Assertions.assertEquals("jge EAX EBX f3", instruction.toString());
+  }
+
+  @Test
+  void givenEqualValues_whenExecuting_thenContinueAtLabel() {
+    try {
+      machine.getLabels().addLabel("f3", 10);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    registers.set(EAX, 2);
+    registers.set(EBX, 2);
+    Assertions.assertEquals(10, new JgeInstruction(null, EAX, EBX, "f3").execute(machine));
+  }
+
+  @Test
+  void givenLeftLessThanRight_whenExecuting_thenContinueSequentialExecution() {
+    try {
+      machine.getLabels().addLabel("f3", 10);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    registers.set(EAX, Integer.MIN_VALUE);
+    registers.set(EBX, 0);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, new JgeInstruction(null, EAX, EBX, "f3").execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new JgeInstruction(null, EAX, EBX, "f3");
+    Instruction SecondInstruction = new JgeInstruction(null, EAX, EBX, "f3");
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new JgeInstruction(null, EBX, EAX, "f3")));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new JgeInstruction(null, EAX, EBX, "f3");
+    Instruction SecondInstruction = new JgeInstruction(null, EAX, EBX, "f3");
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,76 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class JltInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new JltInstruction(null, EAX, EBX, "f3");
+    Assertions.assertEquals("jlt", instruction.getOpcode());
+    Assertions.assertEquals("jlt EAX EBX f3", instruction.toString());
+  }
+
+  @Test
+  void givenLeftLessThanRight_whenExecuting_thenContinueAtLabel() {
+    try {
+      machine.getLabels().addLabel("f3", 10);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    registers.set(EAX, -5);
+    registers.set(EBX, 2);
+    Assertions.assertEquals(10, new JltInstruction(null, EAX, EBX, "f3").execute(machine));
+  }
+
+  @Test
+  void givenEqualValues_whenExecuting_thenContinueSequentialExecution() {
+    try {
+      machine.getLabels().addLabel("f3", 10);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    registers.set(EAX, 2);
+    registers.set(EBX, 2);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, new JltInstruction(null, EAX, EBX, "f3").execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new JltInstruction(null, EAX, EBX, "f3");
+    Instruction SecondInstruction = new JltInstruction(null, EAX, EBX, "f3");
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new JltInstruction(null, EBX, EAX, "f3")));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new JltInstruction(null, EAX, EBX, "f3");
+    Instruction SecondInstruction = new JltInstruction(null, EAX, EBX, "f3");
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
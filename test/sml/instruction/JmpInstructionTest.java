@@ -0,0 +1,62 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class JmpInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new JmpInstruction(null, "f3");
+    Assertions.assertEquals("jmp", instruction.getOpcode());
+    Assertions.assertEquals("jmp f3", instruction.toString());
+  }
+
+  @Test
+  void givenLabel_whenExecuting_thenContinueAtLabel() {
+    try {
+      machine.getLabels().addLabel("f3", 10);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    Assertions.assertEquals(10, new JmpInstruction(null, "f3").execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new JmpInstruction(null, "f3");
+    Instruction SecondInstruction = new JmpInstruction(null, "f3");
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new JmpInstruction(null, "f4")));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new JmpInstruction(null, "f3");
+    Instruction SecondInstruction = new JmpInstruction(null, "f3");
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
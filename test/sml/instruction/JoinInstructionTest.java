@@ -0,0 +1,119 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+import sml.Translator;
+
+import static sml.Registers.Register.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class JoinInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenForkedChildren_whenJoining_thenChosenRegistersAreMergedAndOutputIsOrdered() throws Exception {
+    // The child computes EAX * EAX in EBX and writes it; the parent computes
+    // EAX + EAX in ECX, joins the child and writes both.
+    Translator.forSource("""
+            mov EAX 7
+            fork EDX sq
+            add ECX EAX
+            add ECX EAX
+            join EDX EBX
+            out ECX
+            mov EAX 0
+            jnz EDX end
+        sq: mov EBX 0
+            add EBX EAX
+            mul EBX EAX
+            out EBX
+       end: out EAX
+    """).readAndTranslate(machine.getLabels(), machine.getProgram());
+    List<Integer> output = new ArrayList<>();
+    machine.setOutput(output::add);
+
+    machine.execute();
+
+    Assertions.assertEquals(49, registers.get(EBX));
+    Assertions.assertEquals(14, registers.get(ECX));
+    // The child writes 49 then 7 (at "end"), both released at the join
+    Assertions.assertEquals(List.of(49, 7, 14, 0), output);
+  }
+
+  @Test
+  void givenRegisterList_whenJoining_thenEveryListedRegisterIsMerged() throws Exception {
+    // The child computes the quotient and remainder of 17 by 5
+    Translator.forSource("""
+            mov EAX 17
+            mov ECX 5
+            fork EDX divmod
+            join EDX EAX,EBX
+            jnz EDX end
+    divmod: mov EBX 0
+            add EBX EAX
+            div EAX ECX
+            mov ESI 0
+            add ESI EAX
+            mul ESI ECX
+            sub EBX ESI
+            mov ECX 0
+       end: mov EDI 1
+    """).readAndTranslate(machine.getLabels(), machine.getProgram());
+
+    machine.execute();
+
+    Assertions.assertEquals(3, registers.get(EAX));
+    Assertions.assertEquals(2, registers.get(EBX));
+    // Registers not listed keep the values of the parent
+    Assertions.assertEquals(5, registers.get(ECX));
+    Assertions.assertEquals(0, registers.get(ESI));
+  }
+
+  @Test
+  void givenRegisterList_whenFormatting_thenRegistersAreCommaSeparated() {
+    Assertions.assertEquals("join EDX EAX,EBX", new JoinInstruction(null, EDX, EAX, EBX).toString());
+  }
+
+  @Test
+  void givenUnknownHandle_whenExecutingJoin_thenIllegalArgumentException() {
+    registers.set(EDX, 3);
+    Instruction instruction = new JoinInstruction(null, EDX, EAX);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> instruction.execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new JoinInstruction(null, EDX, EAX);
+    Instruction SecondInstruction = new JoinInstruction(null, EDX, EAX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new JoinInstruction(null, EAX, EDX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new JoinInstruction(null, EDX, EAX);
+    Instruction SecondInstruction = new JoinInstruction(null, EDX, EAX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
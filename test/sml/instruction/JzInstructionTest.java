@@ -0,0 +1,74 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class JzInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new JzInstruction(null, EAX, "f3");
+    Assertions.assertEquals("jz", instruction.getOpcode());
+    Assertions.assertEquals("jz EAX f3", instruction.toString());
+  }
+
+  @Test
+  void givenRegisterEqualsZero_whenExecuting_thenContinueAtLabel() {
+    try {
+      machine.getLabels().addLabel("f3", 10);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    registers.set(EAX, 0);
+    Assertions.assertEquals(10, new JzInstruction(null, EAX, "f3").execute(machine));
+  }
+
+  @Test
+  void givenRegisterNonZero_whenExecuting_thenContinueSequentialExecution() {
+    try {
+      machine.getLabels().addLabel("f3", 10);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    registers.set(EAX, -1);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, new JzInstruction(null, EAX, "f3").execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new JzInstruction(null, EAX, "f3");
+    Instruction SecondInstruction = new JzInstruction(null, EAX, "f3");
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new JzInstruction(null, EBX, "f3")));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new JzInstruction(null, EAX, "f3");
+    Instruction SecondInstruction = new JzInstruction(null, EAX, "f3");
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,74 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Memory;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class LoadInstructionTest {
+  private Machine machine;
+  private Registers registers;
+  private Memory memory;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+    memory = Memory.allocate(8);
+    machine.setMemory(memory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    memory.close();
+    machine = null;
+    registers = null;
+    memory = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new LoadInstruction(null, EAX, EBX);
+    Assertions.assertEquals("load", instruction.getOpcode());
+    Assertions.assertEquals("load EAX EBX", instruction.toString());
+  }
+
+  @Test
+  void givenAddressInRegister_whenExecutingLoad_thenWordIsRead() {
+    memory.store(5, -42);
+    registers.set(EBX, 5);
+    Instruction instruction = new LoadInstruction(null, EAX, EBX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    Assertions.assertEquals(-42, registers.get(EAX));
+  }
+
+  @Test
+  void givenAddressOutOfBounds_whenExecutingLoad_thenIndexOutOfBoundsException() {
+    registers.set(EBX, 8);
+    Instruction instruction = new LoadInstruction(null, EAX, EBX);
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> instruction.execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new LoadInstruction(null, EAX, EBX);
+    Instruction SecondInstruction = new LoadInstruction(null, EAX, EBX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new StoreInstruction(null, EAX, EBX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new LoadInstruction(null, EAX, EBX);
+    Instruction SecondInstruction = new LoadInstruction(null, EAX, EBX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,89 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+import sml.Translator;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class LoopInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new LoopInstruction(null, ECX, "f3");
+    Assertions.assertEquals("loop", instruction.getOpcode());
+    Assertions.assertEquals("loop ECX f3", instruction.toString());
+  }
+
+  @Test
+  void givenCounterAboveOne_whenExecuting_thenDecrementedAndContinueAtLabel() {
+    try {
+      machine.getLabels().addLabel("f3", 10);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    registers.set(ECX, 3);
+    Assertions.assertEquals(10, new LoopInstruction(null, ECX, "f3").execute(machine));
+    Assertions.assertEquals(2, registers.get(ECX));
+  }
+
+  @Test
+  void givenCounterOfOne_whenExecuting_thenZeroAndContinueSequentialExecution() {
+    try {
+      machine.getLabels().addLabel("f3", 10);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    registers.set(ECX, 1);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, new LoopInstruction(null, ECX, "f3").execute(machine));
+    Assertions.assertEquals(0, registers.get(ECX));
+  }
+
+  @Test
+  void givenFactorialProgram_whenLooping_thenResultIsCorrect() throws Exception {
+    Translator.forSource("""
+        mov EAX 6
+        mov EBX 1
+        f3: mul EBX EAX
+        loop EAX f3
+        """).readAndTranslate(machine.getLabels(), machine.getProgram());
+    machine.execute();
+    Assertions.assertEquals(720, registers.get(EBX));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new LoopInstruction(null, ECX, "f3");
+    Instruction SecondInstruction = new LoopInstruction(null, ECX, "f3");
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new LoopInstruction(null, ECX, "f4")));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new LoopInstruction(null, ECX, "f3");
+    Instruction SecondInstruction = new LoopInstruction(null, ECX, "f3");
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
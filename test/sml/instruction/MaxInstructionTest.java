@@ -0,0 +1,78 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Memory;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class MaxInstructionTest {
+  private Machine machine;
+  private Registers registers;
+  private Memory memory;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+    memory = Memory.allocate(64);
+    machine.setMemory(memory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    memory.close();
+    machine = null;
+    registers = null;
+    memory = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new MaxInstruction(null, EAX, EBX, EDX);
+    Assertions.assertEquals("max", instruction.getOpcode());
+    Assertions.assertEquals("max EAX EBX EDX", instruction.toString());
+  }
+
+  @Test
+  void givenRange_whenExecuting_thenResultIsStored() {
+    // Words 1, 2, ..., 10, -11 from address 20
+    for (int i = 0; i < 10; i++)
+      memory.store(20 + i, i + 1);
+    memory.store(30, -11);
+    registers.set(EBX, 20);
+    registers.set(EDX, 11);
+    Instruction instruction = new MaxInstruction(null, EAX, EBX, EDX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    Assertions.assertEquals(10, registers.get(EAX));
+  }
+
+  @Test
+  void givenRangeOutOfBounds_whenExecuting_thenIndexOutOfBoundsException() {
+    registers.set(EDX, 65);
+    Instruction instruction = new MaxInstruction(null, EAX, EBX, EDX);
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> instruction.execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new MaxInstruction(null, EAX, EBX, EDX);
+    Instruction SecondInstruction = new MaxInstruction(null, EAX, EBX, EDX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new MaxInstruction(null, EBX, EAX, EDX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new MaxInstruction(null, EAX, EBX, EDX);
+    Instruction SecondInstruction = new MaxInstruction(null, EAX, EBX, EDX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,70 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class MgetInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new MgetInstruction(null, EAX, "t", EBX);
+    Assertions.assertEquals("mget", instruction.getOpcode());
+    Assertions.assertEquals("mget EAX t EBX", instruction.toString());
+  }
+
+  @Test
+  void givenKeyInTable_whenExecuting_thenValueIsStored() {
+    machine.getTable("t").put(7, 42);
+    registers.set(EBX, 7);
+    Instruction instruction = new MgetInstruction(null, EAX, "t", EBX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    Assertions.assertEquals(42, registers.get(EAX));
+  }
+
+  @Test
+  void givenKeyNotInTable_whenExecuting_thenZeroIsStored() {
+    registers.set(EAX, 9);
+    registers.set(EBX, 7);
+    Instruction instruction = new MgetInstruction(null, EAX, "t", EBX);
+    instruction.execute(machine);
+    Assertions.assertEquals(0, registers.get(EAX));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new MgetInstruction(null, EAX, "t", EBX);
+    Instruction SecondInstruction = new MgetInstruction(null, EAX, "t", EBX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new MgetInstruction(null, EAX, "t", ECX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new MgetInstruction(null, EAX, "t", EBX);
+    Instruction SecondInstruction = new MgetInstruction(null, EAX, "t", EBX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,64 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class MhasInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new MhasInstruction(null, EAX, "t", EBX);
+    Assertions.assertEquals("mhas", instruction.getOpcode());
+    Assertions.assertEquals("mhas EAX t EBX", instruction.toString());
+  }
+
+  @Test
+  void givenKeys_whenExecuting_thenMembershipIsStored() {
+    machine.getTable("t").put(0, 0);
+    Instruction instruction = new MhasInstruction(null, EAX, "t", EBX);
+    registers.set(EBX, 0);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    Assertions.assertEquals(1, registers.get(EAX));
+    registers.set(EBX, 5);
+    instruction.execute(machine);
+    Assertions.assertEquals(0, registers.get(EAX));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new MhasInstruction(null, EAX, "t", EBX);
+    Instruction SecondInstruction = new MhasInstruction(null, EAX, "t", EBX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new MhasInstruction(null, EBX, "t", EAX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new MhasInstruction(null, EAX, "t", EBX);
+    Instruction SecondInstruction = new MhasInstruction(null, EAX, "t", EBX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
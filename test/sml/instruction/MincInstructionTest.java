@@ -0,0 +1,89 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class MincInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new MincInstruction(null, "t", EAX, EBX);
+    Assertions.assertEquals("minc", instruction.getOpcode());
+    Assertions.assertEquals("minc t EAX EBX", instruction.toString());
+  }
+
+  @Test
+  void givenProgramCountingKeys_whenExecuting_thenTableHoldsCounts() {
+    // Counts the keys 0, 1, 2, 0, 1, 2, ... of EAX = 9, 8, ..., 1 modulo 3
+    machine.getProgram().add(new MovInstruction(null, EAX, 9));
+    machine.getProgram().add(new MovInstruction(null, EBX, 1));
+    machine.getProgram().add(new MovInstruction(null, ECX, 3));
+    machine.getProgram().add(new MovInstruction("loop", EDX, 0));
+    machine.getProgram().add(new AddInstruction(null, EDX, EAX));
+    machine.getProgram().add(new MovInstruction(null, ESI, 0));
+    machine.getProgram().add(new AddInstruction(null, ESI, EAX));
+    machine.getProgram().add(new DivInstruction(null, ESI, ECX));
+    machine.getProgram().add(new MulInstruction(null, ESI, ECX));
+    machine.getProgram().add(new SubInstruction(null, EDX, ESI));
+    machine.getProgram().add(new MincInstruction(null, "t", EDX, EBX));
+    machine.getProgram().add(new SubInstruction(null, EAX, EBX));
+    machine.getProgram().add(new JnzInstruction(null, EAX, "loop"));
+    try {
+      machine.getLabels().addLabel("loop", 3);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    machine.execute();
+    Assertions.assertEquals(3, machine.getTable("t").get(0, -1));
+    Assertions.assertEquals(3, machine.getTable("t").get(1, -1));
+    Assertions.assertEquals(3, machine.getTable("t").get(2, -1));
+    Assertions.assertEquals(3, machine.getTables().get("t").size());
+  }
+
+  @Test
+  void givenTablesFromPreviousRun_whenStartingAgain_thenTablesAreEmpty() {
+    registers.set(EAX, 7);
+    registers.set(EBX, 1);
+    new MincInstruction(null, "t", EAX, EBX).execute(machine);
+    machine.start();
+    Assertions.assertTrue(machine.getTables().isEmpty());
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new MincInstruction(null, "t", EAX, EBX);
+    Instruction SecondInstruction = new MincInstruction(null, "t", EAX, EBX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new MincInstruction(null, "t", EBX, EAX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new MincInstruction(null, "t", EAX, EBX);
+    Instruction SecondInstruction = new MincInstruction(null, "t", EAX, EBX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,62 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class MputInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new MputInstruction(null, "t", EAX, EBX);
+    Assertions.assertEquals("mput", instruction.getOpcode());
+    Assertions.assertEquals("mput t EAX EBX", instruction.toString());
+  }
+
+  @Test
+  void givenKeyAndValue_whenExecuting_thenTableHoldsValue() {
+    registers.set(EAX, 7);
+    registers.set(EBX, -3);
+    Instruction instruction = new MputInstruction(null, "t", EAX, EBX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    Assertions.assertEquals(-3, machine.getTable("t").get(7, 0));
+    Assertions.assertEquals(1, machine.getTable("t").size());
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new MputInstruction(null, "t", EAX, EBX);
+    Instruction SecondInstruction = new MputInstruction(null, "t", EAX, EBX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new MputInstruction(null, "u", EAX, EBX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new MputInstruction(null, "t", EAX, EBX);
+    Instruction SecondInstruction = new MputInstruction(null, "t", EAX, EBX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
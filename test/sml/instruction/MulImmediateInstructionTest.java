@@ -0,0 +1,59 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class MulImmediateInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new MulImmediateInstruction(null, EAX, -3);
+    Assertions.assertEquals("mul", instruction.getOpcode());
+    Assertions.assertEquals("mul EAX -3", instruction.toString());
+  }
+
+  @Test
+  void givenRegisterAndValue_whenMultiplying_thenResultIsCorrect() {
+    registers.set(EAX, 7);
+    new MulImmediateInstruction(null, EAX, -3).execute(machine);
+    Assertions.assertEquals(-21, registers.get(EAX));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new MulImmediateInstruction(null, EAX, -3);
+    Instruction SecondInstruction = new MulImmediateInstruction(null, EAX, -3);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new MulImmediateInstruction(null, EAX, 3)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new MulImmediateInstruction(null, EAX, -3);
+    Instruction SecondInstruction = new MulImmediateInstruction(null, EAX, -3);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,115 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.CancellationToken;
+import sml.ExecutionLimits;
+import sml.ExecutionResult;
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+import sml.channel.SpscIntChannel;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class RecvInstructionTest {
+  private Machine machine;
+  private Registers registers;
+  private SpscIntChannel channel;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+    channel = new SpscIntChannel(4);
+    machine.setChannels(Map.of("c", channel));
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+    channel = null;
+  }
+
+  @Test
+  void givenValueInChannel_whenExecutingRecv_thenValueIsStored() throws Exception {
+    channel.send(-7);
+    Instruction instruction = new RecvInstruction(null, "c", EBX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    Assertions.assertEquals(-7, registers.get(EBX));
+  }
+
+  @Test
+  void givenClosedEmptyChannel_whenExecutingRecv_thenProgramHalts() {
+    machine.getProgram().add(new RecvInstruction(null, "c", EBX));
+    channel.close();
+    Assertions.assertEquals(1, machine.getProgram().get(0).execute(machine));
+  }
+
+  @Test
+  void givenEmptyChannelAndDeadline_whenExecuting_thenStopsAtRecv() {
+    machine.getProgram().add(new RecvInstruction(null, "c", EBX));
+
+    ExecutionResult result = machine.execute(ExecutionLimits.NONE.withTimeout(Duration.ofMillis(50)));
+
+    Assertions.assertEquals(ExecutionResult.StopReason.DEADLINE, result.reason());
+    Assertions.assertEquals(0, result.programCounter());
+    Assertions.assertEquals(1, result.steps());
+  }
+
+  @Test
+  void givenEmptyChannel_whenCancelling_thenStopsAtRecv() {
+    machine.getProgram().add(new RecvInstruction(null, "c", EBX));
+    CancellationToken token = new CancellationToken();
+    Thread.ofPlatform().start(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      token.cancel();
+    });
+
+    ExecutionResult result = machine.execute(ExecutionLimits.NONE.withCancellation(token));
+
+    Assertions.assertEquals(ExecutionResult.StopReason.CANCELLED, result.reason());
+    Assertions.assertEquals(0, result.programCounter());
+  }
+
+  @Test
+  void givenEmptyChannelAndNoLimits_whenInterrupting_thenCancelledRatherThanHalted() throws Exception {
+    machine.getProgram().add(new RecvInstruction(null, "c", EBX));
+    CompletableFuture<ExecutionResult> result = new CompletableFuture<>();
+    Thread thread = Thread.ofPlatform().start(() -> result.complete(machine.execute(ExecutionLimits.NONE)));
+    Thread.sleep(50);
+
+    thread.interrupt();
+
+    Assertions.assertEquals(ExecutionResult.StopReason.CANCELLED, result.get(5, TimeUnit.SECONDS).reason());
+    Assertions.assertFalse(machine.isHalted());
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new RecvInstruction(null, "c", EAX);
+    Instruction SecondInstruction = new RecvInstruction(null, "c", EAX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new RecvInstruction(null, "c", EAX);
+    Instruction SecondInstruction = new RecvInstruction(null, "c", EAX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
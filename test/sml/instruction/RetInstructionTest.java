@@ -0,0 +1,67 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class RetInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new RetInstruction(null);
+    Assertions.assertEquals("ret", instruction.getOpcode());
+    Assertions.assertEquals("ret", instruction.toString());
+  }
+
+  @Test
+  void givenPendingCall_whenExecuting_thenContinueAtReturnAddress() {
+    machine.pushReturnAddress(7);
+    Assertions.assertEquals(7, new RetInstruction(null).execute(machine));
+    Assertions.assertEquals(0, machine.getCallDepth());
+  }
+
+  @Test
+  void givenNoPendingCall_whenExecuting_thenProgramHalts() {
+    machine.getProgram().add(new RetInstruction(null));
+    machine.getProgram().add(new MovInstruction(null, EAX, 1));
+    machine.execute();
+    Assertions.assertEquals(0, registers.get(EAX));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new RetInstruction(null);
+    Instruction SecondInstruction = new RetInstruction(null);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new JmpInstruction(null, "f3")));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new RetInstruction(null);
+    Instruction SecondInstruction = new RetInstruction(null);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,90 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Memory;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class SearchInstructionTest {
+  private Machine machine;
+  private Registers registers;
+  private Memory memory;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+    memory = Memory.allocate(64);
+    machine.setMemory(memory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    memory.close();
+    machine = null;
+    registers = null;
+    memory = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new SearchInstruction(null, EAX, EBX, EDX, ECX);
+    Assertions.assertEquals("search", instruction.getOpcode());
+    Assertions.assertEquals("search EAX EBX EDX ECX", instruction.toString());
+  }
+
+  @Test
+  void givenValueInRange_whenExecuting_thenAddressIsStored() {
+    // Words 0, 10, 20, ..., 90 from address 5
+    for (int i = 0; i < 10; i++)
+      memory.store(5 + i, i * 10);
+    registers.set(EBX, 5);
+    registers.set(EDX, 10);
+    registers.set(ECX, 70);
+    Instruction instruction = new SearchInstruction(null, EAX, EBX, EDX, ECX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    Assertions.assertEquals(12, registers.get(EAX));
+  }
+
+  @Test
+  void givenValueNotInRange_whenExecuting_thenNegativeInsertionPointIsStored() {
+    for (int i = 0; i < 10; i++)
+      memory.store(5 + i, i * 10);
+    registers.set(EBX, 5);
+    registers.set(EDX, 10);
+    registers.set(ECX, 35);
+    Instruction instruction = new SearchInstruction(null, EAX, EBX, EDX, ECX);
+    instruction.execute(machine);
+    Assertions.assertEquals(-1 - 9, registers.get(EAX));
+  }
+
+  @Test
+  void givenRangeOutOfBounds_whenExecuting_thenIndexOutOfBoundsException() {
+    registers.set(EDX, 65);
+    Instruction instruction = new SearchInstruction(null, EAX, EBX, EDX, ECX);
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> instruction.execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new SearchInstruction(null, EAX, EBX, EDX, ECX);
+    Instruction SecondInstruction = new SearchInstruction(null, EAX, EBX, EDX, ECX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new SearchInstruction(null, EAX, EBX, ECX, EDX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new SearchInstruction(null, EAX, EBX, EDX, ECX);
+    Instruction SecondInstruction = new SearchInstruction(null, EAX, EBX, EDX, ECX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,73 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+import sml.channel.SpscIntChannel;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+import java.util.Map;
+
+class SendInstructionTest {
+  private Machine machine;
+  private Registers registers;
+  private SpscIntChannel channel;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+    channel = new SpscIntChannel(4);
+    machine.setChannels(Map.of("c", channel));
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+    channel = null;
+  }
+
+  @Test
+  void givenChannel_whenExecutingSend_thenValueIsSent() throws Exception {
+    registers.set(EAX, 42);
+    Instruction instruction = new SendInstruction(null, "c", EAX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    Assertions.assertEquals(42, channel.receive());
+  }
+
+  @Test
+  void givenCancelledChannel_whenExecutingSend_thenProgramHalts() {
+    machine.getProgram().add(new SendInstruction(null, "c", EAX));
+    channel.cancel();
+    Assertions.assertEquals(1, machine.getProgram().get(0).execute(machine));
+  }
+
+  @Test
+  void givenUnknownChannel_whenExecutingSend_thenIllegalArgumentException() {
+    Instruction instruction = new SendInstruction(null, "d", EAX);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> instruction.execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new SendInstruction(null, "c", EAX);
+    Instruction SecondInstruction = new SendInstruction(null, "c", EAX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new RecvInstruction(null, "c", EAX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new SendInstruction(null, "c", EAX);
+    Instruction SecondInstruction = new SendInstruction(null, "c", EAX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,79 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Memory;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class SortInstructionTest {
+  private Machine machine;
+  private Registers registers;
+  private Memory memory;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+    memory = Memory.allocate(64);
+    machine.setMemory(memory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    memory.close();
+    machine = null;
+    registers = null;
+    memory = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new SortInstruction(null, EBX, EDX);
+    Assertions.assertEquals("sort", instruction.getOpcode());
+    Assertions.assertEquals("sort EBX EDX", instruction.toString());
+  }
+
+  @Test
+  void givenRange_whenExecuting_thenRangeIsSorted() {
+    int[] values = {5, -3, 9, 0, 9, -100, 42};
+    for (int i = 0; i < values.length; i++)
+      memory.store(10 + i, values[i]);
+    registers.set(EBX, 10);
+    registers.set(EDX, values.length);
+    Instruction instruction = new SortInstruction(null, EBX, EDX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    int[] sorted = {-100, -3, 0, 5, 9, 9, 42};
+    for (int i = 0; i < sorted.length; i++)
+      Assertions.assertEquals(sorted[i], memory.load(10 + i));
+  }
+
+  @Test
+  void givenRangeOutOfBounds_whenExecuting_thenIndexOutOfBoundsException() {
+    registers.set(EDX, 65);
+    Instruction instruction = new SortInstruction(null, EBX, EDX);
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> instruction.execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new SortInstruction(null, EBX, EDX);
+    Instruction SecondInstruction = new SortInstruction(null, EBX, EDX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new SortInstruction(null, EDX, EBX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new SortInstruction(null, EBX, EDX);
+    Instruction SecondInstruction = new SortInstruction(null, EBX, EDX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
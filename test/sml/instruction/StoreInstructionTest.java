@@ -0,0 +1,74 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Memory;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class StoreInstructionTest {
+  private Machine machine;
+  private Registers registers;
+  private Memory memory;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+    memory = Memory.allocate(8);
+    machine.setMemory(memory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    memory.close();
+    machine = null;
+    registers = null;
+    memory = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new StoreInstruction(null, EBX, EAX);
+    Assertions.assertEquals("store", instruction.getOpcode());
+    Assertions.assertEquals("store EBX EAX", instruction.toString());
+  }
+
+  @Test
+  void givenAddressInRegister_whenExecutingStore_thenWordIsWritten() {
+    registers.set(EAX, 42);
+    registers.set(EBX, 7);
+    Instruction instruction = new StoreInstruction(null, EBX, EAX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    Assertions.assertEquals(42, memory.load(7));
+  }
+
+  @Test
+  void givenNegativeAddress_whenExecutingStore_thenIndexOutOfBoundsException() {
+    registers.set(EBX, -1);
+    Instruction instruction = new StoreInstruction(null, EBX, EAX);
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> instruction.execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new StoreInstruction(null, EBX, EAX);
+    Instruction SecondInstruction = new StoreInstruction(null, EBX, EAX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new StoreInstruction(null, EAX, EBX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new StoreInstruction(null, EBX, EAX);
+    Instruction SecondInstruction = new StoreInstruction(null, EBX, EAX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
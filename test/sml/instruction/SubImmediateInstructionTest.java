@@ -0,0 +1,59 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class SubImmediateInstructionTest {
+  private Machine machine;
+  private Registers registers;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+    registers = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new SubImmediateInstruction(null, EAX, 5);
+    Assertions.assertEquals("sub", instruction.getOpcode());
+    Assertions.assertEquals("sub EAX 5", instruction.toString());
+  }
+
+  @Test
+  void givenRegisterAndValue_whenSubtracting_thenResultIsCorrect() {
+    registers.set(EAX, 3);
+    new SubImmediateInstruction(null, EAX, 5).execute(machine);
+    Assertions.assertEquals(-2, registers.get(EAX));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new SubImmediateInstruction(null, EAX, 5);
+    Instruction SecondInstruction = new SubImmediateInstruction(null, EAX, 5);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new SubImmediateInstruction(null, EBX, 5)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new SubImmediateInstruction(null, EAX, 5);
+    Instruction SecondInstruction = new SubImmediateInstruction(null, EAX, 5);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
@@ -0,0 +1,82 @@
+package sml.instruction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Memory;
+import sml.Registers;
+
+import static sml.Instruction.NORMAL_PROGRAM_COUNTER_UPDATE;
+import static sml.Registers.Register.*;
+
+class VsubInstructionTest {
+  private Machine machine;
+  private Registers registers;
+  private Memory memory;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+    registers = machine.getRegisters();
+    memory = Memory.allocate(64);
+    machine.setMemory(memory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    memory.close();
+    machine = null;
+    registers = null;
+    memory = null;
+  }
+
+  @Test
+  void givenInstruction_whenInstantiating_thenOpcodeCorrect() {
+    Instruction instruction = new VsubInstruction(null, EAX, EBX, ECX, EDX);
+    Assertions.assertEquals("vsub", instruction.getOpcode());
+    Assertions.assertEquals("vsub EAX EBX ECX EDX", instruction.toString());
+  }
+
+  @Test
+  void givenRanges_whenExecuting_thenRangesAreSubtracted() {
+    // Ranges of 20 words at 0 (EBX), 20 (ECX) and 40 (EAX)
+    for (int i = 0; i < 20; i++) {
+      memory.store(i, i + 5);
+      memory.store(20 + i, i - 3);
+    }
+    registers.set(EBX, 0);
+    registers.set(ECX, 20);
+    registers.set(EAX, 40);
+    registers.set(EDX, 20);
+    Instruction instruction = new VsubInstruction(null, EAX, EBX, ECX, EDX);
+    Assertions.assertEquals(NORMAL_PROGRAM_COUNTER_UPDATE, instruction.execute(machine));
+    for (int i = 0; i < 20; i++)
+      Assertions.assertEquals((i + 5) - (i - 3), memory.load(40 + i));
+  }
+
+  @Test
+  void givenRangeOutOfBounds_whenExecuting_thenIndexOutOfBoundsException() {
+    registers.set(EDX, 65);
+    Instruction instruction = new VsubInstruction(null, EAX, EBX, ECX, EDX);
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> instruction.execute(machine));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenComparing_thenTrue() {
+    Instruction firstInstruction = new VsubInstruction(null, EAX, EBX, ECX, EDX);
+    Instruction SecondInstruction = new VsubInstruction(null, EAX, EBX, ECX, EDX);
+    Assertions.assertTrue(firstInstruction.equals(SecondInstruction));
+    Assertions.assertFalse(firstInstruction.equals(new VsubInstruction(null, EAX, ECX, EBX, EDX)));
+  }
+
+  @Test
+  void givenEquivalentInstructions_whenHashCodes_thenEquivalent() {
+    Instruction firstInstruction = new VsubInstruction(null, EAX, EBX, ECX, EDX);
+    Instruction SecondInstruction = new VsubInstruction(null, EAX, EBX, ECX, EDX);
+    Assertions.assertEquals(firstInstruction.hashCode(), SecondInstruction.hashCode());
+  }
+}
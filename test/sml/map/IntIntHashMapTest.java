@@ -0,0 +1,107 @@
+package sml.map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+class IntIntHashMapTest {
+  private IntIntHashMap map;
+
+  @BeforeEach
+  void setUp() {
+    map = new IntIntHashMap();
+  }
+
+  @AfterEach
+  void tearDown() {
+    map.close();
+    map = null;
+  }
+
+  /**
+   * Applies the same random puts and increments to a map and to a
+   * {@code HashMap}, and checks that they hold the same entries.
+   */
+  private static void assertSameAsHashMap(IntIntHashMap map) {
+    Map<Integer, Integer> expected = new HashMap<>();
+    Random random = new Random(11);
+    for (int i = 0; i < 20_000; i++) {
+      int key = random.nextInt(5000) - 2500;
+      int value = random.nextInt();
+      if (random.nextBoolean()) {
+        map.put(key, value);
+        expected.put(key, value);
+      } else {
+        Assertions.assertEquals(expected.merge(key, value, Integer::sum), map.addTo(key, value));
+      }
+    }
+    Assertions.assertEquals(expected.size(), map.size());
+    for (int key = -2600; key < 2600; key++) {
+      Assertions.assertEquals(expected.containsKey(key), map.containsKey(key));
+      Assertions.assertEquals(expected.getOrDefault(key, -1), map.get(key, -1));
+    }
+    Map<Integer, Integer> visited = new HashMap<>();
+    map.forEach(visited::put);
+    Assertions.assertEquals(expected, visited);
+  }
+
+  @Test
+  void givenRandomOperations_whenComparingWithHashMap_thenSameEntries() {
+    assertSameAsHashMap(map);
+  }
+
+  @Test
+  void givenOffHeapMap_whenComparingWithHashMap_thenSameEntries() {
+    try (IntIntHashMap offHeap = new IntIntHashMap(0, true)) {
+      assertSameAsHashMap(offHeap);
+      Assertions.assertTrue(offHeap.isOffHeap());
+    }
+  }
+
+  @Test
+  void givenKeyZero_whenPuttingAndGetting_thenKeptLikeAnyKey() {
+    Assertions.assertFalse(map.containsKey(0));
+    Assertions.assertEquals(5, map.addTo(0, 5));
+    Assertions.assertEquals(7, map.addTo(0, 2));
+    Assertions.assertTrue(map.containsKey(0));
+    Assertions.assertEquals(1, map.size());
+  }
+
+  @Test
+  void givenGrowingMap_whenInserting_thenResizesAreCountedAndCapacityStaysTwiceSize() {
+    for (int key = 1; key <= 1000; key++)
+      map.put(key, key);
+
+    Assertions.assertTrue(map.getResizes() > 0);
+    Assertions.assertTrue(map.getCapacity() >= 2 * map.size());
+    Assertions.assertEquals(Integer.bitCount(map.getCapacity()), 1);
+  }
+
+  @Test
+  void givenSizingHint_whenInsertingExpectedKeys_thenNoResize() {
+    try (IntIntHashMap sized = new IntIntHashMap(1000, false)) {
+      for (int key = 1; key <= 1000; key++)
+        sized.put(key, key);
+
+      Assertions.assertEquals(0, sized.getResizes());
+    }
+  }
+
+  @Test
+  void givenEntries_whenClearing_thenMapIsEmptyWithSameCapacity() {
+    for (int key = 0; key < 100; key++)
+      map.put(key, key);
+    int capacity = map.getCapacity();
+    map.clear();
+
+    Assertions.assertEquals(0, map.size());
+    Assertions.assertFalse(map.containsKey(0));
+    Assertions.assertFalse(map.containsKey(50));
+    Assertions.assertEquals(capacity, map.getCapacity());
+  }
+}
@@ -0,0 +1,149 @@
+package sml.optimiser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.ExecutionProfile;
+import sml.Machine;
+import sml.Registers;
+import sml.Translator;
+import sml.instruction.*;
+
+import static sml.Registers.Register.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class BlockLayoutTest {
+  private BlockLayout layout;
+  private Machine machine;
+
+  @BeforeEach
+  void setUp() {
+    layout = new BlockLayout();
+    machine = new Machine(new Registers());
+  }
+
+  @AfterEach
+  void tearDown() {
+    layout = null;
+    machine = null;
+  }
+
+  private void translate(String source) throws Exception {
+    Translator.forSource(source).readAndTranslate(machine.getLabels(), machine.getProgram());
+  }
+
+  /**
+   * Runs a machine from the given value of EAX and returns its output.
+   */
+  private static List<Integer> run(Machine machine, int eax) {
+    List<Integer> output = new ArrayList<>();
+    machine.setOutput(output::add);
+    Registers initialRegisters = new Registers();
+    initialRegisters.set(EAX, eax);
+    machine.execute(initialRegisters);
+    return output;
+  }
+
+  /**
+   * Profiles the machine on the given values of EAX, then reorders its program.
+   */
+  private Machine reorder(int... inputs) {
+    machine.setProfile(new ExecutionProfile(machine));
+    for (int eax : inputs)
+      run(machine, eax);
+    ExecutionProfile profile = machine.getProfile();
+    machine.setProfile(null);
+    return layout.reorder(machine, profile);
+  }
+
+  @Test
+  void givenMostlyTakenJump_whenReordering_thenItIsInvertedAndHotBlockFallsThrough() throws Exception {
+    translate("""
+            mov ECX 1
+        top: jnz EAX body
+            jmp done
+        body: add EDX EAX
+            sub EAX ECX
+            jmp top
+        done: out EDX
+        """);
+    Machine reordered = reorder(10);
+
+    Assertions.assertEquals(6, reordered.getProgram().size());
+    Assertions.assertInstanceOf(JzInstruction.class, reordered.getProgram().get(1));
+    Assertions.assertEquals(new AddInstruction(null, EDX, EAX), reordered.getProgram().get(2));
+    Assertions.assertEquals(new OutInstruction(null, EDX), reordered.getProgram().get(5).withLabel(null));
+    for (int eax = 0; eax < 5; eax++)
+      Assertions.assertEquals(run(machine, eax), run(reordered, eax));
+  }
+
+  @Test
+  void givenColdBlockInsideLoop_whenReordering_thenItIsMovedAfterTheLoop() throws Exception {
+    // Outputs how many of the values from EAX down to 1 are at least 500
+    translate("""
+            mov ECX 1
+            mov EDX 500
+        top: jz EAX done
+            jlt EAX EDX small
+            add EBX ECX
+        small: sub EAX ECX
+            jmp top
+        done: out EBX
+        """);
+    Machine reordered = reorder(600);
+
+    int cold = reordered.getProgram().indexOf(new AddInstruction(null, EBX, ECX));
+    int back = reordered.getProgram().indexOf(new JmpInstruction(null, "top"));
+    Assertions.assertTrue(back >= 0 && cold > back);
+    Assertions.assertInstanceOf(JgeInstruction.class, reordered.getProgram().get(3));
+    for (int eax : new int[] { 0, 1, 499, 500, 600 })
+      Assertions.assertEquals(run(machine, eax), run(reordered, eax));
+    Assertions.assertEquals(List.of(101), run(reordered, 600));
+  }
+
+  @Test
+  void givenLoopInstructionAndSubroutine_whenReordering_thenSameOutput() throws Exception {
+    translate("""
+            mov ECX 1
+            jz EAX skip
+        l1: call twice
+            loop EAX l1
+        skip: out EBX
+            jmp end
+        twice: add EBX ECX
+            add EBX ECX
+            ret
+        end: mov EDX 0
+        """);
+    Machine reordered = reorder(3, 0);
+
+    for (int eax = 0; eax < 5; eax++)
+      Assertions.assertEquals(run(machine, eax), run(reordered, eax));
+    Assertions.assertEquals(List.of(8), run(reordered, 4));
+  }
+
+  @Test
+  void givenProfileOfAnotherProgram_whenReordering_thenIllegalArgumentException() throws Exception {
+    translate("out EAX");
+    Machine other = new Machine(new Registers());
+    Translator.forSource("out EBX").readAndTranslate(other.getLabels(), other.getProgram());
+
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> layout.reorder(machine, new ExecutionProfile(other)));
+  }
+
+  @Test
+  void givenMissingLabel_whenReordering_thenProgramIsCopied() throws Exception {
+    translate("""
+            jnz EAX nowhere
+            out EAX
+        """);
+    Machine reordered = layout.reorder(machine, new ExecutionProfile(machine));
+
+    Assertions.assertEquals(machine.getProgram(), reordered.getProgram());
+  }
+}
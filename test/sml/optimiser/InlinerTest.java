@@ -0,0 +1,172 @@
+package sml.optimiser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.ExecutionProfile;
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+import sml.Translator;
+import sml.instruction.*;
+
+import static sml.Registers.Register.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class InlinerTest {
+  private Inliner inliner;
+  private Machine machine;
+
+  @BeforeEach
+  void setUp() {
+    inliner = new Inliner();
+    machine = new Machine(new Registers());
+  }
+
+  @AfterEach
+  void tearDown() {
+    inliner = null;
+    machine = null;
+  }
+
+  private void translate(String source) throws Exception {
+    Translator.forSource(source).readAndTranslate(machine.getLabels(), machine.getProgram());
+  }
+
+  /**
+   * Runs a machine from the given value of EAX and returns its output.
+   */
+  private static List<Integer> run(Machine machine, int eax) {
+    List<Integer> output = new ArrayList<>();
+    machine.setOutput(output::add);
+    Registers initialRegisters = new Registers();
+    initialRegisters.set(EAX, eax);
+    machine.execute(initialRegisters);
+    return output;
+  }
+
+  @Test
+  void givenSmallSubroutine_whenInlining_thenCallsAreReplacedByItsBody() throws Exception {
+    translate("""
+        call double
+        call double
+        jmp end
+        double: add EAX EAX
+        ret
+        end: out EAX
+        """);
+    Machine inlined = inliner.inline(machine);
+
+    Assertions.assertFalse(inlined.getProgram().stream().anyMatch(i -> i instanceof CallInstruction));
+    Assertions.assertEquals(new AddInstruction(null, EAX, EAX), inlined.getProgram().get(0));
+    Assertions.assertEquals(run(machine, 5), run(inlined, 5));
+    Assertions.assertEquals(List.of(20), run(inlined, 5));
+  }
+
+  @Test
+  void givenEarlyReturnAndInternalLoop_whenInlining_thenSameOutput() throws Exception {
+    // Outputs EAX! for 0 < EAX, nothing otherwise, then EAX
+    translate("""
+        call fact
+        out EAX
+        jmp end
+        fact: mov EBX 0
+        jge EBX EAX fact_1
+        mov EBX 1
+        mov ECX 0
+        add ECX EAX
+        f3: mul EBX ECX
+        loop ECX f3
+        out EBX
+        fact_1: ret
+        end: mov EDX 0
+        """);
+    Machine inlined = inliner.inline(machine);
+
+    Assertions.assertFalse(inlined.getProgram().stream().anyMatch(i -> i instanceof CallInstruction));
+    for (int eax = -2; eax <= 6; eax++)
+      Assertions.assertEquals(run(machine, eax), run(inlined, eax));
+  }
+
+  @Test
+  void givenLabelledCallAtEndOfProgram_whenInlining_thenJumpsToItAreKept() throws Exception {
+    translate("""
+        jmp last
+        f: mov EBX 7
+        ret
+        last: call f
+        """);
+    Machine inlined = inliner.inline(machine);
+
+    Assertions.assertEquals(run(machine, 0), run(inlined, 0));
+    Assertions.assertEquals(7, inlined.getRegisters().get(EBX));
+  }
+
+  @Test
+  void givenLargeSubroutine_whenInlining_thenOnlyHotCallsAreInlined() throws Exception {
+    translate("""
+        mov ECX 3
+        l: call body
+        loop ECX l
+        call body
+        jmp end
+        body: add EAX EAX
+        add EAX EAX
+        add EAX EAX
+        ret
+        end: out EAX
+        """);
+    inliner.setMaxSize(2);
+    ExecutionProfile profile = new ExecutionProfile(machine);
+    machine.setProfile(profile);
+    List<Integer> expected = run(machine, 1);
+    machine.setProfile(null);
+
+    Machine inlined = inliner.inline(machine, profile.hotterThan(2));
+
+    Assertions.assertEquals(1, inlined.getProgram().stream().filter(i -> i instanceof CallInstruction).count());
+    Assertions.assertEquals(expected, run(inlined, 1));
+  }
+
+  @Test
+  void givenSubroutineJumpingOutside_whenInlining_thenCallIsKept() throws Exception {
+    translate("""
+        call f
+        f: jnz EAX out
+        ret
+        out: out EAX
+        """);
+    Machine inlined = inliner.inline(machine);
+
+    Assertions.assertEquals(machine.getProgram(), inlined.getProgram());
+  }
+
+  @Test
+  void givenRecursiveSubroutine_whenInlining_thenInlinedOneLevelDeep() throws Exception {
+    // Counts EAX down to 0, outputting every value
+    translate("""
+        call down
+        jmp end
+        down: out EAX
+        jz EAX done
+        sub EAX 1
+        call down
+        done: ret
+        end: mov EBX 0
+        """);
+    Machine inlined = inliner.inline(machine);
+
+    Assertions.assertEquals(List.of(3, 2, 1, 0), run(machine, 3));
+    Assertions.assertEquals(run(machine, 3), run(inlined, 3));
+  }
+
+  @Test
+  void givenDuplicateLabels_whenLabellingTransformedProgram_thenThrows() {
+    List<Instruction> program = List.of(new MovInstruction("a", EAX, 1), new MovInstruction("a", EAX, 2));
+    Assertions.assertThrows(IllegalStateException.class, () -> Programs.withLabels(program, machine));
+  }
+}
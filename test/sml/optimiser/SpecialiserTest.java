@@ -0,0 +1,222 @@
+package sml.optimiser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+import sml.instruction.*;
+
+import static sml.Registers.Register.*;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+class SpecialiserTest {
+  private Specialiser specialiser;
+  private Machine machine;
+
+  @BeforeEach
+  void setUp() {
+    specialiser = new Specialiser();
+    machine = new Machine(new Registers());
+  }
+
+  @AfterEach
+  void tearDown() {
+    specialiser = null;
+    machine = null;
+  }
+
+  /**
+   * Appends an instruction to the program of the machine under test, and
+   * records its label if present.
+   */
+  private void add(Instruction instruction) {
+    try {
+      if (instruction.getLabel() != null) {
+        machine.getLabels().addLabel(instruction.getLabel(), machine.getProgram().size());
+      }
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    machine.getProgram().add(instruction);
+  }
+
+  /**
+   * Writes the program: "jnz EBX skip; mov ECX 5; add EAX ECX; skip: out EAX"
+   */
+  private void addBranchingProgram() {
+    add(new JnzInstruction(null, EBX, "skip"));
+    add(new MovInstruction(null, ECX, 5));
+    add(new AddInstruction(null, EAX, ECX));
+    add(new OutInstruction("skip", EAX));
+  }
+
+  @Test
+  void givenBranchKnownNotTaken_whenSpecialising_thenBranchIsRemoved() {
+    addBranchingProgram();
+    Machine residual = specialiser.specialise(machine, Map.of(EBX, 0));
+
+    Assertions.assertEquals(new MovInstruction(null, EBX, 0), residual.getProgram().get(0));
+    Assertions.assertFalse(residual.getProgram().stream().anyMatch(i -> i instanceof JnzInstruction));
+  }
+
+  @Test
+  void givenBranchKnownTaken_whenSpecialising_thenSkippedCodeIsRemoved() {
+    addBranchingProgram();
+    Machine residual = specialiser.specialise(machine, Map.of(EBX, 1));
+
+    // "mov EBX 1; jnz EBX skip; skip: out EAX"
+    Assertions.assertEquals(3, residual.getProgram().size());
+    Assertions.assertEquals(new OutInstruction(null, EAX), residual.getProgram().get(2));
+  }
+
+  @Test
+  void givenUnknownInputs_whenExecutingResidualProgram_thenSameFinalRegisters() {
+    addBranchingProgram();
+    Machine residual = specialiser.specialise(machine, Map.of(EBX, 0));
+
+    Registers initialRegisters = new Registers();
+    initialRegisters.set(EAX, 37);
+    machine.execute(initialRegisters);
+    residual.execute(initialRegisters);
+
+    Assertions.assertEquals(machine.getRegisters(), residual.getRegisters());
+  }
+
+  @Test
+  void givenKnownOperands_whenSpecialising_thenArithmeticIsFolded() {
+    add(new MovInstruction(null, EAX, 6));
+    add(new MulInstruction(null, EAX, EBX));
+    Machine residual = specialiser.specialise(machine, Map.of(EBX, 7));
+
+    Assertions.assertTrue(residual.getProgram().contains(new MovInstruction(null, EAX, 42)));
+    Assertions.assertFalse(residual.getProgram().stream().anyMatch(i -> i instanceof MulInstruction));
+  }
+
+  @Test
+  void givenOverwrittenStore_whenSpecialising_thenStoreIsRemoved() {
+    add(new MovInstruction(null, EAX, 1));
+    add(new MovInstruction(null, EAX, 2));
+    Machine residual = specialiser.specialise(machine, Map.of());
+
+    Assertions.assertEquals(1, residual.getProgram().size());
+    Assertions.assertEquals(new MovInstruction(null, EAX, 2), residual.getProgram().get(0));
+  }
+
+  @Test
+  void givenLoop_whenSpecialising_thenLoopIsKeptAndResultIsCorrect() {
+    // Factorial of EAX
+    add(new MovInstruction(null, EBX, 1));
+    add(new MovInstruction(null, ECX, 1));
+    add(new MulInstruction("f3", EBX, EAX));
+    add(new SubInstruction(null, EAX, ECX));
+    add(new JnzInstruction(null, EAX, "f3"));
+    Machine residual = specialiser.specialise(machine, Map.of(EAX, 5));
+
+    residual.execute();
+
+    Assertions.assertEquals(120, residual.getRegisters().get(EBX));
+    Assertions.assertEquals(0, residual.getRegisters().get(EAX));
+  }
+
+  @Test
+  void givenJzLoop_whenSpecialising_thenKnownInputIsKeptAndResultIsCorrect() {
+    // Factorial of EAX, testing for the end of the loop at its top
+    add(new MovInstruction(null, EBX, 1));
+    add(new MovInstruction(null, ECX, 1));
+    add(new JzInstruction("top", EAX, "done"));
+    add(new MulInstruction(null, EBX, EAX));
+    add(new SubInstruction(null, EAX, ECX));
+    add(new JmpInstruction(null, "top"));
+    add(new OutInstruction("done", EBX));
+    Machine residual = specialiser.specialise(machine, Map.of(EAX, 6));
+
+    residual.execute();
+
+    Assertions.assertEquals(new MovInstruction(null, EAX, 6), residual.getProgram().get(0));
+    Assertions.assertEquals(720, residual.getRegisters().get(EBX));
+  }
+
+  @Test
+  void givenLoopInstruction_whenSpecialising_thenCounterIsDecrementedAndResultIsCorrect() {
+    // Sums the numbers from EAX down to 1
+    add(new MovInstruction(null, EBX, 0));
+    add(new AddInstruction("l", EBX, EAX));
+    add(new LoopInstruction(null, EAX, "l"));
+    Machine residual = specialiser.specialise(machine, Map.of(EAX, 4));
+
+    residual.execute();
+
+    Assertions.assertEquals(10, residual.getRegisters().get(EBX));
+    Assertions.assertEquals(0, residual.getRegisters().get(EAX));
+  }
+
+  @Test
+  void givenBranchComparingKnownRegisters_whenSpecialising_thenBranchIsRemoved() {
+    add(new JltInstruction(null, EAX, EBX, "skip"));
+    add(new MovInstruction(null, ECX, 5));
+    add(new OutInstruction("skip", ECX));
+    Machine residual = specialiser.specialise(machine, Map.of(EAX, 2, EBX, 1));
+
+    Assertions.assertFalse(residual.getProgram().stream().anyMatch(i -> i instanceof JltInstruction));
+    residual.execute();
+    Assertions.assertEquals(5, residual.getRegisters().get(ECX));
+  }
+
+  @Test
+  void givenUnanalysableProgram_whenSpecialising_thenKnownInputsAreKept() {
+    add(new CallInstruction(null, "f"));
+    add(new JmpInstruction(null, "end"));
+    add(new AddInstruction("f", EBX, EAX));
+    add(new RetInstruction(null));
+    add(new OutInstruction("end", EBX));
+    Machine residual = specialiser.specialise(machine, Map.of(EAX, 6));
+
+    residual.execute();
+
+    Assertions.assertEquals(6, residual.getRegisters().get(EBX));
+  }
+
+  @Test
+  void givenMissingLabel_whenSpecialising_thenProgramIsKeptAfterKnownInputs() {
+    add(new JnzInstruction(null, EAX, "nowhere"));
+    add(new MovInstruction(null, EAX, 1));
+    Machine residual = specialiser.specialise(machine, Map.of(EAX, 1));
+
+    Assertions.assertEquals(new MovInstruction(null, EAX, 1), residual.getProgram().get(0));
+    Assertions.assertEquals(machine.getProgram(), residual.getProgram().subList(1, 3));
+  }
+
+  @Test
+  void givenKnownSourceOnly_whenSpecialising_thenIntegerOperandIsUsed() {
+    add(new MovInstruction(null, ECX, 5));
+    add(new AddInstruction(null, EAX, ECX));
+    add(new MovInstruction(null, ECX, 0));
+    Machine residual = specialiser.specialise(machine, Map.of());
+
+    // "add EAX 5; mov ECX 0": the first store to ECX is no longer read.
+    Assertions.assertEquals(2, residual.getProgram().size());
+    Assertions.assertEquals(new AddImmediateInstruction(null, EAX, 5), residual.getProgram().get(0));
+  }
+
+  @Test
+  void givenWideRegisters_whenSpecialising_thenOverflowingArithmeticIsNotFolded() {
+    machine.getRegisters().setWide(true);
+    add(new MulInstruction(null, EAX, EAX));
+    add(new MovInstruction(null, ECX, 7));
+    add(new MovInstruction(null, ECX, 1));
+    Machine residual = specialiser.specialise(machine, Map.of(EAX, 1 << 16));
+
+    // "mov EAX 65536; mul EAX EAX; mov ECX 1": 2^32 would wrap to 0 if folded
+    Assertions.assertTrue(residual.getRegisters().isWide());
+    Assertions.assertEquals(3, residual.getProgram().size());
+    Assertions.assertEquals(new MulInstruction(null, EAX, EAX), residual.getProgram().get(1));
+    residual.execute();
+    Assertions.assertEquals(BigInteger.ONE.shiftLeft(32), residual.getRegisters().getExact(EAX));
+  }
+}
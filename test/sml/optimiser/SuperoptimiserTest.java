@@ -0,0 +1,151 @@
+package sml.optimiser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+import sml.instruction.*;
+
+import static sml.Registers.Register.*;
+
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.List;
+
+class SuperoptimiserTest {
+  private Superoptimiser superoptimiser;
+
+  /**
+   * Temporary directory used to persist the cache.
+   */
+  @TempDir
+  Path temporaryDirectory;
+
+  @BeforeEach
+  void setUp() {
+    superoptimiser = new Superoptimiser();
+  }
+
+  @AfterEach
+  void tearDown() {
+    superoptimiser = null;
+  }
+
+  @Test
+  void givenConstantBlock_whenOptimising_thenFoldedIntoMoves() {
+    List<Instruction> block = List.of(
+        new MovInstruction(null, EAX, 66),
+        new MovInstruction(null, EBX, 10),
+        new AddInstruction(null, EAX, EAX),
+        new MulInstruction(null, EAX, EBX));
+
+    Assertions.assertEquals(
+        List.of(new MovInstruction(null, EAX, 1320), new MovInstruction(null, EBX, 10)),
+        superoptimiser.optimiseBlock(block));
+  }
+
+  @Test
+  void givenIdentityBlock_whenOptimising_thenBlockIsRemoved() {
+    List<Instruction> block = List.of(
+        new AddInstruction(null, EAX, EBX),
+        new SubInstruction(null, EAX, EBX));
+
+    Assertions.assertTrue(superoptimiser.optimiseBlock(block).isEmpty());
+  }
+
+  @Test
+  void givenLabelledIdentityBlock_whenOptimising_thenBlockIsKept() {
+    List<Instruction> block = List.of(
+        new AddInstruction("f3", EAX, EBX),
+        new SubInstruction(null, EAX, EBX));
+
+    Assertions.assertEquals(block, superoptimiser.optimiseBlock(block));
+  }
+
+  @Test
+  void givenDivisionWithUnusedResult_whenOptimising_thenDivisionIsKept() {
+    // The division fails when EBX is 0, so it cannot be removed
+    List<Instruction> block = List.of(
+        new DivInstruction(null, EAX, EBX),
+        new MovInstruction(null, EAX, 5));
+
+    Assertions.assertEquals(block, superoptimiser.optimiseBlock(block));
+  }
+
+  @Test
+  void givenProgram_whenOptimising_thenLabelsAndResultArePreserved() {
+    Machine machine = new Machine(new Registers());
+    machine.getProgram().add(new MovInstruction(null, ECX, 3));
+    machine.getProgram().add(new MovInstruction("loop", EBX, 2));
+    machine.getProgram().add(new AddInstruction(null, EAX, EBX));
+    machine.getProgram().add(new SubInstruction(null, EAX, EBX));
+    machine.getProgram().add(new MovInstruction(null, EBX, 1));
+    machine.getProgram().add(new SubInstruction(null, ECX, EBX));
+    machine.getProgram().add(new JnzInstruction(null, ECX, "loop"));
+    machine.getProgram().add(new OutInstruction(null, EAX));
+    try {
+      machine.getLabels().addLabel("loop", 1);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+
+    Machine optimised = superoptimiser.optimise(machine);
+    machine.execute();
+    optimised.execute();
+
+    Assertions.assertTrue(optimised.getProgram().size() < machine.getProgram().size());
+    Assertions.assertEquals(machine.getRegisters(), optimised.getRegisters());
+  }
+
+  @Test
+  void givenPersistedCache_whenOptimisingRenamedBlock_thenNoSearchIsNeeded() throws Exception {
+    Path cacheFile = temporaryDirectory.resolve("superoptimiser.properties");
+    Superoptimiser first = new Superoptimiser(cacheFile);
+    first.optimiseBlock(List.of(
+        new AddInstruction(null, EAX, EBX),
+        new SubInstruction(null, EAX, EBX),
+        new MovInstruction(null, EAX, 4)));
+    first.saveCache();
+
+    // Forbids any search: the result has to come from the cache
+    Superoptimiser second = new Superoptimiser(cacheFile);
+    second.setSearchBudget(0);
+    List<Instruction> optimised = second.optimiseBlock(List.of(
+        new AddInstruction(null, ECX, EDX),
+        new SubInstruction(null, ECX, EDX),
+        new MovInstruction(null, ECX, 4)));
+
+    Assertions.assertEquals(List.of(new MovInstruction(null, ECX, 4)), optimised);
+  }
+
+  @Test
+  void givenRepeatedImmediateAdditions_whenOptimising_thenSingleAdditionIsFound() {
+    List<Instruction> block = List.of(
+        new AddImmediateInstruction(null, EAX, 3),
+        new AddImmediateInstruction(null, EAX, 3));
+
+    Assertions.assertEquals(List.of(new AddImmediateInstruction(null, EAX, 6)),
+        superoptimiser.optimiseBlock(block));
+  }
+
+  @Test
+  void givenWideRegisters_whenOptimising_thenProgramIsUnchanged() {
+    Machine machine = new Machine(new Registers());
+    machine.getRegisters().setWide(true);
+    machine.getProgram().add(new MovInstruction(null, EAX, 1 << 16));
+    machine.getProgram().add(new MulInstruction(null, EAX, EAX));
+
+    // With 32-bit arithmetic, the block is equivalent to "mov EAX 0"
+    Machine optimised = superoptimiser.optimise(machine);
+
+    Assertions.assertEquals(machine.getProgram(), optimised.getProgram());
+    Assertions.assertTrue(optimised.getRegisters().isWide());
+    optimised.execute();
+    Assertions.assertEquals(BigInteger.ONE.shiftLeft(32), optimised.getRegisters().getExact(EAX));
+  }
+}
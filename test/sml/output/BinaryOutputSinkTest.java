@@ -0,0 +1,63 @@
+package sml.output;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+class BinaryOutputSinkTest {
+  private Path file;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    file = Files.createTempFile("sml", ".bin");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+    file = null;
+  }
+
+  private IntBuffer readBack() throws IOException {
+    return ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+  }
+
+  @Test
+  void givenValues_whenClosing_thenFileHoldsLittleEndianIntegers() throws IOException {
+    try (BinaryOutputSink sink = BinaryOutputSink.open(file)) {
+      sink.accept(1);
+      sink.accept(-1);
+      sink.accept(Integer.MIN_VALUE);
+    }
+    IntBuffer values = readBack();
+
+    Assertions.assertEquals(3, values.remaining());
+    Assertions.assertEquals(1, values.get(0));
+    Assertions.assertEquals(-1, values.get(1));
+    Assertions.assertEquals(Integer.MIN_VALUE, values.get(2));
+    Assertions.assertArrayEquals(new byte[] {1, 0, 0, 0}, Arrays.copyOf(Files.readAllBytes(file), 4));
+  }
+
+  @Test
+  void givenMoreValuesThanBuffer_whenClosing_thenEveryValueIsWritten() throws IOException {
+    int count = 100_000;
+    try (BinaryOutputSink sink = BinaryOutputSink.open(file)) {
+      for (int value = 0; value < count; value++)
+        sink.accept(value);
+    }
+    IntBuffer values = readBack();
+
+    Assertions.assertEquals(count, values.remaining());
+    for (int value = 0; value < count; value++)
+      Assertions.assertEquals(value, values.get(value));
+  }
+}
@@ -0,0 +1,84 @@
+package sml.output;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.OutputSink;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+class IntBufferOutputSinkTest {
+  private IntBufferOutputSink sink;
+
+  @BeforeEach
+  void setUp() {
+    sink = new IntBufferOutputSink(1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    sink = null;
+  }
+
+  @Test
+  void givenMoreValuesThanCapacity_whenWriting_thenBufferGrows() {
+    for (int value = 0; value < 100; value++)
+      sink.accept(value);
+
+    Assertions.assertEquals(100, sink.size());
+    Assertions.assertEquals(99, sink.get(99));
+    Assertions.assertEquals(100, sink.toArray().length);
+  }
+
+  @Test
+  void givenIndexPastSize_whenGetting_thenThrowsIndexOutOfBounds() {
+    sink.accept(5);
+
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> sink.get(1));
+  }
+
+  @Test
+  void givenValues_whenWritingToAnotherSink_thenValuesAreCopiedInOrder() {
+    sink.accept(3);
+    sink.accept(-4);
+    List<Integer> copied = new ArrayList<>();
+    sink.writeTo(copied::add);
+
+    Assertions.assertEquals(List.of(3, -4), copied);
+  }
+
+  @Test
+  void givenValues_whenClearing_thenBufferIsEmpty() {
+    sink.accept(3);
+    sink.clear();
+
+    Assertions.assertEquals(0, sink.size());
+    Assertions.assertArrayEquals(new int[0], sink.toArray());
+  }
+
+  @Test
+  void givenWideValue_whenWritingToAnotherSink_thenExactValueIsCopied() {
+    BigInteger wide = BigInteger.ONE.shiftLeft(40);
+    sink.accept(3);
+    sink.accept(wide);
+    List<Object> copied = new ArrayList<>();
+    sink.writeTo(new OutputSink() {
+      @Override
+      public void accept(int value) {
+        copied.add(value);
+      }
+
+      @Override
+      public void accept(BigInteger value) {
+        copied.add(value);
+      }
+    });
+
+    Assertions.assertEquals(List.of(3, wide), copied);
+    Assertions.assertEquals(0, sink.get(1));
+  }
+}
@@ -0,0 +1,72 @@
+package sml.output;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.math.BigInteger;
+
+class TextOutputSinkTest {
+  private ByteArrayOutputStream bytes;
+  private TextOutputSink sink;
+
+  @BeforeEach
+  void setUp() {
+    bytes = new ByteArrayOutputStream();
+    sink = new TextOutputSink(bytes, 16);
+  }
+
+  @AfterEach
+  void tearDown() {
+    bytes = null;
+    sink = null;
+  }
+
+  @Test
+  void givenValues_whenFlushing_thenSameTextAsPrintln() {
+    int[] values = {0, 7, -7, 10, 1000000, Integer.MAX_VALUE, Integer.MIN_VALUE};
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    PrintStream print = new PrintStream(expected);
+    for (int value : values) {
+      sink.accept(value);
+      print.println(value);
+    }
+    sink.flush();
+    print.flush();
+
+    Assertions.assertEquals(expected.toString(), bytes.toString());
+  }
+
+  @Test
+  void givenUnflushedValue_whenNotFlushing_thenNothingIsWritten() {
+    sink.accept(42);
+
+    Assertions.assertEquals(0, bytes.size());
+  }
+
+  @Test
+  void givenMoreValuesThanBuffer_whenFlushing_thenEveryValueIsWritten() {
+    StringBuilder expected = new StringBuilder();
+    for (int value = 0; value < 1000; value++) {
+      sink.accept(value);
+      expected.append(value).append(System.lineSeparator());
+    }
+    sink.flush();
+
+    Assertions.assertEquals(expected.toString(), bytes.toString());
+  }
+
+  @Test
+  void givenWideValues_whenFlushing_thenEveryDigitIsWritten() {
+    BigInteger wide = BigInteger.TWO.pow(100).negate();
+    sink.accept(wide);
+    sink.accept(7);
+    sink.flush();
+
+    String separator = System.lineSeparator();
+    Assertions.assertEquals(wide + separator + "7" + separator, bytes.toString());
+  }
+}
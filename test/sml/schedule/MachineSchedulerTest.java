@@ -0,0 +1,182 @@
+package sml.schedule;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Machine;
+import sml.Registers;
+import sml.Translator;
+
+import static sml.Registers.Register.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class MachineSchedulerTest {
+  private static final String FACTORIAL = """
+          mov EBX 1
+          mov ECX 1
+      f3: mul EBX EAX
+          sub EAX ECX
+          jnz EAX f3
+      """;
+
+  /**
+   * Counts in EAX forever.
+   */
+  private static final String FOREVER = """
+          mov ECX 1
+      l1: add EAX ECX
+          jnz ECX l1
+      """;
+
+  private MachineScheduler scheduler;
+
+  @BeforeEach
+  void setUp() {
+    scheduler = new MachineScheduler(1, 100);
+  }
+
+  @AfterEach
+  void tearDown() {
+    scheduler.close();
+    scheduler = null;
+  }
+
+  private static Machine machine(String source) throws Exception {
+    Machine machine = new Machine(new Registers());
+    Translator.forSource(source).readAndTranslate(machine.getLabels(), machine.getProgram());
+    return machine;
+  }
+
+  @Test
+  void givenInitialRegisters_whenScheduling_thenProgramCompletes() throws Exception {
+    Registers initialRegisters = new Registers();
+    initialRegisters.set(EAX, 5);
+
+    Machine machine = scheduler.submit(machine(FACTORIAL), initialRegisters, 1).get(5, TimeUnit.SECONDS);
+
+    Assertions.assertEquals(120, machine.getRegisters().get(EBX));
+  }
+
+  @Test
+  void givenLongRunningPrograms_whenSchedulingShortOne_thenShortOneIsNotBlocked() throws Exception {
+    CompletableFuture<Machine> first = scheduler.submit(machine(FOREVER), 1);
+    CompletableFuture<Machine> second = scheduler.submit(machine(FOREVER), 1);
+    Registers initialRegisters = new Registers();
+    initialRegisters.set(EAX, 10);
+
+    Machine machine = scheduler.submit(machine(FACTORIAL), initialRegisters, 1).get(5, TimeUnit.SECONDS);
+
+    Assertions.assertEquals(3628800, machine.getRegisters().get(EBX));
+    first.cancel(false);
+    second.cancel(false);
+  }
+
+  @Test
+  void givenPriorities_whenScheduling_thenInstructionsAreSharedInProportion() throws Exception {
+    Machine low = machine(FOREVER);
+    Machine high = machine(FOREVER);
+    CompletableFuture<Machine> lowResult = scheduler.submit(low, 1);
+    CompletableFuture<Machine> highResult = scheduler.submit(high, 3);
+
+    Thread.sleep(200);
+    lowResult.cancel(false);
+    highResult.cancel(false);
+    scheduler.close();
+
+    double ratio = (double) high.getRegisters().get(EAX) / low.getRegisters().get(EAX);
+    Assertions.assertEquals(3.0, ratio, 0.5);
+  }
+
+  @Test
+  void givenFailingProgram_whenScheduling_thenResultCompletesExceptionally() throws Exception {
+    CompletableFuture<Machine> result = scheduler.submit(machine("div EAX EBX"), 1);
+
+    Assertions.assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void givenConcurrentSubmissions_whenClosing_thenEveryAcceptedMachineCompletes() throws Exception {
+    for (int round = 0; round < 20; round++) {
+      MachineScheduler closing = new MachineScheduler(2, 100);
+      Queue<CompletableFuture<Machine>> accepted = new ConcurrentLinkedQueue<>();
+      CountDownLatch submitting = new CountDownLatch(4);
+      List<Thread> submitters = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        submitters.add(Thread.ofPlatform().start(() -> {
+          try {
+            // Keeps submitting until the scheduler is closed
+            for (int j = 0; j < 100_000; j++) {
+              accepted.add(closing.submit(machine("mov EAX 1"), 1));
+              if (j == 0)
+                submitting.countDown();
+            }
+          } catch (RejectedExecutionException e) {
+            // Closed while submitting
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+        }));
+      }
+
+      submitting.await();
+      closing.close();
+      for (Thread submitter : submitters)
+        submitter.join();
+
+      for (CompletableFuture<Machine> future : accepted)
+        Assertions.assertEquals(1, future.get(5, TimeUnit.SECONDS).getRegisters().get(EAX));
+      Assertions.assertEquals(0, closing.getPending());
+    }
+  }
+
+  @Test
+  void givenClosedScheduler_whenSubmitting_thenMachineIsLeftAsItWas() throws Exception {
+    Machine machine = machine(FACTORIAL);
+    Registers initialRegisters = new Registers();
+    initialRegisters.set(EAX, 5);
+    machine.execute(initialRegisters);
+    scheduler.close();
+
+    Assertions.assertThrows(RejectedExecutionException.class, () -> scheduler.submit(machine, 1));
+    Assertions.assertThrows(RejectedExecutionException.class,
+        () -> scheduler.submit(machine, new Registers(), 1));
+    Assertions.assertEquals(120, machine.getRegisters().get(EBX));
+    Assertions.assertEquals(5, machine.getProgramCounter());
+  }
+
+  @Test
+  void givenInvalidPriority_whenSubmitting_thenMachineIsLeftAsItWas() throws Exception {
+    Machine machine = machine(FACTORIAL);
+    Registers initialRegisters = new Registers();
+    initialRegisters.set(EAX, 5);
+    machine.execute(initialRegisters);
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> scheduler.submit(machine, 0));
+    Assertions.assertEquals(120, machine.getRegisters().get(EBX));
+    Assertions.assertEquals(0, scheduler.getPending());
+  }
+
+  @Test
+  void givenProgramThatNeverHalts_whenClosingIsInterrupted_thenMachineIsCancelled() throws Exception {
+    MachineScheduler closing = new MachineScheduler(1, 100);
+    CompletableFuture<Machine> forever = closing.submit(machine(FOREVER), 1);
+    Thread closer = Thread.ofPlatform().start(closing::close);
+
+    closer.interrupt();
+    closer.join(10_000);
+
+    Assertions.assertFalse(closer.isAlive());
+    Assertions.assertTrue(forever.isCancelled());
+    Assertions.assertEquals(0, closing.getPending());
+  }
+}
@@ -0,0 +1,109 @@
+package sml.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+class ExecutionServerTest {
+  private static final String FACTORIAL = """
+          mov EBX 1
+          mov ECX 1
+      f3: mul EBX EAX
+          sub EAX ECX
+          jnz EAX f3
+          out EBX
+      """;
+
+  private ExecutionServer server;
+  private HttpClient client;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new ExecutionServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2, 8,
+        Duration.ofMillis(200));
+    server.start();
+    client = HttpClient.newHttpClient();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.close();
+    server = null;
+    client = null;
+  }
+
+  private HttpResponse<String> send(String path, String body) throws Exception {
+    URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    HttpRequest request = (body == null)
+        ? HttpRequest.newBuilder(uri).GET().build()
+        : HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  @Test
+  void givenProgram_whenPostingToRun_thenRegistersAndOutputAreReturned() throws Exception {
+    HttpResponse<String> response = send("/run?EAX=6", FACTORIAL);
+
+    Assertions.assertEquals(200, response.statusCode());
+    Assertions.assertTrue(response.body().contains("\"EBX\":720"));
+    Assertions.assertTrue(response.body().contains("\"output\":[720]"));
+    Assertions.assertTrue(response.body().contains("\"error\":null"));
+  }
+
+  @Test
+  void givenNonTerminatingProgram_whenPostingToRun_thenStoppedAtTimeout() throws Exception {
+    HttpResponse<String> response = send("/run", "mov EAX 1\nl1: jnz EAX l1");
+
+    Assertions.assertEquals(200, response.statusCode());
+    Assertions.assertTrue(response.body().contains("DEADLINE"));
+  }
+
+  @Test
+  void givenJoinOnNonTerminatingChild_whenPostingToRun_thenStoppedAtTimeout() throws Exception {
+    HttpResponse<String> response = send("/run", """
+              fork EAX spin
+              join EAX EBX
+              jmp end
+        spin: jmp spin
+         end: mov ECX 1
+        """);
+
+    Assertions.assertEquals(200, response.statusCode());
+    Assertions.assertTrue(response.body().contains("DEADLINE"));
+  }
+
+  @Test
+  void givenUntranslatableProgram_whenPostingToRun_thenTranslationErrorIsReturned() throws Exception {
+    HttpResponse<String> response = send("/run", "foo EAX\nmov EAX 3");
+
+    Assertions.assertEquals(200, response.statusCode());
+    Assertions.assertTrue(response.body().contains("Unknown instruction: foo"));
+  }
+
+  @Test
+  void givenInvalidRegister_whenPostingToRun_thenBadRequest() throws Exception {
+    Assertions.assertEquals(400, send("/run?EZZ=1", FACTORIAL).statusCode());
+  }
+
+  @Test
+  void givenRequestsServed_whenGettingStats_thenCountsAndPercentilesArePublished() throws Exception {
+    for (int i = 0; i < 5; i++)
+      send("/run?EAX=5", FACTORIAL);
+
+    HttpResponse<String> response = send("/stats", null);
+
+    Assertions.assertEquals(200, response.statusCode());
+    Assertions.assertTrue(response.body().contains("\"requests\":5"));
+    Assertions.assertTrue(response.body().contains("\"p99\":"));
+    Assertions.assertEquals(5, server.getLatencies().getCount());
+  }
+}
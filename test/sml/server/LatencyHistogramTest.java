@@ -0,0 +1,47 @@
+package sml.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+  private LatencyHistogram histogram;
+
+  @BeforeEach
+  void setUp() {
+    histogram = new LatencyHistogram();
+  }
+
+  @AfterEach
+  void tearDown() {
+    histogram = null;
+  }
+
+  @Test
+  void givenNoLatency_whenComputingPercentile_thenZero() {
+    Assertions.assertEquals(0, histogram.getPercentile(99));
+    Assertions.assertEquals(0, histogram.getMean());
+  }
+
+  @Test
+  void givenUniformLatencies_whenComputingPercentiles_thenWithinRelativeError() {
+    for (long nanos = 1; nanos <= 1_000_000; nanos++)
+      histogram.record(nanos);
+
+    Assertions.assertEquals(1_000_000, histogram.getCount());
+    Assertions.assertEquals(500_000, histogram.getPercentile(50), 500_000 / 16.0);
+    Assertions.assertEquals(990_000, histogram.getPercentile(99), 990_000 / 16.0);
+    Assertions.assertTrue(histogram.getPercentile(100) >= 1_000_000);
+    Assertions.assertEquals(500_000.5, histogram.getMean(), 1e-6);
+  }
+
+  @Test
+  void givenValue_whenBucketing_thenUpperBoundIsAtLeastValue() {
+    for (long value : new long[] { 0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789, Long.MAX_VALUE }) {
+      long upperBound = LatencyHistogram.upperBound(LatencyHistogram.bucket(value));
+      Assertions.assertTrue(upperBound >= value);
+      Assertions.assertTrue(upperBound - value <= value / 16);
+    }
+  }
+}
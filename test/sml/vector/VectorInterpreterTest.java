@@ -0,0 +1,175 @@
+package sml.vector;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sml.Instruction;
+import sml.Machine;
+import sml.Registers;
+import sml.instruction.*;
+
+import static sml.Registers.Register.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class VectorInterpreterTest {
+  private Machine machine;
+
+  @BeforeEach
+  void setUp() {
+    machine = new Machine(new Registers());
+  }
+
+  @AfterEach
+  void tearDown() {
+    machine = null;
+  }
+
+  /**
+   * Appends an instruction to the program of the machine under test, and
+   * records its label if present.
+   */
+  private void add(Instruction instruction) {
+    try {
+      if (instruction.getLabel() != null) {
+        machine.getLabels().addLabel(instruction.getLabel(), machine.getProgram().size());
+      }
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+    }
+    machine.getProgram().add(instruction);
+  }
+
+  /**
+   * Writes a program computing the factorial of EAX, then dividing EBX by EDX.
+   */
+  private void addFactorialProgram() {
+    add(new MovInstruction(null, EBX, 1));
+    add(new MovInstruction(null, ECX, 1));
+    add(new MulInstruction("f3", EBX, EAX));
+    add(new SubInstruction(null, EAX, ECX));
+    add(new JnzInstruction(null, EAX, "f3"));
+    add(new OutInstruction(null, EBX));
+    add(new DivInstruction(null, EBX, EDX));
+  }
+
+  @Test
+  void givenDivergentLanes_whenRunning_thenEveryLaneMatchesTheMachine() {
+    addFactorialProgram();
+    List<Registers> inputs = new ArrayList<>();
+    for (int lane = 0; lane < 37; lane++) {
+      Registers registers = new Registers();
+      registers.set(EAX, lane % 12 + 1);
+      registers.set(EDX, lane % 5 + 1);
+      inputs.add(registers);
+    }
+
+    LaneResults results = new VectorInterpreter(machine).run(inputs);
+
+    for (int lane = 0; lane < inputs.size(); lane++) {
+      List<Integer> output = new ArrayList<>();
+      machine.setOutput(output::add);
+      machine.execute(inputs.get(lane));
+      Assertions.assertEquals(LaneResults.Status.HALTED, results.getStatus(lane));
+      Assertions.assertEquals(machine.getRegisters(), results.getRegisters(lane));
+      Assertions.assertArrayEquals(output.stream().mapToInt(Integer::intValue).toArray(),
+          results.getOutput(lane));
+    }
+  }
+
+  @Test
+  void givenLaneDividingByZero_whenRunning_thenOnlyThatLaneFails() {
+    addFactorialProgram();
+    Registers failing = new Registers();
+    failing.set(EAX, 3);
+    Registers passing = new Registers();
+    passing.set(EAX, 3);
+    passing.set(EDX, 2);
+
+    LaneResults results = new VectorInterpreter(machine).run(List.of(failing, passing));
+
+    Assertions.assertEquals(LaneResults.Status.FAILED, results.getStatus(0));
+    Assertions.assertEquals(LaneResults.Status.HALTED, results.getStatus(1));
+    Assertions.assertEquals(3, results.get(1, EBX));
+    Assertions.assertArrayEquals(new int[] { 6 }, results.getOutput(0));
+  }
+
+  @Test
+  void givenNonTerminatingLane_whenStepLimitReached_thenLaneIsUnfinished() {
+    add(new JnzInstruction("loop", EAX, "loop"));
+    add(new MovInstruction(null, EBX, 1));
+    Registers looping = new Registers();
+    looping.set(EAX, 1);
+
+    VectorInterpreter interpreter = new VectorInterpreter(machine);
+    interpreter.setMaxSteps(1000);
+    LaneResults results = interpreter.run(List.of(looping, new Registers()));
+
+    Assertions.assertEquals(LaneResults.Status.UNFINISHED, results.getStatus(0));
+    Assertions.assertEquals(LaneResults.Status.UNFINISHED, results.getStatus(1));
+  }
+
+  @Test
+  void givenUnknownLabel_whenCreating_thenIllegalArgument() {
+    add(new JnzInstruction(null, EAX, "nowhere"));
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new VectorInterpreter(machine));
+  }
+
+  @Test
+  void givenImmediateOperands_whenRunning_thenEveryLaneMatchesTheMachine() {
+    add(new MulImmediateInstruction(null, EAX, 3));
+    add(new AddImmediateInstruction(null, EAX, -4));
+    add(new DivImmediateInstruction(null, EAX, 2));
+    add(new SubImmediateInstruction(null, EAX, 1));
+    List<Registers> inputs = new ArrayList<>();
+    for (int lane = 0; lane < 19; lane++) {
+      Registers registers = new Registers();
+      registers.set(EAX, lane - 9);
+      inputs.add(registers);
+    }
+
+    LaneResults results = new VectorInterpreter(machine).run(inputs);
+
+    for (int lane = 0; lane < inputs.size(); lane++) {
+      machine.execute(inputs.get(lane));
+      Assertions.assertEquals(machine.getRegisters(), results.getRegisters(lane));
+    }
+  }
+
+  @Test
+  void givenCompareAndLoopJumps_whenRunning_thenEveryLaneMatchesTheMachine() {
+    // EBX = EAX! for 0 < EAX, EBX = -1 otherwise
+    add(new MovInstruction(null, EBX, 1));
+    add(new JltInstruction(null, EBX, EAX, "f3"));
+    add(new JgeInstruction(null, EAX, EBX, "f4"));
+    add(new MovInstruction(null, EBX, -1));
+    add(new JmpInstruction(null, "f5"));
+    add(new MulInstruction("f3", EBX, EAX));
+    add(new LoopInstruction(null, EAX, "f3"));
+    add(new JzInstruction(null, EAX, "f5"));
+    add(new OutInstruction("f4", EBX));
+    add(new OutInstruction("f5", EAX));
+    List<Registers> inputs = new ArrayList<>();
+    for (int lane = 0; lane < 21; lane++) {
+      Registers registers = new Registers();
+      registers.set(EAX, lane - 4);
+      inputs.add(registers);
+    }
+
+    LaneResults results = new VectorInterpreter(machine).run(inputs);
+
+    for (int lane = 0; lane < inputs.size(); lane++) {
+      List<Integer> output = new ArrayList<>();
+      machine.setOutput(output::add);
+      machine.execute(inputs.get(lane));
+      Assertions.assertEquals(LaneResults.Status.HALTED, results.getStatus(lane));
+      Assertions.assertEquals(machine.getRegisters(), results.getRegisters(lane));
+      Assertions.assertArrayEquals(output.stream().mapToInt(Integer::intValue).toArray(),
+          results.getOutput(lane));
+    }
+  }
+}
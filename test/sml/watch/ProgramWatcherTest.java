@@ -0,0 +1,105 @@
+package sml.watch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sml.TranslationException;
+import sml.batch.BatchResult;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class ProgramWatcherTest {
+  @TempDir
+  Path temporaryDirectory;
+
+  private Path first;
+  private Path second;
+  private List<BatchResult> results;
+  private ProgramWatcher watcher;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    first = temporaryDirectory.resolve("first.sml");
+    second = temporaryDirectory.resolve("second.sml");
+    Files.writeString(first, "mov EAX 1\nout EAX\n");
+    Files.writeString(second, "mov EAX 2\nout EAX\n");
+    results = new ArrayList<>();
+    watcher = new ProgramWatcher(List.of(first, second), (file, result) -> results.add(result));
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    watcher.close();
+    watcher = null;
+    results = null;
+  }
+
+  /**
+   * Polls until a change is picked up, since file system events may be
+   * delivered with a delay.
+   */
+  private List<Path> pollUntilChange() throws Exception {
+    for (int attempt = 0; attempt < 20; attempt++) {
+      List<Path> executed = watcher.poll(Duration.ofMillis(500));
+      if (!executed.isEmpty())
+        return executed;
+    }
+    return List.of();
+  }
+
+  @Test
+  void givenPrograms_whenRunningAllTwice_thenTranslatedOnce() {
+    watcher.runAll();
+    watcher.runAll();
+
+    Assertions.assertEquals(4, results.size());
+    Assertions.assertEquals(2, watcher.getTranslated());
+    Assertions.assertArrayEquals(new int[] { 2 }, results.get(3).output());
+  }
+
+  @Test
+  void givenModifiedFile_whenPolling_thenOnlyThatProgramIsRunAgain() throws Exception {
+    watcher.runAll();
+    results.clear();
+
+    Files.writeString(first, "mov EAX 3\nout EAX\n");
+    List<Path> executed = pollUntilChange();
+
+    Assertions.assertEquals(List.of(first.toAbsolutePath().normalize()), executed);
+    Assertions.assertEquals(1, results.size());
+    Assertions.assertArrayEquals(new int[] { 3 }, results.get(0).output());
+    Assertions.assertEquals(3, watcher.getTranslated());
+  }
+
+  @Test
+  void givenUntranslatableOrMissingFile_whenRunningAll_thenFailuresAreReported() throws Exception {
+    Files.writeString(first, "foo EAX\nmov EAX 3\n");
+    Files.delete(second);
+
+    watcher.runAll();
+
+    Assertions.assertEquals(2, results.size());
+    Assertions.assertInstanceOf(TranslationException.class, results.get(0).error());
+    Assertions.assertInstanceOf(NoSuchFileException.class, results.get(1).error());
+  }
+
+  @Test
+  void givenFileSavedUnchanged_whenPolling_thenNotRunAgain() throws Exception {
+    watcher.runAll();
+    results.clear();
+
+    Files.writeString(second, "mov EAX 2\nout EAX\n");
+    watcher.poll(Duration.ofSeconds(2));
+
+    Assertions.assertTrue(results.isEmpty());
+    Assertions.assertEquals(2, watcher.getTranslated());
+  }
+}